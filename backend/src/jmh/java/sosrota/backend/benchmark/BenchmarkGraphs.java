@@ -0,0 +1,181 @@
+package sosrota.backend.benchmark;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import sosrota.backend.entity.Aresta;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.GrafoVersao;
+import sosrota.backend.entity.VelocidadeAresta;
+import sosrota.backend.repository.ArestaRepository;
+import sosrota.backend.repository.BairroRepository;
+import sosrota.backend.repository.GrafoVersaoRepository;
+import sosrota.backend.repository.VelocidadeArestaRepository;
+import sosrota.backend.service.DijsktraService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Grafos usados nos benchmarks:
+ * "csv" (mapa distribuído com a aplicação: bairros.csv e ruas_conexoes.csv),
+ * "grid-N" (malha quadrada com ~N bairros) e "random-N" (N bairros conexos com grau médio ~6).
+ * [Estrutura de Dados II] Grafos sintéticos para medir o Dijkstra em escala.
+ */
+final class BenchmarkGraphs {
+
+    private BenchmarkGraphs() {
+    }
+
+    static final class Graph {
+        final List<Bairro> bairros = new ArrayList<>();
+        final List<Aresta> arestas = new ArrayList<>();
+
+        int nodeId(int index) {
+            return bairros.get(index).getId();
+        }
+    }
+
+    /**
+     * Monta o grafo descrito por "csv", "grid-N" ou "random-N".
+     *
+     * @param spec Descrição do grafo
+     * @param seed Semente dos pesos e ligações aleatórias
+     * @return Bairros e arestas
+     */
+    static Graph build(String spec, long seed) {
+        if ("csv".equals(spec)) {
+            return csv();
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            throw new IllegalArgumentException("Grafo inválido: " + spec);
+        }
+        int n = Integer.parseInt(spec.substring(dash + 1));
+        switch (spec.substring(0, dash)) {
+            case "grid": return grid(n, new Random(seed));
+            case "random": return random(n, new Random(seed));
+            default: throw new IllegalArgumentException("Grafo inválido: " + spec);
+        }
+    }
+
+    /**
+     * Serviço de rotas carregado com o grafo (Dijkstra sob demanda, sem matriz nem cache).
+     *
+     * @param graph Grafo
+     * @param engine Motor ("dijkstra", "ch" ou "alt")
+     * @return Serviço com o grafo publicado
+     */
+    static DijsktraService routing(Graph graph, String engine) {
+        InMemoryRepository<Bairro> bairros = new InMemoryRepository<>(Bairro.class);
+        InMemoryRepository<Aresta> arestas = new InMemoryRepository<>(Aresta.class);
+        graph.bairros.forEach(bairros::save);
+        graph.arestas.forEach(arestas::save);
+        DijsktraService service = new DijsktraService(
+                bairros.as(BairroRepository.class),
+                arestas.as(ArestaRepository.class),
+                new InMemoryRepository<>(GrafoVersao.class).as(GrafoVersaoRepository.class),
+                new InMemoryRepository<>(VelocidadeAresta.class)
+                        .finder("findPerfisVelocidade", args -> new ArrayList<Object[]>())
+                        .as(VelocidadeArestaRepository.class));
+        ReflectionTestUtils.setField(service, "engineName", engine);
+        ReflectionTestUtils.setField(service, "altLandmarks", 8);
+        service.reload();
+        return service;
+    }
+
+    private static Graph csv() {
+        Graph graph = new Graph();
+        for (String[] row : readCsv("bairros.csv")) {
+            graph.bairros.add(new Bairro(Integer.parseInt(row[0].trim()), row[1].trim()));
+        }
+        for (String[] row : readCsv("ruas_conexoes.csv")) {
+            graph.arestas.add(new Aresta(Integer.parseInt(row[0].trim()),
+                    new Bairro(Integer.parseInt(row[1].trim()), null),
+                    new Bairro(Integer.parseInt(row[2].trim()), null),
+                    Double.parseDouble(row[3].trim())));
+        }
+        return graph;
+    }
+
+    private static List<String[]> readCsv(String resource) {
+        InputStream in = BenchmarkGraphs.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Arquivo não encontrado no classpath: " + resource);
+        }
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            reader.readLine(); // cabeçalho
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    rows.add(line.split(","));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    /**
+     * Malha quadrada (ruas entre vizinhos horizontais e verticais) com quarteirões de 0,3 a 0,7 km.
+     */
+    private static Graph grid(int n, Random random) {
+        int side = Math.max(2, (int) Math.ceil(Math.sqrt(n)));
+        Graph graph = new Graph();
+        Bairro[] nodes = new Bairro[side * side];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Bairro(i + 1, "Bairro " + (i + 1));
+            graph.bairros.add(nodes[i]);
+        }
+        int arestaId = 0;
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int i = r * side + c;
+                if (c + 1 < side) {
+                    graph.arestas.add(new Aresta(++arestaId, nodes[i], nodes[i + 1], 0.3 + random.nextDouble() * 0.4));
+                }
+                if (r + 1 < side) {
+                    graph.arestas.add(new Aresta(++arestaId, nodes[i], nodes[i + side], 0.3 + random.nextDouble() * 0.4));
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Grafo aleatório conexo: um caminho por uma permutação dos bairros e 2N ruas extras.
+     */
+    private static Graph random(int n, Random random) {
+        Graph graph = new Graph();
+        Bairro[] nodes = new Bairro[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = new Bairro(i + 1, "Bairro " + (i + 1));
+            graph.bairros.add(nodes[i]);
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        int arestaId = 0;
+        for (int i = 1; i < n; i++) {
+            graph.arestas.add(new Aresta(++arestaId, nodes[order[i - 1]], nodes[order[i]], 0.1 + random.nextDouble() * 10));
+        }
+        for (int i = 0; i < 2 * n; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                graph.arestas.add(new Aresta(++arestaId, nodes[a], nodes[b], 0.1 + random.nextDouble() * 10));
+            }
+        }
+        return graph;
+    }
+}
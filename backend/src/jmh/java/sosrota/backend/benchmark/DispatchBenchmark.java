@@ -0,0 +1,170 @@
+package sosrota.backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Atendimento;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.entity.OcorrenciaHistorico;
+import sosrota.backend.entity.Profissional;
+import sosrota.backend.repository.AmbulanciaRepository;
+import sosrota.backend.repository.AtendimentoRepository;
+import sosrota.backend.repository.EquipeRepository;
+import sosrota.backend.repository.OcorrenciaHistoricoRepository;
+import sosrota.backend.repository.OcorrenciaRepository;
+import sosrota.backend.service.AmbulanceAvailabilityIndex;
+import sosrota.backend.service.ArrivalScheduler;
+import sosrota.backend.service.DijsktraService;
+import sosrota.backend.service.FleetReadinessProjection;
+import sosrota.backend.service.OcorrenciaService;
+import sosrota.backend.service.PendingOccurrenceQueue;
+import sosrota.backend.service.ShiftRosterEngine;
+import sosrota.backend.service.StateEventStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Despacho de uma ocorrência ({@link OcorrenciaService#dispatchPending}) com frotas de
+ * 10 a 10 mil ambulâncias distribuídas pelo grafo.
+ * Os repositórios são substituídos por mapas em memória: o benchmark mede seleção de
+ * candidatas (índice de disponíveis, escala do turno, fronteira do Dijkstra), rota dependente
+ * do tempo e registro do despacho, sem o custo do banco.
+ * Cada invocação abre uma ocorrência em um bairro sorteado (fora da medição) e, ao final,
+ * devolve a ambulância despachada à frota disponível.
+ * [RF05] Sugestão de Ambulâncias Aptas.
+ * [RNF] Desempenho do despacho.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx2g"})
+public class DispatchBenchmark {
+
+    private static final String[] GRAVIDADES = {"ALTA", "MEDIA", "BAIXA"};
+
+    @Param({"grid-10000"})
+    public String graph;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int fleetSize;
+
+    private final InMemoryRepository<Ocorrencia> ocorrencias = new InMemoryRepository<>(Ocorrencia.class);
+    private final InMemoryRepository<Ambulancia> ambulancias = new InMemoryRepository<>(Ambulancia.class);
+    private final InMemoryRepository<Atendimento> atendimentos = new InMemoryRepository<>(Atendimento.class);
+    private final InMemoryRepository<Equipe> equipes = new InMemoryRepository<>(Equipe.class);
+    private final InMemoryRepository<OcorrenciaHistorico> historicos = new InMemoryRepository<>(OcorrenciaHistorico.class);
+
+    private BenchmarkGraphs.Graph grafo;
+    private AmbulanceAvailabilityIndex availabilityIndex;
+    private PendingOccurrenceQueue pendingQueue;
+    private OcorrenciaService ocorrenciaService;
+    private final Random random = new Random(11);
+
+    private Ocorrencia ocorrencia;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        grafo = BenchmarkGraphs.build(graph, 42);
+        DijsktraService dijsktraService = BenchmarkGraphs.routing(grafo, "dijkstra");
+
+        ocorrencias.finder("findByStatus", args -> ocorrencias.rows().stream()
+                .filter(o -> args[0].equals(o.getStatus())).collect(Collectors.toList()));
+        ambulancias.finder("findByStatus", args -> ambulancias.rows().stream()
+                .filter(a -> args[0].equals(a.getStatus())).collect(Collectors.toList()));
+        equipes.finder("findAllWithProfissionais", args -> new ArrayList<>(equipes.rows()))
+                .finder("findWithProfissionaisById", args -> Optional.ofNullable(equipes.get((Integer) args[0])));
+
+        // Frota: metade USA, metade USB, cada uma com equipe completa (sem turno: escalada em todos)
+        Random frota = new Random(3);
+        int profissionalId = 0;
+        for (int i = 0; i < fleetSize; i++) {
+            Ambulancia ambulancia = new Ambulancia();
+            ambulancia.setPlaca("BMK" + i);
+            ambulancia.setTipo(i % 2 == 0 ? "USA" : "USB");
+            ambulancia.setStatus("DISPONIVEL");
+            ambulancia.setBairro(grafo.bairros.get(frota.nextInt(grafo.bairros.size())));
+            ambulancias.save(ambulancia);
+
+            Equipe equipe = new Equipe();
+            equipe.setDescricao("Equipe " + i);
+            equipe.setAmbulancia(ambulancia);
+            List<Profissional> membros = new ArrayList<>();
+            for (String funcao : new String[]{"MOTORISTA", "MEDICO", "ENFERMEIRO"}) {
+                Profissional profissional = new Profissional();
+                profissional.setId(++profissionalId);
+                profissional.setFuncao(funcao);
+                profissional.setAtivo(true);
+                membros.add(profissional);
+            }
+            equipe.setProfissionais(membros);
+            equipes.save(equipe);
+        }
+
+        AmbulanciaRepository ambulanciaRepository = ambulancias.as(AmbulanciaRepository.class);
+        OcorrenciaRepository ocorrenciaRepository = ocorrencias.as(OcorrenciaRepository.class);
+        EquipeRepository equipeRepository = equipes.as(EquipeRepository.class);
+        availabilityIndex = new AmbulanceAvailabilityIndex(ambulanciaRepository);
+        availabilityIndex.rebuild();
+        pendingQueue = new PendingOccurrenceQueue(ocorrenciaRepository);
+        FleetReadinessProjection readinessProjection = new FleetReadinessProjection(equipeRepository);
+        readinessProjection.rebuild();
+        ShiftRosterEngine rosterEngine = new ShiftRosterEngine(readinessProjection);
+        rosterEngine.init();
+
+        AtendimentoRepository atendimentoRepository = atendimentos.as(AtendimentoRepository.class);
+        ocorrenciaService = new OcorrenciaService(ocorrenciaRepository, ambulanciaRepository,
+                atendimentoRepository, dijsktraService, equipeRepository,
+                historicos.as(OcorrenciaHistoricoRepository.class), availabilityIndex, pendingQueue, rosterEngine,
+                new ArrivalScheduler(atendimentoRepository), new StateEventStream());
+    }
+
+    @Setup(Level.Invocation)
+    public void openOcorrencia() {
+        Ocorrencia nova = new Ocorrencia();
+        nova.setTipo("Benchmark");
+        nova.setGravidade(GRAVIDADES[random.nextInt(GRAVIDADES.length)]);
+        Bairro bairro = grafo.bairros.get(random.nextInt(grafo.bairros.size()));
+        nova.setBairro(bairro);
+        ocorrencia = ocorrenciaService.registerOcorrencia(nova);
+    }
+
+    @Benchmark
+    public String dispatch() {
+        ocorrenciaService.dispatchPending(ocorrencia.getId());
+        return ocorrencia.getStatus();
+    }
+
+    @TearDown(Level.Invocation)
+    public void releaseAmbulancia() {
+        Atendimento atendimento = atendimentos.lastSaved();
+        if (atendimento != null) {
+            Ambulancia ambulancia = atendimento.getAmbulancia();
+            ambulancia.setStatus("DISPONIVEL");
+            availabilityIndex.update(ambulancia);
+        }
+        pendingQueue.remove(ocorrencia.getId());
+        ocorrencias.clear();
+        atendimentos.clear();
+        historicos.clear();
+    }
+}
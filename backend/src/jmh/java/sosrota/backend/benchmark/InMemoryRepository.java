@@ -0,0 +1,155 @@
+package sosrota.backend.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Repositório em memória para os benchmarks: implementa, por proxy, os métodos CRUD
+ * usados pelos serviços (save, findById, findAll, count, delete) sobre um mapa ID -> entidade.
+ * Consultas derivadas (ex.: findByStatus) são registradas com {@link #finder}.
+ * Qualquer outro método lança UnsupportedOperationException, para que o benchmark
+ * não meça silenciosamente um caminho diferente do da aplicação.
+ *
+ * @param <T> Entidade (com getId/setId Integer)
+ */
+final class InMemoryRepository<T> implements InvocationHandler {
+
+    private final Map<Integer, T> rows = new HashMap<>();
+    private final Map<String, Function<Object[], Object>> finders = new HashMap<>();
+    private final Method getId;
+    private final Method setId;
+    private int sequence;
+    private T lastSaved;
+
+    InMemoryRepository(Class<T> entityType) {
+        try {
+            this.getId = entityType.getMethod("getId");
+            this.setId = entityType.getMethod("setId", Integer.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Entidade sem getId/setId Integer: " + entityType.getName(), e);
+        }
+    }
+
+    /**
+     * Registra a implementação de uma consulta derivada.
+     *
+     * @param name Nome do método do repositório
+     * @param finder Argumentos -> resultado
+     * @return Este repositório
+     */
+    InMemoryRepository<T> finder(String name, Function<Object[], Object> finder) {
+        finders.put(name, finder);
+        return this;
+    }
+
+    /**
+     * Cria o proxy da interface de repositório.
+     */
+    <R> R as(Class<R> repositoryType) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType}, this));
+    }
+
+    Collection<T> rows() {
+        return rows.values();
+    }
+
+    T get(Integer id) {
+        return rows.get(id);
+    }
+
+    /**
+     * Última entidade gravada (ex.: atendimento criado pelo despacho medido).
+     */
+    T lastSaved() {
+        return lastSaved;
+    }
+
+    void clear() {
+        rows.clear();
+        lastSaved = null;
+    }
+
+    T save(T entity) {
+        Integer id = idOf(entity);
+        if (id == null) {
+            id = ++sequence;
+            try {
+                setId.invoke(entity, id);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        } else if (id > sequence) {
+            sequence = id;
+        }
+        rows.put(id, entity);
+        lastSaved = entity;
+        return entity;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        Function<Object[], Object> finder = finders.get(method.getName());
+        if (finder != null) {
+            return finder.apply(args);
+        }
+        switch (method.getName()) {
+            case "save":
+                return save((T) args[0]);
+            case "saveAll": {
+                ArrayList<T> saved = new ArrayList<>();
+                for (Object entity : (Iterable<?>) args[0]) {
+                    saved.add(save((T) entity));
+                }
+                return saved;
+            }
+            case "findById":
+                return Optional.ofNullable(rows.get(args[0]));
+            case "existsById":
+                return rows.containsKey(args[0]);
+            case "findAll":
+                if (args == null || args.length == 0) {
+                    return new ArrayList<>(rows.values());
+                }
+                break;
+            case "count":
+                return (long) rows.size();
+            case "deleteById":
+                rows.remove(args[0]);
+                return null;
+            case "delete":
+                rows.remove(idOf((T) args[0]));
+                return null;
+            case "deleteAll":
+                if (args == null || args.length == 0) {
+                    rows.clear();
+                    return null;
+                }
+                break;
+            case "toString":
+                return "InMemoryRepository(" + rows.size() + " registros)";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                break;
+        }
+        throw new UnsupportedOperationException("Método não suportado no repositório em memória: " + method);
+    }
+
+    private Integer idOf(T entity) {
+        try {
+            return (Integer) getId.invoke(entity);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package sosrota.backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.service.PendingOccurrenceQueue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Esvaziamento da fila de ocorrências pendentes em lotes, como nas liberações de ambulâncias:
+ * consulta das mais prioritárias (gravidade com envelhecimento) e remoção das atendidas.
+ * A fila é preenchida antes de cada invocação (fora da medição).
+ * [Estrutura de Dados II] Fila de prioridade.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PendingQueueBenchmark {
+
+    private static final String[] GRAVIDADES = {"ALTA", "MEDIA", "BAIXA"};
+
+    @Param({"100", "10000", "100000"})
+    public int pending;
+
+    @Param({"32"})
+    public int batchSize;
+
+    private final List<Ocorrencia> abertas = new ArrayList<>();
+    private PendingOccurrenceQueue queue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(5);
+        LocalDateTime inicio = LocalDateTime.of(2025, 3, 10, 8, 0);
+        for (int i = 1; i <= pending; i++) {
+            Ocorrencia ocorrencia = new Ocorrencia();
+            ocorrencia.setId(i);
+            ocorrencia.setStatus("ABERTA");
+            ocorrencia.setGravidade(GRAVIDADES[random.nextInt(GRAVIDADES.length)]);
+            ocorrencia.setDataHoraAbertura(inicio.plusSeconds(random.nextInt(6 * 3600)));
+            ocorrencia.setBairro(new Bairro(1 + random.nextInt(20), null));
+            abertas.add(ocorrencia);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fill() {
+        queue = new PendingOccurrenceQueue(null);
+        for (Ocorrencia ocorrencia : abertas) {
+            queue.add(ocorrencia);
+        }
+    }
+
+    @Benchmark
+    public int drain() {
+        int drained = 0;
+        List<PendingOccurrenceQueue.Entry> lote;
+        while (!(lote = queue.peek(gravidade -> true, batchSize)).isEmpty()) {
+            for (PendingOccurrenceQueue.Entry entry : lote) {
+                queue.remove(entry.id);
+            }
+            drained += lote.size();
+        }
+        return drained;
+    }
+}
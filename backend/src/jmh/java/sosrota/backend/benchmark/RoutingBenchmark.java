@@ -0,0 +1,66 @@
+package sosrota.backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sosrota.backend.service.DijsktraService;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta ponto a ponto ({@link DijsktraService#findShortestPath}) no mapa distribuído
+ * e em grafos sintéticos de 1 mil a 1 milhão de bairros.
+ * Os pares origem/destino são sorteados uma vez (semente fixa) e percorridos em ciclo,
+ * para que execuções em commits diferentes meçam as mesmas consultas.
+ * [Estrutura de Dados II] Desempenho do Dijkstra.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class RoutingBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({"csv", "grid-1000", "grid-100000", "grid-1000000", "random-1000", "random-100000", "random-1000000"})
+    public String graph;
+
+    @Param({"dijkstra"})
+    public String engine;
+
+    private DijsktraService service;
+    private final int[] sources = new int[PAIRS];
+    private final int[] targets = new int[PAIRS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkGraphs.Graph g = BenchmarkGraphs.build(graph, 42);
+        service = BenchmarkGraphs.routing(g, engine);
+        Random random = new Random(7);
+        int n = g.bairros.size();
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = g.nodeId(random.nextInt(n));
+            targets[i] = g.nodeId(random.nextInt(n));
+        }
+    }
+
+    @Benchmark
+    public DijsktraService.PathResult findShortestPath() {
+        int i = next;
+        next = (i + 1) & (PAIRS - 1);
+        return service.findShortestPath(sources[i], targets[i]);
+    }
+}
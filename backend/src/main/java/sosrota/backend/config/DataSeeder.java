@@ -1,32 +1,48 @@
 package sosrota.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
-import sosrota.backend.entity.Aresta;
-import sosrota.backend.entity.Bairro;
 import sosrota.backend.repository.ArestaRepository;
 import sosrota.backend.repository.BairroRepository;
-
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import sosrota.backend.service.AmbulanceAvailabilityIndex;
+import sosrota.backend.service.DijsktraService;
+import sosrota.backend.service.FleetReadinessProjection;
 
 /**
  * Componente responsável pela carga inicial de dados (Seeding).
- * Carrega bairros e arestas (ruas) a partir de arquivos CSV.
+ * Carrega bairros e arestas (ruas) a partir de arquivos CSV (opcionalmente .gz) por carga em massa.
  * [RF04] Cadastro de Mapa e Rotas.
  * [Banco de Dados II] Carga de dados em massa.
  */
 @Component
 public class DataSeeder implements CommandLineRunner {
 
+    @Value("${seed.bairros-file:classpath:bairros.csv}")
+    private String bairrosFile;
+
+    @Value("${seed.arestas-file:classpath:ruas_conexoes.csv}")
+    private String arestasFile;
+
     private final BairroRepository bairroRepository;
     private final ArestaRepository arestaRepository;
+    private final DijsktraService dijsktraService;
+    private final SyntheticCityGenerator syntheticCityGenerator;
+    private final AmbulanceAvailabilityIndex availabilityIndex;
+    private final FleetReadinessProjection readinessProjection;
+    private final GraphBulkImporter graphBulkImporter;
 
-    public DataSeeder(BairroRepository bairroRepository, ArestaRepository arestaRepository) {
+    public DataSeeder(BairroRepository bairroRepository, ArestaRepository arestaRepository,
+                      DijsktraService dijsktraService, SyntheticCityGenerator syntheticCityGenerator,
+                      AmbulanceAvailabilityIndex availabilityIndex, FleetReadinessProjection readinessProjection,
+                      GraphBulkImporter graphBulkImporter) {
         this.bairroRepository = bairroRepository;
         this.arestaRepository = arestaRepository;
+        this.dijsktraService = dijsktraService;
+        this.syntheticCityGenerator = syntheticCityGenerator;
+        this.availabilityIndex = availabilityIndex;
+        this.readinessProjection = readinessProjection;
+        this.graphBulkImporter = graphBulkImporter;
     }
 
     /**
@@ -37,12 +53,32 @@ public class DataSeeder implements CommandLineRunner {
      */
     @Override
     public void run(String... args) throws Exception {
-        seedBairros();
-        seedArestas();
+        if (syntheticCityGenerator.isEnabled()) {
+            seedSyntheticCity();
+        } else {
+            seedBairros();
+            seedArestas();
+        }
+        // O grafo de rotas foi carregado antes da carga inicial: publica a versão com os dados novos
+        dijsktraService.reloadIfChanged();
+    }
+
+    /**
+     * Popula o banco com uma cidade sintética (seed.synthetic.*) para testes de capacidade:
+     * bairros, ruas, frota, profissionais e equipes.
+     */
+    private void seedSyntheticCity() {
+        if (bairroRepository.count() > 0) {
+            return; // Já populado
+        }
+        syntheticCityGenerator.persist(syntheticCityGenerator.generate(syntheticCityGenerator.configuredSpec()));
+        // Índices em memória foram montados com o banco vazio
+        availabilityIndex.rebuild();
+        readinessProjection.rebuild();
     }
 
     /**
-     * Popula a tabela de bairros a partir de 'bairros.csv'.
+     * Popula a tabela de bairros a partir de seed.bairros-file (padrão 'bairros.csv').
      * [RF04] Importação de nós do grafo.
      */
     private void seedBairros() {
@@ -50,20 +86,8 @@ public class DataSeeder implements CommandLineRunner {
             return; // Já populado
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-                new ClassPathResource("bairros.csv").getInputStream(), StandardCharsets.UTF_8))) {
-            
-            String line;
-            reader.readLine(); // Skip header
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    Bairro bairro = new Bairro();
-                    bairro.setId(Integer.parseInt(parts[0].trim()));
-                    bairro.setNome(parts[1].trim());
-                    bairroRepository.save(bairro);
-                }
-            }
+        try {
+            graphBulkImporter.importCsv(GraphBulkImporter.Table.BAIRRO, bairrosFile);
             System.out.println("Bairros populados com sucesso.");
         } catch (Exception e) {
             System.err.println("Erro ao popular bairros: " + e.getMessage());
@@ -71,7 +95,7 @@ public class DataSeeder implements CommandLineRunner {
     }
 
     /**
-     * Popula a tabela de arestas a partir de 'ruas_conexoes.csv'.
+     * Popula a tabela de arestas a partir de seed.arestas-file (padrão 'ruas_conexoes.csv').
      * [RF04] Importação de arestas do grafo.
      */
     private void seedArestas() {
@@ -79,31 +103,8 @@ public class DataSeeder implements CommandLineRunner {
             return; // Já populado
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-                new ClassPathResource("ruas_conexoes.csv").getInputStream(), StandardCharsets.UTF_8))) {
-            
-            String line;
-            reader.readLine(); // Skip header
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    Aresta aresta = new Aresta();
-
-                    aresta.setId(Integer.parseInt(parts[0].trim()));
-                    
-                    Bairro origem = new Bairro();
-                    origem.setId(Integer.parseInt(parts[1].trim()));
-                    
-                    Bairro destino = new Bairro();
-                    destino.setId(Integer.parseInt(parts[2].trim()));
-                    
-                    aresta.setOrigem(origem);
-                    aresta.setDestino(destino);
-                    aresta.setDistanciaKm(Double.parseDouble(parts[3].trim()));
-                    
-                    arestaRepository.save(aresta);
-                }
-            }
+        try {
+            graphBulkImporter.importCsv(GraphBulkImporter.Table.ARESTA, arestasFile);
             System.out.println("Arestas populadas com sucesso.");
         } catch (Exception e) {
             System.err.println("Erro ao popular arestas: " + e.getMessage());
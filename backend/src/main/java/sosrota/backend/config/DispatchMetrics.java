@@ -0,0 +1,66 @@
+package sosrota.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import sosrota.backend.dispatch.DispatchPipeline;
+import sosrota.backend.service.PendingOccurrenceQueue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro das métricas do despacho assíncrono (Micrometer).
+ * Expõe ocupação do executor (fila, threads ativas), contrapressão (despachos executados
+ * na thread da requisição por fila cheia), falhas, latência e ocorrências aguardando ambulância.
+ * [RNF] Monitoramento de desempenho.
+ */
+@Component
+public class DispatchMetrics implements MeterBinder {
+
+    private final DispatchPipeline dispatchPipeline;
+    private final PendingOccurrenceQueue pendingQueue;
+
+    public DispatchMetrics(DispatchPipeline dispatchPipeline, PendingOccurrenceQueue pendingQueue) {
+        this.dispatchPipeline = dispatchPipeline;
+        this.pendingQueue = pendingQueue;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dispatch.executor.queue.size", dispatchPipeline, DispatchPipeline::getQueueSize)
+                .description("Ocorrências aguardando o executor de despacho")
+                .register(registry);
+        Gauge.builder("dispatch.executor.queue.remaining", dispatchPipeline, DispatchPipeline::getQueueRemainingCapacity)
+                .description("Vagas restantes na fila do executor de despacho")
+                .register(registry);
+        Gauge.builder("dispatch.executor.active", dispatchPipeline, DispatchPipeline::getActiveCount)
+                .description("Threads do executor processando despachos")
+                .register(registry);
+        FunctionCounter.builder("dispatch.executor.submitted", dispatchPipeline, DispatchPipeline::getSubmittedCount)
+                .description("Despachos entregues ao executor")
+                .register(registry);
+        FunctionCounter.builder("dispatch.executor.completed", dispatchPipeline, DispatchPipeline::getCompletedCount)
+                .description("Despachos processados sem erro")
+                .register(registry);
+        FunctionCounter.builder("dispatch.executor.failed", dispatchPipeline, DispatchPipeline::getFailedCount)
+                .description("Despachos interrompidos por erro")
+                .register(registry);
+        FunctionCounter.builder("dispatch.executor.caller.runs", dispatchPipeline, DispatchPipeline::getCallerRunsCount)
+                .description("Despachos executados na thread da requisição por fila cheia (contrapressão)")
+                .register(registry);
+        FunctionTimer.builder("dispatch.executor.latency", dispatchPipeline, DispatchPipeline::getFinishedCount,
+                        DispatchPipeline::getLatencyNanos, TimeUnit.NANOSECONDS)
+                .description("Tempo da entrega ao executor até o fim do despacho")
+                .register(registry);
+        TimeGauge.builder("dispatch.first.uptime", dispatchPipeline, TimeUnit.MILLISECONDS, DispatchPipeline::getFirstDispatchUptimeMillis)
+                .description("Tempo da inicialização da aplicação até o primeiro despacho concluído (-1 = nenhum)")
+                .register(registry);
+        Gauge.builder("dispatch.pending.size", pendingQueue, PendingOccurrenceQueue::size)
+                .description("Ocorrências abertas aguardando ambulância")
+                .register(registry);
+    }
+}
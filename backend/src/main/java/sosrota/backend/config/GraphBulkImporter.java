@@ -0,0 +1,369 @@
+package sosrota.backend.config;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importação em massa do grafo (bairros e ruas) a partir de CSV.
+ * No PostgreSQL usa COPY FROM STDIN (CopyManager do driver JDBC): as linhas são lidas,
+ * validadas e enviadas em blocos, sem materializar o arquivo nem passar pelo JPA.
+ * Nos demais bancos (ex.: H2 nos testes) usa INSERTs em lote (JDBC batch).
+ * Aceita arquivos compactados com gzip (detectados pelo cabeçalho do arquivo) e
+ * informa a vazão em registros por segundo. Cada tabela é importada em uma única transação.
+ * [RF04] Importação de nós e arestas do grafo.
+ * [Banco de Dados II] Carga em massa.
+ */
+@Component
+public class GraphBulkImporter {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(GraphBulkImporter.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 5000;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int COPY_FLUSH_CHARS = 1 << 16;
+
+    /**
+     * Estratégia de gravação.
+     */
+    public enum Mode {
+        AUTO,   // COPY no PostgreSQL, lote nos demais
+        COPY,
+        BATCH
+    }
+
+    /**
+     * Tabelas do grafo importáveis: colunas do CSV na ordem do arquivo (após o cabeçalho).
+     */
+    public enum Table {
+        BAIRRO("bairro", "id, nome", 2),
+        ARESTA("aresta", "id, origem_id, destino_id, distancia_km", 4);
+
+        final String name;
+        final String columns;
+        final int width;
+
+        Table(String name, String columns, int width) {
+            this.name = name;
+            this.columns = columns;
+            this.width = width;
+        }
+    }
+
+    @Value("${seed.bulk.mode:AUTO}")
+    private String mode;
+
+    @Value("${seed.bulk.batch-size:5000}")
+    private int batchSize;
+
+    private final DataSource dataSource;
+    private final ResourceLoader resourceLoader;
+
+    public GraphBulkImporter(DataSource dataSource, ResourceLoader resourceLoader) {
+        this.dataSource = dataSource;
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * Importa um CSV (classpath:, file: ou caminho) para a tabela.
+     *
+     * @param table Tabela de destino
+     * @param location Local do arquivo (.csv ou .csv.gz)
+     * @return Resultado da importação
+     */
+    public ImportResult importCsv(Table table, String location) throws IOException, SQLException {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Arquivo de carga não encontrado: " + location);
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return importCsv(table, in, location);
+        }
+    }
+
+    /**
+     * Importa um CSV já aberto. A primeira linha é o cabeçalho; linhas vazias ou com menos
+     * colunas que o esperado são ignoradas; valores inválidos interrompem a carga (rollback).
+     *
+     * @param table Tabela de destino
+     * @param in Conteúdo (texto ou gzip)
+     * @param source Descrição da origem para os logs
+     * @return Resultado da importação
+     */
+    ImportResult importCsv(Table table, InputStream in, String source) throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(decompress(in), StandardCharsets.UTF_8), BUFFER_BYTES);
+             Connection connection = dataSource.getConnection()) {
+            reader.readLine(); // Cabeçalho
+            Mode modo = resolveMode(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long[] counts = modo == Mode.COPY ? copy(connection, table, reader) : batch(connection, table, reader);
+                connection.commit();
+                ImportResult result = new ImportResult(table, modo, counts[0], counts[1], System.nanoTime() - inicio);
+                logger.info("Carga de {} ({}) via {}: {} registros em {} ms ({} registros/s; {} linhas ignoradas).",
+                        table.name, source, modo, result.rows, result.nanos / 1_000_000, Math.round(result.rowsPerSecond()),
+                        result.skipped);
+                return result;
+            } catch (IOException | SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private Mode resolveMode(Connection connection) throws SQLException {
+        Mode configured = Mode.valueOf(mode.trim().toUpperCase());
+        boolean postgres = connection.isWrapperFor(PGConnection.class);
+        if (configured == Mode.COPY && !postgres) {
+            throw new IllegalStateException("COPY requer PostgreSQL; banco atual: " + connection.getMetaData().getDatabaseProductName());
+        }
+        if (configured == Mode.AUTO) {
+            return postgres ? Mode.COPY : Mode.BATCH;
+        }
+        return configured;
+    }
+
+    /**
+     * COPY ... FROM STDIN em formato CSV: as linhas validadas são reescritas (campos normalizados)
+     * e enviadas em blocos de ~64 KB.
+     */
+    private long[] copy(Connection connection, Table table, BufferedReader reader) throws IOException, SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table.name + " (" + table.columns + ") FROM STDIN WITH (FORMAT csv)");
+        long skipped = 0;
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_FLUSH_CHARS + 256);
+            List<String> fields = new ArrayList<>(table.width);
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!parseLine(line, fields, table.width)) {
+                    skipped++;
+                    continue;
+                }
+                appendRow(buffer, table, fields, lineNumber);
+                if (buffer.length() >= COPY_FLUSH_CHARS) {
+                    byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    buffer.setLength(0);
+                }
+            }
+            if (buffer.length() > 0) {
+                byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            }
+            return new long[]{copyIn.endCopy(), skipped};
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * INSERTs em lote para bancos sem COPY.
+     */
+    private long[] batch(Connection connection, Table table, BufferedReader reader) throws IOException, SQLException {
+        int lote = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        String placeholders = "?" + ", ?".repeat(table.width - 1);
+        long rows = 0;
+        long skipped = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table.name + " (" + table.columns + ") VALUES (" + placeholders + ")")) {
+            List<String> fields = new ArrayList<>(table.width);
+            String line;
+            long lineNumber = 1;
+            int pendentes = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!parseLine(line, fields, table.width)) {
+                    skipped++;
+                    continue;
+                }
+                bindRow(insert, table, fields, lineNumber);
+                insert.addBatch();
+                rows++;
+                if (++pendentes == lote) {
+                    insert.executeBatch();
+                    pendentes = 0;
+                }
+            }
+            if (pendentes > 0) {
+                insert.executeBatch();
+            }
+        }
+        return new long[]{rows, skipped};
+    }
+
+    private static void appendRow(StringBuilder buffer, Table table, List<String> fields, long lineNumber) {
+        switch (table) {
+            case BAIRRO:
+                buffer.append(parseInt(fields.get(0), lineNumber)).append(',');
+                appendQuoted(buffer, fields.get(1));
+                break;
+            case ARESTA:
+                buffer.append(parseInt(fields.get(0), lineNumber)).append(',')
+                        .append(parseInt(fields.get(1), lineNumber)).append(',')
+                        .append(parseInt(fields.get(2), lineNumber)).append(',')
+                        .append(parseDouble(fields.get(3), lineNumber));
+                break;
+        }
+        buffer.append('\n');
+    }
+
+    private static void bindRow(PreparedStatement insert, Table table, List<String> fields, long lineNumber) throws SQLException {
+        switch (table) {
+            case BAIRRO:
+                insert.setInt(1, parseInt(fields.get(0), lineNumber));
+                insert.setString(2, fields.get(1));
+                break;
+            case ARESTA:
+                insert.setInt(1, parseInt(fields.get(0), lineNumber));
+                insert.setInt(2, parseInt(fields.get(1), lineNumber));
+                insert.setInt(3, parseInt(fields.get(2), lineNumber));
+                insert.setDouble(4, parseDouble(fields.get(3), lineNumber));
+                break;
+        }
+    }
+
+    private static void appendQuoted(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    private static int parseInt(String value, long lineNumber) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Linha " + lineNumber + ": número inteiro inválido '" + value + "'.");
+        }
+    }
+
+    private static double parseDouble(String value, long lineNumber) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Linha " + lineNumber + ": número inválido '" + value + "'.");
+        }
+    }
+
+    /**
+     * Separa os campos de uma linha CSV (vírgula, aspas duplas opcionais com "" como escape),
+     * sem expressões regulares. Campos sem aspas têm os espaços das pontas removidos.
+     *
+     * @param line Linha
+     * @param fields Lista reutilizada para os campos
+     * @param width Número mínimo de campos
+     * @return Se a linha tem campos suficientes
+     */
+    static boolean parseLine(String line, List<String> fields, int width) {
+        fields.clear();
+        int n = line.length();
+        if (n == 0) {
+            return false;
+        }
+        StringBuilder quoted = null;
+        int i = 0;
+        while (i <= n) {
+            while (i < n && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i < n && line.charAt(i) == '"') {
+                if (quoted == null) {
+                    quoted = new StringBuilder();
+                }
+                quoted.setLength(0);
+                i++;
+                while (i < n) {
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < n && line.charAt(i) == '"') {
+                            quoted.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+                fields.add(quoted.toString());
+                int comma = line.indexOf(',', i);
+                i = comma < 0 ? n + 1 : comma + 1;
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? n : comma;
+                fields.add(line.substring(i, end).trim());
+                i = end + 1;
+            }
+        }
+        return fields.size() >= width;
+    }
+
+    /**
+     * Descompacta o conteúdo se ele começar com o cabeçalho gzip (1f 8b).
+     */
+    static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_BYTES);
+        buffered.mark(2);
+        int b1 = buffered.read();
+        int b2 = buffered.read();
+        buffered.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            return new GZIPInputStream(buffered, BUFFER_BYTES);
+        }
+        return buffered;
+    }
+
+    /**
+     * Resultado de uma importação.
+     */
+    public static class ImportResult {
+        public final Table table;
+        public final Mode mode;
+        public final long rows;
+        public final long skipped;
+        public final long nanos;
+
+        ImportResult(Table table, Mode mode, long rows, long skipped, long nanos) {
+            this.table = table;
+            this.mode = mode;
+            this.rows = rows;
+            this.skipped = skipped;
+            this.nanos = nanos;
+        }
+
+        public double rowsPerSecond() {
+            return nanos > 0 ? rows * 1e9 / nanos : 0;
+        }
+    }
+}
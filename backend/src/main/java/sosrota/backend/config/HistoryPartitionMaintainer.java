@@ -0,0 +1,60 @@
+package sosrota.backend.config;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mantém as partições mensais do histórico de ocorrências (V15) criadas com antecedência,
+ * para que as inserções não caiam na partição padrão.
+ * Executado na inicialização e diariamente; só no PostgreSQL (nos testes com H2 não há partições).
+ * [Banco de Dados II] Particionamento por faixa de tempo.
+ */
+@Component
+public class HistoryPartitionMaintainer {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HistoryPartitionMaintainer.class);
+
+    // Meses à frente com partição pronta
+    private static final int DEFAULT_MONTHS_AHEAD = 3;
+
+    @Value("${history.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    private final DataSource dataSource;
+
+    public HistoryPartitionMaintainer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${history.partitions.cron:0 30 3 * * *}")
+    public void ensurePartitions() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT fn_cria_particoes_historico(CURRENT_DATE, (CURRENT_DATE + make_interval(months => ?))::date)")) {
+                statement.setInt(1, monthsAhead > 0 ? monthsAhead : DEFAULT_MONTHS_AHEAD);
+                try (ResultSet rs = statement.executeQuery()) {
+                    int criadas = rs.next() ? rs.getInt(1) : 0;
+                    if (criadas > 0) {
+                        logger.info("Partições do histórico de ocorrências criadas: {}.", criadas);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("Falha ao criar as partições do histórico de ocorrências: {}", e.getMessage());
+        }
+    }
+}
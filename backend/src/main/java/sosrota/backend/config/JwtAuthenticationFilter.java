@@ -19,12 +19,16 @@ import java.io.IOException;
 /**
  * Filtro de autenticação JWT executado em cada requisição.
  * Intercepta requisições HTTP para validar o token Bearer.
+ * No fluxo de eventos (GET /api/eventos), aceita também o ticket do parâmetro "ticket", pois o
+ * EventSource do navegador não permite enviar cabeçalhos.
  * [RF08] Autenticação.
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+  static final String EVENT_STREAM_PATH = "/api/eventos";
+
   private final JwtService jwtService;
   private final UserDetailsService userDetailsService;
 
@@ -45,20 +49,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
 
     final String authHeader = request.getHeader("Authorization");
+    final String ticket = isEventStream(request) ? request.getParameter("ticket") : null;
 
-    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    if ((authHeader == null || !authHeader.startsWith("Bearer ")) && ticket == null) {
       filterChain.doFilter(request, response);
       return;
     }
 
     try {
-      final String token = authHeader.substring(7);
+      final boolean bearer = authHeader != null && authHeader.startsWith("Bearer ");
+      final String token = bearer ? authHeader.substring(7) : ticket;
       final String username = jwtService.extractUsername(token);
 
       if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
         UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-        if (jwtService.isTokenValid(token, userDetails)) {
+        if (bearer ? jwtService.isTokenValid(token, userDetails) : jwtService.isStreamTicketValid(token, userDetails)) {
           UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
               userDetails,
               null,
@@ -75,4 +81,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     filterChain.doFilter(request, response);
   }
+
+  private static boolean isEventStream(HttpServletRequest request) {
+    return "GET".equals(request.getMethod())
+        && (request.getContextPath() + EVENT_STREAM_PATH).equals(request.getRequestURI());
+  }
 }
\ No newline at end of file
@@ -0,0 +1,436 @@
+package sosrota.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import sosrota.backend.dispatch.DispatchPipeline;
+import sosrota.backend.entity.Atendimento;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.repository.AtendimentoRepository;
+import sosrota.backend.repository.BairroRepository;
+import sosrota.backend.repository.OcorrenciaRepository;
+import sosrota.backend.service.OcorrenciaService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gerador de carga para planejamento de capacidade: reproduz chegadas de ocorrências como um
+ * processo de Poisson (intervalos exponenciais, taxa loadtest.rate-per-second) contra a camada de
+ * serviço (mesmo caminho do controller: gravação + executor de despacho) ou contra a API REST.
+ * As chegadas seguem o horário planejado mesmo que o sistema atrase (carga em malha aberta):
+ * a latência de cada requisição é medida a partir do instante planejado.
+ * Opcionalmente conclui cada atendimento após um tempo de serviço exponencial, devolvendo as
+ * ambulâncias à frota.
+ * Ao final, relata percentis da latência de requisição e de despacho (abertura até o despacho),
+ * a taxa de violação de SLA e os comandos SQL por ocorrência (estatísticas do Hibernate; incluem
+ * as tarefas em segundo plano executadas durante a carga).
+ * Ativado por loadtest.enabled=true; executa após a inicialização (e a carga inicial de dados).
+ * [RNF] Desempenho sob picos de chamadas.
+ */
+@Component
+@ConditionalOnProperty(name = "loadtest.enabled", havingValue = "true")
+public class LoadDriver {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LoadDriver.class);
+
+    // Gravidades sorteadas: ALTA 20%, MEDIA 40%, BAIXA 40%
+    private static final String[] GRAVIDADES = {"ALTA", "MEDIA", "MEDIA", "BAIXA", "BAIXA"};
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final int DEFAULT_OCCURRENCES = 500;
+    private static final double DEFAULT_RATE = 5.0;
+    private static final int DEFAULT_CONCURRENCY = 16;
+    private static final int DEFAULT_DRAIN_TIMEOUT_SECONDS = 120;
+
+    @Value("${loadtest.mode:SERVICE}")
+    private String mode;
+
+    @Value("${loadtest.occurrences:500}")
+    private int occurrences;
+
+    @Value("${loadtest.rate-per-second:5}")
+    private double ratePerSecond;
+
+    @Value("${loadtest.concurrency:16}")
+    private int concurrency;
+
+    // Tempo médio de atendimento até a conclusão (0 = as ambulâncias não são liberadas)
+    @Value("${loadtest.mean-service-seconds:0}")
+    private double meanServiceSeconds;
+
+    @Value("${loadtest.drain-timeout-seconds:120}")
+    private int drainTimeoutSeconds;
+
+    @Value("${loadtest.base-url:http://localhost:${server.port:8081}}")
+    private String baseUrl;
+
+    @Value("${loadtest.username:}")
+    private String username;
+
+    @Value("${loadtest.password:}")
+    private String password;
+
+    @Value("${loadtest.report-file:}")
+    private String reportFile;
+
+    @Value("${loadtest.seed:7}")
+    private long seed;
+
+    private final OcorrenciaService ocorrenciaService;
+    private final DispatchPipeline dispatchPipeline;
+    private final BairroRepository bairroRepository;
+    private final OcorrenciaRepository ocorrenciaRepository;
+    private final AtendimentoRepository atendimentoRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public LoadDriver(OcorrenciaService ocorrenciaService, DispatchPipeline dispatchPipeline,
+                      BairroRepository bairroRepository, OcorrenciaRepository ocorrenciaRepository,
+                      AtendimentoRepository atendimentoRepository, EntityManagerFactory entityManagerFactory) {
+        this.ocorrenciaService = ocorrenciaService;
+        this.dispatchPipeline = dispatchPipeline;
+        this.bairroRepository = bairroRepository;
+        this.ocorrenciaRepository = ocorrenciaRepository;
+        this.atendimentoRepository = atendimentoRepository;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Inicia a carga em segundo plano quando a aplicação (e a API) estiver pronta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread driver = new Thread(() -> {
+            try {
+                Report report = run();
+                logger.info("Teste de carga concluído:\n{}", report.toJson());
+                if (!reportFile.isBlank()) {
+                    Files.writeString(Path.of(reportFile), report.toJson(), StandardCharsets.UTF_8);
+                    logger.info("Relatório do teste de carga gravado em {}", reportFile);
+                }
+            } catch (Exception e) {
+                logger.error("Falha no teste de carga: {}", e.getMessage(), e);
+            }
+        }, "load-driver");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    /**
+     * Executa a carga configurada e mede o resultado.
+     *
+     * @return Relatório
+     */
+    public Report run() throws InterruptedException {
+        List<Integer> bairros = bairroRepository.findAll().stream().map(Bairro::getId).toList();
+        if (bairros.isEmpty()) {
+            throw new IllegalStateException("Nenhum bairro cadastrado para gerar ocorrências.");
+        }
+        Mode modo = Mode.valueOf(mode.trim().toUpperCase());
+        int total = occurrences > 0 ? occurrences : DEFAULT_OCCURRENCES;
+        double rate = ratePerSecond > 0 ? ratePerSecond : DEFAULT_RATE;
+        int clients = concurrency > 0 ? concurrency : DEFAULT_CONCURRENCY;
+        String token = modo == Mode.REST ? login() : null;
+        logger.info("Teste de carga ({}): {} ocorrências a {} por segundo.", modo, total, rate);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        AtomicInteger clientSequence = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(clients, r -> {
+            Thread t = new Thread(r, "load-client-" + clientSequence.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        ScheduledExecutorService finisher = meanServiceSeconds > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "load-finisher");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+
+        AtomicReferenceArray<Integer> ids = new AtomicReferenceArray<>(total);
+        long[] requestNanos = new long[total];
+        LongAdder errors = new LongAdder();
+        Random random = new Random(seed);
+        long start = System.nanoTime();
+        double offset = 0;
+        for (int i = 0; i < total; i++) {
+            offset += nextArrivalGap(random, rate);
+            long due = start + (long) (offset * 1e9);
+            Ocorrencia ocorrencia = new Ocorrencia();
+            ocorrencia.setTipo("Teste de carga");
+            ocorrencia.setGravidade(GRAVIDADES[random.nextInt(GRAVIDADES.length)]);
+            ocorrencia.setBairro(new Bairro(bairros.get(random.nextInt(bairros.size())), null));
+            long serviceMillis = finisher != null ? (long) (nextArrivalGap(random, 1.0 / meanServiceSeconds) * 1000) : 0;
+
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            int index = i;
+            pool.execute(() -> {
+                try {
+                    Integer id = modo == Mode.REST ? postOcorrencia(ocorrencia, token) : submitOcorrencia(ocorrencia);
+                    requestNanos[index] = System.nanoTime() - due;
+                    ids.set(index, id);
+                    if (finisher != null) {
+                        finisher.schedule(() -> finish(finisher, id), serviceMillis, TimeUnit.MILLISECONDS);
+                    }
+                } catch (Exception e) {
+                    errors.increment();
+                    logger.warn("Falha ao registrar ocorrência do teste de carga: {}", e.getMessage());
+                }
+            });
+        }
+        pool.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds > 0 ? drainTimeoutSeconds : DEFAULT_DRAIN_TIMEOUT_SECONDS);
+        pool.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        awaitDispatch(ids, deadline);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        if (finisher != null) {
+            finisher.shutdownNow();
+        }
+        statistics.setStatisticsEnabled(statisticsEnabled);
+
+        return buildReport(modo, total, rate, elapsedSeconds, errors.intValue(), ids, requestNanos, statements);
+    }
+
+    private Integer submitOcorrencia(Ocorrencia ocorrencia) {
+        // Mesmo caminho do POST /api/ocorrencias
+        Ocorrencia saved = ocorrenciaService.registerOcorrencia(ocorrencia);
+        dispatchPipeline.submit(saved.getId());
+        return saved.getId();
+    }
+
+    private Integer postOcorrencia(Ocorrencia ocorrencia, String token) throws IOException, InterruptedException {
+        String body = String.format("{\"tipo\":\"%s\",\"gravidade\":\"%s\",\"bairro\":{\"id\":%d}}",
+                ocorrencia.getTipo(), ocorrencia.getGravidade(), ocorrencia.getBairro().getId());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/ocorrencias"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("POST /api/ocorrencias retornou " + response.statusCode());
+        }
+        return Integer.valueOf(extract(ID, response.body()));
+    }
+
+    private String login() throws InterruptedException {
+        if (username.isBlank()) {
+            throw new IllegalStateException("Modo REST requer loadtest.username e loadtest.password.");
+        }
+        String body = String.format("{\"username\":\"%s\",\"password\":\"%s\"}", username, password);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login do teste de carga retornou " + response.statusCode());
+            }
+            return extract(TOKEN, response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível autenticar em " + baseUrl + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String extract(Pattern pattern, String json) {
+        Matcher matcher = pattern.matcher(json);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Resposta inesperada: " + json);
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * Conclui o atendimento; se a ambulância ainda não chegou ao local, tenta novamente em 1 s.
+     */
+    private void finish(ScheduledExecutorService finisher, Integer id) {
+        try {
+            ocorrenciaService.finishOccurrence(id);
+        } catch (IllegalStateException e) {
+            Ocorrencia ocorrencia = ocorrenciaRepository.findById(id).orElse(null);
+            if (ocorrencia != null && !"CONCLUIDA".equals(ocorrencia.getStatus()) && !"CANCELADA".equals(ocorrencia.getStatus())
+                    && !finisher.isShutdown()) {
+                finisher.schedule(() -> finish(finisher, id), 1, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Aguarda o executor de despacho processar as ocorrências registradas.
+     */
+    private void awaitDispatch(AtomicReferenceArray<Integer> ids, long deadline) throws InterruptedException {
+        for (int i = 0; i < ids.length(); i++) {
+            Integer id = ids.get(i);
+            while (id != null && dispatchPipeline.stageOf(id) != null && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private Report buildReport(Mode modo, int total, double rate, double elapsedSeconds, int errors,
+                               AtomicReferenceArray<Integer> ids, long[] requestNanos, long statements) {
+        List<Long> requests = new ArrayList<>();
+        List<Long> dispatches = new ArrayList<>();
+        int registered = 0;
+        int violations = 0;
+        for (int i = 0; i < total; i++) {
+            Integer id = ids.get(i);
+            if (id == null) {
+                continue;
+            }
+            registered++;
+            requests.add(requestNanos[i]);
+            Ocorrencia ocorrencia = ocorrenciaRepository.findById(id).orElse(null);
+            Atendimento atendimento = ocorrencia != null ? atendimentoRepository.findFirstByOcorrenciaOrderByIdDesc(ocorrencia) : null;
+            if (atendimento != null && atendimento.getDataHoraDespacho() != null && ocorrencia.getDataHoraAbertura() != null) {
+                dispatches.add(Duration.between(ocorrencia.getDataHoraAbertura(), atendimento.getDataHoraDespacho()).toNanos());
+                if (Boolean.TRUE.equals(atendimento.getForaDoSla())) {
+                    violations++;
+                }
+            }
+        }
+        return new Report(modo, total, registered, errors, rate, registered / Math.max(elapsedSeconds, 1e-9),
+                sorted(requests), sorted(dispatches), violations, registered > 0 ? (double) statements / registered : 0);
+    }
+
+    private static long[] sorted(List<Long> values) {
+        long[] result = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Intervalo até a próxima chegada de um processo de Poisson (distribuição exponencial).
+     *
+     * @param random Gerador
+     * @param ratePerSecond Chegadas por segundo
+     * @return Segundos
+     */
+    static double nextArrivalGap(Random random, double ratePerSecond) {
+        return -Math.log(1.0 - random.nextDouble()) / ratePerSecond;
+    }
+
+    /**
+     * Percentil pelo método do posto mais próximo.
+     *
+     * @param sorted Valores ordenados
+     * @param p Percentil (0-100)
+     * @return Valor ou 0 se vazio
+     */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(rank, 1)) - 1];
+    }
+
+    /**
+     * Alvo da carga.
+     */
+    public enum Mode {
+        SERVICE,
+        REST
+    }
+
+    /**
+     * Resultado do teste de carga.
+     */
+    public static class Report {
+        public final Mode mode;
+        public final int planned;
+        public final int registered;
+        public final int errors;
+        public final double offeredRate;
+        public final double achievedRate;
+        public final long[] requestNanos;
+        public final long[] dispatchNanos;
+        public final int slaViolations;
+        public final double statementsPerOccurrence;
+
+        Report(Mode mode, int planned, int registered, int errors, double offeredRate, double achievedRate,
+               long[] requestNanos, long[] dispatchNanos, int slaViolations, double statementsPerOccurrence) {
+            this.mode = mode;
+            this.planned = planned;
+            this.registered = registered;
+            this.errors = errors;
+            this.offeredRate = offeredRate;
+            this.achievedRate = achievedRate;
+            this.requestNanos = requestNanos;
+            this.dispatchNanos = dispatchNanos;
+            this.slaViolations = slaViolations;
+            this.statementsPerOccurrence = statementsPerOccurrence;
+        }
+
+        /**
+         * Ocorrências que receberam ambulância.
+         */
+        public int dispatched() {
+            return dispatchNanos.length;
+        }
+
+        /**
+         * Fração das ocorrências despachadas fora do SLA.
+         */
+        public double slaViolationRate() {
+            return dispatchNanos.length > 0 ? (double) slaViolations / dispatchNanos.length : 0;
+        }
+
+        public String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\n  \"mode\": \"%s\",\n  \"planned\": %d,\n  \"registered\": %d,\n  \"errors\": %d,\n"
+                            + "  \"offeredRatePerSecond\": %.3f,\n  \"achievedRatePerSecond\": %.3f,\n"
+                            + "  \"requestLatencyMs\": %s,\n  \"dispatched\": %d,\n  \"awaitingAmbulance\": %d,\n"
+                            + "  \"dispatchLatencyMs\": %s,\n  \"slaViolations\": %d,\n  \"slaViolationRate\": %.4f,\n"
+                            + "  \"statementsPerOccurrence\": %.2f\n}",
+                    mode, planned, registered, errors, offeredRate, achievedRate, latencies(requestNanos),
+                    dispatched(), registered - dispatched(), latencies(dispatchNanos), slaViolations,
+                    slaViolationRate(), statementsPerOccurrence);
+        }
+
+        private static String latencies(long[] sorted) {
+            return String.format(Locale.ROOT, "{\"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"max\": %.3f}",
+                    percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6,
+                    percentile(sorted, 100) / 1e6);
+        }
+    }
+}
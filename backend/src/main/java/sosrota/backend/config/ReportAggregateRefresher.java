@@ -0,0 +1,61 @@
+package sosrota.backend.config;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Soma periodicamente às tabelas de relatório (V16) as ocorrências e os atendimentos gravados
+ * desde a última execução, a partir das marcas d'água de cada tabela de origem.
+ * Só no PostgreSQL (nos testes com H2 não há tabelas de relatório).
+ * [RF07] Consultas e Relatórios.
+ * [Banco de Dados II] Agregação incremental.
+ */
+@Component
+public class ReportAggregateRefresher {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ReportAggregateRefresher.class);
+
+    // Idade mínima das linhas somadas: transações ainda abertas ficam para a execução seguinte
+    private static final int DEFAULT_LAG_SECONDS = 60;
+
+    @Value("${reports.refresh-lag-seconds:60}")
+    private int lagSeconds;
+
+    private final DataSource dataSource;
+
+    public ReportAggregateRefresher(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${reports.refresh-interval-ms:60000}")
+    public void refresh() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT fn_atualiza_relatorios(?, make_interval(secs => ?))")) {
+                // O corte parte do relógio da aplicação, o mesmo que carimba abertura e despacho
+                statement.setObject(1, LocalDateTime.now());
+                statement.setInt(2, lagSeconds > 0 ? lagSeconds : DEFAULT_LAG_SECONDS);
+                try (ResultSet rs = statement.executeQuery()) {
+                    int somadas = rs.next() ? rs.getInt(1) : 0;
+                    if (somadas > 0) {
+                        logger.debug("Linhas somadas às tabelas de relatório: {}.", somadas);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.warn("Falha ao atualizar as tabelas de relatório: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package sosrota.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import sosrota.backend.routing.RouteCache;
+import sosrota.backend.service.DijsktraService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro das métricas do serviço de rotas (Micrometer).
+ * Expõe tamanho do grafo, custo (memória/tempo) da matriz de distâncias e
+ * espaço de busca das consultas (vértices fixados por consulta) e eficácia dos caches de rotas.
+ * [RNF] Monitoramento de desempenho.
+ */
+@Component
+public class RoutingMetrics implements MeterBinder {
+
+    private final DijsktraService dijsktraService;
+
+    public RoutingMetrics(DijsktraService dijsktraService) {
+        this.dijsktraService = dijsktraService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("routing.graph.nodes", dijsktraService, DijsktraService::getNodeCount)
+                .description("Bairros (vértices) no grafo de rotas")
+                .register(registry);
+        Gauge.builder("routing.graph.version", dijsktraService, DijsktraService::getGraphVersion)
+                .description("Versão publicada do grafo de rotas")
+                .register(registry);
+        Gauge.builder("routing.graph.arcs", dijsktraService, DijsktraService::getArcCount)
+                .description("Arcos direcionados no grafo de rotas")
+                .register(registry);
+        Gauge.builder("routing.graph.memory", dijsktraService, DijsktraService::getGraphBytes)
+                .description("Memória estimada dos vetores CSR (grafo e transposto)")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("routing.graph.mapped", dijsktraService, DijsktraService::getGraphMappedBytes)
+                .description("Bytes do grafo mapeados fora do heap (routing.graph.storage=mapped)")
+                .baseUnit("bytes")
+                .register(registry);
+        TimeGauge.builder("routing.graph.load.time", dijsktraService, TimeUnit.MILLISECONDS, DijsktraService::getGraphLoadMillis)
+                .description("Duração da última carga do grafo (arquivo binário ou banco)")
+                .register(registry);
+        Gauge.builder("routing.matrix.active", dijsktraService, s -> s.isMatrixActive() ? 1 : 0)
+                .description("1 se as rotas são servidas pela matriz pré-calculada")
+                .register(registry);
+        Gauge.builder("routing.matrix.memory", dijsktraService, DijsktraService::getMatrixBytes)
+                .description("Memória estimada da matriz de distâncias e próximos saltos")
+                .baseUnit("bytes")
+                .register(registry);
+        TimeGauge.builder("routing.matrix.build.time", dijsktraService, TimeUnit.MILLISECONDS, DijsktraService::getMatrixBuildMillis)
+                .description("Duração da última construção ou atualização da matriz")
+                .register(registry);
+        Gauge.builder("routing.matrix.rows.refreshed", dijsktraService, DijsktraService::getMatrixRefreshedRows)
+                .description("Linhas recalculadas na última construção ou atualização da matriz")
+                .register(registry);
+        FunctionCounter.builder("routing.query.count", dijsktraService, DijsktraService::getQueryCount)
+                .description("Consultas de caminho mínimo ponto a ponto")
+                .register(registry);
+        FunctionCounter.builder("routing.query.settled", dijsktraService, DijsktraService::getSettledNodes)
+                .description("Vértices fixados pelas consultas ponto a ponto (somatório)")
+                .register(registry);
+        bindCache(registry, "path", dijsktraService.getPathCache());
+        bindCache(registry, "dispatch", dijsktraService.getDispatchCache());
+    }
+
+    private void bindCache(MeterRegistry registry, String name, RouteCache<?, ?> cache) {
+        FunctionCounter.builder("routing.cache.hits", cache, RouteCache::hitCount)
+                .description("Consultas respondidas pelo cache de rotas")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("routing.cache.misses", cache, RouteCache::missCount)
+                .description("Consultas não encontradas no cache de rotas")
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("routing.cache.evictions", cache, RouteCache::evictionCount)
+                .description("Entradas descartadas por limite de tamanho (LRU)")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("routing.cache.size", cache, RouteCache::size)
+                .description("Entradas no cache de rotas")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("routing.cache.memory", cache, RouteCache::estimatedBytes)
+                .description("Memória estimada do cache de rotas")
+                .baseUnit("bytes")
+                .tag("cache", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,558 @@
+package sosrota.backend.config;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Aresta;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Profissional;
+import sosrota.backend.entity.Turno;
+import sosrota.backend.repository.AmbulanciaRepository;
+import sosrota.backend.repository.ArestaRepository;
+import sosrota.backend.repository.BairroRepository;
+import sosrota.backend.repository.EquipeRepository;
+import sosrota.backend.repository.ProfissionalRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Gerador de cidades sintéticas para testes de capacidade: malha viária, frota, profissionais e equipes
+ * em escala configurável (o mapa distribuído tem apenas 20 bairros e 60 ruas).
+ * Topologias:
+ * - GRID: malha planar com perturbação (cruzamentos deslocados, ruas removidas sem desconectar
+ *   a malha e algumas diagonais);
+ * - HUB: centros (hubs) ligados por avenidas, com bairros ao redor ligados em direção ao seu centro;
+ * - ROAD: bairros espalhados com o grau sorteado da distribuição típica de malhas viárias reais
+ *   (predomínio de cruzamentos de 3 e 4 ruas), ligados aos vizinhos mais próximos.
+ * As distâncias são euclidianas com fator de desvio (ruas não são retas). O grafo gerado é sempre conexo.
+ * Cada ambulância recebe uma equipe completa por turno.
+ * A mesma semente gera sempre a mesma cidade.
+ * [RF04] Mapa e Rotas.
+ * [Estrutura de Dados II] Geração de grafos planares e índice espacial em grade.
+ */
+@Component
+public class SyntheticCityGenerator {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SyntheticCityGenerator.class);
+
+    // Distância média entre cruzamentos vizinhos (km)
+    static final double SPACING_KM = 0.5;
+
+    // Distribuição de graus de malhas viárias reais: grau -> probabilidade acumulada
+    private static final int[] ROAD_DEGREES = {1, 2, 3, 4, 5};
+    private static final double[] ROAD_DEGREE_CDF = {0.08, 0.15, 0.67, 0.97, 1.0};
+    // Anéis de células examinados ao procurar vizinhos com grau livre (ruas locais)
+    private static final int ROAD_SEARCH_RINGS = 2;
+
+    private static final int SAVE_CHUNK = 1000;
+
+    @Value("${seed.synthetic.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seed.synthetic.topology:GRID}")
+    private String topology;
+
+    @Value("${seed.synthetic.bairros:10000}")
+    private int bairros;
+
+    @Value("${seed.synthetic.ambulancias:200}")
+    private int ambulancias;
+
+    @Value("${seed.synthetic.usa-fraction:0.3}")
+    private double usaFraction;
+
+    @Value("${seed.synthetic.perturbation:0.15}")
+    private double perturbation;
+
+    @Value("${seed.synthetic.seed:42}")
+    private long seed;
+
+    private final BairroRepository bairroRepository;
+    private final ArestaRepository arestaRepository;
+    private final AmbulanciaRepository ambulanciaRepository;
+    private final ProfissionalRepository profissionalRepository;
+    private final EquipeRepository equipeRepository;
+
+    public SyntheticCityGenerator(BairroRepository bairroRepository, ArestaRepository arestaRepository,
+                                  AmbulanciaRepository ambulanciaRepository, ProfissionalRepository profissionalRepository,
+                                  EquipeRepository equipeRepository) {
+        this.bairroRepository = bairroRepository;
+        this.arestaRepository = arestaRepository;
+        this.ambulanciaRepository = ambulanciaRepository;
+        this.profissionalRepository = profissionalRepository;
+        this.equipeRepository = equipeRepository;
+    }
+
+    /**
+     * Indica se a carga inicial deve usar a cidade sintética em vez dos CSVs.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Parâmetros configurados em seed.synthetic.*.
+     */
+    public Spec configuredSpec() {
+        Spec spec = new Spec();
+        spec.setTopology(Topology.valueOf(topology.trim().toUpperCase()));
+        spec.setBairros(bairros);
+        spec.setAmbulancias(ambulancias);
+        spec.setUsaFraction(usaFraction);
+        spec.setPerturbation(perturbation);
+        spec.setSeed(seed);
+        return spec;
+    }
+
+    /**
+     * Gera a cidade em memória (sem acesso ao banco).
+     *
+     * @param spec Parâmetros
+     * @return Bairros, ruas, frota, profissionais e equipes
+     */
+    public City generate(Spec spec) {
+        if (spec.getBairros() < 2) {
+            throw new IllegalArgumentException("A cidade sintética precisa de pelo menos 2 bairros.");
+        }
+        long inicio = System.currentTimeMillis();
+        Random random = new Random(spec.getSeed());
+        Layout layout;
+        switch (spec.getTopology()) {
+            case HUB: layout = hubAndSpoke(spec.getBairros(), random); break;
+            case ROAD: layout = roadDegrees(spec.getBairros(), random); break;
+            default: layout = perturbedGrid(spec.getBairros(), spec.getPerturbation(), random); break;
+        }
+        layout.connectComponents();
+
+        City city = new City();
+        for (int i = 0; i < layout.n; i++) {
+            city.bairros.add(new Bairro(i + 1, "Bairro " + (i + 1)));
+        }
+        int arestaId = 0;
+        for (long edge : layout.edges) {
+            int a = (int) (edge >>> 32);
+            int b = (int) edge;
+            double km = layout.distance(a, b) * (1.05 + random.nextDouble() * 0.3);
+            city.arestas.add(new Aresta(++arestaId, city.bairros.get(a), city.bairros.get(b), Math.max(0.01, Math.round(km * 100) / 100.0)));
+        }
+        generateFleet(city, spec, random);
+        logger.info("Cidade sintética {} gerada em {} ms: {} bairros, {} ruas, {} ambulâncias, {} profissionais.",
+                spec.getTopology(), System.currentTimeMillis() - inicio, city.bairros.size(), city.arestas.size(),
+                city.ambulancias.size(), city.profissionais.size());
+        return city;
+    }
+
+    /**
+     * Grava a cidade gerada (banco vazio: IDs de bairros e ruas começam em 1).
+     *
+     * @param city Cidade gerada
+     * [Banco de Dados II] Gravação em lotes.
+     */
+    @Transactional
+    public void persist(City city) {
+        long inicio = System.currentTimeMillis();
+        saveInChunks(bairroRepository, city.bairros);
+        saveInChunks(arestaRepository, city.arestas);
+        // Entidades novas (ID gerado) são persistidas na própria instância referenciada pelas equipes
+        saveInChunks(ambulanciaRepository, city.ambulancias);
+        saveInChunks(profissionalRepository, city.profissionais);
+        saveInChunks(equipeRepository, city.equipes);
+        logger.info("Cidade sintética gravada em {} ms.", System.currentTimeMillis() - inicio);
+    }
+
+    private static <T> void saveInChunks(JpaRepository<T, Integer> repository, List<T> rows) {
+        for (int from = 0; from < rows.size(); from += SAVE_CHUNK) {
+            repository.saveAll(rows.subList(from, Math.min(rows.size(), from + SAVE_CHUNK)));
+            repository.flush();
+        }
+    }
+
+    /**
+     * Frota distribuída por bases sorteadas, com uma equipe completa por turno:
+     * motorista e enfermeiro (mais médico nas USA).
+     */
+    private void generateFleet(City city, Spec spec, Random random) {
+        for (int i = 0; i < spec.getAmbulancias(); i++) {
+            Ambulancia ambulancia = new Ambulancia();
+            ambulancia.setPlaca(String.format("SYN%05d", i + 1));
+            ambulancia.setTipo(random.nextDouble() < spec.getUsaFraction() ? "USA" : "USB");
+            ambulancia.setStatus("DISPONIVEL");
+            ambulancia.setBairro(city.bairros.get(random.nextInt(city.bairros.size())));
+            city.ambulancias.add(ambulancia);
+
+            for (Turno turno : Turno.values()) {
+                List<Profissional> membros = new ArrayList<>();
+                membros.add(profissional(city, "Motorista", "MOTORISTA", ambulancia, turno));
+                membros.add(profissional(city, "Enfermeiro", "ENFERMEIRO", ambulancia, turno));
+                if ("USA".equals(ambulancia.getTipo())) {
+                    membros.add(profissional(city, "Médico", "MEDICO", ambulancia, turno));
+                }
+                Equipe equipe = new Equipe();
+                equipe.setDescricao("Equipe " + ambulancia.getPlaca() + " " + turno);
+                equipe.setAmbulancia(ambulancia);
+                equipe.setTurno(turno);
+                equipe.setProfissionais(membros);
+                city.equipes.add(equipe);
+            }
+        }
+    }
+
+    private static Profissional profissional(City city, String nome, String funcao, Ambulancia ambulancia, Turno turno) {
+        Profissional profissional = new Profissional();
+        profissional.setNome(nome + " " + ambulancia.getPlaca() + " " + turno);
+        profissional.setFuncao(funcao);
+        profissional.setAtivo(true);
+        profissional.setTurno(turno);
+        city.profissionais.add(profissional);
+        return profissional;
+    }
+
+    /**
+     * Malha quadrada com cruzamentos deslocados. Uma árvore geradora aleatória da malha é sempre
+     * mantida; as demais ruas são removidas com probabilidade {@code perturbation}, e diagonais
+     * (atalhos) são criadas com probabilidade {@code perturbation / 3}.
+     */
+    private static Layout perturbedGrid(int n, double perturbation, Random random) {
+        int side = (int) Math.ceil(Math.sqrt(n));
+        Layout layout = new Layout(n);
+        for (int i = 0; i < n; i++) {
+            layout.x[i] = (i % side + (random.nextDouble() - 0.5) * 0.5) * SPACING_KM;
+            layout.y[i] = (i / side + (random.nextDouble() - 0.5) * 0.5) * SPACING_KM;
+        }
+        List<long[]> candidatas = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int c = i % side;
+            if (c + 1 < side && i + 1 < n) {
+                candidatas.add(new long[]{i, i + 1});
+            }
+            if (i + side < n) {
+                candidatas.add(new long[]{i, i + side});
+            }
+        }
+        // Kruskal com ordem aleatória: as ruas que unem componentes formam a árvore geradora
+        for (int i = candidatas.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long[] t = candidatas.get(i);
+            candidatas.set(i, candidatas.get(j));
+            candidatas.set(j, t);
+        }
+        double drop = Math.min(Math.max(perturbation, 0.0), 0.9);
+        for (long[] c : candidatas) {
+            int a = (int) c[0];
+            int b = (int) c[1];
+            if (layout.union(a, b) || random.nextDouble() >= drop) {
+                layout.addEdge(a, b);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (i % side + 1 < side && i + side + 1 < n && random.nextDouble() < drop / 3) {
+                layout.addEdge(i, i + side + 1);
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Centros (hubs) ligados em anel e ao centro mais próximo; cada bairro se liga ao vizinho mais
+     * próximo que esteja mais perto do seu centro (ruas radiais) e a mais um vizinho (ruas locais).
+     */
+    private static Layout hubAndSpoke(int n, Random random) {
+        int hubs = Math.max(2, (int) Math.round(Math.sqrt(n) / 5));
+        double cidade = Math.sqrt(n) * SPACING_KM;
+        double raio = cidade / Math.sqrt(hubs) / 2;
+        Layout layout = new Layout(n);
+        int[] hubOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (i < hubs) {
+                layout.x[i] = random.nextDouble() * cidade;
+                layout.y[i] = random.nextDouble() * cidade;
+                hubOf[i] = i;
+            } else {
+                int h = random.nextInt(hubs);
+                hubOf[i] = h;
+                layout.x[i] = layout.x[h] + random.nextGaussian() * raio;
+                layout.y[i] = layout.y[h] + random.nextGaussian() * raio;
+            }
+        }
+        layout.buildIndex();
+
+        // Avenidas entre os centros
+        for (int h = 0; h < hubs; h++) {
+            layout.addEdge(h, (h + 1) % hubs);
+            int ha = h;
+            for (int o : layout.nearest(h, 1, j -> j < hubs && j != ha)) {
+                layout.addEdge(h, o);
+            }
+        }
+        for (int i = hubs; i < n; i++) {
+            int h = hubOf[i];
+            double di = layout.distance(i, h);
+            int[] radial = layout.nearest(i, 1, j -> hubOf[j] == h && layout.distance(j, h) < di);
+            layout.addEdge(i, radial.length > 0 ? radial[0] : h);
+            int ii = i;
+            for (int local : layout.nearest(i, 1, j -> j != ii && !layout.hasEdge(ii, j))) {
+                layout.addEdge(i, local);
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Bairros espalhados uniformemente; cada um se liga aos vizinhos mais próximos até atingir o grau
+     * sorteado da distribuição de malhas viárias reais.
+     */
+    private static Layout roadDegrees(int n, Random random) {
+        double cidade = Math.sqrt(n) * SPACING_KM;
+        Layout layout = new Layout(n);
+        for (int i = 0; i < n; i++) {
+            layout.x[i] = random.nextDouble() * cidade;
+            layout.y[i] = random.nextDouble() * cidade;
+        }
+        layout.buildIndex();
+        int[] alvo = new int[n];
+        for (int i = 0; i < n; i++) {
+            double u = random.nextDouble();
+            alvo[i] = ROAD_DEGREES[ROAD_DEGREES.length - 1];
+            for (int k = 0; k < ROAD_DEGREE_CDF.length; k++) {
+                if (u < ROAD_DEGREE_CDF[k]) {
+                    alvo[i] = ROAD_DEGREES[k];
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int faltam = alvo[i] - layout.degree(i);
+            if (faltam <= 0) {
+                continue;
+            }
+            // Prefere vizinhos que ainda não atingiram o próprio grau, preservando a distribuição
+            int ii = i;
+            int[] livres = layout.nearest(i, faltam, ROAD_SEARCH_RINGS, j -> j != ii && layout.degree(j) < alvo[j] && !layout.hasEdge(ii, j));
+            for (int j : livres) {
+                layout.addEdge(i, j);
+            }
+            if (livres.length == 0 && layout.degree(i) == 0) {
+                for (int j : layout.nearest(i, 1, j -> j != ii)) {
+                    layout.addEdge(i, j);
+                }
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Topologias disponíveis.
+     */
+    public enum Topology {
+        GRID,
+        HUB,
+        ROAD
+    }
+
+    /**
+     * Parâmetros da cidade sintética.
+     */
+    @Data
+    public static class Spec {
+        private Topology topology = Topology.GRID;
+        private int bairros = 10000;
+        private int ambulancias = 200;
+        private double usaFraction = 0.3;
+        private double perturbation = 0.15;
+        private long seed = 42;
+    }
+
+    /**
+     * Cidade gerada (entidades ainda não gravadas).
+     */
+    public static class City {
+        public final List<Bairro> bairros = new ArrayList<>();
+        public final List<Aresta> arestas = new ArrayList<>();
+        public final List<Ambulancia> ambulancias = new ArrayList<>();
+        public final List<Profissional> profissionais = new ArrayList<>();
+        public final List<Equipe> equipes = new ArrayList<>();
+    }
+
+    /**
+     * Coordenadas, ruas (pares de índices) e índice espacial em grade para vizinhos mais próximos.
+     */
+    private static final class Layout {
+        final int n;
+        final double[] x;
+        final double[] y;
+        final Set<Long> edges = new LinkedHashSet<>();
+        final int[] degree;
+        final int[] parent;
+
+        // Índice espacial: célula -> primeiro bairro, bairro -> próximo da mesma célula
+        private double cell;
+        private double minX;
+        private double minY;
+        private int cols;
+        private int rows;
+        private int[] head;
+        private int[] next;
+
+        Layout(int n) {
+            this.n = n;
+            this.x = new double[n];
+            this.y = new double[n];
+            this.degree = new int[n];
+            this.parent = new int[n];
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+            }
+        }
+
+        double distance(int a, int b) {
+            return Math.hypot(x[a] - x[b], y[a] - y[b]);
+        }
+
+        int degree(int i) {
+            return degree[i];
+        }
+
+        boolean hasEdge(int a, int b) {
+            return edges.contains(key(a, b));
+        }
+
+        void addEdge(int a, int b) {
+            if (a != b && edges.add(key(a, b))) {
+                degree[a]++;
+                degree[b]++;
+                union(a, b);
+            }
+        }
+
+        private static long key(int a, int b) {
+            return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        }
+
+        int find(int i) {
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
+        }
+
+        /**
+         * Une os componentes de a e b.
+         *
+         * @return true se estavam separados
+         */
+        boolean union(int a, int b) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return false;
+            }
+            parent[ra] = rb;
+            return true;
+        }
+
+        void buildIndex() {
+            minX = Arrays.stream(x).min().orElse(0);
+            minY = Arrays.stream(y).min().orElse(0);
+            double maxX = Arrays.stream(x).max().orElse(0);
+            double maxY = Arrays.stream(y).max().orElse(0);
+            cell = SPACING_KM;
+            cols = Math.max(1, (int) ((maxX - minX) / cell) + 1);
+            rows = Math.max(1, (int) ((maxY - minY) / cell) + 1);
+            head = new int[cols * rows];
+            Arrays.fill(head, -1);
+            next = new int[n];
+            for (int i = 0; i < n; i++) {
+                int c = cellOf(i);
+                next[i] = head[c];
+                head[c] = i;
+            }
+        }
+
+        private int cellOf(int i) {
+            int cx = Math.min(cols - 1, (int) ((x[i] - minX) / cell));
+            int cy = Math.min(rows - 1, (int) ((y[i] - minY) / cell));
+            return cy * cols + cx;
+        }
+
+        /**
+         * Os {@code k} bairros aceitos mais próximos de {@code i}, em anéis crescentes de células.
+         */
+        int[] nearest(int i, int k, IntPredicate accept) {
+            return nearest(i, k, Math.max(cols, rows), accept);
+        }
+
+        /**
+         * Idem, examinando no máximo {@code maxRing} anéis de células ao redor de {@code i}.
+         */
+        int[] nearest(int i, int k, int maxRing, IntPredicate accept) {
+            int cx = Math.min(cols - 1, (int) ((x[i] - minX) / cell));
+            int cy = Math.min(rows - 1, (int) ((y[i] - minY) / cell));
+            int[] best = new int[k];
+            double[] bestDist = new double[k];
+            Arrays.fill(bestDist, Double.POSITIVE_INFINITY);
+            int found = 0;
+            for (int r = 0; r <= maxRing; r++) {
+                // Nenhum bairro além do anel r está a menos de (r - 1) células
+                if (found == k && bestDist[k - 1] < (r - 1) * cell) {
+                    break;
+                }
+                for (int gy = cy - r; gy <= cy + r; gy++) {
+                    if (gy < 0 || gy >= rows) {
+                        continue;
+                    }
+                    boolean borda = gy == cy - r || gy == cy + r;
+                    for (int gx = cx - r; gx <= cx + r; gx += borda ? 1 : 2 * r) {
+                        if (gx >= 0 && gx < cols) {
+                            for (int j = head[gy * cols + gx]; j >= 0; j = next[j]) {
+                                if (!accept.test(j)) {
+                                    continue;
+                                }
+                                double d = distance(i, j);
+                                if (found < k || d < bestDist[k - 1]) {
+                                    int p = found < k ? found++ : k - 1;
+                                    while (p > 0 && bestDist[p - 1] > d) {
+                                        best[p] = best[p - 1];
+                                        bestDist[p] = bestDist[p - 1];
+                                        p--;
+                                    }
+                                    best[p] = j;
+                                    bestDist[p] = d;
+                                }
+                            }
+                        }
+                        if (r == 0) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOf(best, found);
+        }
+
+        /**
+         * Liga cada componente isolado ao bairro mais próximo do componente principal.
+         */
+        void connectComponents() {
+            if (head == null) {
+                buildIndex();
+            }
+            for (int i = 1; i < n; i++) {
+                if (find(i) != find(0)) {
+                    int[] alvo = nearest(i, 1, j -> find(j) == find(0));
+                    addEdge(i, alvo[0]);
+                }
+            }
+        }
+    }
+}
@@ -2,8 +2,11 @@ package sosrota.backend.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import sosrota.backend.dto.AmbulanciaResumoDTO;
+import sosrota.backend.dto.PaginaDTO;
 import sosrota.backend.entity.Ambulancia;
 import sosrota.backend.service.AmbulanciaService;
+import sosrota.backend.service.ListagemService;
 
 import java.util.List;
 
@@ -18,9 +21,11 @@ import java.util.List;
 public class AmbulanciaController {
 
     private final AmbulanciaService ambulanciaService;
+    private final ListagemService listagemService;
 
-    public AmbulanciaController(AmbulanciaService ambulanciaService) {
+    public AmbulanciaController(AmbulanciaService ambulanciaService, ListagemService listagemService) {
         this.ambulanciaService = ambulanciaService;
+        this.listagemService = listagemService;
     }
 
     /**
@@ -35,6 +40,26 @@ public class AmbulanciaController {
         return ambulanciaService.findAll();
     }
 
+    /**
+     * Lista ambulâncias paginadas por chave (ID), com filtros opcionais e sem carregar a base completa.
+     *
+     * @param status Status operacional
+     * @param tipo Tipo (USA, USB)
+     * @param bairroId Bairro da base
+     * @param apos Cursor da página anterior
+     * @param limite Linhas por página
+     * @return Página de ambulâncias
+     * [RF02] Leitura de dados de frota.
+     */
+    @GetMapping("/resumo")
+    public PaginaDTO<AmbulanciaResumoDTO> listResumo(@RequestParam(required = false) String status,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) Integer bairroId,
+            @RequestParam(required = false) String apos,
+            @RequestParam(required = false) Integer limite) {
+        return listagemService.listAmbulancias(status, tipo, bairroId, apos, limite);
+    }
+
     /**
      * Busca uma ambulância específica pelo seu ID.
      *
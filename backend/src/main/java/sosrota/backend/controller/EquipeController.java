@@ -2,8 +2,12 @@ package sosrota.backend.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import sosrota.backend.dto.EquipeResumoDTO;
+import sosrota.backend.dto.PaginaDTO;
 import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Turno;
 import sosrota.backend.service.EquipeService;
+import sosrota.backend.service.ListagemService;
 
 import java.util.List;
 
@@ -17,9 +21,11 @@ import java.util.List;
 public class EquipeController {
 
     private final EquipeService equipeService;
+    private final ListagemService listagemService;
 
-    public EquipeController(EquipeService equipeService) {
+    public EquipeController(EquipeService equipeService, ListagemService listagemService) {
         this.equipeService = equipeService;
+        this.listagemService = listagemService;
     }
 
     /**
@@ -33,6 +39,25 @@ public class EquipeController {
         return equipeService.findAll();
     }
 
+    /**
+     * Lista equipes paginadas por chave (ID), com a ambulância e a quantidade de profissionais
+     * em vez dos profissionais completos.
+     *
+     * @param turno Turno
+     * @param ambulanciaId Ambulância da equipe
+     * @param apos Cursor da página anterior
+     * @param limite Linhas por página
+     * @return Página de equipes
+     * [RF03] Listagem.
+     */
+    @GetMapping("/resumo")
+    public PaginaDTO<EquipeResumoDTO> listResumo(@RequestParam(required = false) Turno turno,
+            @RequestParam(required = false) Integer ambulanciaId,
+            @RequestParam(required = false) String apos,
+            @RequestParam(required = false) Integer limite) {
+        return listagemService.listEquipes(turno, ambulanciaId, apos, limite);
+    }
+
     /**
      * Busca equipe por ID.
      *
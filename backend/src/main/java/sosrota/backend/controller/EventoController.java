@@ -0,0 +1,104 @@
+package sosrota.backend.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import sosrota.backend.service.JwtService;
+import sosrota.backend.service.StateEventStream;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Controlador do fluxo de eventos (Server-Sent Events) de ocorrências e frota.
+ * O cliente carrega as listas uma vez e passa a receber apenas as alterações; ao reconectar,
+ * o navegador envia o Last-Event-ID e recebe o que perdeu. Um evento "reset" indica que as
+ * listas devem ser recarregadas.
+ * Autenticação: o EventSource do navegador não envia o cabeçalho Authorization. O cliente obtém
+ * um ticket curto em POST /api/eventos/ticket (com o token Bearer) e abre
+ * {@code new EventSource("/api/eventos?ticket=...")}; reconexões automáticas reutilizam o ticket
+ * enquanto ele vale. Expirado, o cliente pede outro e reabre o fluxo com {@code lastEventId=...}
+ * na URL para não perder eventos.
+ * [RF07] Acompanhamento em tempo real.
+ * [Interface de Comunicação] Server-Sent Events.
+ */
+@RestController
+@RequestMapping("/api/eventos")
+public class EventoController {
+
+    // Duração máxima de uma conexão; o navegador reconecta com o Last-Event-ID
+    private static final long DEFAULT_TIMEOUT_MS = 1_800_000;
+    // Espera sugerida ao cliente antes de reconectar
+    private static final long RECONNECT_MS = 1_000;
+
+    private final StateEventStream stateEventStream;
+    private final JwtService jwtService;
+
+    @Value("${events.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public EventoController(StateEventStream stateEventStream, JwtService jwtService) {
+        this.stateEventStream = stateEventStream;
+        this.jwtService = jwtService;
+    }
+
+    /**
+     * Emite um ticket para abrir o fluxo de eventos sem cabeçalhos (EventSource).
+     *
+     * @param user Usuário autenticado pelo token Bearer
+     * @return Ticket e validade em milissegundos
+     * [RF08] Autenticação.
+     */
+    @PostMapping("/ticket")
+    public Map<String, Object> ticket(@AuthenticationPrincipal UserDetails user) {
+        return Map.of("ticket", jwtService.generateStreamTicket(user),
+                "expiraEmMs", jwtService.getStreamTicketExpiration());
+    }
+
+    /**
+     * Abre o fluxo de eventos.
+     *
+     * @param lastEventId Último evento recebido (reconexão automática do navegador)
+     * @param lastEventIdParam Idem, ao reabrir o fluxo com um novo ticket
+     * @return Emissor SSE
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            HttpServletResponse response) {
+        // Desativa o buffer de proxies (nginx) para entrega imediata
+        response.setHeader("X-Accel-Buffering", "no");
+        SseEmitter emitter = new SseEmitter(timeoutMs > 0 ? timeoutMs : DEFAULT_TIMEOUT_MS);
+        StateEventStream.Subscriber subscriber = stateEventStream.subscribe(new StateEventStream.Sink() {
+            @Override
+            public void send(StateEventStream.Event event) throws IOException {
+                Object data = event.data != null ? event.data : Map.of();
+                emitter.send(SseEmitter.event().id(event.id).name(event.type).reconnectTime(RECONNECT_MS)
+                        .data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("ping"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        }, lastEventId != null ? lastEventId : lastEventIdParam);
+        emitter.onCompletion(() -> stateEventStream.unsubscribe(subscriber));
+        emitter.onTimeout(() -> stateEventStream.unsubscribe(subscriber));
+        emitter.onError(e -> stateEventStream.unsubscribe(subscriber));
+        return emitter;
+    }
+}
@@ -1,10 +1,18 @@
 package sosrota.backend.controller;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import sosrota.backend.dispatch.DispatchPipeline;
+import sosrota.backend.dto.DespachoStatusDTO;
+import sosrota.backend.dto.OcorrenciaResumoDTO;
+import sosrota.backend.dto.PaginaDTO;
 import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.service.ListagemService;
 import sosrota.backend.service.OcorrenciaService;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,9 +29,14 @@ public class OcorrenciaController {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(OcorrenciaController.class);
 
     private final OcorrenciaService ocorrenciaService;
+    private final ListagemService listagemService;
+    private final DispatchPipeline dispatchPipeline;
 
-    public OcorrenciaController(OcorrenciaService ocorrenciaService) {
+    public OcorrenciaController(OcorrenciaService ocorrenciaService, DispatchPipeline dispatchPipeline,
+                                ListagemService listagemService) {
         this.ocorrenciaService = ocorrenciaService;
+        this.dispatchPipeline = dispatchPipeline;
+        this.listagemService = listagemService;
     }
 
     /**
@@ -37,6 +50,31 @@ public class OcorrenciaController {
         return ocorrenciaService.findAll();
     }
 
+    /**
+     * Lista ocorrências paginadas por chave, da mais recente para a mais antiga, com filtros opcionais.
+     * Retorna projeções (sem o bairro completo); a próxima página é pedida com {@code apos} = {@code proximo}.
+     *
+     * @param status Status da ocorrência
+     * @param gravidade Gravidade
+     * @param bairroId Bairro da ocorrência
+     * @param inicio Abertura a partir de (ISO, inclusive)
+     * @param fim Abertura antes de (ISO, exclusive)
+     * @param apos Cursor da página anterior
+     * @param limite Linhas por página
+     * @return Página de ocorrências
+     * [RF07] Consulta de ocorrências.
+     */
+    @GetMapping("/resumo")
+    public PaginaDTO<OcorrenciaResumoDTO> listResumo(@RequestParam(required = false) String status,
+            @RequestParam(required = false) String gravidade,
+            @RequestParam(required = false) Integer bairroId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @RequestParam(required = false) String apos,
+            @RequestParam(required = false) Integer limite) {
+        return listagemService.listOcorrencias(status, gravidade, bairroId, inicio, fim, apos, limite);
+    }
+
     /**
      * Busca uma ocorrência por ID.
      *
@@ -50,21 +88,41 @@ public class OcorrenciaController {
     }
 
     /**
-     * Cria uma nova ocorrência e inicia o processo de despacho automático.
+     * Cria uma nova ocorrência e agenda o despacho automático.
+     * A ocorrência é gravada e devolvida com status ABERTA (202 Accepted); a escolha da ambulância
+     * é feita pelo executor de despacho e acompanhada em {@code GET /{id}/despacho}.
      *
      * @param ocorrencia Dados da nova ocorrência
-     * @return Ocorrência criada com status inicial
+     * @return 202 com a ocorrência criada e o endereço da situação do despacho
      * [RF01] Cadastro de Ocorrências.
      * [RF05] Sugestão automática (via Service).
      */
     @PostMapping
-    public Ocorrencia create(@RequestBody Ocorrencia ocorrencia) {
+    public ResponseEntity<Ocorrencia> create(@RequestBody Ocorrencia ocorrencia) {
         logger.info("Recebida requisição para criar Ocorrencia: {}", ocorrencia);
-        return ocorrenciaService.createOcorrencia(ocorrencia);
+        Ocorrencia saved = ocorrenciaService.registerOcorrencia(ocorrencia);
+        dispatchPipeline.submit(saved.getId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ocorrencias/" + saved.getId() + "/despacho"))
+                .body(saved);
+    }
+
+    /**
+     * Situação do despacho de uma ocorrência (na fila, processando, despachada ou aguardando ambulância).
+     *
+     * @param id Identificador da ocorrência
+     * @return Situação do despacho ou 404
+     * [RF06] Despacho e Registro.
+     */
+    @GetMapping("/{id}/despacho")
+    public ResponseEntity<DespachoStatusDTO> getDespacho(@PathVariable Integer id) {
+        DispatchPipeline.Stage etapa = dispatchPipeline.stageOf(id);
+        DespachoStatusDTO status = ocorrenciaService.getDespachoStatus(id, etapa != null ? etapa.name() : null);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
     }
 
     /**
-     * Atualiza dados de uma ocorrência.
+     * Atualiza dados de uma ocorrência, sem alterar o status.
      *
      * @param id Identificador da ocorrência
      * @param ocorrencia Dados atualizados
@@ -72,12 +130,8 @@ public class OcorrenciaController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<Ocorrencia> update(@PathVariable Integer id, @RequestBody Ocorrencia ocorrencia) {
-        Ocorrencia existing = ocorrenciaService.findById(id);
-        if (existing == null) {
-            return ResponseEntity.notFound().build();
-        }
-        ocorrencia.setId(id);
-        return ResponseEntity.ok(ocorrenciaService.createOcorrencia(ocorrencia));
+        Ocorrencia atualizada = ocorrenciaService.updateOcorrencia(id, ocorrencia);
+        return atualizada != null ? ResponseEntity.ok(atualizada) : ResponseEntity.notFound().build();
     }
 
     /**
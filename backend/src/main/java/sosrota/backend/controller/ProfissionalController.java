@@ -2,7 +2,11 @@ package sosrota.backend.controller;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import sosrota.backend.dto.PaginaDTO;
+import sosrota.backend.dto.ProfissionalResumoDTO;
 import sosrota.backend.entity.Profissional;
+import sosrota.backend.entity.Turno;
+import sosrota.backend.service.ListagemService;
 import sosrota.backend.service.ProfissionalService;
 
 import java.util.List;
@@ -17,9 +21,11 @@ import java.util.List;
 public class ProfissionalController {
 
     private final ProfissionalService profissionalService;
+    private final ListagemService listagemService;
 
-    public ProfissionalController(ProfissionalService profissionalService) {
+    public ProfissionalController(ProfissionalService profissionalService, ListagemService listagemService) {
         this.profissionalService = profissionalService;
+        this.listagemService = listagemService;
     }
 
     /**
@@ -33,6 +39,26 @@ public class ProfissionalController {
         return profissionalService.findAll();
     }
 
+    /**
+     * Lista profissionais paginados por chave (ID), com filtros opcionais.
+     *
+     * @param funcao Função (MOTORISTA, ENFERMEIRO, MEDICO)
+     * @param turno Turno
+     * @param ativo Situação cadastral
+     * @param apos Cursor da página anterior
+     * @param limite Linhas por página
+     * @return Página de profissionais
+     * [RF03] Listagem.
+     */
+    @GetMapping("/resumo")
+    public PaginaDTO<ProfissionalResumoDTO> listResumo(@RequestParam(required = false) String funcao,
+            @RequestParam(required = false) Turno turno,
+            @RequestParam(required = false) Boolean ativo,
+            @RequestParam(required = false) String apos,
+            @RequestParam(required = false) Integer limite) {
+        return listagemService.listProfissionais(funcao, turno, ativo, apos, limite);
+    }
+
     /**
      * Busca profissional por ID.
      *
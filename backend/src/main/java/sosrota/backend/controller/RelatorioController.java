@@ -1,10 +1,14 @@
 package sosrota.backend.controller;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import sosrota.backend.dto.RelatorioSlaDTO;
 import sosrota.backend.service.RelatorioService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -25,22 +29,46 @@ public class RelatorioController {
     /**
      * Relatório de atendimentos agrupados por bairro.
      *
+     * @param inicio Abertura a partir de (opcional)
+     * @param fim Abertura antes de (opcional)
      * @return Lista de dados agrupados
      * [RF07] Relatório por localidade.
      */
     @GetMapping("/atendimentos-por-bairro")
-    public List<Object[]> getAtendimentosPorBairro() {
-        return relatorioService.getAtendimentosPorBairro();
+    public List<Object[]> getAtendimentosPorBairro(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        return relatorioService.getAtendimentosPorBairro(inicio, fim);
     }
 
     /**
      * Relatório de tempo médio de atendimento.
      *
+     * @param inicio Despacho a partir de (opcional)
+     * @param fim Despacho antes de (opcional)
      * @return Lista de médias
      * [RF07] Relatório de performance.
      */
     @GetMapping("/tempo-medio")
-    public List<Object[]> getTempoMedioAtendimento() {
-        return relatorioService.getTempoMedioAtendimento();
+    public List<Object[]> getTempoMedioAtendimento(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        return relatorioService.getTempoMedioAtendimento(inicio, fim);
+    }
+
+    /**
+     * Relatório de SLA: taxa de estouro e percentis do tempo de resposta.
+     *
+     * @param agrupar bairro, tipo (de ambulância) ou gravidade
+     * @param inicio Despacho a partir de (opcional)
+     * @param fim Despacho antes de (opcional)
+     * @return Uma linha por grupo
+     * [RF07] Relatório de performance.
+     */
+    @GetMapping("/sla")
+    public List<RelatorioSlaDTO> getSla(@RequestParam(defaultValue = "tipo") String agrupar,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        return relatorioService.getSla(agrupar, inicio, fim);
     }
 }
@@ -0,0 +1,80 @@
+package sosrota.backend.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import sosrota.backend.routing.GraphSnapshot;
+import sosrota.backend.service.DijsktraService;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controlador para consulta de rotas entre bairros.
+ * [RF04] Cadastro de Mapa e Rotas.
+ * [Interface de Comunicação] API REST.
+ */
+@RestController
+@RequestMapping("/api/rotas")
+public class RotaController {
+
+    private final DijsktraService dijsktraService;
+
+    public RotaController(DijsktraService dijsktraService) {
+        this.dijsktraService = dijsktraService;
+    }
+
+    /**
+     * Calcula a rota entre dois bairros com o motor configurado.
+     *
+     * @param origem ID do bairro de origem
+     * @param destino ID do bairro de destino
+     * @return Caminho (bairros, ruas, distância e vértices fixados) ou 404 se inalcançável
+     * [RF04] Cálculo de caminho mínimo.
+     */
+    @GetMapping
+    public ResponseEntity<DijsktraService.PathResult> rota(@RequestParam Integer origem, @RequestParam Integer destino) {
+        DijsktraService.PathResult result = dijsktraService.findShortestPath(origem, destino);
+        return Double.isNaN(result.totalDistance) ? ResponseEntity.notFound().build() : ResponseEntity.ok(result);
+    }
+
+    /**
+     * Compara o espaço de busca do motor configurado com o Dijkstra simples para a mesma consulta.
+     *
+     * @param origem ID do bairro de origem
+     * @param destino ID do bairro de destino
+     * @return Motor, distâncias e vértices fixados por cada busca
+     * [RNF] Monitoramento de desempenho.
+     */
+    @GetMapping("/comparacao")
+    public ResponseEntity<Map<String, Object>> comparacao(@RequestParam Integer origem, @RequestParam Integer destino) {
+        DijsktraService.PathResult result = dijsktraService.findShortestPath(origem, destino);
+        DijsktraService.PathResult baseline = dijsktraService.findShortestPathBaseline(origem, destino);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("motor", dijsktraService.getEngineName());
+        response.put("distancia", result.totalDistance);
+        response.put("verticesFixados", result.settledNodes);
+        response.put("distanciaDijkstra", baseline.totalDistance);
+        response.put("verticesFixadosDijkstra", baseline.settledNodes);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Versão do grafo em uso pelas consultas (recarregada automaticamente quando o mapa muda).
+     *
+     * @return Versão publicada, contador de alterações do banco e tamanho do grafo
+     * [RF04] Atualização do mapa sem reinicialização.
+     */
+    @GetMapping("/graph-version")
+    public ResponseEntity<Map<String, Object>> graphVersion() {
+        GraphSnapshot snapshot = dijsktraService.getSnapshot();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("versao", snapshot.version());
+        response.put("versaoBanco", snapshot.sourceVersion());
+        response.put("bairros", snapshot.graph().nodeCount());
+        response.put("arcos", snapshot.graph().arcCount());
+        response.put("motor", snapshot.engine().name());
+        response.put("publicadaEm", Instant.ofEpochMilli(snapshot.createdAtMillis()).toString());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,211 @@
+package sosrota.backend.dispatch;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sosrota.backend.service.OcorrenciaService;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Etapa assíncrona de despacho: a requisição HTTP apenas grava a ocorrência e a entrega a este
+ * executor, que escolhe a ambulância fora da transação da requisição.
+ * O executor é limitado (número de threads e fila de tamanho fixo). Com a fila cheia, o despacho
+ * é executado na própria thread da requisição, o que desacelera quem envia (contrapressão)
+ * sem descartar ocorrências.
+ * Os lotes da fila de espera disparados pela liberação de uma ambulância também passam por este
+ * executor (após o commit da liberação), e não pela thread da requisição.
+ * Mesmo assim, despachos podem correr em paralelo (várias threads, ou na thread da requisição com a
+ * fila cheia): a exclusividade de ocorrência e ambulância é garantida pela reserva com UPDATE
+ * condicional de status em {@link OcorrenciaService}, não pelo número de threads.
+ * O resultado de cada despacho é registrado no histórico da ocorrência.
+ * [RF06] Despacho e Registro.
+ * [RNF] Desempenho sob picos de chamadas.
+ */
+@Component
+public class DispatchPipeline {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DispatchPipeline.class);
+
+    private static final int DEFAULT_THREADS = 1;
+    private static final int DEFAULT_QUEUE_CAPACITY = 500;
+
+    @Value("${dispatch.async.threads:1}")
+    private int threads;
+
+    @Value("${dispatch.async.queue-capacity:500}")
+    private int queueCapacity;
+
+    private final OcorrenciaService ocorrenciaService;
+
+    private ThreadPoolExecutor executor;
+
+    // Ocorrências ainda não concluídas pelo executor (ID -> etapa)
+    private final Map<Integer, Stage> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    // Tempo da inicialização da JVM até o primeiro despacho concluído (-1 = nenhum ainda)
+    private final AtomicLong firstDispatchUptimeMillis = new AtomicLong(-1);
+
+    public DispatchPipeline(OcorrenciaService ocorrenciaService) {
+        this.ocorrenciaService = ocorrenciaService;
+    }
+
+    @PostConstruct
+    public void init() {
+        int n = threads > 0 ? threads : DEFAULT_THREADS;
+        int capacity = queueCapacity > 0 ? queueCapacity : DEFAULT_QUEUE_CAPACITY;
+        AtomicInteger sequence = new AtomicInteger();
+        RejectedExecutionHandler backpressure = (task, pool) -> {
+            if (pool.isShutdown()) {
+                // Encerrando: a ocorrência continua ABERTA na fila de espera
+                logger.warn("Executor de despacho encerrado. Despacho não executado.");
+                return;
+            }
+            callerRuns.increment();
+            task.run();
+        };
+        executor = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), r -> {
+            Thread t = new Thread(r, "dispatch-" + sequence.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, backpressure);
+        ocorrenciaService.setFreedAmbulanceHandler(this::submitFreedAmbulance);
+        logger.info("Executor de despacho iniciado: {} threads, fila de {} ocorrências.", n, capacity);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Executor de despacho encerrado com {} despachos pendentes.", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Agenda o despacho de uma ocorrência já gravada (transação concluída).
+     *
+     * @param ocorrenciaId ID da ocorrência ABERTA
+     */
+    public void submit(Integer ocorrenciaId) {
+        long enqueuedAt = System.nanoTime();
+        submitted.increment();
+        inFlight.put(ocorrenciaId, Stage.NA_FILA);
+        executor.execute(() -> run(ocorrenciaId, enqueuedAt));
+    }
+
+    /**
+     * Agenda o processamento da fila de espera para uma ambulância liberada (transação concluída).
+     *
+     * @param ambulanciaId ID da ambulância liberada
+     */
+    public void submitFreedAmbulance(Integer ambulanciaId) {
+        executor.execute(() -> {
+            try {
+                ocorrenciaService.processFreedAmbulance(ambulanciaId);
+            } catch (RuntimeException e) {
+                // As ocorrências continuam ABERTAS na fila de espera
+                logger.error("Falha ao processar a fila de espera para a Ambulancia {}: {}", ambulanciaId, e.getMessage());
+            }
+        });
+    }
+
+    private void run(Integer ocorrenciaId, long enqueuedAt) {
+        inFlight.put(ocorrenciaId, Stage.PROCESSANDO);
+        boolean sucesso = false;
+        try {
+            ocorrenciaService.dispatchPending(ocorrenciaId);
+            sucesso = true;
+            if (firstDispatchUptimeMillis.get() < 0
+                    && firstDispatchUptimeMillis.compareAndSet(-1, ManagementFactory.getRuntimeMXBean().getUptime())) {
+                logger.info("Primeiro despacho concluído {} ms após o início da aplicação.", firstDispatchUptimeMillis.get());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Falha no despacho assíncrono da Ocorrencia {}: {}", ocorrenciaId, e.getMessage());
+            try {
+                ocorrenciaService.registrarFalhaDespacho(ocorrenciaId, e.getMessage());
+            } catch (RuntimeException ex) {
+                logger.error("Não foi possível registrar a falha de despacho da Ocorrencia {}: {}", ocorrenciaId, ex.getMessage());
+            }
+        } finally {
+            latencyNanos.add(System.nanoTime() - enqueuedAt);
+            inFlight.remove(ocorrenciaId);
+            // Contabiliza só depois de sair do executor: quem vê o total já não vê a etapa
+            (sucesso ? completed : failed).increment();
+        }
+    }
+
+    /**
+     * Etapa de uma ocorrência no executor.
+     *
+     * @param ocorrenciaId ID da ocorrência
+     * @return Etapa ou null se não estiver no executor
+     */
+    public Stage stageOf(Integer ocorrenciaId) {
+        return inFlight.get(ocorrenciaId);
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueRemainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    public long getFinishedCount() {
+        return completed.sum() + failed.sum();
+    }
+
+    public long getFirstDispatchUptimeMillis() {
+        return firstDispatchUptimeMillis.get();
+    }
+
+    public double getLatencyNanos() {
+        return latencyNanos.sum();
+    }
+
+    /**
+     * Etapas do despacho assíncrono.
+     */
+    public enum Stage {
+        NA_FILA,
+        PROCESSANDO
+    }
+}
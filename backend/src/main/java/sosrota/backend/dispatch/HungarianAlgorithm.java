@@ -0,0 +1,91 @@
+package sosrota.backend.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Algoritmo Húngaro (Kuhn-Munkres) para o problema de atribuição de custo mínimo.
+ * Versão com potenciais de linha e coluna e caminhos aumentantes, em O(n² · m)
+ * para n linhas e m colunas (n ≤ m).
+ * [Estrutura de Dados II] Otimização combinatória: emparelhamento perfeito de custo mínimo.
+ */
+public final class HungarianAlgorithm {
+
+    private HungarianAlgorithm() {
+    }
+
+    /**
+     * Atribui cada linha a uma coluna distinta minimizando o custo total.
+     *
+     * @param cost Matriz n x m de custos finitos, com n ≤ m
+     * @return Coluna atribuída a cada linha
+     */
+    public static int[] solve(double[][] cost) {
+        int n = cost.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int m = cost[0].length;
+        if (n > m) {
+            throw new IllegalArgumentException("A matriz de custos deve ter ao menos tantas colunas quanto linhas.");
+        }
+
+        // Índices a partir de 1; a coluna 0 é fictícia e guarda a linha sendo inserida
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] rowOfColumn = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            rowOfColumn[0] = i;
+            int j0 = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = rowOfColumn[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                double[] row = cost[i0 - 1];
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double slack = row[j - 1] - u[i0] - v[j];
+                        if (slack < minSlack[j]) {
+                            minSlack[j] = slack;
+                            way[j] = j0;
+                        }
+                        if (minSlack[j] < delta) {
+                            delta = minSlack[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (rowOfColumn[j0] != 0);
+
+            // Inverte o caminho aumentante
+            do {
+                int j1 = way[j0];
+                rowOfColumn[j0] = rowOfColumn[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] assignment = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (rowOfColumn[j] != 0) {
+                assignment[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+}
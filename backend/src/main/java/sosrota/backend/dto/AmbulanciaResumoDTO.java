@@ -0,0 +1,9 @@
+package sosrota.backend.dto;
+
+/**
+ * Projeção de uma ambulância para listagens.
+ * [RF02] Leitura de dados de frota.
+ */
+public record AmbulanciaResumoDTO(Integer id, String placa, String tipo, String status,
+                                  Integer bairroId, String bairroNome) {
+}
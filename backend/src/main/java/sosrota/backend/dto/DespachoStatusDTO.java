@@ -0,0 +1,23 @@
+package sosrota.backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO com a situação do despacho de uma ocorrência.
+ * Etapas: NA_FILA e PROCESSANDO (despacho assíncrono em andamento), AGUARDANDO_AMBULANCIA
+ * (nenhuma ambulância apta; ocorrência na fila de espera), DESPACHADA, CONCLUIDA ou CANCELADA.
+ */
+@Data
+public class DespachoStatusDTO {
+    private Integer ocorrenciaId;
+    private String etapa;
+    private String statusOcorrencia;
+    private Integer ambulanciaId;
+    private String ambulanciaPlaca;
+    private LocalDateTime dataHoraDespacho;
+    private Double tempoEstimado;
+    private Boolean foraDoSla;
+    private String ultimaObservacao;
+}
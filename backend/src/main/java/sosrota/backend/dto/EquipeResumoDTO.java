@@ -0,0 +1,11 @@
+package sosrota.backend.dto;
+
+import sosrota.backend.entity.Turno;
+
+/**
+ * Projeção de uma equipe para listagens: ambulância e quantidade de profissionais, sem carregá-los.
+ * [RF03] Listagem de equipes.
+ */
+public record EquipeResumoDTO(Integer id, String descricao, Turno turno, Integer ambulanciaId,
+                              String ambulanciaPlaca, Integer totalProfissionais) {
+}
@@ -0,0 +1,25 @@
+package sosrota.backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de um evento do fluxo de alterações de estado (ocorrências e frota).
+ * Leva o estado atual da entidade, para que o cliente atualize a tela sem consultar a API.
+ * [Interface de Comunicação] Dados para o Frontend (Server-Sent Events).
+ */
+@Data
+public class EventoEstadoDTO {
+    private Integer id;
+    private String status;
+    private String statusAnterior;
+    private String tipo;
+    private String gravidade;
+    private String placa;
+    private Integer bairroId;
+    private String observacao;
+    private boolean removido;
+    private LocalDateTime dataHoraAbertura;
+    private LocalDateTime dataHora;
+}
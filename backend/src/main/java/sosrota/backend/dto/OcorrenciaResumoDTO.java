@@ -0,0 +1,12 @@
+package sosrota.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de uma ocorrência para listagens (sem carregar a entidade nem o bairro).
+ * [RF07] Consulta de ocorrências.
+ */
+public record OcorrenciaResumoDTO(Integer id, String tipo, String gravidade, String status,
+                                  LocalDateTime dataHoraAbertura, LocalDateTime dataHoraFechamento,
+                                  Integer bairroId, String bairroNome) {
+}
@@ -0,0 +1,11 @@
+package sosrota.backend.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem paginada por chave (keyset).
+ * {@code proximo} é o cursor a enviar em {@code apos} para obter a página seguinte; nulo na última.
+ * [Interface de Comunicação] Dados para o Frontend.
+ */
+public record PaginaDTO<T>(List<T> itens, String proximo) {
+}
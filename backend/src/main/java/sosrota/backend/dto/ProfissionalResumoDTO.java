@@ -0,0 +1,11 @@
+package sosrota.backend.dto;
+
+import sosrota.backend.entity.Turno;
+
+/**
+ * Projeção de um profissional para listagens.
+ * [RF03] Listagem de recursos humanos.
+ */
+public record ProfissionalResumoDTO(Integer id, String nome, String funcao, String contato,
+                                    Boolean ativo, Turno turno) {
+}
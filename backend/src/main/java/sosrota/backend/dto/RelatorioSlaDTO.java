@@ -0,0 +1,13 @@
+package sosrota.backend.dto;
+
+/**
+ * Linha do relatório de SLA: atendimentos de um grupo (bairro, tipo de ambulância ou gravidade)
+ * no período, com a taxa de estouro do SLA e os percentis do tempo de resposta, em minutos.
+ * Os percentis têm resolução de um minuto; 120 indica 120 minutos ou mais.
+ * [RF07] Relatório de performance.
+ * [Interface de Comunicação] Dados para o Frontend.
+ */
+public record RelatorioSlaDTO(String grupo, long total, long foraDoSla, double taxaForaDoSla,
+                              double tempoMedioMin, double distanciaMediaKm,
+                              int p50Min, int p90Min, int p95Min) {
+}
@@ -0,0 +1,33 @@
+package sosrota.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contador de alterações do grafo (bairros e arestas), incrementado por gatilhos no banco.
+ * Usado para detectar quando o grafo de rotas em memória precisa ser recarregado.
+ * [RF04] Mapa e Rotas.
+ * [Banco de Dados II] Gatilhos (Triggers).
+ */
+@Entity
+@Table(name = "grafo_versao")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrafoVersao {
+
+    // Linha única da tabela
+    public static final int ID_GRAFO = 1;
+
+    @Id
+    private Integer id;
+
+    private Long versao;
+
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+}
@@ -0,0 +1,34 @@
+package sosrota.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Velocidade média de uma aresta (rua) em uma faixa horária do dia.
+ * Permite estimar o tempo de deslocamento de acordo com o horário (ex.: horário de pico).
+ * [RF04] Mapa e Rotas.
+ * [Estrutura de Dados II] Peso de aresta dependente do tempo.
+ */
+@Entity
+@Table(name = "velocidade_aresta")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VelocidadeAresta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @ManyToOne
+    @JoinColumn(name = "aresta_id")
+    private Aresta aresta;
+
+    // Hora do dia (0 a 23)
+    @Column(name = "faixa_horaria")
+    private Integer faixaHoraria;
+
+    @Column(name = "velocidade_kmh")
+    private Double velocidadeKmh;
+}
@@ -1,10 +1,22 @@
 package sosrota.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sosrota.backend.entity.Ambulancia;
 
 import java.util.List;
 
 public interface AmbulanciaRepository extends JpaRepository<Ambulancia, Integer> {
     List<Ambulancia> findByStatus(String status);
+
+    // Resumo da frota sem carregar as entidades: [id, status]
+    @Query("SELECT a.id, a.status FROM Ambulancia a")
+    List<Object[]> findIdAndStatus();
+
+    // [Banco de Dados II] Transição de status condicional (reserva atômica): 0 se o status atual for outro
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ambulancia a SET a.status = :novo WHERE a.id = :id AND a.status = :atual")
+    int updateStatusIfCurrent(@Param("id") Integer id, @Param("atual") String atual, @Param("novo") String novo);
 }
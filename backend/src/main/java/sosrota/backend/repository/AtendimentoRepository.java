@@ -1,10 +1,19 @@
 package sosrota.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sosrota.backend.entity.Atendimento;
 
+import java.util.List;
+
 public interface AtendimentoRepository extends JpaRepository<Atendimento, Integer> {
     boolean existsByAmbulancia(sosrota.backend.entity.Ambulancia ambulancia);
     
     sosrota.backend.entity.Atendimento findFirstByOcorrenciaOrderByIdDesc(sosrota.backend.entity.Ocorrencia ocorrencia);
+
+    // Último atendimento de cada ocorrência no status informado, em uma única consulta
+    @Query("SELECT a FROM Atendimento a JOIN FETCH a.ocorrencia o LEFT JOIN FETCH a.ambulancia WHERE o.status = :status "
+            + "AND a.id = (SELECT MAX(a2.id) FROM Atendimento a2 WHERE a2.ocorrencia = o)")
+    List<Atendimento> findUltimosByOcorrenciaStatus(@Param("status") String status);
 }
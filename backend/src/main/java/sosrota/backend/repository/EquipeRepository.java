@@ -10,6 +10,7 @@ import sosrota.backend.entity.Profissional;
 import sosrota.backend.entity.Turno;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface EquipeRepository extends JpaRepository<Equipe, Integer> {
     List<Equipe> findByAmbulanciaAndTurno(Ambulancia ambulancia, Turno turno);
@@ -20,4 +21,11 @@ public interface EquipeRepository extends JpaRepository<Equipe, Integer> {
     List<Equipe> findByAmbulancia(Ambulancia ambulancia);
 
     boolean existsByProfissionaisContaining(Profissional profissional);
+
+    // [Banco de Dados II] Equipes e profissionais em uma única consulta (fetch join), sem N+1
+    @Query("SELECT DISTINCT e FROM Equipe e LEFT JOIN FETCH e.profissionais WHERE e.ambulancia IS NOT NULL")
+    List<Equipe> findAllWithProfissionais();
+
+    @Query("SELECT e FROM Equipe e LEFT JOIN FETCH e.profissionais WHERE e.id = :id")
+    Optional<Equipe> findWithProfissionaisById(@Param("id") Integer id);
 }
@@ -0,0 +1,7 @@
+package sosrota.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import sosrota.backend.entity.GrafoVersao;
+
+public interface GrafoVersaoRepository extends JpaRepository<GrafoVersao, Integer> {
+}
@@ -0,0 +1,127 @@
+package sosrota.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+import sosrota.backend.dto.AmbulanciaResumoDTO;
+import sosrota.backend.dto.EquipeResumoDTO;
+import sosrota.backend.dto.OcorrenciaResumoDTO;
+import sosrota.backend.dto.ProfissionalResumoDTO;
+import sosrota.backend.entity.Turno;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas das listagens paginadas por chave (keyset / seek).
+ * Em vez de OFFSET, cada página continua a partir da chave da última linha da anterior: o custo não
+ * cresce com a profundidade e inserções concorrentes não duplicam nem pulam linhas.
+ * Só os filtros informados entram no JPQL, de modo que o banco use o índice composto
+ * correspondente (V13); as linhas são projetadas direto nos DTOs, sem carregar as entidades.
+ * [Banco de Dados II] Paginação por chave, índices compostos e projeções.
+ */
+@Repository
+public class ListagemRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Ocorrências da mais recente para a mais antiga, ordenadas por (dataHoraAbertura, id).
+     *
+     * @param inicio Abertura a partir de (inclusive)
+     * @param fim Abertura antes de (exclusive)
+     * @param aposData Abertura da última linha da página anterior (null na primeira página)
+     * @param aposId ID da última linha da página anterior
+     * @param limite Máximo de linhas
+     */
+    public List<OcorrenciaResumoDTO> findOcorrencias(String status, String gravidade, Integer bairroId,
+                                                     LocalDateTime inicio, LocalDateTime fim,
+                                                     LocalDateTime aposData, Integer aposId, int limite) {
+        Consulta consulta = new Consulta("SELECT new sosrota.backend.dto.OcorrenciaResumoDTO(o.id, o.tipo, o.gravidade, "
+                + "o.status, o.dataHoraAbertura, o.dataHoraFechamento, b.id, b.nome) "
+                + "FROM Ocorrencia o LEFT JOIN o.bairro b")
+                .filtro("o.status = :status", "status", status)
+                .filtro("o.gravidade = :gravidade", "gravidade", gravidade)
+                .filtro("o.bairro.id = :bairroId", "bairroId", bairroId)
+                .filtro("o.dataHoraAbertura >= :inicio", "inicio", inicio)
+                .filtro("o.dataHoraAbertura < :fim", "fim", fim);
+        if (aposData != null && aposId != null) {
+            // Comparação de tupla: vira (data_hora_abertura, id) < (?, ?), condição de índice no PostgreSQL
+            consulta.filtro("(o.dataHoraAbertura, o.id) < (:aposData, :aposId)", "aposData", aposData)
+                    .parametro("aposId", aposId);
+        }
+        return consulta.listar(entityManager, " ORDER BY o.dataHoraAbertura DESC, o.id DESC",
+                OcorrenciaResumoDTO.class, limite);
+    }
+
+    public List<AmbulanciaResumoDTO> findAmbulancias(String status, String tipo, Integer bairroId,
+                                                     Integer aposId, int limite) {
+        return new Consulta("SELECT new sosrota.backend.dto.AmbulanciaResumoDTO(a.id, a.placa, a.tipo, a.status, "
+                + "b.id, b.nome) FROM Ambulancia a LEFT JOIN a.bairro b")
+                .filtro("a.status = :status", "status", status)
+                .filtro("a.tipo = :tipo", "tipo", tipo)
+                .filtro("a.bairro.id = :bairroId", "bairroId", bairroId)
+                .filtro("a.id > :aposId", "aposId", aposId)
+                .listar(entityManager, " ORDER BY a.id", AmbulanciaResumoDTO.class, limite);
+    }
+
+    public List<ProfissionalResumoDTO> findProfissionais(String funcao, Turno turno, Boolean ativo,
+                                                         Integer aposId, int limite) {
+        return new Consulta("SELECT new sosrota.backend.dto.ProfissionalResumoDTO(p.id, p.nome, p.funcao, p.contato, "
+                + "p.ativo, p.turno) FROM Profissional p")
+                .filtro("p.funcao = :funcao", "funcao", funcao)
+                .filtro("p.turno = :turno", "turno", turno)
+                .filtro("p.ativo = :ativo", "ativo", ativo)
+                .filtro("p.id > :aposId", "aposId", aposId)
+                .listar(entityManager, " ORDER BY p.id", ProfissionalResumoDTO.class, limite);
+    }
+
+    public List<EquipeResumoDTO> findEquipes(Turno turno, Integer ambulanciaId, Integer aposId, int limite) {
+        return new Consulta("SELECT new sosrota.backend.dto.EquipeResumoDTO(e.id, e.descricao, e.turno, a.id, a.placa, "
+                + "SIZE(e.profissionais)) FROM Equipe e LEFT JOIN e.ambulancia a")
+                .filtro("e.turno = :turno", "turno", turno)
+                .filtro("e.ambulancia.id = :ambulanciaId", "ambulanciaId", ambulanciaId)
+                .filtro("e.id > :aposId", "aposId", aposId)
+                .listar(entityManager, " ORDER BY e.id", EquipeResumoDTO.class, limite);
+    }
+
+    /**
+     * JPQL montado com apenas os filtros presentes (valor não nulo).
+     */
+    private static final class Consulta {
+        private final StringBuilder jpql;
+        private final Map<String, Object> parametros = new LinkedHashMap<>();
+        private String conector = " WHERE ";
+
+        Consulta(String select) {
+            this.jpql = new StringBuilder(select);
+        }
+
+        Consulta filtro(String condicao, String nome, Object valor) {
+            if (valor != null) {
+                jpql.append(conector).append(condicao);
+                conector = " AND ";
+                parametros.put(nome, valor);
+            }
+            return this;
+        }
+
+        Consulta parametro(String nome, Object valor) {
+            parametros.put(nome, valor);
+            return this;
+        }
+
+        <T> List<T> listar(EntityManager entityManager, String orderBy, Class<T> tipo, int limite) {
+            TypedQuery<T> query = entityManager.createQuery(jpql + orderBy, tipo);
+            for (Map.Entry<String, Object> parametro : parametros.entrySet()) {
+                query.setParameter(parametro.getKey(), parametro.getValue());
+            }
+            query.setMaxResults(limite);
+            return query.getResultList();
+        }
+    }
+}
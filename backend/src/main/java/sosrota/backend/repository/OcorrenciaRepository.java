@@ -1,10 +1,30 @@
 package sosrota.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import sosrota.backend.entity.Ocorrencia;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface OcorrenciaRepository extends JpaRepository<Ocorrencia, Integer> {
     List<Ocorrencia> findByStatus(String status);
+
+    long countByDataHoraAberturaGreaterThanEqual(LocalDateTime inicio);
+
+    // [Banco de Dados II] Contagem agrupada: [status, quantidade]
+    @Query("SELECT o.status, COUNT(o) FROM Ocorrencia o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
+
+    // Resumo sem carregar as entidades: [id, status, dataHoraAbertura]
+    @Query("SELECT o.id, o.status, o.dataHoraAbertura FROM Ocorrencia o WHERE o.status IN :status")
+    List<Object[]> findResumoByStatusIn(@Param("status") Collection<String> status);
+
+    // [Banco de Dados II] Transição de status condicional (reserva atômica): 0 se o status atual for outro
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ocorrencia o SET o.status = :novo WHERE o.id = :id AND o.status = :atual")
+    int updateStatusIfCurrent(@Param("id") Integer id, @Param("atual") String atual, @Param("novo") String novo);
 }
@@ -0,0 +1,14 @@
+package sosrota.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import sosrota.backend.entity.VelocidadeAresta;
+
+import java.util.List;
+
+public interface VelocidadeArestaRepository extends JpaRepository<VelocidadeAresta, Integer> {
+
+    // Perfis de velocidade sem carregar as entidades (nem a aresta e seus bairros): [arestaId, faixaHoraria, velocidadeKmh]
+    @Query("SELECT v.aresta.id, v.faixaHoraria, v.velocidadeKmh FROM VelocidadeAresta v")
+    List<Object[]> findPerfisVelocidade();
+}
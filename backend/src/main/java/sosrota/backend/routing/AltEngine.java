@@ -0,0 +1,232 @@
+package sosrota.backend.routing;
+
+import java.util.Arrays;
+
+/**
+ * Motor de rotas A* com heurística de landmarks (ALT: A*, Landmarks, Triangle inequality).
+ * No pré-processamento escolhe k landmarks pelo critério do ponto mais distante e guarda, para
+ * cada vértice, a distância de/para cada landmark. Pela desigualdade triangular,
+ * {@code d(v, t) >= d(L, t) - d(L, v)} e {@code d(v, t) >= d(v, L) - d(t, L)}: o maior desses
+ * limites é uma heurística admissível e consistente, que direciona a busca para o destino.
+ * Cada thread possui sua própria área de consulta.
+ * [Estrutura de Dados II] Algoritmo A* com heurística admissível.
+ */
+public final class AltEngine implements RoutingEngine {
+
+  private final CsrGraph graph;
+  private final int k;
+  private final int[] landmarks;
+  // Vetores por vértice (v * k + i): d(L_i, v) e d(v, L_i)
+  private final double[] fromLandmark;
+  private final double[] toLandmark;
+  private final long buildMillis;
+  private final ThreadLocal<Search> searches;
+
+  private AltEngine(CsrGraph graph, int[] landmarks, double[] fromLandmark, double[] toLandmark, long buildMillis) {
+    this.graph = graph;
+    this.k = landmarks.length;
+    this.landmarks = landmarks;
+    this.fromLandmark = fromLandmark;
+    this.toLandmark = toLandmark;
+    this.buildMillis = buildMillis;
+    this.searches = ThreadLocal.withInitial(() -> new Search(graph.nodeCount()));
+  }
+
+  /**
+   * Escolhe os landmarks e pré-calcula as distâncias (duas buscas completas por landmark).
+   * O primeiro landmark é o vértice mais distante do vértice 0; cada seguinte é o vértice mais
+   * distante dos já escolhidos, priorizando vértices ainda não cobertos por nenhum deles.
+   *
+   * @param graph Grafo
+   * @param landmarkCount Número de landmarks desejado
+   * @return Motor pronto para consultas
+   */
+  public static AltEngine build(CsrGraph graph, int landmarkCount) {
+    long start = System.nanoTime();
+    int n = graph.nodeCount();
+    int k = Math.max(0, Math.min(landmarkCount, n));
+    CsrGraph reverse = graph.transpose();
+    DijkstraSearch forward = new DijkstraSearch(graph);
+    DijkstraSearch backward = new DijkstraSearch(reverse);
+
+    int[] landmarks = new int[k];
+    double[] fromLandmark = new double[n * k];
+    double[] toLandmark = new double[n * k];
+    double[] coverage = new double[n];
+    Arrays.fill(coverage, Double.POSITIVE_INFINITY);
+
+    int next = n > 0 ? farthest(seedDistances(forward, 0, n), n) : -1;
+    for (int i = 0; i < k; i++) {
+      landmarks[i] = next;
+      forward.run(next, -1);
+      backward.run(next, -1);
+      for (int v = 0; v < n; v++) {
+        double from = forward.distance(v);
+        double to = backward.distance(v);
+        fromLandmark[v * k + i] = from;
+        toLandmark[v * k + i] = to;
+        coverage[v] = Math.min(coverage[v], Math.min(from, to));
+      }
+      next = farthest(coverage, n);
+    }
+    return new AltEngine(graph, landmarks, fromLandmark, toLandmark, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private static double[] seedDistances(DijkstraSearch search, int seed, int n) {
+    search.run(seed, -1);
+    double[] d = new double[n];
+    for (int v = 0; v < n; v++) {
+      d[v] = search.distance(v);
+    }
+    return d;
+  }
+
+  /**
+   * Vértice de maior distância; vértices não cobertos (distância infinita) têm prioridade.
+   */
+  private static int farthest(double[] d, int n) {
+    int best = 0;
+    for (int v = 1; v < n; v++) {
+      if (d[v] > d[best]) {
+        best = v;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public String name() {
+    return "alt";
+  }
+
+  @Override
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  public int[] landmarks() {
+    return landmarks.clone();
+  }
+
+  public long buildMillis() {
+    return buildMillis;
+  }
+
+  public long estimatedBytes() {
+    return 8L * (fromLandmark.length + toLandmark.length);
+  }
+
+  /**
+   * Limite inferior de d(v, t) pelos landmarks. Infinito quando algum landmark prova que
+   * t não é alcançável a partir de v.
+   */
+  double heuristic(int v, int t) {
+    double h = 0.0;
+    int bv = v * k;
+    int bt = t * k;
+    for (int i = 0; i < k; i++) {
+      // Comparações com NaN (infinito - infinito) são falsas: o termo é ignorado
+      double a = fromLandmark[bt + i] - fromLandmark[bv + i];
+      if (a > h) {
+        h = a;
+      }
+      double b = toLandmark[bv + i] - toLandmark[bt + i];
+      if (b > h) {
+        h = b;
+      }
+    }
+    return h;
+  }
+
+  @Override
+  public Route route(int source, int target) {
+    Search s = searches.get();
+    s.begin();
+    double hs = heuristic(source, target);
+    if (Double.isInfinite(hs)) {
+      return null;
+    }
+    s.reach(source, 0.0, hs, -1);
+    int settled = 0;
+    while (!s.heap.isEmpty()) {
+      int u = s.heap.poll();
+      s.settledStamp[u] = s.generation;
+      settled++;
+      if (u == target) {
+        break;
+      }
+      double gu = s.dist[u];
+      for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+        int v = graph.target(a);
+        if (s.settledStamp[v] == s.generation) {
+          continue;
+        }
+        double alt = gu + graph.weight(a);
+        boolean reached = s.reachedStamp[v] == s.generation;
+        if (reached && alt >= s.dist[v]) {
+          continue;
+        }
+        double hv = reached ? s.estimate[v] : heuristic(v, target);
+        if (Double.isInfinite(hv)) {
+          continue;
+        }
+        s.reach(v, alt, hv, a);
+      }
+    }
+    if (s.settledStamp[target] != s.generation) {
+      return null;
+    }
+    return new Route(s.dist[target], s.pathArcs(graph, target), settled);
+  }
+
+  /**
+   * Área de trabalho do A* (distâncias, heurística calculada por vértice e fronteira).
+   */
+  private static final class Search {
+    final double[] dist;
+    final double[] estimate;
+    final int[] parentArc;
+    final int[] reachedStamp;
+    final int[] settledStamp;
+    final IndexedMinHeap heap;
+    int generation;
+
+    Search(int n) {
+      dist = new double[n];
+      estimate = new double[n];
+      parentArc = new int[n];
+      reachedStamp = new int[n];
+      settledStamp = new int[n];
+      heap = new IndexedMinHeap(n);
+    }
+
+    void begin() {
+      if (++generation == Integer.MAX_VALUE) {
+        Arrays.fill(reachedStamp, 0);
+        Arrays.fill(settledStamp, 0);
+        generation = 1;
+      }
+      heap.clear();
+    }
+
+    void reach(int v, double g, double h, int arc) {
+      reachedStamp[v] = generation;
+      dist[v] = g;
+      estimate[v] = h;
+      parentArc[v] = arc;
+      heap.insertOrDecrease(v, g + h);
+    }
+
+    int[] pathArcs(CsrGraph graph, int target) {
+      int len = 0;
+      for (int a = parentArc[target]; a >= 0; a = parentArc[graph.source(a)]) {
+        len++;
+      }
+      int[] arcs = new int[len];
+      for (int a = parentArc[target]; a >= 0; a = parentArc[graph.source(a)]) {
+        arcs[--len] = a;
+      }
+      return arcs;
+    }
+  }
+}
@@ -0,0 +1,552 @@
+package sosrota.backend.routing;
+
+import java.util.Arrays;
+
+/**
+ * Motor de rotas baseado em Contraction Hierarchies (CH).
+ * No pré-processamento os vértices são contraídos um a um, em ordem de importância, e atalhos
+ * são criados sempre que a remoção de um vértice destruiria um caminho mínimo entre seus vizinhos.
+ * Na consulta, duas buscas de Dijkstra (da origem e do destino) percorrem apenas arestas que sobem
+ * na hierarquia; os atalhos do caminho encontrado são então expandidos para os arcos originais.
+ * Não guarda estado mutável após a construção: cada thread possui sua própria área de consulta.
+ * [Estrutura de Dados II] Caminho mínimo com pré-processamento (hierarquia de contração).
+ */
+public final class ContractionHierarchy implements RoutingEngine {
+
+  // Limite de vértices fixados em cada busca de testemunha (acima dele, o atalho é criado).
+  // A simulação usada no cálculo de prioridade pode ser mais grosseira que a contração real.
+  private static final int WITNESS_SETTLE_LIMIT = 500;
+  private static final int SIMULATION_SETTLE_LIMIT = 50;
+
+  private final CsrGraph graph;
+
+  // Arestas da hierarquia: arcos originais (arc >= 0) e atalhos (first/second >= 0)
+  private final int[] edgeArc;
+  private final int[] edgeFirst;
+  private final int[] edgeSecond;
+  private final int shortcutCount;
+
+  // Grafos de busca, indexados pelo vértice de menor nível e apontando para o de maior nível.
+  // up: arestas u -> v no sentido original; down: arestas v -> u percorridas ao contrário.
+  private final int[] upOffsets;
+  private final int[] upTargets;
+  private final double[] upWeights;
+  private final int[] upEdges;
+  private final int[] downOffsets;
+  private final int[] downTargets;
+  private final double[] downWeights;
+  private final int[] downEdges;
+
+  private final long buildMillis;
+  private final ThreadLocal<Query> queries;
+
+  private ContractionHierarchy(CsrGraph graph, Contractor c, long buildMillis) {
+    int n = graph.nodeCount();
+    this.graph = graph;
+    this.edgeArc = Arrays.copyOf(c.arc, c.edgeCount);
+    this.edgeFirst = Arrays.copyOf(c.first, c.edgeCount);
+    this.edgeSecond = Arrays.copyOf(c.second, c.edgeCount);
+    this.shortcutCount = c.edgeCount - graph.arcCount();
+    this.buildMillis = buildMillis;
+
+    int[] rank = c.rank;
+    this.upOffsets = new int[n + 1];
+    this.downOffsets = new int[n + 1];
+    for (int e = 0; e < c.edgeCount; e++) {
+      int u = c.from[e];
+      int v = c.to[e];
+      if (rank[v] > rank[u]) {
+        upOffsets[u + 1]++;
+      } else {
+        downOffsets[v + 1]++;
+      }
+    }
+    for (int u = 0; u < n; u++) {
+      upOffsets[u + 1] += upOffsets[u];
+      downOffsets[u + 1] += downOffsets[u];
+    }
+    this.upTargets = new int[upOffsets[n]];
+    this.upWeights = new double[upOffsets[n]];
+    this.upEdges = new int[upOffsets[n]];
+    this.downTargets = new int[downOffsets[n]];
+    this.downWeights = new double[downOffsets[n]];
+    this.downEdges = new int[downOffsets[n]];
+    int[] upCursor = Arrays.copyOf(upOffsets, n);
+    int[] downCursor = Arrays.copyOf(downOffsets, n);
+    for (int e = 0; e < c.edgeCount; e++) {
+      int u = c.from[e];
+      int v = c.to[e];
+      if (rank[v] > rank[u]) {
+        int pos = upCursor[u]++;
+        upTargets[pos] = v;
+        upWeights[pos] = c.weight[e];
+        upEdges[pos] = e;
+      } else {
+        int pos = downCursor[v]++;
+        downTargets[pos] = u;
+        downWeights[pos] = c.weight[e];
+        downEdges[pos] = e;
+      }
+    }
+    this.queries = ThreadLocal.withInitial(() -> new Query(n));
+  }
+
+  /**
+   * Constrói a hierarquia: ordenação dos vértices por diferença de arestas (com atualização
+   * preguiçosa das prioridades) e criação dos atalhos necessários.
+   *
+   * @param graph Grafo original
+   * @return Motor pronto para consultas
+   */
+  public static ContractionHierarchy build(CsrGraph graph) {
+    long start = System.nanoTime();
+    Contractor c = new Contractor(graph);
+    c.contractAll();
+    return new ContractionHierarchy(graph, c, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @Override
+  public String name() {
+    return "ch";
+  }
+
+  @Override
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  public int shortcutCount() {
+    return shortcutCount;
+  }
+
+  public long buildMillis() {
+    return buildMillis;
+  }
+
+  public long estimatedBytes() {
+    return 12L * edgeArc.length + 4L * (upOffsets.length + downOffsets.length)
+        + 16L * (upTargets.length + downTargets.length);
+  }
+
+  /**
+   * Consulta bidirecional: a busca para frente sobe pelas arestas {@code up} a partir da origem e a
+   * busca para trás sobe pelas arestas {@code down} a partir do destino. Cada lado para quando sua
+   * fronteira não pode mais melhorar a melhor distância conhecida.
+   */
+  @Override
+  public Route route(int source, int target) {
+    if (source == target) {
+      return new Route(0.0, new int[0], 0);
+    }
+    Query q = queries.get();
+    q.begin(source, target);
+    double best = Double.POSITIVE_INFINITY;
+    int meeting = -1;
+    int settled = 0;
+    boolean forward = true;
+    while (true) {
+      boolean forwardDone = q.forwardHeap.isEmpty() || q.forwardHeap.minKey() >= best;
+      boolean backwardDone = q.backwardHeap.isEmpty() || q.backwardHeap.minKey() >= best;
+      if (forwardDone && backwardDone) {
+        break;
+      }
+      // Alterna os lados enquanto ambos podem melhorar o resultado
+      boolean useForward = backwardDone || (!forwardDone && forward);
+      settled++;
+      if (useForward) {
+        int u = q.forwardHeap.poll();
+        double du = q.forwardDist[u];
+        if (q.backwardStamp[u] == q.generation && du + q.backwardDist[u] < best) {
+          best = du + q.backwardDist[u];
+          meeting = u;
+        }
+        for (int i = upOffsets[u], end = upOffsets[u + 1]; i < end; i++) {
+          q.reachForward(upTargets[i], du + upWeights[i], upEdges[i], u);
+        }
+      } else {
+        int u = q.backwardHeap.poll();
+        double du = q.backwardDist[u];
+        if (q.forwardStamp[u] == q.generation && du + q.forwardDist[u] < best) {
+          best = du + q.forwardDist[u];
+          meeting = u;
+        }
+        for (int i = downOffsets[u], end = downOffsets[u + 1]; i < end; i++) {
+          q.reachBackward(downTargets[i], du + downWeights[i], downEdges[i], u);
+        }
+      }
+      forward = !useForward;
+    }
+    if (meeting < 0) {
+      return null;
+    }
+    return new Route(best, unpack(q, source, target, meeting), settled);
+  }
+
+  /**
+   * Expande o caminho da hierarquia (origem -> encontro -> destino) em arcos originais.
+   */
+  private int[] unpack(Query q, int source, int target, int meeting) {
+    int[] edges = new int[16];
+    int count = 0;
+    // Lado da origem: arestas coletadas do encontro para trás e depois invertidas
+    for (int v = meeting; v != source; ) {
+      int e = q.forwardParent[v];
+      if (count == edges.length) {
+        edges = Arrays.copyOf(edges, count * 2);
+      }
+      edges[count++] = e;
+      v = q.forwardParentNode[v];
+    }
+    for (int i = 0, j = count - 1; i < j; i++, j--) {
+      int tmp = edges[i];
+      edges[i] = edges[j];
+      edges[j] = tmp;
+    }
+    for (int v = meeting; v != target; ) {
+      int e = q.backwardParent[v];
+      if (count == edges.length) {
+        edges = Arrays.copyOf(edges, count * 2);
+      }
+      edges[count++] = e;
+      v = q.backwardParentNode[v];
+    }
+
+    // Expansão dos atalhos com pilha explícita (segunda metade empilhada primeiro)
+    int[] arcs = new int[count];
+    int arcCount = 0;
+    int[] stack = q.stack;
+    for (int i = 0; i < count; i++) {
+      int depth = 0;
+      stack[depth++] = edges[i];
+      while (depth > 0) {
+        int e = stack[--depth];
+        if (edgeArc[e] >= 0) {
+          if (arcCount == arcs.length) {
+            arcs = Arrays.copyOf(arcs, arcCount * 2);
+          }
+          arcs[arcCount++] = edgeArc[e];
+        } else {
+          if (depth + 2 > stack.length) {
+            stack = q.stack = Arrays.copyOf(stack, stack.length * 2);
+          }
+          stack[depth++] = edgeSecond[e];
+          stack[depth++] = edgeFirst[e];
+        }
+      }
+    }
+    return arcCount == arcs.length ? arcs : Arrays.copyOf(arcs, arcCount);
+  }
+
+  /**
+   * Área de trabalho de uma consulta bidirecional (uma por thread).
+   */
+  private static final class Query {
+    final double[] forwardDist;
+    final double[] backwardDist;
+    final int[] forwardStamp;
+    final int[] backwardStamp;
+    final int[] forwardParent;
+    final int[] backwardParent;
+    final int[] forwardParentNode;
+    final int[] backwardParentNode;
+    final IndexedMinHeap forwardHeap;
+    final IndexedMinHeap backwardHeap;
+    int[] stack = new int[64];
+    int generation;
+
+    Query(int n) {
+      forwardDist = new double[n];
+      backwardDist = new double[n];
+      forwardStamp = new int[n];
+      backwardStamp = new int[n];
+      forwardParent = new int[n];
+      backwardParent = new int[n];
+      forwardParentNode = new int[n];
+      backwardParentNode = new int[n];
+      forwardHeap = new IndexedMinHeap(n);
+      backwardHeap = new IndexedMinHeap(n);
+    }
+
+    void begin(int source, int target) {
+      if (++generation == Integer.MAX_VALUE) {
+        Arrays.fill(forwardStamp, 0);
+        Arrays.fill(backwardStamp, 0);
+        generation = 1;
+      }
+      forwardHeap.clear();
+      backwardHeap.clear();
+      reachForward(source, 0.0, -1, -1);
+      reachBackward(target, 0.0, -1, -1);
+    }
+
+    void reachForward(int v, double d, int edge, int parent) {
+      if (forwardStamp[v] != generation || d < forwardDist[v]) {
+        forwardStamp[v] = generation;
+        forwardDist[v] = d;
+        forwardParent[v] = edge;
+        forwardParentNode[v] = parent;
+        forwardHeap.insertOrDecrease(v, d);
+      }
+    }
+
+    void reachBackward(int v, double d, int edge, int parent) {
+      if (backwardStamp[v] != generation || d < backwardDist[v]) {
+        backwardStamp[v] = generation;
+        backwardDist[v] = d;
+        backwardParent[v] = edge;
+        backwardParentNode[v] = parent;
+        backwardHeap.insertOrDecrease(v, d);
+      }
+    }
+  }
+
+  /**
+   * Estado mutável do pré-processamento: listas de adjacência dinâmicas (arestas originais e
+   * atalhos), fila de prioridade dos vértices ainda não contraídos e busca de testemunhas.
+   */
+  private static final class Contractor {
+    final CsrGraph graph;
+    final int n;
+
+    int[] from = new int[16];
+    int[] to = new int[16];
+    double[] weight = new double[16];
+    int[] arc = new int[16];
+    int[] first = new int[16];
+    int[] second = new int[16];
+    int edgeCount;
+
+    final int[][] out;
+    final int[] outSize;
+    final int[][] in;
+    final int[] inSize;
+
+    final boolean[] contracted;
+    final int[] deletedNeighbors;
+    final int[] rank;
+
+    // Busca de testemunhas (Dijkstra limitado que ignora o vértice em contração)
+    final double[] witnessDist;
+    final int[] witnessStamp;
+    final IndexedMinHeap witnessHeap;
+    int witnessGeneration;
+
+    // Vizinhos distintos do vértice em contração, com a aresta de menor peso de cada um
+    final int[] bestEdge;
+    final int[] bestStamp;
+    int bestGeneration;
+    int[] inNodes = new int[16];
+    int[] inEdges = new int[16];
+    int[] outNodes = new int[16];
+    int[] outEdges = new int[16];
+    int inCount;
+    int outCount;
+
+    Contractor(CsrGraph graph) {
+      this.graph = graph;
+      this.n = graph.nodeCount();
+      this.out = new int[n][];
+      this.outSize = new int[n];
+      this.in = new int[n][];
+      this.inSize = new int[n];
+      this.contracted = new boolean[n];
+      this.deletedNeighbors = new int[n];
+      this.rank = new int[n];
+      this.witnessDist = new double[n];
+      this.witnessStamp = new int[n];
+      this.witnessHeap = new IndexedMinHeap(n);
+      this.bestEdge = new int[n];
+      this.bestStamp = new int[n];
+      for (int u = 0; u < n; u++) {
+        out[u] = new int[4];
+        in[u] = new int[4];
+      }
+      for (int u = 0; u < n; u++) {
+        for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+          if (graph.target(a) != u) {
+            addEdge(u, graph.target(a), graph.weight(a), a, -1, -1);
+          }
+        }
+      }
+    }
+
+    void contractAll() {
+      IndexedMinHeap queue = new IndexedMinHeap(n);
+      for (int v = 0; v < n; v++) {
+        queue.insertOrDecrease(v, priority(v));
+      }
+      int level = 0;
+      while (!queue.isEmpty()) {
+        int v = queue.poll();
+        // Atualização preguiçosa: se a prioridade piorou, devolve o vértice à fila
+        double p = priority(v);
+        if (!queue.isEmpty() && p > queue.minKey()) {
+          queue.insertOrDecrease(v, p);
+          continue;
+        }
+        contract(v, false);
+        contracted[v] = true;
+        rank[v] = level++;
+        for (int i = 0; i < inCount; i++) {
+          deletedNeighbors[inNodes[i]]++;
+        }
+        for (int i = 0; i < outCount; i++) {
+          deletedNeighbors[outNodes[i]]++;
+        }
+      }
+    }
+
+    /**
+     * Prioridade de contração: diferença de arestas (atalhos criados menos arestas removidas)
+     * somada ao número de vizinhos já contraídos, para espalhar a contração pelo grafo.
+     */
+    double priority(int v) {
+      int shortcuts = contract(v, true);
+      return shortcuts - (inCount + outCount) + deletedNeighbors[v];
+    }
+
+    /**
+     * Contrai (ou simula a contração de) {@code v}, criando um atalho u -> w para cada par de
+     * vizinhos cujo caminho mínimo passa por v (nenhuma testemunha de mesmo custo encontrada).
+     *
+     * @return Número de atalhos necessários
+     */
+    int contract(int v, boolean simulate) {
+      collectNeighbors(v);
+      int shortcuts = 0;
+      for (int i = 0; i < inCount; i++) {
+        int u = inNodes[i];
+        double toV = weight[inEdges[i]];
+        double limit = 0.0;
+        for (int j = 0; j < outCount; j++) {
+          if (outNodes[j] != u) {
+            limit = Math.max(limit, toV + weight[outEdges[j]]);
+          }
+        }
+        if (limit == 0.0) {
+          continue;
+        }
+        witnessSearch(u, v, limit, simulate ? SIMULATION_SETTLE_LIMIT : WITNESS_SETTLE_LIMIT);
+        for (int j = 0; j < outCount; j++) {
+          int w = outNodes[j];
+          if (w == u) {
+            continue;
+          }
+          double via = toV + weight[outEdges[j]];
+          if (witnessStamp[w] == witnessGeneration && witnessDist[w] <= via) {
+            continue;
+          }
+          shortcuts++;
+          if (!simulate) {
+            addEdge(u, w, via, -1, inEdges[i], outEdges[j]);
+          }
+        }
+      }
+      return shortcuts;
+    }
+
+    private void collectNeighbors(int v) {
+      inCount = 0;
+      bestGeneration++;
+      for (int i = 0; i < inSize[v]; i++) {
+        int e = in[v][i];
+        int u = from[e];
+        if (contracted[u]) {
+          continue;
+        }
+        if (bestStamp[u] != bestGeneration) {
+          bestStamp[u] = bestGeneration;
+          bestEdge[u] = inCount;
+          if (inCount == inNodes.length) {
+            inNodes = Arrays.copyOf(inNodes, inCount * 2);
+            inEdges = Arrays.copyOf(inEdges, inCount * 2);
+          }
+          inNodes[inCount] = u;
+          inEdges[inCount++] = e;
+        } else if (weight[e] < weight[inEdges[bestEdge[u]]]) {
+          inEdges[bestEdge[u]] = e;
+        }
+      }
+      outCount = 0;
+      bestGeneration++;
+      for (int i = 0; i < outSize[v]; i++) {
+        int e = out[v][i];
+        int w = to[e];
+        if (contracted[w]) {
+          continue;
+        }
+        if (bestStamp[w] != bestGeneration) {
+          bestStamp[w] = bestGeneration;
+          bestEdge[w] = outCount;
+          if (outCount == outNodes.length) {
+            outNodes = Arrays.copyOf(outNodes, outCount * 2);
+            outEdges = Arrays.copyOf(outEdges, outCount * 2);
+          }
+          outNodes[outCount] = w;
+          outEdges[outCount++] = e;
+        } else if (weight[e] < weight[outEdges[bestEdge[w]]]) {
+          outEdges[bestEdge[w]] = e;
+        }
+      }
+    }
+
+    /**
+     * Dijkstra limitado a partir de {@code source} no grafo restante, sem passar por {@code skip}.
+     */
+    private void witnessSearch(int source, int skip, double limit, int maxSettled) {
+      if (++witnessGeneration == Integer.MAX_VALUE) {
+        Arrays.fill(witnessStamp, 0);
+        witnessGeneration = 1;
+      }
+      witnessHeap.clear();
+      witnessStamp[source] = witnessGeneration;
+      witnessDist[source] = 0.0;
+      witnessHeap.insertOrDecrease(source, 0.0);
+      int settled = 0;
+      while (!witnessHeap.isEmpty() && witnessHeap.minKey() <= limit && settled++ < maxSettled) {
+        int u = witnessHeap.poll();
+        double du = witnessDist[u];
+        for (int i = 0; i < outSize[u]; i++) {
+          int e = out[u][i];
+          int w = to[e];
+          if (w == skip || contracted[w]) {
+            continue;
+          }
+          double alt = du + weight[e];
+          if (witnessStamp[w] != witnessGeneration || alt < witnessDist[w]) {
+            witnessStamp[w] = witnessGeneration;
+            witnessDist[w] = alt;
+            witnessHeap.insertOrDecrease(w, alt);
+          }
+        }
+      }
+    }
+
+    private void addEdge(int u, int v, double w, int originalArc, int firstHalf, int secondHalf) {
+      if (edgeCount == from.length) {
+        int cap = edgeCount * 2;
+        from = Arrays.copyOf(from, cap);
+        to = Arrays.copyOf(to, cap);
+        weight = Arrays.copyOf(weight, cap);
+        arc = Arrays.copyOf(arc, cap);
+        first = Arrays.copyOf(first, cap);
+        second = Arrays.copyOf(second, cap);
+      }
+      int e = edgeCount++;
+      from[e] = u;
+      to[e] = v;
+      weight[e] = w;
+      arc[e] = originalArc;
+      first[e] = firstHalf;
+      second[e] = secondHalf;
+      if (outSize[u] == out[u].length) {
+        out[u] = Arrays.copyOf(out[u], outSize[u] * 2);
+      }
+      out[u][outSize[u]++] = e;
+      if (inSize[v] == in[v].length) {
+        in[v] = Arrays.copyOf(in[v], inSize[v] * 2);
+      }
+      in[v][inSize[v]++] = e;
+    }
+  }
+}
@@ -0,0 +1,441 @@
+package sosrota.backend.routing;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Grafo imutável em formato Compressed Sparse Row (CSR).
+ * Os vértices são remapeados para índices densos [0, n) e as arestas de cada vértice
+ * ficam contíguas nos vetores primitivos, sem objetos por aresta.
+ * Os vetores podem estar no heap ou fora dele, mapeados de um arquivo ({@link GraphSnapshotFile#map}):
+ * nesse caso o heap não cresce com o tamanho do grafo e as buscas leem o arquivo mapeado
+ * pelos mesmos métodos de acesso.
+ * [Estrutura de Dados II] Representação compacta de grafo (CSR).
+ * [RF04] Base do cálculo de rotas.
+ */
+public final class CsrGraph {
+
+  // Índice denso -> ID do bairro (ordenado, permite busca binária)
+  private final int[] nodeIds;
+  private final String[] names;
+
+  // Arestas do vértice u ocupam [offsets[u], offsets[u + 1])
+  private final int[] offsets;
+  private final int[] targets;
+  private final double[] weights;
+  // ID da aresta (rua) de origem de cada arco, para reconstrução do caminho
+  private final int[] edgeIds;
+
+  // Vetores fora do heap, usados quando o vetor correspondente acima é null
+  private final Mapped mapped;
+  // Transposto já disponível (grafo mapeado: gravado no mesmo arquivo)
+  private final CsrGraph reverse;
+
+  private CsrGraph(int[] nodeIds, String[] names, int[] offsets, int[] targets, double[] weights, int[] edgeIds) {
+    this(nodeIds, names, offsets, targets, weights, edgeIds, null, null);
+  }
+
+  private CsrGraph(int[] nodeIds, String[] names, int[] offsets, int[] targets, double[] weights, int[] edgeIds,
+      Mapped mapped, CsrGraph reverse) {
+    this.nodeIds = nodeIds;
+    this.names = names;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+    this.edgeIds = edgeIds;
+    this.mapped = mapped;
+    this.reverse = reverse;
+  }
+
+  /**
+   * Monta o grafo a partir de vetores já no formato CSR (ex.: lidos de {@link GraphSnapshotFile}).
+   */
+  static CsrGraph fromArrays(int[] nodeIds, String[] names, int[] offsets, int[] targets, double[] weights, int[] edgeIds) {
+    int n = nodeIds.length;
+    int m = targets.length;
+    if (names.length != n || offsets.length != n + 1 || weights.length != m || edgeIds.length != m
+        || offsets[0] != 0 || offsets[n] != m) {
+      throw new IllegalArgumentException("Vetores CSR inconsistentes: " + n + " vértices, " + m + " arcos.");
+    }
+    return new CsrGraph(nodeIds, names, offsets, targets, weights, edgeIds);
+  }
+
+  /**
+   * Idem, com o transposto também lido do arquivo (evita recalculá-lo).
+   */
+  static CsrGraph fromArrays(int[] nodeIds, String[] names, int[] offsets, int[] targets, double[] weights, int[] edgeIds,
+      int[] rOffsets, int[] rTargets, double[] rWeights, int[] rEdgeIds) {
+    CsrGraph forward = fromArrays(nodeIds, names, offsets, targets, weights, edgeIds);
+    CsrGraph transposed = fromArrays(nodeIds, names, rOffsets, rTargets, rWeights, rEdgeIds);
+    return new CsrGraph(nodeIds, names, offsets, targets, weights, edgeIds, null, transposed);
+  }
+
+  /**
+   * Monta o grafo sobre vetores mapeados fora do heap.
+   *
+   * @param forward Vetores do grafo
+   * @param backward Vetores do transposto (mesmos IDs e nomes)
+   * @return Grafo cujo {@link #transpose()} devolve o transposto mapeado
+   */
+  static CsrGraph fromMapped(Mapped forward, Mapped backward) {
+    int n = forward.nodeIds.capacity();
+    int m = forward.targets.capacity();
+    if (forward.offsets.capacity() != n + 1 || forward.weights.capacity() != m || forward.edgeIds.capacity() != m
+        || forward.offsets.get(0) != 0 || forward.offsets.get(n) != m
+        || backward.offsets.capacity() != n + 1 || backward.offsets.get(n) != m) {
+      throw new IllegalArgumentException("Vetores CSR mapeados inconsistentes: " + n + " vértices, " + m + " arcos.");
+    }
+    CsrGraph transposed = new CsrGraph(null, null, null, null, null, null, backward, null);
+    return new CsrGraph(null, null, null, null, null, null, forward, transposed);
+  }
+
+  public int nodeCount() {
+    return nodeIds != null ? nodeIds.length : mapped.nodeIds.capacity();
+  }
+
+  public int arcCount() {
+    return targets != null ? targets.length : mapped.targets.capacity();
+  }
+
+  /**
+   * Indica se os vetores do grafo estão mapeados fora do heap.
+   */
+  public boolean isMapped() {
+    return mapped != null;
+  }
+
+  /**
+   * Converte o ID de um bairro em índice denso.
+   *
+   * @param nodeId ID do bairro
+   * @return Índice denso ou -1 se o nó não existir
+   */
+  public int indexOf(int nodeId) {
+    if (nodeIds != null) {
+      int idx = Arrays.binarySearch(nodeIds, nodeId);
+      return idx >= 0 ? idx : -1;
+    }
+    IntBuffer ids = mapped.nodeIds;
+    int lo = 0;
+    int hi = ids.capacity() - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int id = ids.get(mid);
+      if (id < nodeId) {
+        lo = mid + 1;
+      } else if (id > nodeId) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  public int nodeId(int index) {
+    return nodeIds != null ? nodeIds[index] : mapped.nodeIds.get(index);
+  }
+
+  public String name(int index) {
+    return names != null ? names[index] : mapped.name(index);
+  }
+
+  public int firstArc(int u) {
+    return offsets != null ? offsets[u] : mapped.offsets.get(u);
+  }
+
+  public int endArc(int u) {
+    return offsets != null ? offsets[u + 1] : mapped.offsets.get(u + 1);
+  }
+
+  public int target(int arc) {
+    return targets != null ? targets[arc] : mapped.targets.get(arc);
+  }
+
+  public double weight(int arc) {
+    return weights != null ? weights[arc] : mapped.weights.get(arc);
+  }
+
+  public int edgeId(int arc) {
+    return edgeIds != null ? edgeIds[arc] : mapped.edgeIds.get(arc);
+  }
+
+  /**
+   * Localiza o vértice de origem de um arco (busca binária nos offsets).
+   *
+   * @param arc Índice do arco
+   * @return Índice denso do vértice de origem
+   */
+  public int source(int arc) {
+    int lo = 0;
+    int hi = nodeCount() - 1;
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (firstArc(mid) <= arc) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    // Vértices sem arestas compartilham o mesmo offset; avança até o dono do arco
+    while (endArc(lo) <= arc) {
+      lo++;
+    }
+    return lo;
+  }
+
+  /**
+   * Gera o grafo transposto (todos os arcos invertidos), com o mesmo remapeamento de vértices.
+   * Usado nas buscas reversas (do destino para as origens).
+   * Grafos mapeados devolvem o transposto gravado no mesmo arquivo, sem cópia para o heap.
+   *
+   * @return Grafo transposto
+   */
+  public CsrGraph transpose() {
+    if (reverse != null) {
+      return reverse;
+    }
+    int n = nodeCount();
+    int m = arcCount();
+    int[] tOffsets = new int[n + 1];
+    for (int a = 0; a < m; a++) {
+      tOffsets[target(a) + 1]++;
+    }
+    for (int u = 0; u < n; u++) {
+      tOffsets[u + 1] += tOffsets[u];
+    }
+    int[] tTargets = new int[m];
+    double[] tWeights = new double[m];
+    int[] tEdgeIds = new int[m];
+    int[] cursor = Arrays.copyOf(tOffsets, n);
+    for (int u = 0; u < n; u++) {
+      for (int a = firstArc(u), end = endArc(u); a < end; a++) {
+        int pos = cursor[target(a)]++;
+        tTargets[pos] = u;
+        tWeights[pos] = weight(a);
+        tEdgeIds[pos] = edgeId(a);
+      }
+    }
+    return new CsrGraph(nodeIds, names, tOffsets, tTargets, tWeights, tEdgeIds, mapped, null);
+  }
+
+  /**
+   * Compara este grafo com outro recarregado: se os vértices e os arcos forem os mesmos, na mesma
+   * ordem, devolve as arestas cujo peso mudou (vazio se nenhuma mudou).
+   *
+   * @param other Grafo recarregado
+   * @return IDs das arestas alteradas (ordenados), ou null se a estrutura mudou
+   */
+  public int[] changedEdges(CsrGraph other) {
+    int n = nodeCount();
+    int m = arcCount();
+    if (other.nodeCount() != n || other.arcCount() != m) {
+      return null;
+    }
+    for (int u = 0; u < n; u++) {
+      if (nodeId(u) != other.nodeId(u) || firstArc(u) != other.firstArc(u)) {
+        return null;
+      }
+    }
+    int[] changed = new int[16];
+    int count = 0;
+    for (int a = 0; a < m; a++) {
+      if (target(a) != other.target(a) || edgeId(a) != other.edgeId(a)) {
+        return null;
+      }
+      if (Double.compare(weight(a), other.weight(a)) != 0) {
+        if (count == changed.length) {
+          changed = Arrays.copyOf(changed, count * 2);
+        }
+        changed[count++] = edgeId(a);
+      }
+    }
+    return Arrays.stream(changed, 0, count).sorted().distinct().toArray();
+  }
+
+  /**
+   * Estimativa de memória ocupada pelos vetores do grafo no heap (em bytes).
+   *
+   * @return Tamanho aproximado em bytes
+   */
+  public long estimatedBytes() {
+    return (nodeIds != null ? 4L * nodeIds.length : 0) + (offsets != null ? 4L * offsets.length : 0)
+        + (targets != null ? 4L * targets.length : 0) + (weights != null ? 8L * weights.length : 0)
+        + (edgeIds != null ? 4L * edgeIds.length : 0);
+  }
+
+  /**
+   * Bytes mapeados fora do heap pelo grafo e seu transposto (0 se o grafo estiver no heap).
+   * IDs e nomes, compartilhados entre os dois sentidos, são contados uma vez.
+   *
+   * @return Tamanho em bytes
+   */
+  public long mappedBytes() {
+    if (mapped == null) {
+      return 0;
+    }
+    long bytes = mapped.adjacencyBytes() + mapped.sharedBytes();
+    if (reverse != null && reverse.mapped != null) {
+      bytes += reverse.mapped.adjacencyBytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * Vetores de um grafo CSR mapeados de arquivo (buffers diretos, fora do heap).
+   * Os nomes são decodificados sob demanda a partir da tabela UTF-8.
+   */
+  static final class Mapped {
+    final IntBuffer nodeIds;
+    final IntBuffer offsets;
+    final IntBuffer targets;
+    final DoubleBuffer weights;
+    final IntBuffer edgeIds;
+    final IntBuffer nameOffsets;
+    final ByteBuffer nameTable;
+
+    Mapped(IntBuffer nodeIds, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, IntBuffer edgeIds,
+        IntBuffer nameOffsets, ByteBuffer nameTable) {
+      this.nodeIds = nodeIds;
+      this.offsets = offsets;
+      this.targets = targets;
+      this.weights = weights;
+      this.edgeIds = edgeIds;
+      this.nameOffsets = nameOffsets;
+      this.nameTable = nameTable;
+    }
+
+    String name(int index) {
+      int start = nameOffsets.get(index);
+      byte[] bytes = new byte[nameOffsets.get(index + 1) - start];
+      nameTable.get(start, bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long adjacencyBytes() {
+      return 4L * (offsets.capacity() + targets.capacity() + edgeIds.capacity()) + 8L * weights.capacity();
+    }
+
+    long sharedBytes() {
+      return 4L * (nodeIds.capacity() + nameOffsets.capacity()) + nameTable.capacity();
+    }
+  }
+
+  /**
+   * Construtor incremental do grafo CSR.
+   * Acumula vértices e arcos em vetores primitivos e gera a estrutura final em O(n + m).
+   */
+  public static final class Builder {
+    private int[] ids = new int[16];
+    private String[] nodeNames = new String[16];
+    private int nodeCount;
+
+    private int[] from = new int[32];
+    private int[] to = new int[32];
+    private double[] w = new double[32];
+    private int[] eid = new int[32];
+    private int arcCount;
+
+    public Builder addNode(int id, String name) {
+      if (nodeCount == ids.length) {
+        ids = Arrays.copyOf(ids, nodeCount * 2);
+        nodeNames = Arrays.copyOf(nodeNames, nodeCount * 2);
+      }
+      ids[nodeCount] = id;
+      nodeNames[nodeCount] = name;
+      nodeCount++;
+      return this;
+    }
+
+    /**
+     * Adiciona um arco direcionado entre dois bairros (IDs originais).
+     */
+    public Builder addArc(int edgeId, int fromId, int toId, double weight) {
+      if (arcCount == from.length) {
+        int cap = arcCount * 2;
+        from = Arrays.copyOf(from, cap);
+        to = Arrays.copyOf(to, cap);
+        w = Arrays.copyOf(w, cap);
+        eid = Arrays.copyOf(eid, cap);
+      }
+      from[arcCount] = fromId;
+      to[arcCount] = toId;
+      w[arcCount] = weight;
+      eid[arcCount] = edgeId;
+      arcCount++;
+      return this;
+    }
+
+    /**
+     * Adiciona uma rua de mão dupla (dois arcos).
+     */
+    public Builder addUndirected(int edgeId, int a, int b, double weight) {
+      addArc(edgeId, a, b, weight);
+      addArc(edgeId, b, a, weight);
+      return this;
+    }
+
+    /**
+     * Gera o grafo CSR. Arcos cujos extremos não são vértices conhecidos são descartados.
+     * A ordem de inserção dos arcos de cada vértice é preservada (ordenação estável por origem).
+     *
+     * @return Grafo imutável
+     */
+    public CsrGraph build() {
+      // Remapeamento denso: IDs ordenados e sem repetição
+      int[] rawIds = Arrays.copyOf(ids, nodeCount);
+      int[] sortedIds = rawIds.clone();
+      Arrays.sort(sortedIds);
+      int n = 0;
+      for (int i = 0; i < sortedIds.length; i++) {
+        if (n == 0 || sortedIds[n - 1] != sortedIds[i]) {
+          sortedIds[n++] = sortedIds[i];
+        }
+      }
+      int[] denseIds = Arrays.copyOf(sortedIds, n);
+      String[] denseNames = new String[n];
+      for (int i = 0; i < nodeCount; i++) {
+        denseNames[Arrays.binarySearch(denseIds, rawIds[i])] = nodeNames[i];
+      }
+
+      // Counting sort dos arcos por vértice de origem
+      int[] offsets = new int[n + 1];
+      int[] arcFrom = new int[arcCount];
+      int[] arcTo = new int[arcCount];
+      int valid = 0;
+      for (int i = 0; i < arcCount; i++) {
+        int u = Arrays.binarySearch(denseIds, from[i]);
+        int v = Arrays.binarySearch(denseIds, to[i]);
+        arcFrom[i] = u;
+        arcTo[i] = v;
+        if (u >= 0 && v >= 0) {
+          offsets[u + 1]++;
+          valid++;
+        }
+      }
+      for (int u = 0; u < n; u++) {
+        offsets[u + 1] += offsets[u];
+      }
+
+      int[] targets = new int[valid];
+      double[] weights = new double[valid];
+      int[] edgeIds = new int[valid];
+      int[] cursor = Arrays.copyOf(offsets, n);
+      for (int i = 0; i < arcCount; i++) {
+        int u = arcFrom[i];
+        int v = arcTo[i];
+        if (u < 0 || v < 0) {
+          continue;
+        }
+        int pos = cursor[u]++;
+        targets[pos] = v;
+        weights[pos] = w[i];
+        edgeIds[pos] = eid[i];
+      }
+      return new CsrGraph(denseIds, denseNames, offsets, targets, weights, edgeIds);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package sosrota.backend.routing;
+
+/**
+ * Motor de rotas baseado em Dijkstra unidirecional, sem pré-processamento.
+ * Mantém uma área de trabalho por thread.
+ * [Estrutura de Dados II] Algoritmo de Dijkstra.
+ */
+public final class DijkstraEngine implements RoutingEngine {
+
+  private final CsrGraph graph;
+  private final ThreadLocal<DijkstraSearch> searches;
+
+  public DijkstraEngine(CsrGraph graph) {
+    this.graph = graph;
+    this.searches = ThreadLocal.withInitial(() -> new DijkstraSearch(graph));
+  }
+
+  @Override
+  public String name() {
+    return "dijkstra";
+  }
+
+  @Override
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  @Override
+  public Route route(int source, int target) {
+    DijkstraSearch search = searches.get();
+    double distance = search.run(source, target);
+    if (Double.isInfinite(distance)) {
+      return null;
+    }
+    return new Route(distance, search.pathArcs(target), search.settledCount());
+  }
+}
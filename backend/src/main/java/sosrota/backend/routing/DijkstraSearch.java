@@ -0,0 +1,167 @@
+package sosrota.backend.routing;
+
+import java.util.Arrays;
+
+/**
+ * Área de trabalho reutilizável para o algoritmo de Dijkstra sobre um {@link CsrGraph}.
+ * Os vetores são alocados uma única vez por grafo e invalidados por um contador de geração,
+ * de modo que cada consulta não aloca memória (nem precisa limpar os vetores).
+ * Não é thread-safe: cada thread deve possuir sua própria instância.
+ * [Estrutura de Dados II] Algoritmo de Dijkstra com vetores primitivos e heap indexado.
+ */
+public final class DijkstraSearch {
+
+  private final CsrGraph graph;
+  private final double[] dist;
+  private final int[] parentArc;
+  private final int[] reachedStamp;
+  private final int[] settledStamp;
+  private final IndexedMinHeap heap;
+  private int generation;
+  private int settledCount;
+
+  public DijkstraSearch(CsrGraph graph) {
+    int n = graph.nodeCount();
+    this.graph = graph;
+    this.dist = new double[n];
+    this.parentArc = new int[n];
+    this.reachedStamp = new int[n];
+    this.settledStamp = new int[n];
+    this.heap = new IndexedMinHeap(n);
+  }
+
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  /**
+   * Executa Dijkstra a partir de {@code source}, parando ao fixar {@code target}.
+   * Use {@code target = -1} para explorar todo o componente alcançável.
+   *
+   * @param source Índice denso de origem
+   * @param target Índice denso de destino (ou -1)
+   * @return Distância até o destino ou +infinito se inalcançável
+   */
+  public double run(int source, int target) {
+    begin(source);
+    while (!heap.isEmpty()) {
+      int u = settleNext();
+      if (u == target) {
+        break;
+      }
+      relax(u);
+    }
+    return target >= 0 ? distance(target) : 0.0;
+  }
+
+  /**
+   * Inicia uma busca incremental: os vértices são fixados um a um por {@link #next()},
+   * em ordem crescente de distância, até o chamador decidir parar.
+   *
+   * @param source Índice denso de origem
+   */
+  public void start(int source) {
+    begin(source);
+  }
+
+  /**
+   * Fixa o próximo vértice da fronteira e relaxa seus arcos.
+   *
+   * @return Índice do vértice fixado ou -1 se a fronteira se esgotou
+   */
+  public int next() {
+    if (heap.isEmpty()) {
+      return -1;
+    }
+    int u = settleNext();
+    relax(u);
+    return u;
+  }
+
+  /**
+   * Inicia uma nova busca com a origem na fronteira.
+   */
+  void begin(int source) {
+    if (++generation == Integer.MAX_VALUE) {
+      Arrays.fill(reachedStamp, 0);
+      Arrays.fill(settledStamp, 0);
+      generation = 1;
+    }
+    heap.clear();
+    settledCount = 0;
+    reach(source, 0.0, -1);
+  }
+
+  /**
+   * Remove da fronteira o vértice de menor distância e o marca como fixado.
+   */
+  int settleNext() {
+    int u = heap.poll();
+    settledStamp[u] = generation;
+    settledCount++;
+    return u;
+  }
+
+  /**
+   * Passo de relaxamento das arestas de saída de {@code u}.
+   */
+  void relax(int u) {
+    double du = dist[u];
+    for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+      int v = graph.target(a);
+      if (settledStamp[v] == generation) {
+        continue;
+      }
+      double alt = du + graph.weight(a);
+      if (reachedStamp[v] != generation || alt < dist[v]) {
+        reach(v, alt, a);
+      }
+    }
+  }
+
+  private void reach(int v, double d, int arc) {
+    reachedStamp[v] = generation;
+    dist[v] = d;
+    parentArc[v] = arc;
+    heap.insertOrDecrease(v, d);
+  }
+
+  /**
+   * Distância provisória (ou final, se fixado) até {@code v} na busca corrente.
+   */
+  public double distance(int v) {
+    return reachedStamp[v] == generation ? dist[v] : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Arco usado para alcançar {@code v} na árvore de caminhos mínimos (-1 na origem).
+   */
+  public int parentArc(int v) {
+    return reachedStamp[v] == generation ? parentArc[v] : -1;
+  }
+
+  /**
+   * Número de vértices fixados na última busca.
+   */
+  public int settledCount() {
+    return settledCount;
+  }
+
+  /**
+   * Reconstrói a sequência de arcos da origem até {@code target}.
+   *
+   * @param target Índice denso do destino
+   * @return Arcos em ordem (vazio se o destino for a própria origem)
+   */
+  public int[] pathArcs(int target) {
+    int len = 0;
+    for (int v = target, a = parentArc(v); a >= 0; v = graph.source(a), a = parentArc(v)) {
+      len++;
+    }
+    int[] arcs = new int[len];
+    for (int v = target, a = parentArc(v); a >= 0; v = graph.source(a), a = parentArc(v)) {
+      arcs[--len] = a;
+    }
+    return arcs;
+  }
+}
@@ -0,0 +1,239 @@
+package sosrota.backend.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Matriz de distâncias de todos para todos (all-pairs) pré-calculada sobre um {@link CsrGraph}.
+ * Armazena as distâncias em um vetor plano {@code double[n * n]} e, para reconstrução do caminho,
+ * o primeiro arco de cada rota codificado como deslocamento de 16 bits dentro da lista de
+ * adjacência da origem ({@code char[n * n]}).
+ * Cada linha é obtida por um Dijkstra completo a partir da origem, em paralelo.
+ * [Estrutura de Dados II] Caminhos mínimos de todos para todos (n execuções de Dijkstra).
+ */
+public final class DistanceMatrix implements RoutingEngine {
+
+  private static final char NO_HOP = Character.MAX_VALUE;
+  private static final char UNKNOWN_HOP = Character.MAX_VALUE - 1;
+  // Folga numérica para decidir se uma aresta pertence a algum caminho mínimo
+  private static final double EPSILON = 1e-9;
+
+  private final CsrGraph graph;
+  private final int n;
+  private final double[] dist;
+  private final char[] nextHop;
+  private final int parallelism;
+  private long buildMillis;
+  private int refreshedRows;
+
+  private DistanceMatrix(CsrGraph graph, double[] dist, char[] nextHop, int parallelism) {
+    this.graph = graph;
+    this.n = graph.nodeCount();
+    this.dist = dist;
+    this.nextHop = nextHop;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Indica se o grafo pode ser representado pela matriz (limites de índice e de grau).
+   *
+   * @param graph Grafo
+   * @param maxNodes Limite configurado de vértices
+   * @return true se a matriz pode ser construída
+   */
+  public static boolean supports(CsrGraph graph, int maxNodes) {
+    int n = graph.nodeCount();
+    if (n > maxNodes || (long) n * n > Integer.MAX_VALUE - 8) {
+      return false;
+    }
+    for (int u = 0; u < n; u++) {
+      if (graph.endArc(u) - graph.firstArc(u) >= UNKNOWN_HOP) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Constrói a matriz executando um Dijkstra por origem em um ForkJoinPool dedicado.
+   *
+   * @param graph Grafo
+   * @param parallelism Número de threads
+   * @return Matriz preenchida
+   */
+  public static DistanceMatrix build(CsrGraph graph, int parallelism) {
+    int n = graph.nodeCount();
+    DistanceMatrix matrix = new DistanceMatrix(graph, new double[n * n], new char[n * n], Math.max(1, parallelism));
+    long start = System.nanoTime();
+    matrix.computeRows(IntStream.range(0, n).toArray());
+    matrix.buildMillis = (System.nanoTime() - start) / 1_000_000;
+    matrix.refreshedRows = n;
+    return matrix;
+  }
+
+  @Override
+  public String name() {
+    return "matrix";
+  }
+
+  @Override
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  public int nodeCount() {
+    return n;
+  }
+
+  public long buildMillis() {
+    return buildMillis;
+  }
+
+  /**
+   * Linhas calculadas na construção ou na última atualização incremental.
+   */
+  public int refreshedRows() {
+    return refreshedRows;
+  }
+
+  public long estimatedBytes() {
+    return 8L * dist.length + 2L * nextHop.length;
+  }
+
+  /**
+   * Distância entre dois vértices (índices densos).
+   *
+   * @return Distância ou +infinito se inalcançável
+   */
+  public double distance(int source, int target) {
+    return dist[source * n + target];
+  }
+
+  /**
+   * Reconstrói o caminho seguindo o próximo salto armazenado em cada linha.
+   *
+   * @return Arcos do caminho, ou null se inalcançável
+   */
+  public int[] pathArcs(int source, int target) {
+    CsrGraph g = graph;
+    if (Double.isInfinite(distance(source, target))) {
+      return null;
+    }
+    int len = 0;
+    for (int u = source; u != target; u = g.target(g.firstArc(u) + nextHop[u * n + target])) {
+      len++;
+    }
+    int[] arcs = new int[len];
+    int i = 0;
+    for (int u = source; u != target; u = g.target(arcs[i++])) {
+      arcs[i] = g.firstArc(u) + nextHop[u * n + target];
+    }
+    return arcs;
+  }
+
+  /**
+   * Consulta em tabela: nenhum vértice é fixado.
+   */
+  @Override
+  public Route route(int source, int target) {
+    int[] arcs = pathArcs(source, target);
+    return arcs == null ? null : new Route(distance(source, target), arcs, 0);
+  }
+
+  /**
+   * Gera uma nova matriz refletindo a alteração de peso de algumas arestas, recalculando apenas
+   * as linhas afetadas: aquelas em que algum arco alterado era justo (pertencia a um caminho
+   * mínimo) ou em que o novo peso encurta algum caminho.
+   * A matriz atual permanece intacta para as consultas em andamento.
+   *
+   * @param updated Grafo já com os novos pesos (mesma estrutura de arcos, ver {@link CsrGraph#changedEdges})
+   * @param edgeIds IDs das arestas alteradas (ordenados)
+   * @return Nova matriz
+   */
+  public DistanceMatrix withEdgeChanges(CsrGraph updated, int[] edgeIds) {
+    boolean[] affected = new boolean[n];
+    for (int u = 0; u < n; u++) {
+      for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+        if (Arrays.binarySearch(edgeIds, graph.edgeId(a)) < 0) {
+          continue;
+        }
+        int v = graph.target(a);
+        double oldW = graph.weight(a);
+        double newW = updated.weight(a);
+        for (int s = 0; s < n; s++) {
+          double du = dist[s * n + u];
+          if (Double.isInfinite(du)) {
+            continue;
+          }
+          double dv = dist[s * n + v];
+          boolean wasTight = du + oldW <= dv + EPSILON;
+          boolean improves = du + newW < dv - EPSILON;
+          if (wasTight || improves) {
+            affected[s] = true;
+          }
+        }
+      }
+    }
+    int[] rows = IntStream.range(0, n).filter(s -> affected[s]).toArray();
+
+    DistanceMatrix next = new DistanceMatrix(updated, dist.clone(), nextHop.clone(), parallelism);
+    long start = System.nanoTime();
+    next.computeRows(rows);
+    next.buildMillis = (System.nanoTime() - start) / 1_000_000;
+    next.refreshedRows = rows.length;
+    return next;
+  }
+
+  private void computeRows(int[] rows) {
+    CsrGraph g = graph;
+    ThreadLocal<DijkstraSearch> searches = ThreadLocal.withInitial(() -> new DijkstraSearch(g));
+    ThreadLocal<int[]> stacks = ThreadLocal.withInitial(() -> new int[n]);
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.submit(() -> Arrays.stream(rows).parallel()
+          .forEach(s -> computeRow(searches.get(), stacks.get(), s))).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Construção da matriz de distâncias interrompida.", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Falha ao construir a matriz de distâncias.", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Preenche a linha {@code s}: distâncias e primeiro arco de cada caminho,
+   * obtido subindo a árvore de caminhos mínimos até a origem (com memoização na própria linha).
+   */
+  private void computeRow(DijkstraSearch search, int[] stack, int s) {
+    CsrGraph g = search.graph();
+    search.run(s, -1);
+    int row = s * n;
+    for (int t = 0; t < n; t++) {
+      dist[row + t] = search.distance(t);
+      nextHop[row + t] = Double.isInfinite(dist[row + t]) || t == s ? NO_HOP : UNKNOWN_HOP;
+    }
+    for (int t = 0; t < n; t++) {
+      if (nextHop[row + t] != UNKNOWN_HOP) {
+        continue;
+      }
+      int depth = 0;
+      int v = t;
+      int arc = search.parentArc(v);
+      // Sobe até um vértice filho direto da origem ou com salto já conhecido
+      while (g.source(arc) != s && nextHop[row + v] == UNKNOWN_HOP) {
+        stack[depth++] = v;
+        v = g.source(arc);
+        arc = search.parentArc(v);
+      }
+      char hop = nextHop[row + v] != UNKNOWN_HOP ? nextHop[row + v] : (char) (arc - g.firstArc(s));
+      nextHop[row + v] = hop;
+      while (depth > 0) {
+        nextHop[row + stack[--depth]] = hop;
+      }
+    }
+  }
+}
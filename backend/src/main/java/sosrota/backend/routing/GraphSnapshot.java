@@ -0,0 +1,90 @@
+package sosrota.backend.routing;
+
+/**
+ * Versão imutável do grafo de rotas e das estruturas derivadas (transposto, matriz, motor,
+ * perfis de velocidade por horário).
+ * Publicada por referência atômica: cada consulta lê uma única instância e a usa até o fim,
+ * enquanto uma recarga constrói a próxima versão em paralelo (copy-on-write).
+ * [Estrutura de Dados II] Estrutura imutável compartilhada entre threads.
+ */
+public final class GraphSnapshot {
+
+  private final long version;
+  private final long sourceVersion;
+  private final CsrGraph graph;
+  private final CsrGraph reverseGraph;
+  private final DistanceMatrix matrix;
+  private final RoutingEngine engine;
+  private final DijkstraEngine baseline;
+  private final SpeedProfiles profiles;
+  private final long createdAtMillis;
+
+  /**
+   * @param version Número sequencial da versão publicada pelo serviço
+   * @param sourceVersion Contador de alterações do banco observado ao carregar os dados
+   * @param graph Grafo
+   * @param reverseGraph Grafo transposto
+   * @param matrix Matriz de distâncias (ou null)
+   * @param engine Motor das consultas ponto a ponto
+   * @param baseline Dijkstra simples sobre o mesmo grafo
+   * @param profiles Velocidades por arco e faixa horária (mesma numeração de arcos do grafo)
+   */
+  public GraphSnapshot(long version, long sourceVersion, CsrGraph graph, CsrGraph reverseGraph,
+      DistanceMatrix matrix, RoutingEngine engine, DijkstraEngine baseline, SpeedProfiles profiles) {
+    this.version = version;
+    this.sourceVersion = sourceVersion;
+    this.graph = graph;
+    this.reverseGraph = reverseGraph;
+    this.matrix = matrix;
+    this.engine = engine;
+    this.baseline = baseline;
+    this.profiles = profiles;
+    this.createdAtMillis = System.currentTimeMillis();
+  }
+
+  /**
+   * Versão inicial, sem vértices (antes da primeira carga).
+   */
+  public static GraphSnapshot empty() {
+    CsrGraph g = new CsrGraph.Builder().build();
+    DijkstraEngine dijkstra = new DijkstraEngine(g);
+    return new GraphSnapshot(0, Long.MIN_VALUE, g, g.transpose(), null, dijkstra, dijkstra,
+        SpeedProfiles.uniform(SpeedProfiles.DEFAULT_SPEED_KMH));
+  }
+
+  public long version() {
+    return version;
+  }
+
+  public long sourceVersion() {
+    return sourceVersion;
+  }
+
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  public CsrGraph reverseGraph() {
+    return reverseGraph;
+  }
+
+  public DistanceMatrix matrix() {
+    return matrix;
+  }
+
+  public RoutingEngine engine() {
+    return engine;
+  }
+
+  public DijkstraEngine baseline() {
+    return baseline;
+  }
+
+  public SpeedProfiles profiles() {
+    return profiles;
+  }
+
+  public long createdAtMillis() {
+    return createdAtMillis;
+  }
+}
@@ -0,0 +1,336 @@
+package sosrota.backend.routing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Arquivo binário com o grafo CSR, para inicialização rápida sem carregar bairros e ruas pelo JPA.
+ * Gravado após cada carga do banco e lido na próxima inicialização; só é aceito se
+ * a versão do banco (contador grafo_versao) for a mesma da gravação e o checksum conferir.
+ * Pode ser copiado para o heap ({@link #read}) ou mapeado fora dele ({@link #map}), para redes
+ * viárias grandes: cada seção é mapeada separadamente (limite de 2 GB por vetor, não por arquivo).
+ *
+ * Formato (little-endian):
+ * <pre>
+ *   cabeçalho (64 bytes): magic "SOSG", versão do formato, versão do banco, n, m,
+ *                         bytes de nomes, CRC32C do conteúdo
+ *   double[m] pesos, double[m] pesos do transposto   (alinhados em 8 bytes)
+ *   int[n]    IDs dos bairros (remapeamento índice denso -> ID, ordenado)
+ *   int[n+1]  offsets, int[m] alvos, int[m] IDs das arestas
+ *   int[n+1]  offsets, int[m] alvos, int[m] IDs das arestas do transposto
+ *   int[n+1]  início de cada nome na tabela de nomes
+ *   byte[]    tabela de nomes (UTF-8)
+ * </pre>
+ * [Estrutura de Dados II] Serialização compacta de grafo (CSR).
+ * [RF04] Base do cálculo de rotas.
+ */
+public final class GraphSnapshotFile {
+
+  static final int MAGIC = 0x47534F53; // "SOSG" em little-endian
+  static final int FORMAT_VERSION = 2;
+  static final int HEADER_BYTES = 64;
+
+  private static final int CHUNK_BYTES = 1 << 20;
+  private static final long CRC_WINDOW_BYTES = 1L << 30;
+
+  private GraphSnapshotFile() {
+  }
+
+  /**
+   * Grava o grafo e seu transposto de forma atômica (arquivo temporário + renomeação).
+   *
+   * @param file Arquivo de destino
+   * @param g Grafo
+   * @param sourceVersion Contador de alterações do banco da carga
+   * @return Tamanho do arquivo em bytes
+   */
+  public static long write(Path file, CsrGraph g, long sourceVersion) throws IOException {
+    int n = g.nodeCount();
+    int m = g.arcCount();
+    CsrGraph r = g.transpose();
+    byte[][] names = new byte[n][];
+    int namesBytes = 0;
+    for (int u = 0; u < n; u++) {
+      String name = g.name(u);
+      names[u] = name != null ? name.getBytes(StandardCharsets.UTF_8) : new byte[0];
+      namesBytes += names[u].length;
+    }
+
+    Path dir = file.toAbsolutePath().getParent();
+    if (dir != null) {
+      Files.createDirectories(dir);
+    }
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    long size;
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ChunkWriter out = new ChunkWriter(channel, HEADER_BYTES);
+      for (int a = 0; a < m; a++) {
+        out.putDouble(g.weight(a));
+      }
+      for (int a = 0; a < m; a++) {
+        out.putDouble(r.weight(a));
+      }
+      for (int u = 0; u < n; u++) {
+        out.putInt(g.nodeId(u));
+      }
+      writeStructure(out, g);
+      writeStructure(out, r);
+      int nameOffset = 0;
+      for (int u = 0; u < n; u++) {
+        out.putInt(nameOffset);
+        nameOffset += names[u].length;
+      }
+      out.putInt(nameOffset);
+      for (byte[] name : names) {
+        out.putBytes(name);
+      }
+      out.flush();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(sourceVersion)
+          .putInt(n).putInt(m).putInt(namesBytes).putInt(0)
+          .putLong(out.crc.getValue());
+      header.clear();
+      channel.write(header, 0);
+      channel.force(false);
+      size = channel.size();
+    }
+    try {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return size;
+  }
+
+  private static void writeStructure(ChunkWriter out, CsrGraph g) throws IOException {
+    int n = g.nodeCount();
+    int m = g.arcCount();
+    for (int u = 0; u < n; u++) {
+      out.putInt(g.firstArc(u));
+    }
+    out.putInt(m);
+    for (int a = 0; a < m; a++) {
+      out.putInt(g.target(a));
+    }
+    for (int a = 0; a < m; a++) {
+      out.putInt(g.edgeId(a));
+    }
+  }
+
+  /**
+   * Lê o grafo para vetores no heap.
+   *
+   * @param file Arquivo
+   * @param expectedSourceVersion Versão atual do banco
+   * @return Grafo, ou null se o arquivo não existir, for de outra versão do banco ou estiver corrompido
+   */
+  public static CsrGraph read(Path file, long expectedSourceVersion) throws IOException {
+    try (FileChannel channel = open(file)) {
+      Layout layout = channel != null ? Layout.validate(channel, expectedSourceVersion) : null;
+      if (layout == null) {
+        return null;
+      }
+      int n = layout.n;
+      int m = layout.m;
+      double[] weights = new double[m];
+      doubles(channel, layout.weights, m).get(weights);
+      double[] rWeights = new double[m];
+      doubles(channel, layout.reverseWeights, m).get(rWeights);
+      int[] nodeIds = ints(channel, layout.nodeIds, n);
+      int[] offsets = ints(channel, layout.offsets, n + 1);
+      int[] targets = ints(channel, layout.targets, m);
+      int[] edgeIds = ints(channel, layout.edgeIds, m);
+      int[] rOffsets = ints(channel, layout.reverseOffsets, n + 1);
+      int[] rTargets = ints(channel, layout.reverseTargets, m);
+      int[] rEdgeIds = ints(channel, layout.reverseEdgeIds, m);
+      int[] nameOffsets = ints(channel, layout.nameOffsets, n + 1);
+      byte[] nameTable = new byte[layout.namesBytes];
+      section(channel, layout.names, layout.namesBytes).get(nameTable);
+      String[] names = new String[n];
+      for (int u = 0; u < n; u++) {
+        names[u] = new String(nameTable, nameOffsets[u], nameOffsets[u + 1] - nameOffsets[u], StandardCharsets.UTF_8);
+      }
+      return CsrGraph.fromArrays(nodeIds, names, offsets, targets, weights, edgeIds, rOffsets, rTargets, rWeights, rEdgeIds);
+    }
+  }
+
+  /**
+   * Mapeia o grafo fora do heap (buffers diretos sobre o arquivo). O arquivo pode ser fechado e
+   * até substituído por uma nova gravação: os mapeamentos continuam válidos até serem coletados.
+   *
+   * @param file Arquivo
+   * @param expectedSourceVersion Versão atual do banco
+   * @return Grafo mapeado, ou null se o arquivo não existir, for de outra versão do banco ou estiver corrompido
+   */
+  public static CsrGraph map(Path file, long expectedSourceVersion) throws IOException {
+    try (FileChannel channel = open(file)) {
+      Layout layout = channel != null ? Layout.validate(channel, expectedSourceVersion) : null;
+      if (layout == null) {
+        return null;
+      }
+      int n = layout.n;
+      int m = layout.m;
+      IntBuffer nodeIds = intBuffer(channel, layout.nodeIds, n);
+      IntBuffer nameOffsets = intBuffer(channel, layout.nameOffsets, n + 1);
+      ByteBuffer nameTable = section(channel, layout.names, layout.namesBytes);
+      CsrGraph.Mapped forward = new CsrGraph.Mapped(nodeIds,
+          intBuffer(channel, layout.offsets, n + 1), intBuffer(channel, layout.targets, m),
+          doubles(channel, layout.weights, m), intBuffer(channel, layout.edgeIds, m), nameOffsets, nameTable);
+      CsrGraph.Mapped backward = new CsrGraph.Mapped(nodeIds,
+          intBuffer(channel, layout.reverseOffsets, n + 1), intBuffer(channel, layout.reverseTargets, m),
+          doubles(channel, layout.reverseWeights, m), intBuffer(channel, layout.reverseEdgeIds, m), nameOffsets, nameTable);
+      return CsrGraph.fromMapped(forward, backward);
+    }
+  }
+
+  private static FileChannel open(Path file) throws IOException {
+    return Files.isRegularFile(file) ? FileChannel.open(file, StandardOpenOption.READ) : null;
+  }
+
+  private static ByteBuffer section(FileChannel channel, long position, long bytes) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static IntBuffer intBuffer(FileChannel channel, long position, int count) throws IOException {
+    return section(channel, position, 4L * count).asIntBuffer();
+  }
+
+  private static DoubleBuffer doubles(FileChannel channel, long position, int count) throws IOException {
+    return section(channel, position, 8L * count).asDoubleBuffer();
+  }
+
+  private static int[] ints(FileChannel channel, long position, int count) throws IOException {
+    int[] values = new int[count];
+    intBuffer(channel, position, count).get(values);
+    return values;
+  }
+
+  /**
+   * Posição de cada seção, calculada a partir do cabeçalho validado.
+   */
+  private static final class Layout {
+    int n;
+    int m;
+    int namesBytes;
+    long weights;
+    long reverseWeights;
+    long nodeIds;
+    long offsets;
+    long targets;
+    long edgeIds;
+    long reverseOffsets;
+    long reverseTargets;
+    long reverseEdgeIds;
+    long nameOffsets;
+    long names;
+    long end;
+
+    /**
+     * Confere magic, versões, tamanho e checksum.
+     *
+     * @return Layout ou null se o arquivo não puder ser usado
+     */
+    static Layout validate(FileChannel channel, long expectedSourceVersion) throws IOException {
+      long size = channel.size();
+      if (size < HEADER_BYTES) {
+        return null;
+      }
+      ByteBuffer header = section(channel, 0, HEADER_BYTES);
+      if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getLong(8) != expectedSourceVersion) {
+        return null;
+      }
+      Layout layout = new Layout();
+      layout.n = header.getInt(16);
+      layout.m = header.getInt(20);
+      layout.namesBytes = header.getInt(24);
+      if (layout.n < 0 || layout.m < 0 || layout.namesBytes < 0) {
+        return null;
+      }
+      long n = layout.n;
+      long m = layout.m;
+      layout.weights = HEADER_BYTES;
+      layout.reverseWeights = layout.weights + 8 * m;
+      layout.nodeIds = layout.reverseWeights + 8 * m;
+      layout.offsets = layout.nodeIds + 4 * n;
+      layout.targets = layout.offsets + 4 * (n + 1);
+      layout.edgeIds = layout.targets + 4 * m;
+      layout.reverseOffsets = layout.edgeIds + 4 * m;
+      layout.reverseTargets = layout.reverseOffsets + 4 * (n + 1);
+      layout.reverseEdgeIds = layout.reverseTargets + 4 * m;
+      layout.nameOffsets = layout.reverseEdgeIds + 4 * m;
+      layout.names = layout.nameOffsets + 4 * (n + 1);
+      layout.end = layout.names + layout.namesBytes;
+      if (size != layout.end || 8 * m > Integer.MAX_VALUE) {
+        return null;
+      }
+      CRC32C crc = new CRC32C();
+      for (long pos = HEADER_BYTES; pos < size; pos += CRC_WINDOW_BYTES) {
+        crc.update(section(channel, pos, Math.min(CRC_WINDOW_BYTES, size - pos)));
+      }
+      return crc.getValue() == header.getLong(32) ? layout : null;
+    }
+  }
+
+  /**
+   * Escrita sequencial em blocos, com CRC32C do conteúdo calculado durante a gravação.
+   */
+  private static final class ChunkWriter {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private long position;
+
+    ChunkWriter(FileChannel channel, long start) {
+      this.channel = channel;
+      this.position = start;
+    }
+
+    void putInt(int value) throws IOException {
+      ensure(4);
+      buffer.putInt(value);
+    }
+
+    void putDouble(double value) throws IOException {
+      ensure(8);
+      buffer.putDouble(value);
+    }
+
+    void putBytes(byte[] bytes) throws IOException {
+      int off = 0;
+      while (off < bytes.length) {
+        ensure(1);
+        int len = Math.min(buffer.remaining(), bytes.length - off);
+        buffer.put(bytes, off, len);
+        off += len;
+      }
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      crc.update(buffer.duplicate());
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package sosrota.backend.routing;
+
+import java.util.Arrays;
+
+/**
+ * Heap mínimo 4-ário indexado por vértice, com operação de decrease-key.
+ * Cada vértice aparece no máximo uma vez, evitando as entradas duplicadas
+ * (e a alocação de objetos) da PriorityQueue com remoção preguiçosa.
+ * [Estrutura de Dados II] Fila de Prioridade indexada (d-ary heap).
+ */
+public final class IndexedMinHeap {
+
+  private static final int ARITY = 4;
+
+  private final int[] heap;      // posição -> vértice
+  private final int[] position;  // vértice -> posição no heap (-1 se ausente)
+  private final double[] keys;   // vértice -> chave atual
+  private int size;
+
+  public IndexedMinHeap(int capacity) {
+    this.heap = new int[capacity];
+    this.position = new int[capacity];
+    this.keys = new double[capacity];
+    Arrays.fill(position, -1);
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean contains(int v) {
+    return position[v] >= 0;
+  }
+
+  public double minKey() {
+    return keys[heap[0]];
+  }
+
+  /**
+   * Insere o vértice ou reduz sua chave, se já estiver no heap com chave maior.
+   *
+   * @param v Vértice
+   * @param key Nova chave
+   */
+  public void insertOrDecrease(int v, double key) {
+    int pos = position[v];
+    if (pos < 0) {
+      pos = size++;
+      heap[pos] = v;
+      position[v] = pos;
+      keys[v] = key;
+      siftUp(pos);
+    } else if (key < keys[v]) {
+      keys[v] = key;
+      siftUp(pos);
+    }
+  }
+
+  /**
+   * Remove e retorna o vértice de menor chave.
+   *
+   * @return Vértice removido
+   */
+  public int poll() {
+    int top = heap[0];
+    position[top] = -1;
+    size--;
+    if (size > 0) {
+      int last = heap[size];
+      heap[0] = last;
+      position[last] = 0;
+      siftDown(0);
+    }
+    return top;
+  }
+
+  /**
+   * Esvazia o heap em O(tamanho atual), sem percorrer toda a capacidade.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      position[heap[i]] = -1;
+    }
+    size = 0;
+  }
+
+  private void siftUp(int pos) {
+    int v = heap[pos];
+    double key = keys[v];
+    while (pos > 0) {
+      int parent = (pos - 1) / ARITY;
+      int p = heap[parent];
+      if (keys[p] <= key) {
+        break;
+      }
+      heap[pos] = p;
+      position[p] = pos;
+      pos = parent;
+    }
+    heap[pos] = v;
+    position[v] = pos;
+  }
+
+  private void siftDown(int pos) {
+    int v = heap[pos];
+    double key = keys[v];
+    while (true) {
+      int first = pos * ARITY + 1;
+      if (first >= size) {
+        break;
+      }
+      int last = Math.min(first + ARITY, size);
+      int best = first;
+      double bestKey = keys[heap[first]];
+      for (int c = first + 1; c < last; c++) {
+        double k = keys[heap[c]];
+        if (k < bestKey) {
+          best = c;
+          bestKey = k;
+        }
+      }
+      if (bestKey >= key) {
+        break;
+      }
+      int child = heap[best];
+      heap[pos] = child;
+      position[child] = pos;
+      pos = best;
+    }
+    heap[pos] = v;
+    position[v] = pos;
+  }
+}
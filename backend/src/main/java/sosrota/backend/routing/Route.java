@@ -0,0 +1,30 @@
+package sosrota.backend.routing;
+
+/**
+ * Resultado de uma consulta ponto a ponto: distância total, arcos do grafo original (em ordem)
+ * e número de vértices fixados pela busca (espaço de busca explorado).
+ */
+public final class Route {
+
+  private final double distance;
+  private final int[] arcs;
+  private final int settledNodes;
+
+  public Route(double distance, int[] arcs, int settledNodes) {
+    this.distance = distance;
+    this.arcs = arcs;
+    this.settledNodes = settledNodes;
+  }
+
+  public double distance() {
+    return distance;
+  }
+
+  public int[] arcs() {
+    return arcs;
+  }
+
+  public int settledNodes() {
+    return settledNodes;
+  }
+}
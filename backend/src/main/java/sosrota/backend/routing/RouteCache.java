@@ -0,0 +1,134 @@
+package sosrota.backend.routing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache de resultados de rotas com política LRU (menos usado recentemente), limitado pelo número
+ * de entradas e pela memória estimada dos valores.
+ * As chaves incluem a versão do grafo: resultados de versões anteriores nunca são devolvidos
+ * e são descartados por {@link #clear()} quando uma nova versão é publicada.
+ * Limites não positivos desativam o cache (toda consulta é uma falta e nada é armazenado).
+ * [Estrutura de Dados II] Tabela hash com lista duplamente encadeada em ordem de acesso.
+ *
+ * @param <K> Chave (origem, destino e versão do grafo)
+ * @param <V> Resultado da rota
+ */
+public final class RouteCache<K, V> {
+
+  // Custo fixo estimado por entrada (nó do mapa, chave e referências)
+  static final long ENTRY_OVERHEAD_BYTES = 96;
+
+  private final ToLongFunction<V> weigher;
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private int maxEntries;
+  private long maxBytes;
+  private long bytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param maxEntries Número máximo de entradas
+   * @param maxBytes Memória máxima estimada (bytes)
+   * @param weigher Estimativa do tamanho de um valor (bytes)
+   */
+  public RouteCache(int maxEntries, long maxBytes, ToLongFunction<V> weigher) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Busca um resultado, marcando-o como o mais recentemente usado.
+   *
+   * @param key Chave
+   * @return Valor ou null se ausente
+   */
+  public synchronized V get(K key) {
+    Entry<V> e = entries.get(key);
+    if (e == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return e.value;
+  }
+
+  /**
+   * Armazena um resultado, descartando os menos usados recentemente até caber nos limites.
+   * Valores maiores que o limite de memória inteiro não são armazenados.
+   */
+  public synchronized void put(K key, V value) {
+    long weight = ENTRY_OVERHEAD_BYTES + weigher.applyAsLong(value);
+    if (maxEntries <= 0 || weight > maxBytes) {
+      return;
+    }
+    Entry<V> previous = entries.put(key, new Entry<>(value, weight));
+    if (previous != null) {
+      bytes -= previous.weight;
+    }
+    bytes += weight;
+    evictToFit();
+  }
+
+  /**
+   * Altera os limites, descartando entradas se necessário.
+   */
+  public synchronized void resize(int maxEntries, long maxBytes) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    evictToFit();
+  }
+
+  /**
+   * Remove todas as entradas (não contabilizadas como descartes por capacidade).
+   */
+  public synchronized void clear() {
+    entries.clear();
+    bytes = 0;
+  }
+
+  private void evictToFit() {
+    Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+      bytes -= it.next().getValue().weight;
+      it.remove();
+      evictions.increment();
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long estimatedBytes() {
+    return bytes;
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  private static final class Entry<V> {
+    final V value;
+    final long weight;
+
+    Entry(V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package sosrota.backend.routing;
+
+/**
+ * Estratégia de cálculo de caminho mínimo ponto a ponto sobre um {@link CsrGraph}.
+ * As implementações trabalham com índices densos e devolvem os arcos do grafo original,
+ * de modo que o caminho reconstruído é o mesmo independentemente do motor usado.
+ * [Estrutura de Dados II] Algoritmos de caminho mínimo intercambiáveis.
+ */
+public interface RoutingEngine {
+
+  /**
+   * Nome do motor (usado em logs e métricas).
+   */
+  String name();
+
+  /**
+   * Grafo sobre o qual as rotas são calculadas.
+   */
+  CsrGraph graph();
+
+  /**
+   * Calcula o caminho mínimo entre dois vértices.
+   *
+   * @param source Índice denso de origem
+   * @param target Índice denso de destino
+   * @return Rota encontrada ou null se o destino for inalcançável
+   */
+  Route route(int source, int target);
+}
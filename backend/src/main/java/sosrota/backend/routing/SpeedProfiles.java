@@ -0,0 +1,145 @@
+package sosrota.backend.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Perfis de velocidade por arco e faixa horária, em vetores primitivos.
+ * Cada arco aponta para um perfil (ou para a velocidade padrão); o perfil guarda o ritmo
+ * (minutos por km) de cada uma das 24 faixas do dia.
+ * O tempo de travessia integra a velocidade ao longo do percurso: se a faixa muda no meio da rua,
+ * o restante é percorrido com a nova velocidade. Assim, sair mais tarde nunca faz chegar mais cedo
+ * (propriedade FIFO), condição para o Dijkstra dependente do tempo ser exato.
+ * [Estrutura de Dados II] Pesos de aresta dependentes do tempo.
+ */
+public final class SpeedProfiles {
+
+  public static final int BUCKETS = 24;
+  public static final double BUCKET_MINUTES = 60.0;
+  public static final double DAY_MINUTES = BUCKETS * BUCKET_MINUTES;
+  public static final double DEFAULT_SPEED_KMH = 60.0;
+
+  // Perfil de cada arco (-1 = velocidade padrão); null quando não há perfis (evita O(m) no heap)
+  private final int[] arcProfile;
+  // Ritmo em minutos por km: [perfil * BUCKETS + faixa]
+  private final double[] pace;
+  private final double defaultPace;
+
+  private SpeedProfiles(int[] arcProfile, double[] pace, double defaultPace) {
+    this.arcProfile = arcProfile;
+    this.pace = pace;
+    this.defaultPace = defaultPace;
+  }
+
+  /**
+   * Perfis com a mesma velocidade para todos os arcos e horários.
+   */
+  public static SpeedProfiles uniform(double speedKmh) {
+    return new SpeedProfiles(null, new double[0], 60.0 / speedKmh);
+  }
+
+  public int profileCount() {
+    return pace.length / BUCKETS;
+  }
+
+  public double defaultSpeedKmh() {
+    return 60.0 / defaultPace;
+  }
+
+  /**
+   * Tempo para percorrer um arco saindo em um instante do dia.
+   *
+   * @param arc Índice do arco
+   * @param km Comprimento do arco
+   * @param departure Instante de saída, em minutos desde a meia-noite (pode passar de um dia)
+   * @return Tempo de travessia em minutos
+   */
+  public double travelMinutes(int arc, double km, double departure) {
+    int p = arcProfile != null ? arcProfile[arc] : -1;
+    if (p < 0) {
+      return km * defaultPace;
+    }
+    int base = p * BUCKETS;
+    double remaining = km;
+    double elapsed = 0.0;
+    double t = departure % DAY_MINUTES;
+    int bucket = (int) (t / BUCKET_MINUTES);
+    for (int step = 0; step <= BUCKETS; step++) {
+      double minutesPerKm = pace[base + bucket];
+      double left = (bucket + 1) * BUCKET_MINUTES - t;
+      double need = remaining * minutesPerKm;
+      if (need <= left) {
+        return elapsed + need;
+      }
+      // Chega ao fim da faixa no meio da rua: segue com a velocidade da próxima faixa
+      elapsed += left;
+      remaining -= left / minutesPerKm;
+      bucket = (bucket + 1) % BUCKETS;
+      t = bucket * BUCKET_MINUTES;
+    }
+    // Arco mais longo que um dia inteiro de percurso: completa com o ritmo médio do perfil
+    double sum = 0.0;
+    for (int b = 0; b < BUCKETS; b++) {
+      sum += pace[base + b];
+    }
+    return elapsed + remaining * sum / BUCKETS;
+  }
+
+  /**
+   * Construtor dos perfis a partir de registros (aresta, faixa, velocidade).
+   * Faixas não informadas de uma aresta com perfil usam a velocidade padrão.
+   */
+  public static final class Builder {
+    private final double defaultSpeedKmh;
+    private final Map<Integer, double[]> speedsByEdge = new HashMap<>();
+
+    public Builder(double defaultSpeedKmh) {
+      this.defaultSpeedKmh = defaultSpeedKmh;
+    }
+
+    public Builder set(int edgeId, int bucket, double speedKmh) {
+      if (bucket < 0 || bucket >= BUCKETS) {
+        throw new IllegalArgumentException("Faixa horária inválida: " + bucket);
+      }
+      if (!(speedKmh > 0)) {
+        throw new IllegalArgumentException("Velocidade inválida: " + speedKmh);
+      }
+      speedsByEdge.computeIfAbsent(edgeId, id -> {
+        double[] speeds = new double[BUCKETS];
+        Arrays.fill(speeds, defaultSpeedKmh);
+        return speeds;
+      })[bucket] = speedKmh;
+      return this;
+    }
+
+    /**
+     * Associa os perfis aos arcos do grafo (os dois sentidos de uma rua compartilham o perfil).
+     */
+    public SpeedProfiles build(CsrGraph graph) {
+      if (speedsByEdge.isEmpty()) {
+        return new SpeedProfiles(null, new double[0], 60.0 / defaultSpeedKmh);
+      }
+      Map<Integer, Integer> profileOfEdge = new HashMap<>();
+      double[] pace = new double[speedsByEdge.size() * BUCKETS];
+      int[] arcProfile = new int[graph.arcCount()];
+      for (int a = 0; a < arcProfile.length; a++) {
+        double[] speeds = speedsByEdge.get(graph.edgeId(a));
+        if (speeds == null) {
+          arcProfile[a] = -1;
+          continue;
+        }
+        Integer p = profileOfEdge.get(graph.edgeId(a));
+        if (p == null) {
+          p = profileOfEdge.size();
+          profileOfEdge.put(graph.edgeId(a), p);
+          for (int b = 0; b < BUCKETS; b++) {
+            pace[p * BUCKETS + b] = 60.0 / speeds[b];
+          }
+        }
+        arcProfile[a] = p;
+      }
+      return new SpeedProfiles(arcProfile, Arrays.copyOf(pace, profileOfEdge.size() * BUCKETS), 60.0 / defaultSpeedKmh);
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package sosrota.backend.routing;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra dependente do tempo (TD-Dijkstra) com múltiplas origens.
+ * O rótulo de cada vértice é o instante de chegada; o custo de um arco depende do instante em que
+ * ele é percorrido ({@link SpeedProfiles}). Como os perfis são FIFO, o primeiro rótulo fixado é o
+ * mais cedo possível, como no Dijkstra estático.
+ * Com várias origens saindo no mesmo instante, o destino é alcançado primeiro pela origem mais
+ * rápida, que fica registrada na raiz da árvore de caminhos.
+ * Não é thread-safe: cada thread deve possuir sua própria instância.
+ * [Estrutura de Dados II] Algoritmo de Dijkstra com pesos dependentes do tempo.
+ */
+public final class TimeDependentSearch {
+
+  private final CsrGraph graph;
+  private final SpeedProfiles profiles;
+  private final double[] arrival;
+  private final int[] parentArc;
+  private final int[] origin;
+  private final int[] reachedStamp;
+  private final int[] settledStamp;
+  private final int[] targetStamp;
+  private final IndexedMinHeap heap;
+  private int generation;
+  private int settledCount;
+
+  public TimeDependentSearch(CsrGraph graph, SpeedProfiles profiles) {
+    int n = graph.nodeCount();
+    this.graph = graph;
+    this.profiles = profiles;
+    this.arrival = new double[n];
+    this.parentArc = new int[n];
+    this.origin = new int[n];
+    this.reachedStamp = new int[n];
+    this.settledStamp = new int[n];
+    this.targetStamp = new int[n];
+    this.heap = new IndexedMinHeap(n);
+  }
+
+  public CsrGraph graph() {
+    return graph;
+  }
+
+  public SpeedProfiles profiles() {
+    return profiles;
+  }
+
+  /**
+   * Executa a busca a partir de todas as origens, saindo no instante {@code departure}.
+   *
+   * @param sources Índices densos das origens (valores negativos são ignorados)
+   * @param departure Instante de saída em minutos desde a meia-noite
+   * @param target Índice denso do destino
+   * @return Origem que alcança o destino mais cedo, ou -1 se inalcançável
+   */
+  public int run(int[] sources, double departure, int target) {
+    begin(sources, departure);
+    while (!heap.isEmpty()) {
+      int u = settleNext();
+      if (u == target) {
+        return origin[u];
+      }
+      relax(u);
+    }
+    return -1;
+  }
+
+  /**
+   * Executa a busca a partir das origens até fixar todos os destinos (um-para-muitos).
+   * A busca também para quando a fronteira ultrapassa o instante {@code latest}: destinos além
+   * dele ficam sem rótulo fixado ({@link #isSettled(int)}).
+   * Os instantes de chegada ficam disponíveis em {@link #arrival(int)}.
+   *
+   * @param sources Índices densos das origens (valores negativos são ignorados)
+   * @param departure Instante de saída em minutos desde a meia-noite
+   * @param targets Índices densos dos destinos (repetições e valores negativos são ignorados)
+   * @param latest Instante máximo de interesse (ex.: saída mais o limite de SLA)
+   * @return Quantidade de destinos distintos fixados
+   */
+  public int runToTargets(int[] sources, double departure, int[] targets, double latest) {
+    begin(sources, departure);
+    int remaining = 0;
+    for (int t : targets) {
+      if (t >= 0 && targetStamp[t] != generation) {
+        targetStamp[t] = generation;
+        remaining++;
+      }
+    }
+    int found = 0;
+    while (!heap.isEmpty() && found < remaining && heap.minKey() <= latest) {
+      int u = settleNext();
+      if (targetStamp[u] == generation) {
+        found++;
+      }
+      relax(u);
+    }
+    return found;
+  }
+
+  private void begin(int[] sources, double departure) {
+    if (++generation == Integer.MAX_VALUE) {
+      Arrays.fill(reachedStamp, 0);
+      Arrays.fill(settledStamp, 0);
+      Arrays.fill(targetStamp, 0);
+      generation = 1;
+    }
+    heap.clear();
+    settledCount = 0;
+    for (int s : sources) {
+      if (s >= 0 && reachedStamp[s] != generation) {
+        reach(s, departure, -1, s);
+      }
+    }
+  }
+
+  private int settleNext() {
+    int u = heap.poll();
+    settledStamp[u] = generation;
+    settledCount++;
+    return u;
+  }
+
+  private void relax(int u) {
+    double tu = arrival[u];
+    for (int a = graph.firstArc(u), end = graph.endArc(u); a < end; a++) {
+      int v = graph.target(a);
+      if (settledStamp[v] == generation) {
+        continue;
+      }
+      double tv = tu + profiles.travelMinutes(a, graph.weight(a), tu);
+      if (reachedStamp[v] != generation || tv < arrival[v]) {
+        reach(v, tv, a, origin[u]);
+      }
+    }
+  }
+
+  private void reach(int v, double t, int arc, int root) {
+    reachedStamp[v] = generation;
+    arrival[v] = t;
+    parentArc[v] = arc;
+    origin[v] = root;
+    heap.insertOrDecrease(v, t);
+  }
+
+  /**
+   * Instante de chegada ao vértice (+infinito se não alcançado).
+   */
+  public double arrival(int v) {
+    return reachedStamp[v] == generation ? arrival[v] : Double.POSITIVE_INFINITY;
+  }
+
+  public boolean isSettled(int v) {
+    return settledStamp[v] == generation;
+  }
+
+  /**
+   * Origem (índice denso) da árvore que alcançou o vértice.
+   */
+  public int origin(int v) {
+    return origin[v];
+  }
+
+  public int settledCount() {
+    return settledCount;
+  }
+
+  /**
+   * Cópia da árvore de caminhos da última busca (arco pai de cada vértice), para reconstruir
+   * caminhos depois que a área de trabalho for reutilizada. Só é válida para vértices alcançados.
+   */
+  public int[] copyTree() {
+    return Arrays.copyOf(parentArc, parentArc.length);
+  }
+
+  /**
+   * Arcos do caminho da origem vencedora até {@code target}.
+   */
+  public int[] pathArcs(int target) {
+    return pathArcs(graph, parentArc, target);
+  }
+
+  /**
+   * Arcos do caminho até {@code target} em uma árvore copiada por {@link #copyTree()}.
+   */
+  public static int[] pathArcs(CsrGraph graph, int[] tree, int target) {
+    int len = 0;
+    for (int a = tree[target]; a >= 0; a = tree[graph.source(a)]) {
+      len++;
+    }
+    int[] arcs = new int[len];
+    for (int a = tree[target]; a >= 0; a = tree[graph.source(a)]) {
+      arcs[--len] = a;
+    }
+    return arcs;
+  }
+}
@@ -0,0 +1,128 @@
+package sosrota.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.repository.AmbulanciaRepository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória das ambulâncias disponíveis, agrupadas pelo bairro da base.
+ * Permite ao despacho percorrer a fronteira do Dijkstra a partir da ocorrência e consultar,
+ * para cada bairro alcançado, apenas as ambulâncias ali estacionadas, sem varrer a frota.
+ * Atualizado a cada mudança de status feita pelos serviços e reconciliado periodicamente
+ * com o banco (alterações feitas fora da aplicação).
+ * [RF05] Sugestão de Ambulâncias Aptas.
+ * [Estrutura de Dados II] Tabela hash de bairro para ambulâncias.
+ */
+@Service
+public class AmbulanceAvailabilityIndex {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AmbulanceAvailabilityIndex.class);
+
+    private static final String DISPONIVEL = "DISPONIVEL";
+
+    private final AmbulanciaRepository ambulanciaRepository;
+
+    // Base -> (ID da ambulância -> entrada)
+    private final Map<Integer, Map<Integer, Entry>> byBase = new ConcurrentHashMap<>();
+    // ID da ambulância -> entrada (localiza a base anterior em mudanças)
+    private final Map<Integer, Entry> byId = new ConcurrentHashMap<>();
+
+    public AmbulanceAvailabilityIndex(AmbulanciaRepository ambulanciaRepository) {
+        this.ambulanciaRepository = ambulanciaRepository;
+    }
+
+    /**
+     * Reconstrói o índice a partir das ambulâncias disponíveis no banco.
+     * Executado na inicialização e periodicamente para corrigir divergências.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${dispatch.index.reconcile-interval-ms:60000}",
+            initialDelayString = "${dispatch.index.reconcile-interval-ms:60000}")
+    public synchronized void rebuild() {
+        List<Ambulancia> disponiveis = ambulanciaRepository.findByStatus(DISPONIVEL);
+        byBase.clear();
+        byId.clear();
+        for (Ambulancia ambulancia : disponiveis) {
+            update(ambulancia);
+        }
+        logger.debug("Índice de ambulâncias disponíveis reconstruído: {} ambulâncias em {} bases.", byId.size(), byBase.size());
+    }
+
+    /**
+     * Registra o status atual de uma ambulância: disponível com base definida entra no índice
+     * (ou muda de base); qualquer outro status a remove.
+     *
+     * @param ambulancia Ambulância após a alteração
+     */
+    public synchronized void update(Ambulancia ambulancia) {
+        if (ambulancia == null || ambulancia.getId() == null) {
+            return;
+        }
+        remove(ambulancia.getId());
+        if (DISPONIVEL.equals(ambulancia.getStatus()) && ambulancia.getBairro() != null && ambulancia.getBairro().getId() != null) {
+            Entry entry = new Entry(ambulancia.getId(), ambulancia.getTipo(), ambulancia.getBairro().getId());
+            byId.put(entry.id, entry);
+            byBase.computeIfAbsent(entry.baseId, b -> new ConcurrentHashMap<>()).put(entry.id, entry);
+        }
+    }
+
+    /**
+     * Remove uma ambulância do índice (excluída ou indisponível).
+     *
+     * @param ambulanciaId ID da ambulância
+     */
+    public synchronized void remove(Integer ambulanciaId) {
+        Entry previous = byId.remove(ambulanciaId);
+        if (previous != null) {
+            Map<Integer, Entry> base = byBase.get(previous.baseId);
+            if (base != null) {
+                base.remove(ambulanciaId);
+                if (base.isEmpty()) {
+                    byBase.remove(previous.baseId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ambulâncias disponíveis em uma base.
+     *
+     * @param bairroId ID do bairro da base
+     * @return Entradas (vazio se não houver)
+     */
+    public Collection<Entry> availableAt(int bairroId) {
+        Map<Integer, Entry> base = byBase.get(bairroId);
+        return base != null ? base.values() : Collections.emptyList();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public int baseCount() {
+        return byBase.size();
+    }
+
+    /**
+     * Ambulância disponível (dados necessários para filtrar candidatas sem acessar o banco).
+     */
+    public static class Entry {
+        public final int id;
+        public final String tipo;
+        public final int baseId;
+
+        public Entry(int id, String tipo, int baseId) {
+            this.id = id;
+            this.tipo = tipo;
+            this.baseId = baseId;
+        }
+    }
+}
@@ -21,13 +21,19 @@ public class AmbulanciaService {
     private final AmbulanciaRepository ambulanciaRepository;
     private final AtendimentoRepository atendimentoRepository;
     private final EquipeRepository equipeRepository;
+    private final AmbulanceAvailabilityIndex availabilityIndex;
+    private final StateEventStream stateEventStream;
 
     public AmbulanciaService(AmbulanciaRepository ambulanciaRepository,
                              AtendimentoRepository atendimentoRepository,
-                             EquipeRepository equipeRepository) {
+                             EquipeRepository equipeRepository,
+                             AmbulanceAvailabilityIndex availabilityIndex,
+                             StateEventStream stateEventStream) {
         this.ambulanciaRepository = ambulanciaRepository;
         this.atendimentoRepository = atendimentoRepository;
         this.equipeRepository = equipeRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.stateEventStream = stateEventStream;
     }
 
     /**
@@ -93,7 +99,10 @@ public class AmbulanciaService {
                 throw new IllegalStateException("Não é possível inativar uma ambulância vinculada a uma equipe.");
             }
         }
-        return ambulanciaRepository.save(ambulancia);
+        Ambulancia saved = ambulanciaRepository.save(ambulancia);
+        availabilityIndex.update(saved);
+        stateEventStream.ambulancia(saved);
+        return saved;
     }
 
     /**
@@ -120,5 +129,7 @@ public class AmbulanciaService {
         }
 
         ambulanciaRepository.deleteById(id);
+        availabilityIndex.remove(id);
+        stateEventStream.ambulanciaRemovida(id);
     }
 }
@@ -0,0 +1,203 @@
+package sosrota.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import sosrota.backend.entity.Atendimento;
+import sosrota.backend.repository.AtendimentoRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agenda em memória das chegadas simuladas das ambulâncias despachadas.
+ * Cada despacho gera um evento com o instante de chegada (hora do despacho + distância * SECONDS_PER_KM);
+ * o {@link SimulationService} só é acordado quando o próximo evento vence, sem consultar o banco
+ * enquanto nada está para chegar.
+ * Reconstruída do banco na inicialização; mantida pelo {@link OcorrenciaService} após o commit de
+ * cada despacho, confirmação manual ou cancelamento. Uma chegada cuja confirmação falhou volta
+ * para a agenda com espera crescente ({@link #retry(Arrival)}).
+ * [RF06] Simulação do deslocamento.
+ * [Estrutura de Dados II] Fila de prioridade por tempo (DelayQueue, heap binário).
+ */
+@Service
+public class ArrivalScheduler {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ArrivalScheduler.class);
+
+    // Configuration: 1 km (1 min didactic) = 1 second real
+    static final long SECONDS_PER_KM = 1;
+    // Espera no mínimo 2 segundos para simular a chegada
+    static final long MIN_TRAVEL_SECONDS = 2;
+    // Nova tentativa de confirmação: espera dobrada a cada falha, até o limite
+    static final long RETRY_BASE_SECONDS = 2;
+    static final long RETRY_MAX_SECONDS = 60;
+
+    private final AtendimentoRepository atendimentoRepository;
+
+    private final DelayQueue<Arrival> queue = new DelayQueue<>();
+    // ID da ocorrência -> evento vigente (um novo despacho substitui o anterior)
+    private final Map<Integer, Arrival> byOcorrencia = new ConcurrentHashMap<>();
+
+    public ArrivalScheduler(AtendimentoRepository atendimentoRepository) {
+        this.atendimentoRepository = atendimentoRepository;
+    }
+
+    /**
+     * Reconstrói a agenda a partir das ocorrências despachadas no banco (uma consulta).
+     * Chegadas que venceram com a aplicação parada são disparadas em seguida.
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        List<Atendimento> emDeslocamento = atendimentoRepository.findUltimosByOcorrenciaStatus("DESPACHADA");
+        queue.clear();
+        byOcorrencia.clear();
+        for (Atendimento atendimento : emDeslocamento) {
+            schedule(atendimento);
+        }
+        logger.info("Agenda de chegadas reconstruída: {} ambulâncias em deslocamento.", byOcorrencia.size());
+    }
+
+    /**
+     * Agenda a chegada de um atendimento despachado.
+     *
+     * @param atendimento Atendimento com ocorrência, hora do despacho e distância
+     */
+    public void schedule(Atendimento atendimento) {
+        if (atendimento == null || atendimento.getOcorrencia() == null || atendimento.getDataHoraDespacho() == null) {
+            return;
+        }
+        double distancia = atendimento.getDistanciaKm() != null ? atendimento.getDistanciaKm() : 0.0;
+        schedule(atendimento.getOcorrencia().getId(), atendimento.getDataHoraDespacho(), distancia);
+    }
+
+    /**
+     * Agenda (ou reagenda) a chegada à ocorrência.
+     *
+     * @param ocorrenciaId ID da ocorrência
+     * @param despacho Instante do despacho
+     * @param distanciaKm Distância da rota
+     */
+    public synchronized void schedule(Integer ocorrenciaId, LocalDateTime despacho, double distanciaKm) {
+        if (ocorrenciaId == null) {
+            return;
+        }
+        long travelSeconds = travelSeconds(distanciaKm);
+        Arrival arrival = new Arrival(ocorrenciaId, despacho.plusSeconds(travelSeconds), travelSeconds, distanciaKm, 0);
+        Arrival previous = byOcorrencia.put(ocorrenciaId, arrival);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        queue.add(arrival);
+    }
+
+    /**
+     * Reagenda uma chegada cuja confirmação falhou, com espera de RETRY_BASE_SECONDS dobrada a cada
+     * tentativa (até RETRY_MAX_SECONDS). Não substitui um evento mais novo da mesma ocorrência.
+     *
+     * @param failed Chegada retirada da agenda cuja confirmação falhou
+     * @return Nova chegada agendada ou null se a ocorrência já tem outro evento
+     */
+    public synchronized Arrival retry(Arrival failed) {
+        long delay = retryDelaySeconds(failed.attempt);
+        Arrival arrival = new Arrival(failed.ocorrenciaId, LocalDateTime.now().plusSeconds(delay),
+                failed.travelSeconds, failed.distanciaKm, failed.attempt + 1);
+        if (byOcorrencia.putIfAbsent(failed.ocorrenciaId, arrival) != null) {
+            return null;
+        }
+        queue.add(arrival);
+        return arrival;
+    }
+
+    /**
+     * Remove a chegada agendada (saída confirmada manualmente ou ocorrência cancelada).
+     *
+     * @param ocorrenciaId ID da ocorrência
+     */
+    public synchronized void cancel(Integer ocorrenciaId) {
+        Arrival previous = byOcorrencia.remove(ocorrenciaId);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+    }
+
+    /**
+     * Aguarda a próxima chegada vencida e a remove da agenda.
+     *
+     * @return Chegada vencida
+     */
+    public Arrival take() throws InterruptedException {
+        while (true) {
+            Arrival arrival = queue.take();
+            if (byOcorrencia.remove(arrival.ocorrenciaId, arrival)) {
+                return arrival;
+            }
+        }
+    }
+
+    /**
+     * Idem, com limite de espera.
+     *
+     * @return Chegada vencida ou null se nenhuma venceu no prazo
+     */
+    public Arrival poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            Arrival arrival = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (arrival == null || byOcorrencia.remove(arrival.ocorrenciaId, arrival)) {
+                return arrival;
+            }
+        }
+    }
+
+    public int size() {
+        return byOcorrencia.size();
+    }
+
+    static long travelSeconds(double distanciaKm) {
+        return Math.max(MIN_TRAVEL_SECONDS, (long) (distanciaKm * SECONDS_PER_KM));
+    }
+
+    static long retryDelaySeconds(int attempt) {
+        return attempt >= 5 ? RETRY_MAX_SECONDS : Math.min(RETRY_MAX_SECONDS, RETRY_BASE_SECONDS << attempt);
+    }
+
+    /**
+     * Chegada agendada de uma ambulância ao local da ocorrência.
+     */
+    public static final class Arrival implements Delayed {
+        public final int ocorrenciaId;
+        public final LocalDateTime arrivalTime;
+        public final long travelSeconds;
+        public final double distanciaKm;
+        // Confirmações já tentadas sem sucesso
+        public final int attempt;
+
+        Arrival(int ocorrenciaId, LocalDateTime arrivalTime, long travelSeconds, double distanciaKm, int attempt) {
+            this.ocorrenciaId = ocorrenciaId;
+            this.arrivalTime = arrivalTime;
+            this.travelSeconds = travelSeconds;
+            this.distanciaKm = distanciaKm;
+            this.attempt = attempt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), arrivalTime));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof Arrival arrival) {
+                int cmp = arrivalTime.compareTo(arrival.arrivalTime);
+                return cmp != 0 ? cmp : Integer.compare(ocorrenciaId, arrival.ocorrenciaId);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package sosrota.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sosrota.backend.dto.EventoEstadoDTO;
+import sosrota.backend.repository.AmbulanciaRepository;
+import sosrota.backend.repository.EquipeRepository;
+import sosrota.backend.repository.OcorrenciaRepository;
+import sosrota.backend.repository.ProfissionalRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores em memória do Dashboard, mantidos a cada transição de ciclo de vida em vez de
+ * recontados do banco a cada requisição: ocorrências por status, ocorrências abertas por dia,
+ * ambulâncias por status, equipes e profissionais.
+ * Ocorrências e ambulâncias são atualizadas pelos eventos do {@link StateEventStream} (após o
+ * commit); equipes e profissionais, pelos respectivos serviços. A leitura não usa lock.
+ * Reconciliado periodicamente com contagens SQL (COUNT), registrando as divergências corrigidas.
+ * Os eventos aplicados enquanto as contagens são consultadas são reaplicados sobre o resultado,
+ * para que transições concorrentes não se percam nem apareçam como divergência.
+ * [RF07] Visualização de Dashboard.
+ * [Estrutura de Dados II] Tabelas hash de contadores (LongAdder).
+ */
+@Service
+public class DashboardCounters {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DashboardCounters.class);
+
+    // Status em que a ocorrência ainda pode mudar (acompanhadas individualmente)
+    static final Set<String> STATUS_ATIVOS = Set.of("ABERTA", "DESPACHADA", "EM_ATENDIMENTO");
+
+    // Dias mantidos na contagem de ocorrências abertas por dia
+    private static final int DAYS_KEPT = 7;
+
+    private final OcorrenciaRepository ocorrenciaRepository;
+    private final AmbulanciaRepository ambulanciaRepository;
+    private final EquipeRepository equipeRepository;
+    private final ProfissionalRepository profissionalRepository;
+    private final StateEventStream stateEventStream;
+
+    // Ocorrências ativas: ID -> status e dia de abertura (transições e exclusões sem consultar o banco)
+    private final Map<Integer, Ativa> ativas = new HashMap<>();
+    // Ambulâncias: ID -> status
+    private final Map<Integer, String> ambulancias = new HashMap<>();
+
+    private final Map<String, LongAdder> ocorrenciasPorStatus = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> abertasPorDia = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> ambulanciasPorStatus = new ConcurrentHashMap<>();
+    private final LongAdder ambulanciasTotal = new LongAdder();
+    private final LongAdder equipes = new LongAdder();
+    private final LongAdder profissionais = new LongAdder();
+
+    private final LongAdder divergencias = new LongAdder();
+
+    // Eventos aplicados desde o início das consultas da reconciliação em andamento (null fora dela)
+    private List<StateEventStream.Event> janela;
+    private final Object reconciliacao = new Object();
+
+    public DashboardCounters(OcorrenciaRepository ocorrenciaRepository, AmbulanciaRepository ambulanciaRepository,
+                             EquipeRepository equipeRepository, ProfissionalRepository profissionalRepository,
+                             StateEventStream stateEventStream) {
+        this.ocorrenciaRepository = ocorrenciaRepository;
+        this.ambulanciaRepository = ambulanciaRepository;
+        this.equipeRepository = equipeRepository;
+        this.profissionalRepository = profissionalRepository;
+        this.stateEventStream = stateEventStream;
+    }
+
+    @PostConstruct
+    public void init() {
+        stateEventStream.addListener(this::apply);
+        reconcile();
+    }
+
+    /**
+     * Recarrega os contadores com contagens do banco, sem carregar as entidades.
+     * Executado na inicialização e periodicamente para corrigir divergências.
+     * As consultas rodam fora do lock (as transições continuam sendo aplicadas); os eventos aplicados
+     * a partir do início das consultas são guardados e reaplicados sobre as contagens do banco
+     * ({@link #replay(List)}), pois o banco pode ou não já refletir cada um deles.
+     * [Banco de Dados II] Agregação (COUNT / GROUP BY) no banco.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.reconcile-interval-ms:60000}",
+            initialDelayString = "${dashboard.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        synchronized (reconciliacao) {
+            reconcileCounts();
+        }
+    }
+
+    private void reconcileCounts() {
+        synchronized (this) {
+            janela = new ArrayList<>();
+        }
+        LocalDate hoje = LocalDate.now();
+        List<Object[]> porStatus;
+        List<Object[]> ativasDb;
+        long abertasHoje;
+        List<Object[]> frota;
+        long totalEquipes;
+        long totalProfissionais;
+        try {
+            porStatus = ocorrenciaRepository.countGroupByStatus();
+            ativasDb = ocorrenciaRepository.findResumoByStatusIn(STATUS_ATIVOS);
+            abertasHoje = ocorrenciaRepository.countByDataHoraAberturaGreaterThanEqual(hoje.atStartOfDay());
+            frota = ambulanciaRepository.findIdAndStatus();
+            totalEquipes = equipeRepository.count();
+            totalProfissionais = profissionalRepository.count();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                janela = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            List<StateEventStream.Event> concorrentes = janela;
+            janela = null;
+            Map<String, Long> antes = snapshot(hoje);
+
+            ocorrenciasPorStatus.clear();
+            for (Object[] row : porStatus) {
+                adder(ocorrenciasPorStatus, key((String) row[0])).add(((Number) row[1]).longValue());
+            }
+            ativas.clear();
+            for (Object[] row : ativasDb) {
+                ativas.put((Integer) row[0], new Ativa((String) row[1], day((LocalDateTime) row[2])));
+            }
+            abertasPorDia.keySet().removeIf(d -> d.isBefore(hoje.minusDays(DAYS_KEPT)));
+            LongAdder doDia = adder(abertasPorDia, hoje);
+            doDia.reset();
+            doDia.add(abertasHoje);
+
+            ambulancias.clear();
+            ambulanciasPorStatus.clear();
+            for (Object[] row : frota) {
+                String status = key((String) row[1]);
+                ambulancias.put((Integer) row[0], status);
+                adder(ambulanciasPorStatus, status).increment();
+            }
+            set(ambulanciasTotal, ambulancias.size());
+            set(equipes, totalEquipes);
+            set(profissionais, totalProfissionais);
+            replay(concorrentes);
+
+            Map<String, Long> depois = snapshot(hoje);
+            if (!antes.equals(depois)) {
+                divergencias.increment();
+                logger.info("Contadores do Dashboard reconciliados com o banco: {} -> {}", antes, depois);
+            }
+        }
+    }
+
+    /**
+     * Reaplica os eventos concorrentes à reconciliação sobre o estado lido do banco.
+     * Ambulâncias guardam o status por ID, então reaplicar um evento já refletido não muda nada.
+     * Uma transição de ocorrência é descartada se a ocorrência já não estava ativa no banco (o banco
+     * já viu o fim ou a exclusão), a menos que a criação dela também tenha sido reaplicada.
+     */
+    private void replay(List<StateEventStream.Event> eventos) {
+        Set<Integer> criadas = new HashSet<>();
+        for (StateEventStream.Event event : eventos) {
+            EventoEstadoDTO data = event.data;
+            if (StateEventStream.OCORRENCIA.equals(event.type)) {
+                boolean ativa = ativas.containsKey(data.getId());
+                if (!data.isRemovido() && data.getStatusAnterior() == null) {
+                    // Criação: já contada se o banco a viu ativa
+                    if (ativa) {
+                        continue;
+                    }
+                    criadas.add(data.getId());
+                } else if (!ativa && !criadas.contains(data.getId())) {
+                    continue;
+                }
+            }
+            applyEvent(event);
+        }
+    }
+
+    /**
+     * Aplica um evento de ocorrência ou ambulância (chamado pelo {@link StateEventStream}).
+     */
+    synchronized void apply(StateEventStream.Event event) {
+        if (event.data == null || event.data.getId() == null) {
+            return;
+        }
+        if (janela != null) {
+            janela.add(event);
+        }
+        applyEvent(event);
+    }
+
+    private void applyEvent(StateEventStream.Event event) {
+        if (StateEventStream.OCORRENCIA.equals(event.type)) {
+            applyOcorrencia(event.data);
+        } else if (StateEventStream.AMBULANCIA.equals(event.type)) {
+            applyAmbulancia(event.data);
+        }
+    }
+
+    private void applyOcorrencia(EventoEstadoDTO data) {
+        Ativa anterior = data.isRemovido() ? ativas.remove(data.getId()) : ativas.get(data.getId());
+        if (data.isRemovido()) {
+            // Só ocorrências ativas podem ser excluídas
+            if (anterior != null) {
+                adder(ocorrenciasPorStatus, anterior.status).decrement();
+                if (anterior.dia != null) {
+                    adder(abertasPorDia, anterior.dia).decrement();
+                }
+            }
+            return;
+        }
+
+        String statusAnterior = anterior != null ? anterior.status : data.getStatusAnterior();
+        String status = key(data.getStatus());
+        boolean nova = anterior == null && data.getStatusAnterior() == null;
+        if (!nova && Objects.equals(statusAnterior, status)) {
+            // Apenas observação (ex.: falha de despacho) ou regravação sem mudança de status
+            return;
+        }
+        if (statusAnterior != null) {
+            adder(ocorrenciasPorStatus, statusAnterior).decrement();
+        }
+        adder(ocorrenciasPorStatus, status).increment();
+
+        LocalDate dia = anterior != null ? anterior.dia : day(data.getDataHoraAbertura());
+        if (nova && dia != null) {
+            adder(abertasPorDia, dia).increment();
+        }
+        if (STATUS_ATIVOS.contains(status)) {
+            ativas.put(data.getId(), new Ativa(status, dia));
+        } else {
+            ativas.remove(data.getId());
+        }
+    }
+
+    private void applyAmbulancia(EventoEstadoDTO data) {
+        String anterior = data.isRemovido()
+                ? ambulancias.remove(data.getId())
+                : ambulancias.put(data.getId(), key(data.getStatus()));
+        if (anterior != null) {
+            adder(ambulanciasPorStatus, anterior).decrement();
+        }
+        if (data.isRemovido()) {
+            if (anterior != null) {
+                ambulanciasTotal.decrement();
+            }
+            return;
+        }
+        adder(ambulanciasPorStatus, key(data.getStatus())).increment();
+        if (anterior == null) {
+            ambulanciasTotal.increment();
+        }
+    }
+
+    // [RF03] Equipes e profissionais: atualizados pelos serviços de cadastro
+
+    public void equipeCriada() {
+        equipes.increment();
+    }
+
+    public void equipeRemovida() {
+        equipes.decrement();
+    }
+
+    public void profissionalCriado() {
+        profissionais.increment();
+    }
+
+    public void profissionalRemovido() {
+        profissionais.decrement();
+    }
+
+    // Leituras sem lock
+
+    public long ocorrencias(String status) {
+        return sum(ocorrenciasPorStatus.get(status));
+    }
+
+    public long abertasNoDia(LocalDate dia) {
+        return sum(abertasPorDia.get(dia));
+    }
+
+    public long ambulancias(String status) {
+        return sum(ambulanciasPorStatus.get(status));
+    }
+
+    public long getAmbulanciasTotal() {
+        return ambulanciasTotal.sum();
+    }
+
+    public long getEquipes() {
+        return equipes.sum();
+    }
+
+    public long getProfissionais() {
+        return profissionais.sum();
+    }
+
+    public long getDivergencias() {
+        return divergencias.sum();
+    }
+
+    private Map<String, Long> snapshot(LocalDate hoje) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        ocorrenciasPorStatus.forEach((status, n) -> snapshot.put("ocorrencias." + status, n.sum()));
+        ambulanciasPorStatus.forEach((status, n) -> snapshot.put("ambulancias." + status, n.sum()));
+        snapshot.values().removeIf(n -> n == 0);
+        snapshot.put("abertasHoje", abertasNoDia(hoje));
+        snapshot.put("ambulancias", ambulanciasTotal.sum());
+        snapshot.put("equipes", equipes.sum());
+        snapshot.put("profissionais", profissionais.sum());
+        return snapshot;
+    }
+
+    private static <K> LongAdder adder(Map<K, LongAdder> counters, K key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static void set(LongAdder counter, long value) {
+        counter.reset();
+        counter.add(value);
+    }
+
+    private static long sum(LongAdder counter) {
+        return counter != null ? counter.sum() : 0;
+    }
+
+    private static String key(String status) {
+        return status == null ? "" : status;
+    }
+
+    private static LocalDate day(LocalDateTime dataHora) {
+        return dataHora != null ? dataHora.toLocalDate() : null;
+    }
+
+    private static final class Ativa {
+        final String status;
+        final LocalDate dia;
+
+        Ativa(String status, LocalDate dia) {
+            this.status = status;
+            this.dia = dia;
+        }
+    }
+}
@@ -1,33 +1,135 @@
 package sosrota.backend.service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import sosrota.backend.entity.Aresta;
 import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.GrafoVersao;
 import sosrota.backend.repository.ArestaRepository;
 import sosrota.backend.repository.BairroRepository;
-
+import sosrota.backend.repository.GrafoVersaoRepository;
+import sosrota.backend.repository.VelocidadeArestaRepository;
+import sosrota.backend.routing.AltEngine;
+import sosrota.backend.routing.ContractionHierarchy;
+import sosrota.backend.routing.CsrGraph;
+import sosrota.backend.routing.DijkstraEngine;
+import sosrota.backend.routing.DijkstraSearch;
+import sosrota.backend.routing.DistanceMatrix;
+import sosrota.backend.routing.GraphSnapshot;
+import sosrota.backend.routing.GraphSnapshotFile;
+import sosrota.backend.routing.Route;
+import sosrota.backend.routing.RouteCache;
+import sosrota.backend.routing.RoutingEngine;
+import sosrota.backend.routing.SpeedProfiles;
+import sosrota.backend.routing.TimeDependentSearch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 /**
  * Serviço responsável pelo cálculo de rotas e caminhos mínimos.
  * Implementa o algoritmo de Dijkstra em um grafo ponderado representando o mapa da cidade.
+ * O grafo é mantido em versões imutáveis ({@link GraphSnapshot}) publicadas atomicamente e
+ * recarregadas em segundo plano quando bairros ou arestas mudam no banco. Quando só as distâncias
+ * de ruas mudam, a matriz de distâncias recalcula apenas as linhas afetadas.
  * [Estrutura de Dados II] Implementação de Algoritmo de Caminho Único (Dijkstra).
  * [RF04] O sistema deve calcular o caminho mínimo.
  */
 @Service
 public class DijsktraService {
 
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DijsktraService.class);
+
   private final BairroRepository bairroRepository;
   private final ArestaRepository arestaRepository;
+  private final GrafoVersaoRepository grafoVersaoRepository;
+  private final VelocidadeArestaRepository velocidadeArestaRepository;
+
+  // [Estrutura de Dados II] Versão corrente do grafo (CSR, transposto, matriz e motor).
+  // Consultas leem a referência uma única vez; recargas publicam uma nova versão (copy-on-write).
+  private final AtomicReference<GraphSnapshot> snapshot = new AtomicReference<>(GraphSnapshot.empty());
+
+  // Recarga em segundo plano (uma por vez), fora da thread do agendador
+  private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "graph-reload");
+    t.setDaemon(true);
+    return t;
+  });
+  private final AtomicBoolean reloading = new AtomicBoolean();
+
+  // Área de trabalho do Dijkstra reverso reaproveitada entre consultas (uma por thread)
+  private final ThreadLocal<DijkstraSearch> reverseSearches = new ThreadLocal<>();
+
+  // Área de trabalho do Dijkstra dependente do tempo (uma por thread)
+  private final ThreadLocal<TimeDependentSearch> timeDependentSearches = new ThreadLocal<>();
+
+  // Motor sob demanda: "dijkstra", "ch" (Contraction Hierarchies) ou "alt" (A* com landmarks)
+  @Value("${routing.engine:dijkstra}")
+  private String engineName;
+
+  // Número de landmarks do motor "alt"
+  @Value("${routing.alt.landmarks:8}")
+  private int altLandmarks;
+
+  // Velocidade das ruas sem perfil cadastrado para a faixa horária
+  @Value("${routing.td.default-speed-kmh:60}")
+  private double defaultSpeedKmh;
+
+  // Consultas ponto a ponto e total de vértices fixados (ver RoutingMetrics)
+  private final LongAdder queryCount = new LongAdder();
+  private final LongAdder settledNodes = new LongAdder();
+
+  // [Estrutura de Dados II] Caches LRU de rotas, com a versão do grafo na chave (limpos a cada nova versão)
+  @Value("${routing.cache.max-entries:10000}")
+  private int cacheMaxEntries;
+
+  @Value("${routing.cache.max-bytes:16777216}")
+  private long cacheMaxBytes;
+
+  private final RouteCache<PathKey, PathResult> pathCache = new RouteCache<>(0, 0, PathResult::estimatedBytes);
+  private final RouteCache<DispatchKey, FastestRoute> dispatchCache = new RouteCache<>(0, 0, FastestRoute::estimatedBytes);
 
-  // [Estrutura de Dados II] Representação do Grafo (Lista de Adjacência)
-  private final Map<Integer, Node> nodes = new HashMap<>();
-  private final Map<Integer, List<Edge>> adj = new HashMap<>();
+  // [Estrutura de Dados II] Matriz de distâncias pré-calculada (modo opcional para grafos pequenos)
+  @Value("${routing.matrix.enabled:true}")
+  private boolean matrixEnabled;
 
-  public DijsktraService(BairroRepository bairroRepository, ArestaRepository arestaRepository) {
+  // Acima deste número de bairros, as rotas são calculadas sob demanda (Dijkstra)
+  @Value("${routing.matrix.max-nodes:2000}")
+  private int matrixMaxNodes;
+
+  // Threads usadas na construção da matriz (0 = número de processadores)
+  @Value("${routing.matrix.parallelism:0}")
+  private int matrixParallelism;
+
+  // Arquivo binário do grafo para inicialização rápida (vazio = desativado)
+  @Value("${routing.snapshot.file:}")
+  private String snapshotFile;
+
+  // Armazenamento do grafo: heap (vetores Java) | mapped (arquivo mapeado fora do heap)
+  @Value("${routing.graph.storage:heap}")
+  private String graphStorage;
+
+  // Duração da última carga do grafo (arquivo ou banco), sem matriz e motores
+  private volatile long graphLoadMillis;
+
+  public DijsktraService(BairroRepository bairroRepository, ArestaRepository arestaRepository,
+      GrafoVersaoRepository grafoVersaoRepository, VelocidadeArestaRepository velocidadeArestaRepository) {
     this.bairroRepository = bairroRepository;
     this.arestaRepository = arestaRepository;
+    this.grafoVersaoRepository = grafoVersaoRepository;
+    this.velocidadeArestaRepository = velocidadeArestaRepository;
   }
 
   /**
@@ -36,8 +138,233 @@ public class DijsktraService {
    */
   @PostConstruct
   public void init() {
-    loadNodes();
-    loadEdges();
+    pathCache.resize(cacheMaxEntries, cacheMaxBytes);
+    dispatchCache.resize(cacheMaxEntries, cacheMaxBytes);
+    reload();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    reloadExecutor.shutdownNow();
+  }
+
+  /**
+   * Recarrega o grafo do banco e publica uma nova versão.
+   * O contador de alterações é lido antes dos dados: alterações feitas durante a carga
+   * resultam em nova recarga na próxima verificação.
+   *
+   * @return Versão publicada
+   * [RF04] Atualização do mapa sem reinicialização.
+   */
+  public synchronized GraphSnapshot reload() {
+    long inicio = System.nanoTime();
+    Optional<GrafoVersao> controle = grafoVersaoRepository.findById(GrafoVersao.ID_GRAFO);
+    long sourceVersion = controle.map(GrafoVersao::getVersao)
+        .orElseGet(() -> bairroRepository.count() + arestaRepository.count());
+    // O arquivo só é confiável com o contador dos gatilhos (contagens não detectam edições)
+    Path file = controle.isPresent() && snapshotFile != null && !snapshotFile.isBlank() ? Path.of(snapshotFile) : null;
+    boolean mapped = "mapped".equalsIgnoreCase(graphStorage);
+    if (mapped && file == null) {
+      logger.warn("routing.graph.storage=mapped requer routing.snapshot.file e a tabela grafo_versao. Usando o heap.");
+      mapped = false;
+    }
+    CsrGraph built = file != null ? readGraphFile(file, sourceVersion, mapped) : null;
+    String origem = "arquivo";
+    if (built == null) {
+      CsrGraph.Builder builder = new CsrGraph.Builder();
+      loadNodes(builder);
+      loadEdges(builder);
+      built = builder.build();
+      origem = "banco";
+      if (file != null && writeGraphFile(file, built, sourceVersion) && mapped) {
+        // A cópia no heap é descartada: as consultas passam a ler o arquivo mapeado
+        CsrGraph fromFile = readGraphFile(file, sourceVersion, true);
+        built = fromFile != null ? fromFile : built;
+      }
+    }
+    graphLoadMillis = (System.nanoTime() - inicio) / 1_000_000;
+    SpeedProfiles profiles = loadSpeedProfiles(built);
+    DistanceMatrix m = refreshMatrix(snapshot.get().matrix(), built);
+    GraphSnapshot next = publish(sourceVersion, built, m, profiles);
+    logger.info("Grafo de rotas versão {} publicado: {} bairros, {} arcos, {} perfis de velocidade (alterações no banco: {}; carregado do {} em {} ms).",
+        next.version(), built.nodeCount(), built.arcCount(), profiles.profileCount(), sourceVersion, origem, graphLoadMillis);
+    return next;
+  }
+
+  /**
+   * Lê (ou mapeia) o grafo do arquivo binário, se ele corresponder à versão atual do banco.
+   *
+   * @param mapped true para mapear o arquivo fora do heap em vez de copiá-lo
+   * @return Grafo ou null (carregar do banco)
+   */
+  private CsrGraph readGraphFile(Path file, long sourceVersion, boolean mapped) {
+    try {
+      CsrGraph g = mapped ? GraphSnapshotFile.map(file, sourceVersion) : GraphSnapshotFile.read(file, sourceVersion);
+      if (g == null && Files.exists(file)) {
+        logger.info("Arquivo do grafo {} desatualizado ou inválido. Carregando do banco.", file);
+      }
+      return g;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Falha ao ler o arquivo do grafo {}: {}. Carregando do banco.", file, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Grava o grafo carregado do banco para a próxima inicialização. Falhas não impedem a publicação.
+   *
+   * @return true se o arquivo foi gravado
+   */
+  private boolean writeGraphFile(Path file, CsrGraph g, long sourceVersion) {
+    try {
+      long bytes = GraphSnapshotFile.write(file, g, sourceVersion);
+      logger.info("Arquivo do grafo {} gravado: {} bytes (alterações no banco: {}).", file, bytes, sourceVersion);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Falha ao gravar o arquivo do grafo {}: {}", file, e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Verifica periodicamente o contador de alterações do grafo e, se mudou, agenda a recarga.
+   * As consultas em andamento continuam usando a versão anterior até a nova ser publicada.
+   */
+  @Scheduled(fixedDelayString = "${routing.graph.poll-interval-ms:5000}",
+      initialDelayString = "${routing.graph.poll-interval-ms:5000}")
+  public void pollGraphChanges() {
+    long sourceVersion;
+    try {
+      sourceVersion = readSourceVersion();
+    } catch (RuntimeException e) {
+      logger.warn("Falha ao consultar a versão do grafo: {}", e.getMessage());
+      return;
+    }
+    if (sourceVersion == snapshot.get().sourceVersion() || !reloading.compareAndSet(false, true)) {
+      return;
+    }
+    reloadExecutor.execute(() -> {
+      try {
+        reload();
+      } catch (RuntimeException e) {
+        logger.error("Falha ao recarregar o grafo de rotas. Mantendo a versão atual.", e);
+      } finally {
+        reloading.set(false);
+      }
+    });
+  }
+
+  /**
+   * Recarrega o grafo imediatamente, se o banco tiver mudado desde a versão publicada.
+   * Usado após cargas feitas na própria aplicação (ex.: seeding inicial).
+   *
+   * @return true se uma nova versão foi publicada
+   */
+  public boolean reloadIfChanged() {
+    if (readSourceVersion() == snapshot.get().sourceVersion()) {
+      return false;
+    }
+    reload();
+    return true;
+  }
+
+  /**
+   * Contador de alterações mantido pelos gatilhos da tabela grafo_versao (migração V11).
+   * Sem a tabela de controle (ex.: banco em memória dos testes), usa o total de linhas de
+   * bairro e aresta, que detecta cargas e remoções.
+   */
+  private long readSourceVersion() {
+    return grafoVersaoRepository.findById(GrafoVersao.ID_GRAFO)
+        .map(GrafoVersao::getVersao)
+        .orElseGet(() -> bairroRepository.count() + arestaRepository.count());
+  }
+
+  /**
+   * Monta e publica uma nova versão a partir do grafo e da matriz já construídos.
+   */
+  private GraphSnapshot publish(long sourceVersion, CsrGraph g, DistanceMatrix m, SpeedProfiles profiles) {
+    DijkstraEngine baseline = new DijkstraEngine(g);
+    RoutingEngine engine = buildEngine(g, m, baseline);
+    GraphSnapshot current = snapshot.get();
+    GraphSnapshot next = new GraphSnapshot(current.version() + 1, sourceVersion, g, g.transpose(), m, engine, baseline, profiles);
+    snapshot.set(next);
+    // Entradas da versão anterior nunca mais seriam encontradas: libera a memória
+    pathCache.clear();
+    dispatchCache.clear();
+    return next;
+  }
+
+  /**
+   * Seleciona o motor das consultas ponto a ponto: a matriz, se ativa; senão o motor configurado.
+   *
+   * @param g Grafo carregado
+   * @param m Matriz de distâncias (ou null)
+   * @param baseline Dijkstra simples sobre o grafo
+   * @return Motor de rotas
+   */
+  private RoutingEngine buildEngine(CsrGraph g, DistanceMatrix m, DijkstraEngine baseline) {
+    if (m != null) {
+      return m;
+    }
+    if ("ch".equalsIgnoreCase(engineName) && g.nodeCount() > 0) {
+      ContractionHierarchy ch = ContractionHierarchy.build(g);
+      logger.info("Contraction Hierarchies construída: {} bairros, {} atalhos, {} ms.", g.nodeCount(), ch.shortcutCount(), ch.buildMillis());
+      return ch;
+    }
+    if ("alt".equalsIgnoreCase(engineName) && g.nodeCount() > 0) {
+      AltEngine alt = AltEngine.build(g, altLandmarks);
+      logger.info("Landmarks do A* (ALT) calculados: {} bairros, {} landmarks, {} ms.", g.nodeCount(), alt.landmarks().length, alt.buildMillis());
+      return alt;
+    }
+    return baseline;
+  }
+
+  /**
+   * Matriz da nova versão. Se só as distâncias de algumas ruas mudaram (mesmos bairros e arestas),
+   * recalcula apenas as linhas afetadas da matriz atual; senão, constrói a matriz inteira.
+   *
+   * @param current Matriz da versão publicada (ou null)
+   * @param g Grafo recarregado
+   * @return Matriz ou null (consultas sob demanda)
+   */
+  private DistanceMatrix refreshMatrix(DistanceMatrix current, CsrGraph g) {
+    int[] changed = current != null && matrixEnabled ? current.graph().changedEdges(g) : null;
+    if (changed == null) {
+      return buildMatrix(g);
+    }
+    DistanceMatrix m = current.withEdgeChanges(g, changed);
+    logger.info("Matriz de distâncias atualizada: {} arestas alteradas, {} linhas recalculadas em {} ms.",
+        changed.length, m.refreshedRows(), m.buildMillis());
+    return m;
+  }
+
+  /**
+   * Constrói a matriz de distâncias, se habilitada e se o grafo estiver abaixo do limite de nós.
+   *
+   * @param g Grafo carregado
+   * @return Matriz ou null (consultas sob demanda)
+   */
+  private DistanceMatrix buildMatrix(CsrGraph g) {
+    if (!matrixEnabled || g.nodeCount() == 0) {
+      return null;
+    }
+    if (!DistanceMatrix.supports(g, matrixMaxNodes)) {
+      logger.info("Grafo com {} bairros acima do limite da matriz ({}). Usando Dijkstra sob demanda.", g.nodeCount(), matrixMaxNodes);
+      return null;
+    }
+    int threads = matrixParallelism > 0 ? matrixParallelism : Runtime.getRuntime().availableProcessors();
+    DistanceMatrix m = DistanceMatrix.build(g, threads);
+    logger.info("Matriz de distâncias construída: {} bairros, {} bytes, {} ms.", g.nodeCount(), m.estimatedBytes(), m.buildMillis());
+    return m;
+  }
+
+  /**
+   * Versão do grafo em uso pelas consultas.
+   *
+   * @return Versão publicada
+   */
+  public GraphSnapshot getSnapshot() {
+    return snapshot.get();
   }
 
   /**
@@ -47,8 +374,10 @@ public class DijsktraService {
    * @return Nome do bairro ou "Unknown"
    */
   public String getNodeName(int id) {
-      if (nodes.containsKey(id)) {
-          return nodes.get(id).name;
+      CsrGraph graph = snapshot.get().graph();
+      int idx = graph.indexOf(id);
+      if (idx >= 0) {
+          return graph.name(idx);
       }
       return "Unknown (" + id + ")";
   }
@@ -64,107 +393,371 @@ public class DijsktraService {
    * [RF04] Cálculo de rota para despacho.
    */
   public PathResult findShortestPath(int sourceId, int targetId) {
-    if (!nodes.containsKey(sourceId) || !nodes.containsKey(targetId)) {
+    GraphSnapshot snap = snapshot.get();
+    PathKey key = new PathKey(snap.version(), sourceId, targetId);
+    PathResult cached = pathCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    PathResult result = findShortestPath(snap.engine(), sourceId, targetId);
+    pathCache.put(key, result);
+    return result;
+  }
+
+  /**
+   * Calcula o caminho com o Dijkstra simples, independentemente do motor configurado.
+   * Usado como referência para medir a poda do espaço de busca dos demais motores.
+   *
+   * @param sourceId ID do nó de origem
+   * @param targetId ID do nó de destino
+   * @return Caminho e número de vértices fixados
+   */
+  public PathResult findShortestPathBaseline(int sourceId, int targetId) {
+    return findShortestPath(snapshot.get().baseline(), sourceId, targetId);
+  }
+
+  private PathResult findShortestPath(RoutingEngine e, int sourceId, int targetId) {
+    CsrGraph g = e.graph();
+    int source = g.indexOf(sourceId);
+    int target = g.indexOf(targetId);
+    if (source < 0 || target < 0) {
+      return new PathResult(Collections.emptyList(), Collections.emptyList(), Double.NaN);
+    }
+
+    Route route = e.route(source, target);
+    queryCount.increment();
+    if (route == null) {
       return new PathResult(Collections.emptyList(), Collections.emptyList(), Double.NaN);
     }
+    settledNodes.add(route.settledNodes());
 
-    // Inicialização das estruturas de dados
-    Map<Integer, Double> dist = new HashMap<>();
-    Map<Integer, Integer> prev = new HashMap<>(); // nó anterior no caminho ótimo
-    Map<Integer, Edge> prevEdge = new HashMap<>(); // aresta usada para chegar ao nó
+    // Reconstrução do caminho
+    return toPathResult(g, source, route.arcs(), route.distance(), route.settledNodes());
+  }
 
-    for (Integer id : nodes.keySet()) {
-      dist.put(id, Double.POSITIVE_INFINITY);
+  /**
+   * Expande a fronteira do Dijkstra reverso a partir do destino, visitando os bairros em ordem
+   * crescente de distância até ele, até o visitante pedir para parar ou o grafo se esgotar.
+   * Permite ao despacho examinar apenas as bases mais próximas da ocorrência.
+   *
+   * @param targetId ID do nó de destino (Bairro da Ocorrência)
+   * @param visitor Chamado para cada bairro fixado; retorna false para encerrar a busca
+   * @return Número de vértices fixados
+   * [Estrutura de Dados II] Dijkstra incremental no grafo transposto.
+   * [RF05] Seleção das ambulâncias candidatas mais próximas.
+   */
+  public int expandFrontier(int targetId, FrontierVisitor visitor) {
+    GraphSnapshot snap = snapshot.get();
+    CsrGraph rg = snap.reverseGraph();
+    int target = rg.indexOf(targetId);
+    if (target < 0) {
+      return 0;
     }
-    dist.put(sourceId, 0.0);
+    DijkstraSearch search = searchFor(reverseSearches, rg);
+    search.start(target);
+    for (int v = search.next(); v >= 0; v = search.next()) {
+      if (!visitor.visit(rg.nodeId(v), search.distance(v))) {
+        break;
+      }
+    }
+    queryCount.increment();
+    settledNodes.add(search.settledCount());
+    return search.settledCount();
+  }
 
-    // [Estrutura de Dados II] Fila de Prioridade (Min-Heap) para seleção gulosa
-    PriorityQueue<NodeDistance> pq = new PriorityQueue<>(Comparator.comparingDouble(nd -> nd.distance));
-    pq.add(new NodeDistance(sourceId, 0.0));
+  /**
+   * Visitante dos bairros fixados por {@link #expandFrontier(int, FrontierVisitor)}.
+   */
+  @FunctionalInterface
+  public interface FrontierVisitor {
+    /**
+     * @param nodeId ID do bairro fixado
+     * @param distance Distância do bairro até o destino
+     * @return true para continuar a busca
+     */
+    boolean visit(int nodeId, double distance);
+  }
 
-    Set<Integer> visited = new HashSet<>();
+  /**
+   * Encontra, entre várias origens, a que chega mais cedo ao destino saindo no instante informado,
+   * considerando a velocidade de cada rua na faixa horária em que ela é percorrida (ex.: horário
+   * de pico). Uma única busca dependente do tempo parte de todas as origens ao mesmo tempo.
+   * O instante de saída é considerado com precisão de minuto, o que permite reaproveitar o
+   * resultado de consultas repetidas (ex.: reprocessamento de ocorrências pendentes).
+   *
+   * @param sourceIds IDs dos nós de origem (Bairros das bases)
+   * @param targetId ID do nó de destino (Bairro da Ocorrência)
+   * @param departure Instante de saída
+   * @return Origem vencedora, tempo de viagem e caminho, ou null se nenhuma origem alcança o destino
+   * [Estrutura de Dados II] Dijkstra dependente do tempo (perfis FIFO).
+   * [RF05] Tempo estimado de chegada no horário do despacho.
+   */
+  public FastestRoute findFastestRoute(Collection<Integer> sourceIds, int targetId, LocalDateTime departure) {
+    GraphSnapshot snap = snapshot.get();
+    int minute = departure.getHour() * 60 + departure.getMinute();
+    List<Integer> ids = sourceIds.stream().distinct().sorted().toList();
+    DispatchKey key = new DispatchKey(snap.version(), ids, targetId, minute);
+    FastestRoute cached = dispatchCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    FastestRoute result = findFastestRoute(snap, ids, targetId, minute);
+    if (result != null) {
+      dispatchCache.put(key, result);
+    }
+    return result;
+  }
 
-    while (!pq.isEmpty()) {
-      NodeDistance cur = pq.poll();
-      int u = cur.nodeId;
+  private FastestRoute findFastestRoute(GraphSnapshot snap, List<Integer> sourceIds, int targetId, double start) {
+    CsrGraph g = snap.graph();
+    int target = g.indexOf(targetId);
+    if (target < 0) {
+      return null;
+    }
+    int[] sources = sourceIds.stream().mapToInt(g::indexOf).toArray();
 
-      if (visited.contains(u))
-        continue;
-      visited.add(u);
+    TimeDependentSearch search = timeDependentSearchFor(snap);
+    int origin = search.run(sources, start, target);
+    queryCount.increment();
+    if (origin < 0) {
+      return null;
+    }
+    settledNodes.add(search.settledCount());
 
-      if (u == targetId)
-        break;
+    int[] arcs = search.pathArcs(target);
+    double km = 0.0;
+    for (int a : arcs) {
+      km += g.weight(a);
+    }
+    PathResult path = toPathResult(g, origin, arcs, km, search.settledCount());
+    return new FastestRoute(g.nodeId(origin), search.arrival(target) - start, path);
+  }
 
-      List<Edge> neighbors = adj.getOrDefault(u, Collections.emptyList());
-      for (Edge e : neighbors) {
-        int v = e.to;
-        double alt = dist.get(u) + e.distance;
-        // Passo de Relaxamento
-        if (alt < dist.get(v)) {
-          dist.put(v, alt);
-          prev.put(v, u);
-          prevEdge.put(v, e);
-          pq.add(new NodeDistance(v, alt));
+  /**
+   * Calcula o tempo de viagem de cada origem até cada destino, saindo no instante informado.
+   * Com pesos dependentes do tempo o instante de saída é conhecido nas origens (bases), por isso
+   * há uma busca para a frente por origem, que para ao fixar todos os destinos ou quando a fronteira
+   * ultrapassa o raio (ex.: maior limite de SLA do lote). Destinos que nenhuma origem alcança dentro
+   * do raio recebem a origem mais rápida, mesmo fora dele (fallback fora do SLA), de uma única busca
+   * a partir de todas as origens. Os caminhos são reconstruídos sob demanda a partir das árvores
+   * dessas buscas ({@link TravelTimeTable#route}), sem nova consulta.
+   *
+   * @param sourceIds IDs dos nós de origem (Bairros das bases)
+   * @param targetIds IDs dos nós de destino (Bairros das ocorrências)
+   * @param departure Instante de saída (precisão de minuto)
+   * @param radius Raio de interesse em minutos de viagem
+   * @return Tabela [origem][destino] em minutos (NaN se inalcançável ou além do raio)
+   * [Estrutura de Dados II] Dijkstra dependente do tempo um-para-muitos.
+   * [Regra de Domínio - SLA] Busca limitada ao raio do SLA.
+   */
+  public TravelTimeTable travelTimes(List<Integer> sourceIds, List<Integer> targetIds, LocalDateTime departure,
+      double radius) {
+    GraphSnapshot snap = snapshot.get();
+    CsrGraph g = snap.graph();
+    double start = departure.getHour() * 60 + departure.getMinute();
+    int[] sources = sourceIds.stream().mapToInt(g::indexOf).toArray();
+    int[] targets = targetIds.stream().mapToInt(g::indexOf).toArray();
+    double[][] minutes = new double[sources.length][targets.length];
+    int[][] trees = new int[sources.length][];
+    boolean[] alcancado = new boolean[targets.length];
+    TimeDependentSearch search = timeDependentSearchFor(snap);
+    for (int i = 0; i < sources.length; i++) {
+      Arrays.fill(minutes[i], Double.NaN);
+      if (sources[i] < 0) {
+        continue;
+      }
+      search.runToTargets(new int[] {sources[i]}, start, targets, start + radius);
+      queryCount.increment();
+      settledNodes.add(search.settledCount());
+      boolean fixou = false;
+      for (int j = 0; j < targets.length; j++) {
+        if (targets[j] >= 0 && search.isSettled(targets[j])) {
+          minutes[i][j] = search.arrival(targets[j]) - start;
+          alcancado[j] = true;
+          fixou = true;
         }
       }
+      // Árvore guardada para reconstruir depois só o caminho do par escolhido
+      trees[i] = fixou ? search.copyTree() : null;
     }
 
-    if (!dist.containsKey(targetId) || dist.get(targetId).isInfinite()) {
-      return new PathResult(Collections.emptyList(), Collections.emptyList(), Double.NaN);
+    // Se a origem mais rápida de um destino está dentro do raio, a busca dela já o fixou
+    int[] fallbackSource = new int[targets.length];
+    Arrays.fill(fallbackSource, -1);
+    int[] semOrigem = IntStream.range(0, targets.length)
+        .filter(j -> targets[j] >= 0 && !alcancado[j])
+        .map(j -> targets[j])
+        .toArray();
+    int[] fallbackTree = null;
+    if (semOrigem.length > 0) {
+      search.runToTargets(sources, start, semOrigem, Double.POSITIVE_INFINITY);
+      queryCount.increment();
+      settledNodes.add(search.settledCount());
+      for (int j = 0; j < targets.length; j++) {
+        if (targets[j] < 0 || alcancado[j] || !search.isSettled(targets[j])) {
+          continue;
+        }
+        for (int i = 0; i < sources.length; i++) {
+          if (sources[i] == search.origin(targets[j])) {
+            minutes[i][j] = search.arrival(targets[j]) - start;
+            fallbackSource[j] = i;
+          }
+        }
+      }
+      fallbackTree = search.copyTree();
     }
+    return new TravelTimeTable(g, sourceIds, targets, minutes, trees, fallbackSource, fallbackTree);
+  }
 
-    // Reconstrução do caminho
-    LinkedList<Integer> nodePath = new LinkedList<>();
-    LinkedList<Edge> edgePath = new LinkedList<>();
-    int cur = targetId;
-    while (cur != sourceId) {
-      nodePath.addFirst(cur);
-      Edge e = prevEdge.get(cur);
-      if (e != null)
-        edgePath.addFirst(e);
-      Integer p = prev.get(cur);
-      if (p == null)
-        break; // safety
-      cur = p;
+  private TimeDependentSearch timeDependentSearchFor(GraphSnapshot snap) {
+    TimeDependentSearch search = timeDependentSearches.get();
+    if (search == null || search.graph() != snap.graph() || search.profiles() != snap.profiles()) {
+      search = new TimeDependentSearch(snap.graph(), snap.profiles());
+      timeDependentSearches.set(search);
     }
-    nodePath.addFirst(sourceId);
+    return search;
+  }
 
-    double total = dist.get(targetId);
-    return new PathResult(nodePath, edgePath, total);
+  /**
+   * Converte uma sequência de arcos (índices densos) no resultado com IDs originais.
+   */
+  private static PathResult toPathResult(CsrGraph g, int source, int[] arcs, double total, int settled) {
+    List<Integer> nodePath = new ArrayList<>(arcs.length + 1);
+    List<Edge> edgePath = new ArrayList<>(arcs.length);
+    nodePath.add(g.nodeId(source));
+    int u = source;
+    for (int a : arcs) {
+      int v = g.target(a);
+      edgePath.add(new Edge(g.edgeId(a), g.nodeId(u), g.nodeId(v), g.weight(a)));
+      nodePath.add(g.nodeId(v));
+      u = v;
+    }
+    return new PathResult(Collections.unmodifiableList(nodePath), Collections.unmodifiableList(edgePath), total, settled);
   }
 
-  private void addEdge(Edge e) {
-    adj.computeIfAbsent(e.from, k -> new ArrayList<>()).add(e);
+  private static DijkstraSearch searchFor(ThreadLocal<DijkstraSearch> local, CsrGraph g) {
+    DijkstraSearch search = local.get();
+    if (search == null || search.graph() != g) {
+      search = new DijkstraSearch(g);
+      local.set(search);
+    }
+    return search;
   }
 
   /**
    * Carrega os vértices do grafo a partir da tabela de bairros.
    * [RF04] Mapeamento de Bairros como nós.
    */
-  private void loadNodes() {
+  private void loadNodes(CsrGraph.Builder builder) {
     List<Bairro> bairros = bairroRepository.findAll();
     for (Bairro b : bairros) {
-      nodes.put(b.getId(), new Node(b.getId(), b.getNome()));
+      builder.addNode(b.getId(), b.getNome());
+    }
+  }
+
+  /**
+   * Carrega os perfis de velocidade por faixa horária das arestas.
+   * Lê apenas as colunas usadas (projeção escalar), sem carregar entidades nem a aresta e os
+   * bairros associados. Registros de arestas fora do grafo são ignorados.
+   * [RF04] Velocidade das ruas conforme o horário.
+   */
+  private SpeedProfiles loadSpeedProfiles(CsrGraph g) {
+    double fallback = defaultSpeedKmh > 0 ? defaultSpeedKmh : SpeedProfiles.DEFAULT_SPEED_KMH;
+    SpeedProfiles.Builder builder = new SpeedProfiles.Builder(fallback);
+    for (Object[] row : velocidadeArestaRepository.findPerfisVelocidade()) {
+      builder.set(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), ((Number) row[2]).doubleValue());
     }
+    return builder.build(g);
   }
 
   /**
    * Carrega as arestas do grafo a partir da tabela de conexões (ruas).
    * [RF04] Mapeamento de Ruas como arestas ponderadas pela distância.
    */
-  private void loadEdges() {
-    List<Aresta> arestas = arestaRepository.findAll();
+  private void loadEdges(CsrGraph.Builder builder) {
+    // Ordem estável entre recargas: a mesma estrutura de arcos permite a atualização incremental da matriz
+    List<Aresta> arestas = new ArrayList<>(arestaRepository.findAll());
+    arestas.sort(Comparator.comparing(Aresta::getId));
     for (Aresta a : arestas) {
       // Grafo não-direcionado (mão dupla)
-      addUndirected(a.getId(), a.getOrigem().getId(), a.getDestino().getId(), a.getDistanciaKm());
+      builder.addUndirected(a.getId(), a.getOrigem().getId(), a.getDestino().getId(), a.getDistanciaKm());
     }
   }
 
-  private void addUndirected(int id, int a, int b, double dist) {
-    Edge e1 = new Edge(id, a, b, dist);
-    Edge e2 = new Edge(id, b, a, dist);
-    addEdge(e1);
-    addEdge(e2);
+  // Indicadores expostos como métricas (ver RoutingMetrics)
+
+  public String getEngineName() {
+    return snapshot.get().engine().name();
+  }
+
+  public long getGraphVersion() {
+    return snapshot.get().version();
+  }
+
+  public long getQueryCount() {
+    return queryCount.sum();
+  }
+
+  public long getSettledNodes() {
+    return settledNodes.sum();
+  }
+
+  public int getNodeCount() {
+    return snapshot.get().graph().nodeCount();
+  }
+
+  public int getArcCount() {
+    return snapshot.get().graph().arcCount();
+  }
+
+  public long getGraphBytes() {
+    GraphSnapshot snap = snapshot.get();
+    return snap.graph().estimatedBytes() + snap.reverseGraph().estimatedBytes();
+  }
+
+  /**
+   * Bytes do grafo e do transposto mapeados fora do heap (0 no armazenamento em heap).
+   */
+  public long getGraphMappedBytes() {
+    return snapshot.get().graph().mappedBytes();
+  }
+
+  public long getGraphLoadMillis() {
+    return graphLoadMillis;
+  }
+
+  public boolean isMatrixActive() {
+    return snapshot.get().matrix() != null;
+  }
+
+  public long getMatrixBytes() {
+    DistanceMatrix m = snapshot.get().matrix();
+    return m != null ? m.estimatedBytes() : 0;
+  }
+
+  public long getMatrixBuildMillis() {
+    DistanceMatrix m = snapshot.get().matrix();
+    return m != null ? m.buildMillis() : 0;
+  }
+
+  public RouteCache<?, ?> getPathCache() {
+    return pathCache;
+  }
+
+  public RouteCache<?, ?> getDispatchCache() {
+    return dispatchCache;
+  }
+
+  public int getMatrixRefreshedRows() {
+    DistanceMatrix m = snapshot.get().matrix();
+    return m != null ? m.refreshedRows() : 0;
+  }
+
+  // Chaves dos caches de rotas (a versão do grafo invalida resultados anteriores)
+  private record PathKey(long version, int sourceId, int targetId) {
+  }
+
+  private record DispatchKey(long version, List<Integer> sourceIds, int targetId, int minute) {
   }
 
   // Classes auxiliares para representação do grafo
@@ -206,11 +799,24 @@ public class DijsktraService {
     public final List<Integer> nodes; // sequence of node ids
     public final List<Edge> edges; // sequence of edges in order
     public final double totalDistance;
+    public final int settledNodes; // vértices fixados pela busca (0 em consultas à matriz)
 
     public PathResult(List<Integer> nodes, List<Edge> edges, double totalDistance) {
+      this(nodes, edges, totalDistance, 0);
+    }
+
+    public PathResult(List<Integer> nodes, List<Edge> edges, double totalDistance, int settledNodes) {
       this.nodes = nodes;
       this.edges = edges;
       this.totalDistance = totalDistance;
+      this.settledNodes = settledNodes;
+    }
+
+    /**
+     * Memória aproximada do resultado (listas de IDs e arestas), usada para limitar o cache.
+     */
+    public long estimatedBytes() {
+      return 48L + 20L * nodes.size() + 56L * edges.size();
     }
 
     @Override
@@ -226,13 +832,77 @@ public class DijsktraService {
     }
   }
 
-  private static class NodeDistance {
-    int nodeId;
-    double distance;
+  /**
+   * Resultado de uma busca dependente do tempo: origem mais rápida, tempo de viagem e caminho.
+   */
+  public static class FastestRoute {
+    public final int sourceId;
+    public final double travelMinutes;
+    public final PathResult path; // distância total em km
+
+    public FastestRoute(int sourceId, double travelMinutes, PathResult path) {
+      this.sourceId = sourceId;
+      this.travelMinutes = travelMinutes;
+      this.path = path;
+    }
 
-    public NodeDistance(int nodeId, double distance) {
-      this.nodeId = nodeId;
-      this.distance = distance;
+    public long estimatedBytes() {
+      return 24L + path.estimatedBytes();
+    }
+  }
+
+  /**
+   * Resultado de {@link #travelTimes}: tempo de viagem de cada origem até cada destino.
+   * O caminho de um par é reconstruído apenas quando solicitado, a partir da árvore da busca que
+   * o fixou (a da própria origem ou, fora do raio, a da busca a partir de todas as origens).
+   */
+  public static class TravelTimeTable {
+    private final CsrGraph graph;
+    private final List<Integer> sourceIds;
+    private final int[] targets; // índices densos
+    private final double[][] minutes;
+    private final int[][] trees;
+    private final int[] fallbackSource;
+    private final int[] fallbackTree;
+
+    TravelTimeTable(CsrGraph graph, List<Integer> sourceIds, int[] targets, double[][] minutes, int[][] trees,
+        int[] fallbackSource, int[] fallbackTree) {
+      this.graph = graph;
+      this.sourceIds = sourceIds;
+      this.targets = targets;
+      this.minutes = minutes;
+      this.trees = trees;
+      this.fallbackSource = fallbackSource;
+      this.fallbackTree = fallbackTree;
+    }
+
+    /**
+     * Tempo de viagem da origem {@code i} até o destino {@code j}.
+     *
+     * @return Minutos ou NaN se inalcançável ou além do raio
+     */
+    public double minutes(int i, int j) {
+      return minutes[i][j];
+    }
+
+    /**
+     * Reconstrói a rota da origem {@code i} até o destino {@code j}.
+     *
+     * @return Rota ou null se o par não tem tempo calculado
+     */
+    public FastestRoute route(int i, int j) {
+      double t = minutes[i][j];
+      if (Double.isNaN(t)) {
+        return null;
+      }
+      int[] tree = fallbackSource[j] == i ? fallbackTree : trees[i];
+      int[] arcs = TimeDependentSearch.pathArcs(graph, tree, targets[j]);
+      double km = 0.0;
+      for (int a : arcs) {
+        km += graph.weight(a);
+      }
+      int source = graph.indexOf(sourceIds.get(i));
+      return new FastestRoute(sourceIds.get(i), t, toPathResult(graph, source, arcs, km, 0));
     }
   }
 }
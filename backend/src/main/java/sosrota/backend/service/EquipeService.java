@@ -17,10 +17,20 @@ public class EquipeService {
 
     private final EquipeRepository equipeRepository;
     private final sosrota.backend.repository.AmbulanciaRepository ambulanciaRepository;
+    private final AmbulanceAvailabilityIndex availabilityIndex;
+    private final FleetReadinessProjection readinessProjection;
+    private final StateEventStream stateEventStream;
+    private final DashboardCounters dashboardCounters;
 
-    public EquipeService(EquipeRepository equipeRepository, sosrota.backend.repository.AmbulanciaRepository ambulanciaRepository) {
+    public EquipeService(EquipeRepository equipeRepository, sosrota.backend.repository.AmbulanciaRepository ambulanciaRepository,
+                         AmbulanceAvailabilityIndex availabilityIndex, FleetReadinessProjection readinessProjection,
+                         StateEventStream stateEventStream, DashboardCounters dashboardCounters) {
         this.equipeRepository = equipeRepository;
         this.ambulanciaRepository = ambulanciaRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.readinessProjection = readinessProjection;
+        this.stateEventStream = stateEventStream;
+        this.dashboardCounters = dashboardCounters;
     }
 
     /**
@@ -69,7 +79,13 @@ public class EquipeService {
             }
         }
 
+        boolean nova = equipe.getId() == null;
         Equipe savedEquipe = equipeRepository.save(equipe);
+        if (nova) {
+            dashboardCounters.equipeCriada();
+        }
+        // Recarrega com os profissionais completos (a requisição pode trazer apenas os IDs)
+        readinessProjection.update(equipeRepository.findWithProfissionaisById(savedEquipe.getId()).orElse(savedEquipe));
 
         // [Regra de Negócio] Atualização automática de status da ambulância
         if (savedEquipe.getAmbulancia() != null) {
@@ -77,6 +93,8 @@ public class EquipeService {
             if ("SEM_EQUIPE".equals(amb.getStatus())) {
                 amb.setStatus("DISPONIVEL");
                 ambulanciaRepository.save(amb);
+                availabilityIndex.update(amb);
+                stateEventStream.ambulancia(amb);
             }
         }
         
@@ -91,6 +109,10 @@ public class EquipeService {
      */
     public void delete(Integer id) {
         Equipe equipe = findById(id);
+        readinessProjection.removeEquipe(id);
+        if (equipe != null) {
+            dashboardCounters.equipeRemovida();
+        }
         if (equipe != null && equipe.getAmbulancia() != null) {
             sosrota.backend.entity.Ambulancia amb = equipe.getAmbulancia();
             equipeRepository.deleteById(id);
@@ -101,6 +123,8 @@ public class EquipeService {
                 if ("DISPONIVEL".equals(amb.getStatus())) {
                     amb.setStatus("SEM_EQUIPE");
                     ambulanciaRepository.save(amb);
+                    availabilityIndex.update(amb);
+                    stateEventStream.ambulancia(amb);
                 }
             }
         } else {
@@ -0,0 +1,283 @@
+package sosrota.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Profissional;
+import sosrota.backend.entity.Turno;
+import sosrota.backend.repository.EquipeRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projeção em memória da prontidão das equipes de cada ambulância: quais funções
+ * (motorista, médico, enfermeiro) estão cobertas por profissionais ativos em cada equipe/turno.
+ * O despacho consulta a projeção em O(1) em vez de buscar as equipes e percorrer a coleção
+ * de profissionais de cada candidata (N+1 consultas).
+ * Construída com uma única consulta (fetch join) na inicialização e reconciliada periodicamente;
+ * mantida pelos serviços de equipes e profissionais a cada alteração.
+ * [Regra de Domínio - RD02] Critério de Disponibilidade.
+ * [Banco de Dados II] Eliminação de consultas N+1.
+ */
+@Service
+public class FleetReadinessProjection {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FleetReadinessProjection.class);
+
+    // Funções cobertas (bits)
+    static final int MOTORISTA = 1;
+    static final int MEDICO = 2;
+    static final int ENFERMEIRO = 4;
+
+    private final EquipeRepository equipeRepository;
+
+    // ID da equipe -> prontidão
+    private final Map<Integer, Team> teams = new HashMap<>();
+    // ID da ambulância -> IDs das equipes
+    private final Map<Integer, Set<Integer>> teamsByAmbulancia = new HashMap<>();
+    // ID do profissional -> IDs das equipes
+    private final Map<Integer, Set<Integer>> teamsByProfissional = new HashMap<>();
+    // Incrementado a cada alteração (invalida as escalas derivadas)
+    private volatile long version;
+
+    public FleetReadinessProjection(EquipeRepository equipeRepository) {
+        this.equipeRepository = equipeRepository;
+    }
+
+    /**
+     * Reconstrói a projeção a partir das equipes do banco (uma única consulta).
+     * Executado na inicialização e periodicamente para corrigir divergências.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${dispatch.readiness.reconcile-interval-ms:60000}",
+            initialDelayString = "${dispatch.readiness.reconcile-interval-ms:60000}")
+    public synchronized void rebuild() {
+        List<Equipe> equipes = equipeRepository.findAllWithProfissionais();
+        teams.clear();
+        teamsByAmbulancia.clear();
+        teamsByProfissional.clear();
+        for (Equipe equipe : equipes) {
+            update(equipe);
+        }
+        version++;
+        logger.debug("Projeção de prontidão reconstruída: {} equipes em {} ambulâncias.", teams.size(), teamsByAmbulancia.size());
+    }
+
+    /**
+     * Registra a composição atual de uma equipe (profissionais carregados).
+     *
+     * @param equipe Equipe após a alteração
+     */
+    public synchronized void update(Equipe equipe) {
+        if (equipe == null || equipe.getId() == null) {
+            return;
+        }
+        removeEquipe(equipe.getId());
+        if (equipe.getAmbulancia() == null || equipe.getAmbulancia().getId() == null) {
+            return;
+        }
+
+        Team team = new Team(equipe.getAmbulancia().getId(), equipe.getTurno());
+        if (equipe.getProfissionais() != null) {
+            for (Profissional profissional : equipe.getProfissionais()) {
+                if (profissional.getId() != null) {
+                    team.members.put(profissional.getId(), roles(profissional));
+                    teamsByProfissional.computeIfAbsent(profissional.getId(), p -> new HashSet<>()).add(equipe.getId());
+                }
+            }
+        }
+        team.recompute();
+        teams.put(equipe.getId(), team);
+        teamsByAmbulancia.computeIfAbsent(team.ambulanciaId, a -> new HashSet<>()).add(equipe.getId());
+        version++;
+    }
+
+    /**
+     * Remove uma equipe da projeção (excluída).
+     *
+     * @param equipeId ID da equipe
+     */
+    public synchronized void removeEquipe(Integer equipeId) {
+        Team previous = teams.remove(equipeId);
+        if (previous == null) {
+            return;
+        }
+        unlink(teamsByAmbulancia, previous.ambulanciaId, equipeId);
+        for (Integer profissionalId : previous.members.keySet()) {
+            unlink(teamsByProfissional, profissionalId, equipeId);
+        }
+        version++;
+    }
+
+    /**
+     * Atualiza a função/situação de um profissional nas equipes em que está alocado.
+     *
+     * @param profissional Profissional após a alteração
+     */
+    public synchronized void updateProfissional(Profissional profissional) {
+        if (profissional == null || profissional.getId() == null) {
+            return;
+        }
+        for (Integer equipeId : teamsByProfissional.getOrDefault(profissional.getId(), Collections.emptySet())) {
+            Team team = teams.get(equipeId);
+            team.members.put(profissional.getId(), roles(profissional));
+            team.recompute();
+            version++;
+        }
+    }
+
+    /**
+     * Verifica se a ambulância possui alguma equipe completa para o seu tipo.
+     * USA/UTI: motorista, médico e enfermeiro. USB/Básica: motorista e médico ou enfermeiro.
+     *
+     * @param ambulanciaId ID da ambulância
+     * @param tipo Tipo da ambulância
+     * @return true se apta
+     * [Regra de Domínio - RD02] Critério de Disponibilidade.
+     */
+    public synchronized boolean isReady(int ambulanciaId, String tipo) {
+        Set<Integer> equipes = teamsByAmbulancia.get(ambulanciaId);
+        if (equipes == null || tipo == null) {
+            return false;
+        }
+        for (Integer equipeId : equipes) {
+            if (isComplete(teams.get(equipeId).roles, tipo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Funções cobertas pela equipe da ambulância em um turno.
+     *
+     * @param ambulanciaId ID da ambulância
+     * @param turno Turno
+     * @return Prontidão (sem funções se não houver equipe no turno)
+     */
+    public synchronized Readiness readiness(int ambulanciaId, Turno turno) {
+        int roles = 0;
+        for (Integer equipeId : teamsByAmbulancia.getOrDefault(ambulanciaId, Collections.emptySet())) {
+            Team team = teams.get(equipeId);
+            if (team.turno == turno) {
+                roles |= team.roles;
+            }
+        }
+        return new Readiness(roles);
+    }
+
+    /**
+     * Equipes escaladas em um turno (incluindo as sem turno definido, que atendem em todos).
+     *
+     * @param turno Turno
+     * @return Equipes com as funções cobertas
+     */
+    public synchronized List<TeamView> teamsOnDuty(Turno turno) {
+        List<TeamView> result = new ArrayList<>();
+        for (Map.Entry<Integer, Team> entry : teams.entrySet()) {
+            Team team = entry.getValue();
+            if (team.turno == null || team.turno == turno) {
+                result.add(new TeamView(entry.getKey(), team.ambulanciaId, team.turno, team.roles));
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return teams.size();
+    }
+
+    public long version() {
+        return version;
+    }
+
+    static boolean isComplete(int roles, String tipo) {
+        String t = tipo.toUpperCase();
+        if ("USA".equals(t) || "UTI".equals(t)) {
+            return (roles & (MOTORISTA | MEDICO | ENFERMEIRO)) == (MOTORISTA | MEDICO | ENFERMEIRO);
+        }
+        // USB / BASICA
+        return (roles & MOTORISTA) != 0 && (roles & (MEDICO | ENFERMEIRO)) != 0;
+    }
+
+    private static int roles(Profissional profissional) {
+        if (!Boolean.TRUE.equals(profissional.getAtivo()) || profissional.getFuncao() == null) {
+            return 0;
+        }
+        switch (profissional.getFuncao().toUpperCase()) {
+            case "MOTORISTA": return MOTORISTA;
+            case "MEDICO": return MEDICO;
+            case "ENFERMEIRO": return ENFERMEIRO;
+            default: return 0;
+        }
+    }
+
+    private static void unlink(Map<Integer, Set<Integer>> links, Integer key, Integer equipeId) {
+        Set<Integer> set = links.get(key);
+        if (set != null) {
+            set.remove(equipeId);
+            if (set.isEmpty()) {
+                links.remove(key);
+            }
+        }
+    }
+
+    private static final class Team {
+        final int ambulanciaId;
+        final Turno turno;
+        // ID do profissional -> funções cobertas (0 se inativo)
+        final Map<Integer, Integer> members = new HashMap<>();
+        int roles;
+
+        Team(int ambulanciaId, Turno turno) {
+            this.ambulanciaId = ambulanciaId;
+            this.turno = turno;
+        }
+
+        void recompute() {
+            roles = 0;
+            for (int r : members.values()) {
+                roles |= r;
+            }
+        }
+    }
+
+    /**
+     * Equipe e funções cobertas (cópia imutável para montar escalas).
+     */
+    public static class TeamView {
+        public final int equipeId;
+        public final int ambulanciaId;
+        public final Turno turno;
+        public final int roles;
+
+        TeamView(int equipeId, int ambulanciaId, Turno turno, int roles) {
+            this.equipeId = equipeId;
+            this.ambulanciaId = ambulanciaId;
+            this.turno = turno;
+            this.roles = roles;
+        }
+    }
+
+    /**
+     * Funções cobertas por profissionais ativos.
+     */
+    public static class Readiness {
+        public final boolean hasMotorista;
+        public final boolean hasMedico;
+        public final boolean hasEnfermeiro;
+
+        Readiness(int roles) {
+            this.hasMotorista = (roles & MOTORISTA) != 0;
+            this.hasMedico = (roles & MEDICO) != 0;
+            this.hasEnfermeiro = (roles & ENFERMEIRO) != 0;
+        }
+    }
+}
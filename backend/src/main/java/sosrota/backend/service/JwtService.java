@@ -28,6 +28,15 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    // [RNF01] Ticket do fluxo de eventos: o EventSource do navegador não envia o cabeçalho Authorization,
+    // então o token vai na URL; por isso é curto e só vale para /api/eventos
+    private static final long DEFAULT_STREAM_TICKET_EXPIRATION = 60_000;
+    private static final String CLAIM_ESCOPO = "escopo";
+    private static final String ESCOPO_EVENTOS = "eventos";
+
+    @Value("${jwt.stream-ticket-expiration:60000}")
+    private long streamTicketExpiration;
+
     /**
      * Extrai o nome de usuário (subject) do token.
      *
@@ -55,18 +64,49 @@ public class JwtService {
      * @return Token assinado
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        return buildToken(extraClaims, userDetails, jwtExpiration);
+    }
+
+    /**
+     * Gera o ticket de acesso ao fluxo de eventos (parâmetro "ticket" de /api/eventos).
+     *
+     * @param userDetails Usuário autenticado
+     * @return Token assinado, restrito ao fluxo de eventos
+     */
+    public String generateStreamTicket(UserDetails userDetails) {
+        return buildToken(Map.of(CLAIM_ESCOPO, ESCOPO_EVENTOS), userDetails, getStreamTicketExpiration());
+    }
+
+    public long getStreamTicketExpiration() {
+        return streamTicketExpiration > 0 ? streamTicketExpiration : DEFAULT_STREAM_TICKET_EXPIRATION;
+    }
+
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
         return Jwts.builder()
                 .claims(extraClaims)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
+                .expiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSignInKey())
                 .compact();
     }
 
+    /**
+     * Valida um token de acesso (cabeçalho Authorization). Tickets do fluxo de eventos não são aceitos.
+     */
     public boolean isTokenValid(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token)
+                && extractClaim(token, claims -> claims.get(CLAIM_ESCOPO)) == null;
+    }
+
+    /**
+     * Valida um ticket do fluxo de eventos.
+     */
+    public boolean isStreamTicketValid(String token, UserDetails userDetails) {
+        final String username = extractUsername(token);
+        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token)
+                && ESCOPO_EVENTOS.equals(extractClaim(token, claims -> claims.get(CLAIM_ESCOPO, String.class)));
     }
 
     private boolean isTokenExpired(String token) {
@@ -0,0 +1,141 @@
+package sosrota.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import sosrota.backend.dto.AmbulanciaResumoDTO;
+import sosrota.backend.dto.EquipeResumoDTO;
+import sosrota.backend.dto.OcorrenciaResumoDTO;
+import sosrota.backend.dto.PaginaDTO;
+import sosrota.backend.dto.ProfissionalResumoDTO;
+import sosrota.backend.entity.Turno;
+import sosrota.backend.repository.ListagemRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Listagens paginadas por chave (keyset) de ocorrências, ambulâncias, profissionais e equipes.
+ * Cada página traz o cursor da seguinte, derivado da chave da última linha: (dataHoraAbertura, id)
+ * nas ocorrências e o ID nos demais cadastros. Busca uma linha a mais que o limite para saber se
+ * há próxima página sem COUNT.
+ * [RF07] Consulta de ocorrências.
+ * [Banco de Dados II] Paginação por chave (seek).
+ */
+@Service
+public class ListagemService {
+
+    // Linhas por página quando o cliente não informa o limite
+    private static final int DEFAULT_LIMIT = 50;
+
+    @Value("${listing.default-limit:50}")
+    private int defaultLimit;
+
+    // Maior página aceita
+    private static final int DEFAULT_MAX_LIMIT = 200;
+
+    @Value("${listing.max-limit:200}")
+    private int maxLimit;
+
+    private final ListagemRepository listagemRepository;
+
+    public ListagemService(ListagemRepository listagemRepository) {
+        this.listagemRepository = listagemRepository;
+    }
+
+    /**
+     * Ocorrências da mais recente para a mais antiga.
+     *
+     * @param inicio Abertura a partir de (inclusive)
+     * @param fim Abertura antes de (exclusive)
+     * @param apos Cursor devolvido na página anterior (null na primeira)
+     * @param limite Linhas por página (null = padrão)
+     * @return Página com o cursor da seguinte
+     */
+    public PaginaDTO<OcorrenciaResumoDTO> listOcorrencias(String status, String gravidade, Integer bairroId,
+                                                         LocalDateTime inicio, LocalDateTime fim,
+                                                         String apos, Integer limite) {
+        if (inicio != null && fim != null && !inicio.isBefore(fim)) {
+            throw new IllegalArgumentException("O início do período deve ser anterior ao fim.");
+        }
+        OcorrenciaCursor cursor = apos != null && !apos.isBlank() ? decodeOcorrencia(apos) : null;
+        int n = limit(limite);
+        List<OcorrenciaResumoDTO> linhas = listagemRepository.findOcorrencias(status, gravidade, bairroId, inicio, fim,
+                cursor != null ? cursor.dataHoraAbertura() : null, cursor != null ? cursor.id() : null, n + 1);
+        return page(linhas, n, o -> encodeOcorrencia(o.dataHoraAbertura(), o.id()));
+    }
+
+    public PaginaDTO<AmbulanciaResumoDTO> listAmbulancias(String status, String tipo, Integer bairroId,
+                                                         String apos, Integer limite) {
+        int n = limit(limite);
+        return page(listagemRepository.findAmbulancias(status, tipo, bairroId, decodeId(apos), n + 1),
+                n, a -> String.valueOf(a.id()));
+    }
+
+    public PaginaDTO<ProfissionalResumoDTO> listProfissionais(String funcao, Turno turno, Boolean ativo,
+                                                             String apos, Integer limite) {
+        int n = limit(limite);
+        return page(listagemRepository.findProfissionais(funcao, turno, ativo, decodeId(apos), n + 1),
+                n, p -> String.valueOf(p.id()));
+    }
+
+    public PaginaDTO<EquipeResumoDTO> listEquipes(Turno turno, Integer ambulanciaId, String apos, Integer limite) {
+        int n = limit(limite);
+        return page(listagemRepository.findEquipes(turno, ambulanciaId, decodeId(apos), n + 1),
+                n, e -> String.valueOf(e.id()));
+    }
+
+    private static <T> PaginaDTO<T> page(List<T> linhas, int limite, Function<T, String> cursor) {
+        if (linhas.size() <= limite) {
+            return new PaginaDTO<>(linhas, null);
+        }
+        List<T> itens = new ArrayList<>(linhas.subList(0, limite));
+        return new PaginaDTO<>(itens, cursor.apply(itens.get(limite - 1)));
+    }
+
+    private int limit(Integer limite) {
+        int max = maxLimit > 0 ? maxLimit : DEFAULT_MAX_LIMIT;
+        if (limite == null) {
+            return Math.min(defaultLimit > 0 ? defaultLimit : DEFAULT_LIMIT, max);
+        }
+        if (limite <= 0) {
+            throw new IllegalArgumentException("O limite da página deve ser positivo.");
+        }
+        return Math.min(limite, max);
+    }
+
+    // Cursor opaco das ocorrências: "<dataHoraAbertura ISO>_<id>" em Base64 (URL)
+    static String encodeOcorrencia(LocalDateTime dataHoraAbertura, Integer id) {
+        String chave = dataHoraAbertura + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OcorrenciaCursor decodeOcorrencia(String apos) {
+        try {
+            String chave = new String(Base64.getUrlDecoder().decode(apos), StandardCharsets.UTF_8);
+            int sep = chave.lastIndexOf('_');
+            return new OcorrenciaCursor(LocalDateTime.parse(chave.substring(0, sep)),
+                    Integer.valueOf(chave.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido.");
+        }
+    }
+
+    private static Integer decodeId(String apos) {
+        if (apos == null || apos.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(apos);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido.");
+        }
+    }
+
+    record OcorrenciaCursor(LocalDateTime dataHoraAbertura, Integer id) {
+    }
+}
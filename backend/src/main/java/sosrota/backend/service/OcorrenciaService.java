@@ -1,7 +1,10 @@
 package sosrota.backend.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import sosrota.backend.entity.Ambulancia;
 import sosrota.backend.entity.Atendimento;
 import sosrota.backend.entity.Ocorrencia;
@@ -11,12 +14,21 @@ import sosrota.backend.repository.OcorrenciaRepository;
 import sosrota.backend.repository.EquipeRepository;
 import sosrota.backend.repository.OcorrenciaHistoricoRepository;
 import sosrota.backend.entity.Equipe;
-import sosrota.backend.entity.Profissional;
 import sosrota.backend.entity.OcorrenciaHistorico;
 import sosrota.backend.dto.OcorrenciaDetalhesDTO;
+import sosrota.backend.dispatch.HungarianAlgorithm;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Serviço central de gerenciamento de ocorrências e despacho.
@@ -37,21 +49,56 @@ public class OcorrenciaService {
     private final DijsktraService dijsktraService;
     private final EquipeRepository equipeRepository;
     private final sosrota.backend.repository.OcorrenciaHistoricoRepository ocorrenciaHistoricoRepository;
+    private final AmbulanceAvailabilityIndex availabilityIndex;
+    private final PendingOccurrenceQueue pendingQueue;
+    private final ShiftRosterEngine rosterEngine;
+    private final ArrivalScheduler arrivalScheduler;
+    private final StateEventStream stateEventStream;
 
-    private static final double AVERAGE_SPEED_KMH = 60.0;
+    // Processa a fila de espera quando uma ambulância é liberada (após o commit). O DispatchPipeline
+    // registra o próprio executor; sem ele (ex.: testes), o lote roda na hora.
+    private volatile Consumer<Integer> freedAmbulanceHandler = this::processFreedAmbulance;
+
+    // [RF05] Número de ambulâncias aptas mais próximas comparadas pelo tempo de deslocamento
+    private static final int DEFAULT_DISPATCH_CANDIDATES = 5;
+
+    @Value("${dispatch.candidates:5}")
+    private int dispatchCandidates;
+
+    // [Regra de Negócio] Ocorrências da fila consideradas quando uma ambulância é liberada
+    private static final int DEFAULT_QUEUE_BATCH_SIZE = 32;
+
+    @Value("${dispatch.queue.batch-size:32}")
+    private int queueBatchSize;
+
+    // [Estrutura de Dados II] Custos da atribuição em lote (Algoritmo Húngaro)
+    private static final double INFEASIBLE_COST = 1e12;
+    private static final double OUT_OF_SLA_WEIGHT = 10.0;
+    private static final double UNASSIGNED_BASE_COST = 1e7;
+    private static final double AGED_WAIT_WEIGHT = 1e4;
 
     public OcorrenciaService(OcorrenciaRepository ocorrenciaRepository,
             AmbulanciaRepository ambulanciaRepository,
             AtendimentoRepository atendimentoRepository,
             DijsktraService dijsktraService,
             EquipeRepository equipeRepository,
-            OcorrenciaHistoricoRepository ocorrenciaHistoricoRepository) {
+            OcorrenciaHistoricoRepository ocorrenciaHistoricoRepository,
+            AmbulanceAvailabilityIndex availabilityIndex,
+            PendingOccurrenceQueue pendingQueue,
+            ShiftRosterEngine rosterEngine,
+            ArrivalScheduler arrivalScheduler,
+            StateEventStream stateEventStream) {
         this.ocorrenciaRepository = ocorrenciaRepository;
         this.ambulanciaRepository = ambulanciaRepository;
         this.atendimentoRepository = atendimentoRepository;
         this.dijsktraService = dijsktraService;
         this.equipeRepository = equipeRepository;
         this.ocorrenciaHistoricoRepository = ocorrenciaHistoricoRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.pendingQueue = pendingQueue;
+        this.rosterEngine = rosterEngine;
+        this.arrivalScheduler = arrivalScheduler;
+        this.stateEventStream = stateEventStream;
     }
 
     /**
@@ -104,9 +151,13 @@ public class OcorrenciaService {
         dto.setAtendimento(atendimento);
 
         if (atendimento != null && atendimento.getAmbulancia() != null) {
-            List<Equipe> equipes = equipeRepository.findByAmbulancia(atendimento.getAmbulancia());
-            if (!equipes.isEmpty()) {
-                dto.setEquipe(equipes.get(0)); // Takes the first one found. Ideally should match turn/time.
+            // [RF03] Equipe escalada no turno do despacho (escala pré-calculada)
+            LocalDateTime referencia = atendimento.getDataHoraDespacho() != null
+                    ? atendimento.getDataHoraDespacho() : LocalDateTime.now();
+            Integer equipeId = rosterEngine.teamOnDuty(atendimento.getAmbulancia().getId(),
+                    atendimento.getAmbulancia().getTipo(), referencia);
+            if (equipeId != null) {
+                dto.setEquipe(equipeRepository.findById(equipeId).orElse(null));
             }
         }
 
@@ -123,17 +174,159 @@ public class OcorrenciaService {
      */
     @Transactional
     public Ocorrencia createOcorrencia(Ocorrencia ocorrencia) {
+        Ocorrencia savedOcorrencia = registerOcorrencia(ocorrencia);
+
+        dispatchAmbulance(savedOcorrencia);
+
+        return savedOcorrencia;
+    }
+
+    /**
+     * Grava uma nova ocorrência ABERTA, sem despachar.
+     * O despacho é feito em seguida pelo executor assíncrono ({@link #dispatchPending(Integer)}).
+     * Até lá, a ocorrência já está na fila de espera e pode receber uma ambulância liberada.
+     *
+     * @param ocorrencia Dados da ocorrência
+     * @return Ocorrência salva
+     * [RF01] Persistência inicial.
+     */
+    @Transactional
+    public Ocorrencia registerOcorrencia(Ocorrencia ocorrencia) {
         ocorrencia.setDataHoraAbertura(LocalDateTime.now());
         ocorrencia.setStatus("ABERTA");
         Ocorrencia savedOcorrencia = ocorrenciaRepository.save(ocorrencia);
 
         registrarHistorico(savedOcorrencia, null, "ABERTA", "Ocorrência criada.");
+        // Entra na fila só com a ocorrência gravada: antes disso, consultas de outras transações
+        // (reconciliação da fila, lote de ambulância liberada) não a enxergam e a descartariam
+        afterCommit(() -> pendingQueue.add(savedOcorrencia));
 
-        dispatchAmbulance(savedOcorrencia);
+        return savedOcorrencia;
+    }
+
+    /**
+     * Atualiza os dados editáveis de uma ocorrência (tipo, gravidade, bairro e observação),
+     * mantendo status e datas: a edição não reabre nem despacha a ocorrência.
+     * Gravidade e bairro só mudam enquanto ela está ABERTA (o despacho já foi calculado com eles).
+     *
+     * @param id Identificador da ocorrência
+     * @param dados Dados atualizados
+     * @return Ocorrência atualizada ou null se não existir
+     * [RF01] Manutenção da ocorrência.
+     */
+    @Transactional
+    public Ocorrencia updateOcorrencia(Integer id, Ocorrencia dados) {
+        Ocorrencia ocorrencia = findById(id);
+        if (ocorrencia == null) {
+            return null;
+        }
+        String status = ocorrencia.getStatus();
+        boolean alteraDespacho = !Objects.equals(ocorrencia.getGravidade(), dados.getGravidade())
+                || !Objects.equals(bairroId(ocorrencia), bairroId(dados));
+        if (alteraDespacho && !"ABERTA".equals(status)) {
+            throw new IllegalStateException("Gravidade e bairro só podem ser alterados com a ocorrência ABERTA.");
+        }
+        // Mantém o status lido (e bloqueia a linha até o commit): um despacho ou cancelamento
+        // concorrente não é sobrescrito pela gravação da entidade
+        if (!transitionStatus(ocorrencia, status)) {
+            throw new IllegalStateException("Ocorrência alterada por outra operação. Tente novamente.");
+        }
+
+        ocorrencia.setTipo(dados.getTipo());
+        ocorrencia.setGravidade(dados.getGravidade());
+        ocorrencia.setBairro(dados.getBairro());
+        ocorrencia.setObservacao(dados.getObservacao());
+        Ocorrencia savedOcorrencia = ocorrenciaRepository.save(ocorrencia);
+
+        registrarHistorico(savedOcorrencia, status, status, "Dados da ocorrência atualizados.");
+        if ("ABERTA".equals(status)) {
+            // Reposiciona na fila de espera (gravidade e bairro definem prioridade e candidatas)
+            afterCommit(() -> pendingQueue.add(savedOcorrencia));
+        }
 
         return savedOcorrencia;
     }
 
+    private static Integer bairroId(Ocorrencia ocorrencia) {
+        return ocorrencia.getBairro() != null ? ocorrencia.getBairro().getId() : null;
+    }
+
+    /**
+     * Despacha uma ocorrência gravada anteriormente, se ainda estiver ABERTA
+     * (pode ter recebido uma ambulância liberada ou sido cancelada nesse intervalo).
+     *
+     * @param id Identificador da ocorrência
+     * [RF05] Acionamento automático do despacho.
+     */
+    @Transactional
+    public void dispatchPending(Integer id) {
+        Ocorrencia ocorrencia = findById(id);
+        if (ocorrencia == null || !"ABERTA".equals(ocorrencia.getStatus())) {
+            logger.debug("Ocorrencia {} não está mais aberta. Despacho ignorado.", id);
+            return;
+        }
+        dispatchAmbulance(ocorrencia);
+    }
+
+    /**
+     * Registra no histórico uma falha do despacho automático.
+     * A ocorrência permanece ABERTA na fila de espera.
+     *
+     * @param id Identificador da ocorrência
+     * @param motivo Descrição do erro
+     * [RF07] Rastreabilidade de eventos.
+     */
+    @Transactional
+    public void registrarFalhaDespacho(Integer id, String motivo) {
+        Ocorrencia ocorrencia = findById(id);
+        if (ocorrencia != null) {
+            registrarHistorico(ocorrencia, ocorrencia.getStatus(), ocorrencia.getStatus(), "Falha no despacho automático: " + motivo);
+        }
+    }
+
+    /**
+     * Situação do despacho de uma ocorrência, para acompanhamento após a criação assíncrona.
+     *
+     * @param id Identificador da ocorrência
+     * @param etapaEmAndamento Etapa no executor de despacho (null se já processada)
+     * @return DTO ou null se a ocorrência não existir
+     * [RF06] Despacho e Registro.
+     */
+    public sosrota.backend.dto.DespachoStatusDTO getDespachoStatus(Integer id, String etapaEmAndamento) {
+        Ocorrencia ocorrencia = findById(id);
+        if (ocorrencia == null) {
+            return null;
+        }
+
+        sosrota.backend.dto.DespachoStatusDTO dto = new sosrota.backend.dto.DespachoStatusDTO();
+        dto.setOcorrenciaId(ocorrencia.getId());
+        dto.setStatusOcorrencia(ocorrencia.getStatus());
+        if (etapaEmAndamento != null && "ABERTA".equals(ocorrencia.getStatus())) {
+            dto.setEtapa(etapaEmAndamento);
+        } else if ("ABERTA".equals(ocorrencia.getStatus())) {
+            dto.setEtapa("AGUARDANDO_AMBULANCIA");
+        } else if ("EM_ATENDIMENTO".equals(ocorrencia.getStatus())) {
+            dto.setEtapa("DESPACHADA");
+        } else {
+            dto.setEtapa(ocorrencia.getStatus());
+        }
+
+        Atendimento atendimento = atendimentoRepository.findFirstByOcorrenciaOrderByIdDesc(ocorrencia);
+        if (atendimento != null && atendimento.getAmbulancia() != null) {
+            dto.setAmbulanciaId(atendimento.getAmbulancia().getId());
+            dto.setAmbulanciaPlaca(atendimento.getAmbulancia().getPlaca());
+            dto.setDataHoraDespacho(atendimento.getDataHoraDespacho());
+            dto.setTempoEstimado(atendimento.getTempoEstimado());
+            dto.setForaDoSla(atendimento.getForaDoSla());
+        }
+
+        List<OcorrenciaHistorico> historico = ocorrenciaHistoricoRepository.findByOcorrenciaOrderByDataHoraDesc(ocorrencia);
+        if (!historico.isEmpty()) {
+            dto.setUltimaObservacao(historico.get(0).getObservacao());
+        }
+        return dto;
+    }
+
     private void registrarHistorico(Ocorrencia ocorrencia, String statusAnterior, String statusNovo, String observacao) {
         sosrota.backend.entity.OcorrenciaHistorico historico = new sosrota.backend.entity.OcorrenciaHistorico();
         historico.setOcorrencia(ocorrencia);
@@ -142,11 +335,13 @@ public class OcorrenciaService {
         historico.setDataHora(LocalDateTime.now());
         historico.setObservacao(observacao);
         ocorrenciaHistoricoRepository.save(historico);
+        stateEventStream.ocorrencia(ocorrencia, statusAnterior, statusNovo, observacao);
     }
 
     /**
      * Algoritmo principal de despacho de ambulâncias.
-     * Seleciona a melhor ambulância baseada em SLA, Tipo e Distância.
+     * Seleciona a melhor ambulância baseada em SLA, Tipo e tempo de deslocamento no horário do despacho
+     * (velocidade das ruas por faixa horária, ex.: horário de pico).
      *
      * @param ocorrencia Ocorrência a ser atendida
      * [RF05] Sugestão de Ambulâncias Aptas.
@@ -154,123 +349,225 @@ public class OcorrenciaService {
      * [Regra de Domínio - SLA] Verificação de tempo limite por gravidade.
      */
     private void dispatchAmbulance(Ocorrencia ocorrencia) {
-        List<Ambulancia> allAmbulances = ambulanciaRepository.findAll();
-        logger.info("Total de ambulâncias no banco: {}", allAmbulances.size());
-        
-        List<Ambulancia> availableAmbulances = ambulanciaRepository.findByStatus("DISPONIVEL");
-        logger.info("Encontradas {} ambulâncias com status DISPONIVEL", availableAmbulances.size());
-
-        Ambulancia bestAmbulancia = null;
-        double minDistance = Double.MAX_VALUE;
-        
-        // Fallback: keep track of the closest ambulance even if out of SLA
-        Ambulancia closestAmbulanciaOverall = null;
-        double minDistanceOverall = Double.MAX_VALUE;
+        logger.info("Ambulâncias disponíveis no índice: {} em {} bases", availabilityIndex.size(), availabilityIndex.baseCount());
 
         // [Regra de Domínio - RD01] SLA definido pela gravidade
         double slaLimit = getSlaLimit(ocorrencia.getGravidade());
         
         logger.info("Iniciando despacho para Ocorrencia {}. Gravidade: {}, Bairro: {}", ocorrencia.getId(), ocorrencia.getGravidade(), ocorrencia.getBairro().getId());
-        for (Ambulancia ambulancia : availableAmbulances) {
-            
-            // [Regra de Negócio] Valida compatibilidade de tipo (UTI/Básica)
-            if (!isTypeCompatible(ambulancia.getTipo(), ocorrencia.getGravidade())) {
-                continue;
+        Map<Integer, Ambulancia> verificadas = new HashMap<>();
+        Set<Integer> ocupadas = new HashSet<>();
+        while (true) {
+            List<Ambulancia> candidatas = collectCandidates(ocorrencia, candidateLimit(), ocupadas, verificadas);
+            Set<Integer> bases = new HashSet<>();
+            for (Ambulancia ambulancia : candidatas) {
+                bases.add(ambulancia.getBairro().getId());
             }
 
-            // [Regra de Domínio - RD02] Valida se equipe está completa
-            if (!validateTeamComposition(ambulancia)) {
-                continue;
+            // [Estruturas de Dados II] Uma única busca dependente do tempo a partir de todas as bases,
+            // saindo no instante do despacho: a primeira base a alcançar a ocorrência é a mais rápida
+            LocalDateTime despacho = LocalDateTime.now();
+            DijsktraService.FastestRoute rota = candidatas.isEmpty() ? null
+                    : dijsktraService.findFastestRoute(bases, ocorrencia.getBairro().getId(), despacho);
+
+            Ambulancia bestAmbulancia = null;
+            if (rota != null) {
+                for (Ambulancia ambulancia : candidatas) {
+                    if (ambulancia.getBairro().getId() == rota.sourceId) {
+                        bestAmbulancia = ambulancia;
+                        break;
+                    }
+                }
             }
 
-            // [Estruturas de Dados II] Execução do Dijkstra para calcular distância real no grafo
-            if (ambulancia.getBairro() != null) {
-                DijsktraService.PathResult result = dijsktraService.findShortestPath(
-                        ambulancia.getBairro().getId(),
-                        ocorrencia.getBairro().getId());
-
-                if (!Double.isNaN(result.totalDistance)) {
-                    
-                    if (result.totalDistance < minDistanceOverall) {
-                        minDistanceOverall = result.totalDistance;
-                        closestAmbulanciaOverall = ambulancia;
-                    }
+            if (bestAmbulancia == null) {
+                logger.warn("Nenhuma ambulância disponível para a Ocorrencia {}", ocorrencia.getId());
+                registrarHistorico(ocorrencia, ocorrencia.getStatus(), ocorrencia.getStatus(),
+                        "Nenhuma ambulância apta disponível. Aguardando na fila de espera.");
+                return;
+            }
+            if (registrarDespacho(ocorrencia, bestAmbulancia, rota, slaLimit, despacho) != Reserva.AMBULANCIA_OCUPADA) {
+                return;
+            }
+            // Reservada por outro despacho depois da leitura: tenta a próxima mais rápida
+            ocupadas.add(bestAmbulancia.getId());
+        }
+    }
 
-                    // [Regra de Negócio] Verifica se atende ao SLA
-                    if (result.totalDistance <= slaLimit) {
-                        // Encontra a mais proxima entre as que atendem ao SLA
-                        if (result.totalDistance < minDistance) {
-                            minDistance = result.totalDistance;
-                            bestAmbulancia = ambulancia;
-                        }
-                    }
+    private int candidateLimit() {
+        return dispatchCandidates > 0 ? dispatchCandidates : DEFAULT_DISPATCH_CANDIDATES;
+    }
+
+    /**
+     * Reúne as ambulâncias aptas mais próximas da ocorrência.
+     * A fronteira do Dijkstra parte da ocorrência e examina as bases em ordem de distância,
+     * parando ao reunir {@code limit} ambulâncias compatíveis e com equipe completa.
+     *
+     * @param ocorrencia Ocorrência a ser atendida
+     * @param limit Número de candidatas desejado
+     * @param excluidas IDs de ambulâncias já comprometidas (ex.: no mesmo lote)
+     * @param verificadas Ambulâncias já carregadas e validadas (null se inaptas), compartilhado entre chamadas
+     * @return Candidatas, da base mais próxima para a mais distante
+     * [RF05] Sugestão de Ambulâncias Aptas.
+     */
+    private List<Ambulancia> collectCandidates(Ocorrencia ocorrencia, int limit, Set<Integer> excluidas,
+            Map<Integer, Ambulancia> verificadas) {
+        List<Ambulancia> candidatas = new ArrayList<>();
+        dijsktraService.expandFrontier(ocorrencia.getBairro().getId(), (bairroId, distance) -> {
+            for (AmbulanceAvailabilityIndex.Entry entry : availabilityIndex.availableAt(bairroId)) {
+                // [Regra de Negócio] Valida compatibilidade de tipo (UTI/Básica)
+                if (excluidas.contains(entry.id) || !isTypeCompatible(entry.tipo, ocorrencia.getGravidade())) {
+                    continue;
                 }
+
+                if (!verificadas.containsKey(entry.id)) {
+                    verificadas.put(entry.id, loadIfReady(entry, bairroId));
+                }
+                Ambulancia ambulancia = verificadas.get(entry.id);
+                if (ambulancia != null) {
+                    candidatas.add(ambulancia);
+                }
+            }
+            return candidatas.size() < limit;
+        });
+        return candidatas;
+    }
+
+    /**
+     * Carrega a ambulância indicada pelo índice e confirma que pode ser despachada.
+     * A equipe é verificada antes, na escala do turno atual: ambulâncias sem equipe completa
+     * no turno são descartadas sem nenhuma consulta ao banco.
+     *
+     * @return Ambulância ou null se indisponível ou sem equipe completa
+     */
+    private Ambulancia loadIfReady(AmbulanceAvailabilityIndex.Entry entry, int bairroId) {
+        // [Regra de Domínio - RD02] Valida se a equipe do turno está completa (escala em memória, O(1))
+        if (!rosterEngine.isStaffed(entry.id, entry.tipo)) {
+            return null;
+        }
+
+        Ambulancia ambulancia = ambulanciaRepository.findById(entry.id).orElse(null);
+        if (ambulancia == null || !"DISPONIVEL".equals(ambulancia.getStatus()) || ambulancia.getBairro() == null
+                || !ambulancia.getBairro().getId().equals(bairroId)) {
+            // Índice desatualizado (alteração feita fora da aplicação)
+            if (ambulancia == null) {
+                availabilityIndex.remove(entry.id);
+            } else {
+                availabilityIndex.update(ambulancia);
             }
+            return null;
+        }
+        return ambulancia;
+    }
+
+    /**
+     * Registra o despacho: atendimento, status da ambulância e da ocorrência e histórico.
+     * A ocorrência e a ambulância são antes reservadas com UPDATE condicional (ABERTA -> DESPACHADA,
+     * DISPONIVEL -> EM_ATENDIMENTO): um despacho concorrente que leu as mesmas linhas (ex.: lote da
+     * fila de espera de outra ambulância liberada) não consegue reservá-las de novo.
+     *
+     * @param ocorrencia Ocorrência atendida
+     * @param ambulancia Ambulância escolhida
+     * @param rota Rota da base da ambulância até a ocorrência
+     * @param slaLimit Limite de SLA da gravidade (minutos)
+     * @param despacho Instante do despacho
+     * @return Resultado da reserva (nada é gravado se a ocorrência ou a ambulância já foi reservada)
+     * [RF06] Registro do despacho e atualização de status.
+     * [Banco de Dados II] Reserva atômica com UPDATE condicional.
+     */
+    private Reserva registrarDespacho(Ocorrencia ocorrencia, Ambulancia ambulancia, DijsktraService.FastestRoute rota,
+            double slaLimit, LocalDateTime despacho) {
+        if (ocorrenciaRepository.updateStatusIfCurrent(ocorrencia.getId(), "ABERTA", "DESPACHADA") == 0) {
+            logger.info("Ocorrencia {} já não está ABERTA. Despacho descartado.", ocorrencia.getId());
+            return Reserva.OCORRENCIA_ALTERADA;
+        }
+        if (ambulanciaRepository.updateStatusIfCurrent(ambulancia.getId(), "DISPONIVEL", "EM_ATENDIMENTO") == 0) {
+            // Desfaz a reserva da ocorrência (linha ainda bloqueada por esta transação)
+            ocorrenciaRepository.updateStatusIfCurrent(ocorrencia.getId(), "DESPACHADA", "ABERTA");
+            logger.info("Ambulancia {} já reservada por outro despacho. Ocorrencia {} volta a procurar.", ambulancia.getId(), ocorrencia.getId());
+            return Reserva.AMBULANCIA_OCUPADA;
         }
 
+        // [Regra de Negócio] Verifica se atende ao SLA.
+        // A mais rápida está fora do SLA somente se nenhuma outra o atende (Fallback).
         boolean foraDoSla = false;
-        
-        // Se nenhuma atender ao SLA, usa a mais próxima (Fallback)
-        if (bestAmbulancia == null && closestAmbulanciaOverall != null) {
-            logger.warn("Nenhuma ambulância dentro do SLA ({} km) para Ocorrencia {}. Usando a mais próxima ({} km).", slaLimit, ocorrencia.getId(), minDistanceOverall);
-            bestAmbulancia = closestAmbulanciaOverall;
-            minDistance = minDistanceOverall;
+        if (rota.travelMinutes > slaLimit) {
+            logger.warn("Nenhuma ambulância dentro do SLA ({} min) para Ocorrencia {}. Usando a mais rápida ({} min).", slaLimit, ocorrencia.getId(), rota.travelMinutes);
             foraDoSla = true;
         }
 
-        if (bestAmbulancia != null) {
-            // [RF06] Registro do despacho e atualização de status
-            Atendimento atendimento = new Atendimento();
-            atendimento.setOcorrencia(ocorrencia);
-            atendimento.setAmbulancia(bestAmbulancia);
-            atendimento.setDataHoraDespacho(LocalDateTime.now());
-            atendimento.setDistanciaKm(minDistance);
-            
-            // Set SLA info
-            atendimento.setSlaPrevisto(slaLimit);
-            atendimento.setSlaReal(minDistance);
-            atendimento.setForaDoSla(foraDoSla);
-            
-            // Tempo = Distancia / Velocidade * 60
-            double estimatedTimeMinutes = (minDistance / AVERAGE_SPEED_KMH) * 60;
-            atendimento.setTempoEstimado(estimatedTimeMinutes);
-            
-            // [Estruturas de Dados II] Recuperação do caminho (sequência de vértices)
-            if (dijsktraService.findShortestPath(bestAmbulancia.getBairro().getId(), ocorrencia.getBairro().getId()) != null) {
-                DijsktraService.PathResult path = dijsktraService.findShortestPath(bestAmbulancia.getBairro().getId(), ocorrencia.getBairro().getId());
-                if (path.nodes != null && !path.nodes.isEmpty()) {
-                    StringBuilder routeBuilder = new StringBuilder();
-                    for (int i = 0; i < path.nodes.size(); i++) {
-                        routeBuilder.append(dijsktraService.getNodeName(path.nodes.get(i)));
-                        if (i < path.nodes.size() - 1) {
-                            routeBuilder.append(" -> ");
-                        }
-                    }
-                    atendimento.setRota(routeBuilder.toString());
+        // [RF06] Registro do despacho e atualização de status
+        Atendimento atendimento = new Atendimento();
+        atendimento.setOcorrencia(ocorrencia);
+        atendimento.setAmbulancia(ambulancia);
+        atendimento.setDataHoraDespacho(despacho);
+        atendimento.setDistanciaKm(rota.path.totalDistance);
+        
+        // Set SLA info
+        atendimento.setSlaPrevisto(slaLimit);
+        atendimento.setSlaReal(rota.travelMinutes);
+        atendimento.setForaDoSla(foraDoSla);
+        
+        // Tempo de viagem integrado pelas velocidades de cada rua no horário em que é percorrida
+        atendimento.setTempoEstimado(rota.travelMinutes);
+        
+        // [Estruturas de Dados II] Recuperação do caminho (sequência de vértices) a partir da mesma busca
+        DijsktraService.PathResult path = rota.path;
+        if (path != null && path.nodes != null && !path.nodes.isEmpty()) {
+            StringBuilder routeBuilder = new StringBuilder();
+            for (int i = 0; i < path.nodes.size(); i++) {
+                routeBuilder.append(dijsktraService.getNodeName(path.nodes.get(i)));
+                if (i < path.nodes.size() - 1) {
+                    routeBuilder.append(" -> ");
                 }
             }
-            
-            atendimentoRepository.save(atendimento);
+            atendimento.setRota(routeBuilder.toString());
+        }
+        
+        atendimentoRepository.save(atendimento);
+        // Chegada simulada agendada só com o despacho gravado (um rollback não deixa evento órfão)
+        Integer ocorrenciaId = ocorrencia.getId();
+        double distanciaKm = atendimento.getDistanciaKm();
+        afterCommit(() -> arrivalScheduler.schedule(ocorrenciaId, despacho, distanciaKm));
+
+        // Atualiza Status da Ambulancia
+        ambulancia.setStatus("EM_ATENDIMENTO");
+        ambulanciaRepository.save(ambulancia);
+        availabilityIndex.update(ambulancia);
+        stateEventStream.ambulancia(ambulancia);
+
+        // Atualiza Status da Ocorrencia
+        String oldStatus = ocorrencia.getStatus();
+        ocorrencia.setStatus("DESPACHADA");
+        ocorrenciaRepository.save(ocorrencia);
+        pendingQueue.remove(ocorrencia.getId());
+        
+        String obs = "Ambulância " + ambulancia.getPlaca() + " despachada automaticamente.";
+        if (foraDoSla) {
+            obs += " (FORA DO SLA)";
+        }
+        registrarHistorico(ocorrencia, oldStatus, "DESPACHADA", obs);
+        
+        logger.info("Ocorrencia {} despachada com sucesso. Ambulancia: {}. Fora do SLA: {}", ocorrencia.getId(), ambulancia.getId(), foraDoSla);
+        return Reserva.OK;
+    }
 
-            // Atualiza Status da Ambulancia
-            bestAmbulancia.setStatus("EM_ATENDIMENTO");
-            ambulanciaRepository.save(bestAmbulancia);
+    /**
+     * Resultado da reserva de ocorrência e ambulância no despacho.
+     */
+    private enum Reserva {
+        OK,
+        OCORRENCIA_ALTERADA,
+        AMBULANCIA_OCUPADA
+    }
 
-            // Atualiza Status da Ocorrencia
-            String oldStatus = ocorrencia.getStatus();
-            ocorrencia.setStatus("DESPACHADA");
-            ocorrenciaRepository.save(ocorrencia);
-            
-            String obs = "Ambulância " + bestAmbulancia.getPlaca() + " despachada automaticamente.";
-            if (foraDoSla) {
-                obs += " (FORA DO SLA)";
-            }
-            registrarHistorico(ocorrencia, oldStatus, "DESPACHADA", obs);
-            
-            logger.info("Ocorrencia {} despachada com sucesso. Ambulancia: {}. Fora do SLA: {}", ocorrencia.getId(), bestAmbulancia.getId(), foraDoSla);
-        } else {
-            logger.warn("Nenhuma ambulância disponível para a Ocorrencia {}", ocorrencia.getId());
-        }
+    /**
+     * Transição de status atômica: o UPDATE só é aplicado se o status no banco ainda for o lido.
+     *
+     * @return true se a transição foi aplicada (false se outra transação mudou a ocorrência antes)
+     */
+    private boolean transitionStatus(Ocorrencia ocorrencia, String novoStatus) {
+        return ocorrenciaRepository.updateStatusIfCurrent(ocorrencia.getId(), ocorrencia.getStatus(), novoStatus) > 0;
     }
 
     /**
@@ -312,34 +609,6 @@ public class OcorrenciaService {
         }
     }
 
-    /**
-     * Valida se a ambulância possui equipe completa ativa.
-     *
-     * @param ambulancia Ambulância a ser verificada
-     * @return true se equipe válida
-     * [Regra de Domínio - RD02] Critério de Disponibilidade.
-     */
-    private boolean validateTeamComposition(Ambulancia ambulancia) {
-        List<Equipe> equipes = equipeRepository.findByAmbulancia(ambulancia);
-        return equipes.stream().anyMatch(equipe -> {
-            List<Profissional> profissionais = equipe.getProfissionais();
-            boolean hasMotorista = profissionais.stream()
-                    .anyMatch(p -> "MOTORISTA".equalsIgnoreCase(p.getFuncao()) && Boolean.TRUE.equals(p.getAtivo()));
-            boolean hasMedico = profissionais.stream()
-                    .anyMatch(p -> "MEDICO".equalsIgnoreCase(p.getFuncao()) && Boolean.TRUE.equals(p.getAtivo()));
-            boolean hasEnfermeiro = profissionais.stream()
-                    .anyMatch(p -> "ENFERMEIRO".equalsIgnoreCase(p.getFuncao()) && Boolean.TRUE.equals(p.getAtivo()));
-
-            String tipo = ambulancia.getTipo().toUpperCase();
-            if ("USA".equals(tipo) || "UTI".equals(tipo)) {
-                return hasMotorista && hasMedico && hasEnfermeiro;
-            } else {
-                // USB / BASICA
-                return hasMotorista && (hasMedico || hasEnfermeiro);
-            }
-        });
-    }
-    
     /**
      * Exclui ocorrência, garantindo integridade.
      *
@@ -352,6 +621,8 @@ public class OcorrenciaService {
              throw new IllegalStateException("Não é permitido excluir uma ocorrência que já possui despacho/atendimento.");
         }
         ocorrenciaRepository.deleteById(id);
+        pendingQueue.remove(id);
+        stateEventStream.ocorrenciaRemovida(id);
     }
 
     /**
@@ -364,10 +635,11 @@ public class OcorrenciaService {
     public void confirmDeparture(Integer id) {
         logger.info("Tentando confirmar saída para Ocorrencia {}", id);
         Ocorrencia ocorrencia = findById(id);
-        if (ocorrencia != null && "DESPACHADA".equals(ocorrencia.getStatus())) {
+        if (ocorrencia != null && "DESPACHADA".equals(ocorrencia.getStatus()) && transitionStatus(ocorrencia, "EM_ATENDIMENTO")) {
             String oldStatus = ocorrencia.getStatus();
             ocorrencia.setStatus("EM_ATENDIMENTO");
             ocorrenciaRepository.save(ocorrencia);
+            afterCommit(() -> arrivalScheduler.cancel(id));
             
             registrarHistorico(ocorrencia, oldStatus, "EM_ATENDIMENTO", "Saída da ambulância confirmada.");
             
@@ -395,7 +667,7 @@ public class OcorrenciaService {
     public void finishOccurrence(Integer id) {
         logger.info("Tentando concluir Ocorrencia {}", id);
         Ocorrencia ocorrencia = findById(id);
-        if (ocorrencia != null && "EM_ATENDIMENTO".equals(ocorrencia.getStatus())) {
+        if (ocorrencia != null && "EM_ATENDIMENTO".equals(ocorrencia.getStatus()) && transitionStatus(ocorrencia, "CONCLUIDA")) {
             String oldStatus = ocorrencia.getStatus();
             ocorrencia.setStatus("CONCLUIDA");
             ocorrencia.setDataHoraFechamento(LocalDateTime.now());
@@ -436,11 +708,16 @@ public class OcorrenciaService {
         if (!"ABERTA".equals(ocorrencia.getStatus()) && !"DESPACHADA".equals(ocorrencia.getStatus())) {
              throw new IllegalStateException("Cancelamento permitido apenas para ocorrências Abertas ou Despachadas.");
         }
+        if (!transitionStatus(ocorrencia, "CANCELADA")) {
+             throw new IllegalStateException("A ocorrência foi alterada por outra operação. Tente novamente.");
+        }
 
         String oldStatus = ocorrencia.getStatus();
         ocorrencia.setStatus("CANCELADA");
         ocorrencia.setDataHoraFechamento(LocalDateTime.now());
         ocorrenciaRepository.save(ocorrencia);
+        pendingQueue.remove(id);
+        afterCommit(() -> arrivalScheduler.cancel(id));
         
         registrarHistorico(ocorrencia, oldStatus, "CANCELADA", "Cancelamento: " + justificativa);
         
@@ -458,6 +735,8 @@ public class OcorrenciaService {
 
     /**
      * Libera a ambulância vinculada a uma ocorrência (torna DISPONIVEL).
+     * A fila de espera é processada depois do commit, no executor de despacho
+     * ({@link #processFreedAmbulance(Integer)}), e não na transação de quem liberou.
      *
      * @param ocorrencia Ocorrência finalizada/cancelada
      * [Regra de Negócio] Retorno de recurso ao pool de disponibilidade.
@@ -466,34 +745,260 @@ public class OcorrenciaService {
         Atendimento atendimento = atendimentoRepository.findFirstByOcorrenciaOrderByIdDesc(ocorrencia);
         if (atendimento != null) {
             Ambulancia ambulancia = atendimento.getAmbulancia();
-            if (ambulancia != null) {
+            if (ambulancia == null) {
+                logger.warn("Atendimento {} não tem ambulância vinculada.", atendimento.getId());
+            } else if (ambulanciaRepository.updateStatusIfCurrent(ambulancia.getId(), "EM_ATENDIMENTO", "DISPONIVEL") == 0) {
+                logger.warn("Ambulancia {} não está mais EM_ATENDIMENTO. Status mantido.", ambulancia.getId());
+            } else {
                 ambulancia.setStatus("DISPONIVEL");
                 ambulanciaRepository.save(ambulancia);
+                availabilityIndex.update(ambulancia);
+                stateEventStream.ambulancia(ambulancia);
                 logger.info("Ambulancia {} liberada (DISPONIVEL) após fim da Ocorrencia {}", ambulancia.getId(), ocorrencia.getId());
-                
+
                 // Trigger dispatch for pending occurrences
-                processPendingOccurrences();
-            } else {
-                logger.warn("Atendimento {} não tem ambulância vinculada.", atendimento.getId());
+                Integer ambulanciaId = ambulancia.getId();
+                afterCommit(() -> freedAmbulanceHandler.accept(ambulanciaId));
             }
         } else {
             logger.warn("Nenhum atendimento encontrado para Ocorrencia {} ao tentar liberar ambulância.", ocorrencia.getId());
         }
     }
 
+    /**
+     * Define quem processa a fila de espera quando uma ambulância é liberada.
+     *
+     * @param handler Recebe o ID da ambulância liberada, após o commit da liberação
+     */
+    public void setFreedAmbulanceHandler(Consumer<Integer> handler) {
+        this.freedAmbulanceHandler = handler;
+    }
+
+    /**
+     * Atribui ocorrências da fila de espera a partir de uma ambulância liberada, se ela ainda
+     * estiver DISPONIVEL (pode ter sido despachada nesse intervalo).
+     *
+     * @param ambulanciaId ID da ambulância liberada
+     * [Regra de Negócio] Fila de espera e reprocessamento.
+     */
+    @Transactional
+    public void processFreedAmbulance(Integer ambulanciaId) {
+        Ambulancia ambulancia = ambulanciaRepository.findById(ambulanciaId).orElse(null);
+        if (ambulancia == null || !"DISPONIVEL".equals(ambulancia.getStatus())) {
+            logger.debug("Ambulancia {} não está mais disponível. Fila de espera não processada.", ambulanciaId);
+            return;
+        }
+        processPendingOccurrences(ambulancia);
+    }
+
+    /**
+     * Executa após o commit da transação corrente (alterações desfeitas não disparam a ação);
+     * fora de transação, na hora.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     /**
      * Processa fila de ocorrências pendentes (ABERTA) quando um recurso é liberado.
+     * A seleção usa apenas a fila de prioridade em memória: as ocorrências mais prioritárias
+     * (gravidade com envelhecimento) que a ambulância liberada pode atender formam o lote,
+     * carregado com uma única consulta por ID para confirmar que ainda estão ABERTAS.
+     * Em vez de despachar uma a uma, atribui o lote inteiro de uma vez:
+     * a matriz de custos (ocorrências x ambulâncias aptas) é resolvida pelo Algoritmo Húngaro,
+     * priorizando a espera ponderada pela gravidade, depois o número de ocorrências atendidas
+     * e então o tempo total.
+     * Se restarem ocorrências e ambulâncias, uma nova rodada considera as ambulâncias seguintes.
+     * Executado em transação própria, no executor de despacho: todas as atribuições do lote são
+     * gravadas (ou desfeitas) juntas. Cada atribuição reserva ocorrência e ambulância com UPDATE
+     * condicional; as já reservadas por outro despacho ficam para a rodada seguinte.
      *
-     * @param none
+     * @param liberada Ambulância que acabou de ficar disponível
      * [Regra de Negócio] Fila de espera e reprocessamento.
+     * [Estrutura de Dados II] Fila de prioridade e problema de atribuição (Algoritmo Húngaro).
      */
-    private void processPendingOccurrences() {
-        List<Ocorrencia> pendingOccurrences = ocorrenciaRepository.findByStatus("ABERTA");
-        if (!pendingOccurrences.isEmpty()) {
-            logger.info("Processando fila de espera. {} ocorrências pendentes.", pendingOccurrences.size());
-            for (Ocorrencia pending : pendingOccurrences) {
-                dispatchAmbulance(pending);
+    private void processPendingOccurrences(Ambulancia liberada) {
+        List<PendingOccurrenceQueue.Entry> fila = pendingQueue.peek(
+                gravidade -> isTypeCompatible(liberada.getTipo(), gravidade), queueBatchSize());
+        if (fila.isEmpty()) {
+            return;
+        }
+
+        // Uma única consulta para o lote inteiro (IN), em vez de uma por ocorrência da fila
+        List<Integer> ids = new ArrayList<>();
+        for (PendingOccurrenceQueue.Entry entry : fila) {
+            ids.add(entry.id);
+        }
+        Map<Integer, Ocorrencia> carregadas = new HashMap<>();
+        for (Ocorrencia ocorrencia : ocorrenciaRepository.findAllById(ids)) {
+            carregadas.put(ocorrencia.getId(), ocorrencia);
+        }
+
+        List<Ocorrencia> pendingOccurrences = new ArrayList<>();
+        Map<Integer, Double> espera = new HashMap<>();
+        LocalDateTime agora = LocalDateTime.now();
+        for (PendingOccurrenceQueue.Entry entry : fila) {
+            Ocorrencia ocorrencia = carregadas.get(entry.id);
+            if (ocorrencia == null || !"ABERTA".equals(ocorrencia.getStatus())) {
+                // Fila desatualizada (alteração feita fora da aplicação)
+                pendingQueue.remove(entry.id);
+                continue;
             }
+            pendingOccurrences.add(ocorrencia);
+            espera.put(ocorrencia.getId(), entry.agedWaitMinutes(agora));
+        }
+        if (pendingOccurrences.isEmpty()) {
+            return;
         }
+        logger.info("Processando fila de espera. {} ocorrências pendentes atendíveis pela ambulância {} ({} na fila).",
+                pendingOccurrences.size(), liberada.getId(), pendingQueue.size());
+
+        LocalDateTime despacho = LocalDateTime.now();
+        Map<Integer, Ambulancia> verificadas = new HashMap<>();
+        Set<Integer> comprometidas = new HashSet<>();
+        List<Ocorrencia> restantes = new ArrayList<>(pendingOccurrences);
+        while (!restantes.isEmpty()) {
+            // Colunas: as ambulâncias aptas mais próximas de cada ocorrência, sem repetição
+            Map<Integer, Ambulancia> colunas = new LinkedHashMap<>();
+            for (Ocorrencia ocorrencia : restantes) {
+                for (Ambulancia ambulancia : collectCandidates(ocorrencia, candidateLimit(), comprometidas, verificadas)) {
+                    colunas.putIfAbsent(ambulancia.getId(), ambulancia);
+                }
+            }
+            if (colunas.isEmpty()) {
+                break;
+            }
+
+            List<Ambulancia> ambulancias = new ArrayList<>(colunas.values());
+            Atribuicao[] atribuicoes = assignBatch(restantes, espera, ambulancias, despacho);
+            List<Ocorrencia> proximas = new ArrayList<>();
+            boolean progresso = false;
+            for (int i = 0; i < restantes.size(); i++) {
+                Ocorrencia ocorrencia = restantes.get(i);
+                Atribuicao atribuicao = atribuicoes[i];
+                if (atribuicao == null) {
+                    proximas.add(ocorrencia);
+                    continue;
+                }
+                Ambulancia ambulancia = atribuicao.ambulancia();
+                Reserva reserva = registrarDespacho(ocorrencia, ambulancia, atribuicao.rota(), getSlaLimit(ocorrencia.getGravidade()), despacho);
+                if (reserva == Reserva.OCORRENCIA_ALTERADA) {
+                    // Despachada ou cancelada por outra transação
+                    continue;
+                }
+                if (reserva == Reserva.AMBULANCIA_OCUPADA) {
+                    proximas.add(ocorrencia);
+                }
+                comprometidas.add(ambulancia.getId());
+                progresso = true;
+            }
+            if (!progresso) {
+                break;
+            }
+            restantes = proximas;
+        }
+        if (!restantes.isEmpty()) {
+            logger.info("{} ocorrências aguardam ambulância disponível.", restantes.size());
+        }
+    }
+
+    /**
+     * Resolve a atribuição de um lote de ocorrências às ambulâncias candidatas.
+     * Custo de um par compatível: tempo de deslocamento, acrescido de penalidade proporcional
+     * ao excesso sobre o SLA. Cada ocorrência também pode ficar sem ambulância (colunas fictícias),
+     * com custo que cresce com a espera ponderada pela gravidade (mesma prioridade da fila):
+     * a ocorrência mais prioritária só fica sem atendimento se não houver ambulância compatível
+     * que a alcance.
+     *
+     * @param ocorrencias Ocorrências pendentes (linhas)
+     * @param espera Espera ponderada pela gravidade de cada ocorrência, por ID (minutos)
+     * @param ambulancias Ambulâncias aptas (colunas)
+     * @param despacho Instante do despacho
+     * @return Ambulância e rota atribuídas a cada ocorrência (null se nenhuma)
+     */
+    private Atribuicao[] assignBatch(List<Ocorrencia> ocorrencias, Map<Integer, Double> espera, List<Ambulancia> ambulancias,
+            LocalDateTime despacho) {
+        List<Integer> baseIds = new ArrayList<>();
+        Map<Integer, Integer> baseIndex = new HashMap<>();
+        for (Ambulancia ambulancia : ambulancias) {
+            baseIndex.computeIfAbsent(ambulancia.getBairro().getId(), id -> {
+                baseIds.add(id);
+                return baseIds.size() - 1;
+            });
+        }
+        List<Integer> alvoIds = new ArrayList<>();
+        Map<Integer, Integer> alvoIndex = new HashMap<>();
+        for (Ocorrencia ocorrencia : ocorrencias) {
+            alvoIndex.computeIfAbsent(ocorrencia.getBairro().getId(), id -> {
+                alvoIds.add(id);
+                return alvoIds.size() - 1;
+            });
+        }
+        // Buscas limitadas ao maior SLA do lote; a base mais rápida de cada ocorrência é mantida mesmo fora dele
+        double raio = 0.0;
+        for (Ocorrencia ocorrencia : ocorrencias) {
+            raio = Math.max(raio, getSlaLimit(ocorrencia.getGravidade()));
+        }
+        DijsktraService.TravelTimeTable tempos = dijsktraService.travelTimes(baseIds, alvoIds, despacho, raio);
+
+        int n = ocorrencias.size();
+        int m = ambulancias.size();
+        double[][] cost = new double[n][m + n];
+        for (int i = 0; i < n; i++) {
+            Ocorrencia ocorrencia = ocorrencias.get(i);
+            double slaLimit = getSlaLimit(ocorrencia.getGravidade());
+            int alvo = alvoIndex.get(ocorrencia.getBairro().getId());
+            for (int j = 0; j < m; j++) {
+                Ambulancia ambulancia = ambulancias.get(j);
+                double t = tempos.minutes(baseIndex.get(ambulancia.getBairro().getId()), alvo);
+                if (Double.isNaN(t) || !isTypeCompatible(ambulancia.getTipo(), ocorrencia.getGravidade())) {
+                    cost[i][j] = INFEASIBLE_COST;
+                } else {
+                    cost[i][j] = t + Math.max(0.0, t - slaLimit) * OUT_OF_SLA_WEIGHT;
+                }
+            }
+            Arrays.fill(cost[i], m, m + n, unassignedCost(espera.get(ocorrencia.getId())));
+        }
+
+        int[] colunas = HungarianAlgorithm.solve(cost);
+        Atribuicao[] atribuicoes = new Atribuicao[n];
+        for (int i = 0; i < n; i++) {
+            if (colunas[i] < m && cost[i][colunas[i]] < INFEASIBLE_COST) {
+                Ambulancia ambulancia = ambulancias.get(colunas[i]);
+                // [Estruturas de Dados II] Caminho reconstruído da árvore da mesma busca, só para o par escolhido
+                DijsktraService.FastestRoute rota = tempos.route(baseIndex.get(ambulancia.getBairro().getId()),
+                        alvoIndex.get(ocorrencias.get(i).getBairro().getId()));
+                atribuicoes[i] = new Atribuicao(ambulancia, rota);
+            }
+        }
+        return atribuicoes;
+    }
+
+    /**
+     * Ambulância atribuída a uma ocorrência do lote e a rota da base dela até a ocorrência.
+     */
+    private record Atribuicao(Ambulancia ambulancia, DijsktraService.FastestRoute rota) {
+    }
+
+    /**
+     * Custo de deixar uma ocorrência sem ambulância no lote.
+     * Cada minuto de espera ponderada vale mais que qualquer diferença de tempo de deslocamento,
+     * e o custo fica abaixo do de um par inviável.
+     */
+    private double unassignedCost(double esperaPonderada) {
+        return UNASSIGNED_BASE_COST + Math.min(Math.max(esperaPonderada, 0.0), 1e7) * AGED_WAIT_WEIGHT;
+    }
+
+    private int queueBatchSize() {
+        return queueBatchSize > 0 ? queueBatchSize : DEFAULT_QUEUE_BATCH_SIZE;
     }
 }
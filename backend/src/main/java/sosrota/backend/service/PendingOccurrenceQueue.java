@@ -0,0 +1,252 @@
+package sosrota.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.repository.OcorrenciaRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Fila de prioridade em memória das ocorrências abertas aguardando ambulância.
+ * A prioridade é a gravidade com envelhecimento (aging): cada nível de gravidade equivale a uma
+ * vantagem fixa de minutos sobre a hora de abertura, de modo que uma ocorrência BAIXA que espera
+ * o suficiente passa à frente de uma ALTA recente e nunca fica esquecida.
+ * Como a vantagem é constante, a chave de ordenação não muda com o tempo e não é preciso reordenar.
+ * As ocorrências ficam separadas por gravidade: ao liberar uma ambulância, só as filas que ela
+ * pode atender são percorridas.
+ * Carregada do banco na inicialização e reconciliada periodicamente; mantida pelo
+ * {@link OcorrenciaService} a cada mudança de status.
+ * [Regra de Negócio] Fila de espera.
+ * [Estrutura de Dados II] Fila de prioridade (árvore balanceada por gravidade).
+ */
+@Service
+public class PendingOccurrenceQueue {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PendingOccurrenceQueue.class);
+
+    private static final String ABERTA = "ABERTA";
+
+    // [Regra de Negócio] Minutos de vantagem por nível de gravidade (ALTA = 2 níveis, MEDIA = 1)
+    private static final double DEFAULT_AGING_MINUTES = 20.0;
+
+    @Value("${dispatch.queue.aging-minutes:20}")
+    private double agingMinutes;
+
+    private static final Comparator<Entry> PRIORITY =
+            Comparator.comparingDouble((Entry e) -> e.effectiveMinutes).thenComparingInt(e -> e.id);
+
+    private final OcorrenciaRepository ocorrenciaRepository;
+
+    // Gravidade -> ocorrências em ordem de prioridade
+    private final Map<String, TreeSet<Entry>> byGravidade = new HashMap<>();
+    // ID da ocorrência -> entrada (remoção sem percorrer a fila)
+    private final Map<Integer, Entry> byId = new HashMap<>();
+
+    // IDs adicionados ou removidos desde o início da consulta da reconciliação em andamento (null fora dela)
+    private Set<Integer> alteradas;
+    private final Object reconciliacao = new Object();
+
+    public PendingOccurrenceQueue(OcorrenciaRepository ocorrenciaRepository) {
+        this.ocorrenciaRepository = ocorrenciaRepository;
+    }
+
+    /**
+     * Reconcilia a fila com as ocorrências abertas no banco.
+     * Executado na inicialização e periodicamente para corrigir divergências.
+     * A consulta roda fora do lock (a fila continua sendo usada) e o resultado é mesclado à fila:
+     * entram as abertas que faltam e saem só as que já estavam na fila e não estão abertas no banco.
+     * Entradas adicionadas ou removidas durante a consulta ficam como estão, pois refletem um estado
+     * mais recente que o lido (ex.: ocorrência registrada por uma transação concluída depois da consulta).
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${dispatch.queue.reconcile-interval-ms:60000}",
+            initialDelayString = "${dispatch.queue.reconcile-interval-ms:60000}")
+    public void rebuild() {
+        synchronized (reconciliacao) {
+            reconcile();
+        }
+    }
+
+    private void reconcile() {
+        synchronized (this) {
+            alteradas = new HashSet<>();
+        }
+        List<Ocorrencia> abertas;
+        try {
+            abertas = ocorrenciaRepository.findByStatus(ABERTA);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                alteradas = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            Set<Integer> concorrentes = alteradas;
+            alteradas = null;
+            Set<Integer> noBanco = new HashSet<>();
+            for (Ocorrencia ocorrencia : abertas) {
+                noBanco.add(ocorrencia.getId());
+                if (!concorrentes.contains(ocorrencia.getId())) {
+                    add(ocorrencia);
+                }
+            }
+            int removidas = 0;
+            for (Integer id : new ArrayList<>(byId.keySet())) {
+                if (!noBanco.contains(id) && !concorrentes.contains(id)) {
+                    remove(id);
+                    removidas++;
+                }
+            }
+            logger.debug("Fila de ocorrências pendentes reconciliada: {} ocorrências ({} removidas, {} alteradas durante a consulta).",
+                    byId.size(), removidas, concorrentes.size());
+        }
+    }
+
+    /**
+     * Registra o status atual de uma ocorrência: aberta entra na fila (ou é reposicionada);
+     * qualquer outro status a remove.
+     *
+     * @param ocorrencia Ocorrência após a alteração
+     */
+    public synchronized void add(Ocorrencia ocorrencia) {
+        if (ocorrencia == null || ocorrencia.getId() == null) {
+            return;
+        }
+        remove(ocorrencia.getId());
+        if (alteradas != null) {
+            alteradas.add(ocorrencia.getId());
+        }
+        if (ABERTA.equals(ocorrencia.getStatus()) && ocorrencia.getBairro() != null && ocorrencia.getBairro().getId() != null) {
+            String gravidade = normalize(ocorrencia.getGravidade());
+            double abertura = epochMinutes(ocorrencia.getDataHoraAbertura() != null
+                    ? ocorrencia.getDataHoraAbertura() : LocalDateTime.now());
+            Entry entry = new Entry(ocorrencia.getId(), gravidade, ocorrencia.getBairro().getId(),
+                    abertura - severityLevel(gravidade) * agingMinutes());
+            byId.put(entry.id, entry);
+            byGravidade.computeIfAbsent(gravidade, g -> new TreeSet<>(PRIORITY)).add(entry);
+        }
+    }
+
+    /**
+     * Remove uma ocorrência da fila (despachada, cancelada ou excluída).
+     *
+     * @param ocorrenciaId ID da ocorrência
+     */
+    public synchronized void remove(Integer ocorrenciaId) {
+        if (alteradas != null) {
+            alteradas.add(ocorrenciaId);
+        }
+        Entry previous = byId.remove(ocorrenciaId);
+        if (previous != null) {
+            TreeSet<Entry> fila = byGravidade.get(previous.gravidade);
+            if (fila != null) {
+                fila.remove(previous);
+                if (fila.isEmpty()) {
+                    byGravidade.remove(previous.gravidade);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ocorrências de maior prioridade entre as gravidades aceitas, sem removê-las.
+     * Intercala as filas aceitas pela cabeça de cada uma (merge), sem percorrer as demais.
+     *
+     * @param gravidadeAceita Gravidades que a ambulância liberada pode atender
+     * @param limit Número máximo de ocorrências
+     * @return Entradas em ordem de prioridade
+     */
+    public synchronized List<Entry> peek(Predicate<String> gravidadeAceita, int limit) {
+        List<Iterator<Entry>> filas = new ArrayList<>();
+        List<Entry> cabecas = new ArrayList<>();
+        for (Map.Entry<String, TreeSet<Entry>> fila : byGravidade.entrySet()) {
+            if (gravidadeAceita.test(fila.getKey())) {
+                Iterator<Entry> it = fila.getValue().iterator();
+                filas.add(it);
+                cabecas.add(it.next());
+            }
+        }
+
+        List<Entry> result = new ArrayList<>();
+        while (result.size() < limit) {
+            int best = -1;
+            for (int k = 0; k < cabecas.size(); k++) {
+                if (cabecas.get(k) != null && (best < 0 || PRIORITY.compare(cabecas.get(k), cabecas.get(best)) < 0)) {
+                    best = k;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            result.add(cabecas.get(best));
+            cabecas.set(best, filas.get(best).hasNext() ? filas.get(best).next() : null);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private double agingMinutes() {
+        return agingMinutes > 0 ? agingMinutes : DEFAULT_AGING_MINUTES;
+    }
+
+    private static int severityLevel(String gravidade) {
+        switch (gravidade) {
+            case "ALTA": return 2;
+            case "MEDIA": return 1;
+            default: return 0;
+        }
+    }
+
+    private static String normalize(String gravidade) {
+        return gravidade == null ? "" : gravidade.toUpperCase();
+    }
+
+    static double epochMinutes(LocalDateTime instante) {
+        return instante.toEpochSecond(ZoneOffset.UTC) / 60.0;
+    }
+
+    /**
+     * Ocorrência na fila (dados necessários para priorizar e filtrar sem acessar o banco).
+     */
+    public static class Entry {
+        public final int id;
+        public final String gravidade;
+        public final int bairroId;
+        // Hora de abertura (minutos) menos a vantagem da gravidade: menor = mais prioritária
+        public final double effectiveMinutes;
+
+        public Entry(int id, String gravidade, int bairroId, double effectiveMinutes) {
+            this.id = id;
+            this.gravidade = gravidade;
+            this.bairroId = bairroId;
+            this.effectiveMinutes = effectiveMinutes;
+        }
+
+        /**
+         * Espera ponderada pela gravidade: minutos desde a abertura mais a vantagem da gravidade.
+         *
+         * @param agora Instante atual
+         */
+        public double agedWaitMinutes(LocalDateTime agora) {
+            return epochMinutes(agora) - effectiveMinutes;
+        }
+    }
+}
@@ -19,10 +19,15 @@ public class ProfissionalService {
 
     private final ProfissionalRepository profissionalRepository;
     private final EquipeRepository equipeRepository;
+    private final FleetReadinessProjection readinessProjection;
+    private final DashboardCounters dashboardCounters;
 
-    public ProfissionalService(ProfissionalRepository profissionalRepository, EquipeRepository equipeRepository) {
+    public ProfissionalService(ProfissionalRepository profissionalRepository, EquipeRepository equipeRepository,
+                               FleetReadinessProjection readinessProjection, DashboardCounters dashboardCounters) {
         this.profissionalRepository = profissionalRepository;
         this.equipeRepository = equipeRepository;
+        this.readinessProjection = readinessProjection;
+        this.dashboardCounters = dashboardCounters;
     }
 
     /**
@@ -55,7 +60,13 @@ public class ProfissionalService {
                  throw new IllegalStateException("Não é possível inativar um profissional vinculado a uma equipe.");
              }
         }
-        return profissionalRepository.save(profissional);
+        boolean novo = profissional.getId() == null;
+        Profissional saved = profissionalRepository.save(profissional);
+        readinessProjection.updateProfissional(saved);
+        if (novo) {
+            dashboardCounters.profissionalCriado();
+        }
+        return saved;
     }
 
     /**
@@ -79,7 +90,9 @@ public class ProfissionalService {
              }
         }
         
-        return profissionalRepository.save(profissional);
+        Profissional saved = profissionalRepository.save(profissional);
+        readinessProjection.updateProfissional(saved);
+        return saved;
     }
 
     /**
@@ -100,5 +113,6 @@ public class ProfissionalService {
         }
 
         profissionalRepository.deleteById(id);
+        dashboardCounters.profissionalRemovido();
     }
 }
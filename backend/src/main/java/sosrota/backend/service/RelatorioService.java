@@ -4,49 +4,240 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import org.springframework.stereotype.Service;
+import sosrota.backend.dto.RelatorioSlaDTO;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Serviço responsável pela geração de relatórios e consultas analíticas.
- * Utiliza consultas nativas (SQL) para agregação de dados.
+ * Lê as tabelas pré-agregadas (V16), em baldes por hora e por dia × bairro × tipo de ambulância ×
+ * gravidade, atualizadas incrementalmente pelo {@link sosrota.backend.config.ReportAggregateRefresher}:
+ * o custo depende do período consultado, não do tamanho do histórico. As linhas mais recentes
+ * entram nos relatórios após a próxima atualização.
  * [RF07] Consultas e Relatórios.
  * [Banco de Dados II] Consultas complexas com JOIN e Aggregation.
  */
 @Service
 public class RelatorioService {
 
+    // Percentis do tempo de resposta no relatório de SLA
+    private static final double[] PERCENTIS = {0.50, 0.90, 0.95};
+
     @PersistenceContext
     private EntityManager entityManager;
 
     /**
      * Retorna a contagem de atendimentos agrupados por bairro.
      *
+     * @param inicio Abertura a partir de (inclusive; null = sem limite)
+     * @param fim Abertura antes de (exclusive; null = sem limite)
      * @return Lista de objetos [Nome do Bairro, Quantidade]
      * [RF07] Relatório de Ocorrências por Bairro.
      * [Teoria da Computacao - Demonstracao Numerica] Agregacao de dados para analise
      * [Banco de Dados II] Consulta que retorna valor.
      */
-    public List<Object[]> getAtendimentosPorBairro() {
-        String sql = "SELECT b.nome, COUNT(o.id) " +
-                "FROM ocorrencia o " +
-                "JOIN bairro b ON o.bairro_id = b.id " +
+    public List<Object[]> getAtendimentosPorBairro(LocalDateTime inicio, LocalDateTime fim) {
+        Fonte fonte = fonte("relatorio_ocorrencia", "bairro_id, total", inicio, fim);
+        String sql = "SELECT b.nome, CAST(SUM(r.total) AS BIGINT) " +
+                "FROM " + fonte.sql() + " " +
+                "JOIN bairro b ON r.bairro_id = b.id " +
                 "GROUP BY b.nome";
-        Query query = entityManager.createNativeQuery(sql);
-        return query.getResultList();
+        return fonte.query(entityManager, sql).getResultList();
     }
 
     /**
      * Retorna a média de distância percorrida por tipo de ambulância.
      *
+     * @param inicio Despacho a partir de (inclusive; null = sem limite)
+     * @param fim Despacho antes de (exclusive; null = sem limite)
      * @return Lista de objetos [Tipo Ambulância, Distância Média]
      */
-    public List<Object[]> getTempoMedioAtendimento() {
-        String sql = "SELECT a.tipo, AVG(at.distancia_km) " +
-                "FROM atendimento at " +
-                "JOIN ambulancia a ON at.ambulancia_id = a.id " +
-                "GROUP BY a.tipo";
-        Query query = entityManager.createNativeQuery(sql);
-        return query.getResultList();
+    public List<Object[]> getTempoMedioAtendimento(LocalDateTime inicio, LocalDateTime fim) {
+        Fonte fonte = fonte("relatorio_atendimento", "tipo_ambulancia, total, soma_distancia_km", inicio, fim);
+        String sql = "SELECT r.tipo_ambulancia, SUM(r.soma_distancia_km) / SUM(r.total) " +
+                "FROM " + fonte.sql() + " " +
+                "GROUP BY r.tipo_ambulancia";
+        return fonte.query(entityManager, sql).getResultList();
+    }
+
+    /**
+     * Relatório de SLA: total de atendimentos, taxa de estouro do SLA, médias e percentis do tempo de
+     * resposta por grupo. Os percentis saem do histograma por minuto gravado nos baldes.
+     *
+     * @param agrupar "bairro", "tipo" (de ambulância) ou "gravidade"
+     * @param inicio Despacho a partir de (inclusive; null = sem limite)
+     * @param fim Despacho antes de (exclusive; null = sem limite)
+     * @return Uma linha por grupo
+     * [RF07] Relatório de performance.
+     * [Regra de Negócio] SLA por gravidade.
+     */
+    public List<RelatorioSlaDTO> getSla(String agrupar, LocalDateTime inicio, LocalDateTime fim) {
+        String grupo;
+        String join = "";
+        switch (agrupar == null ? "tipo" : agrupar) {
+            case "bairro" -> {
+                grupo = "COALESCE(b.nome, '')";
+                join = "LEFT JOIN bairro b ON r.bairro_id = b.id ";
+            }
+            case "tipo" -> grupo = "r.tipo_ambulancia";
+            case "gravidade" -> grupo = "r.gravidade";
+            default -> throw new IllegalArgumentException("Agrupamento inválido: " + agrupar
+                    + ". Use bairro, tipo ou gravidade.");
+        }
+        Fonte fonte = fonte("relatorio_atendimento",
+                "bairro_id, tipo_ambulancia, gravidade, faixa_minutos, total, fora_do_sla, soma_tempo_min, soma_distancia_km",
+                inicio, fim);
+        String sql = "SELECT " + grupo + ", r.faixa_minutos, CAST(SUM(r.total) AS BIGINT), " +
+                "CAST(SUM(r.fora_do_sla) AS BIGINT), SUM(r.soma_tempo_min), SUM(r.soma_distancia_km) " +
+                "FROM " + fonte.sql() + " " + join +
+                "GROUP BY 1, 2 " +
+                "ORDER BY 1, 2";
+        List<Object[]> linhas = fonte.query(entityManager, sql).getResultList();
+        return sla(linhas);
+    }
+
+    /**
+     * Junta as faixas de cada grupo (linhas ordenadas por grupo e faixa) em uma linha do relatório.
+     */
+    static List<RelatorioSlaDTO> sla(List<Object[]> linhas) {
+        List<RelatorioSlaDTO> relatorio = new ArrayList<>();
+        int i = 0;
+        while (i < linhas.size()) {
+            String grupo = (String) linhas.get(i)[0];
+            int j = i;
+            long total = 0;
+            long foraDoSla = 0;
+            double somaTempo = 0;
+            double somaDistancia = 0;
+            while (j < linhas.size() && grupo.equals(linhas.get(j)[0])) {
+                Object[] linha = linhas.get(j++);
+                total += ((Number) linha[2]).longValue();
+                foraDoSla += ((Number) linha[3]).longValue();
+                somaTempo += ((Number) linha[4]).doubleValue();
+                somaDistancia += ((Number) linha[5]).doubleValue();
+            }
+            int[] percentis = percentis(linhas.subList(i, j), total);
+            relatorio.add(new RelatorioSlaDTO(grupo, total, foraDoSla, (double) foraDoSla / total,
+                    somaTempo / total, somaDistancia / total, percentis[0], percentis[1], percentis[2]));
+            i = j;
+        }
+        return relatorio;
+    }
+
+    // Primeira faixa em que a contagem acumulada alcança cada percentil
+    private static int[] percentis(List<Object[]> faixas, long total) {
+        int[] valores = new int[PERCENTIS.length];
+        long acumulado = 0;
+        int p = 0;
+        for (Object[] faixa : faixas) {
+            acumulado += ((Number) faixa[2]).longValue();
+            while (p < PERCENTIS.length && acumulado >= Math.ceil(PERCENTIS[p] * total)) {
+                valores[p++] = ((Number) faixa[1]).intValue();
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * Origem das linhas de um relatório no período [inicio, fim), alargado para horas inteiras:
+     * baldes diários para os dias inteiros e baldes por hora para as pontas. Sem limites, só os diários.
+     *
+     * @param tabela Prefixo das tabelas (sufixos _dia e _hora)
+     * @param colunas Colunas lidas dos baldes
+     */
+    static Fonte fonte(String tabela, String colunas, LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio != null && fim != null && !inicio.isBefore(fim)) {
+            throw new IllegalArgumentException("O início do período deve ser anterior ao fim.");
+        }
+        Fonte fonte = new Fonte(tabela, colunas);
+        LocalDateTime de = inicio != null ? inicio.truncatedTo(ChronoUnit.HOURS) : null;
+        LocalDateTime ate = fim != null ? ceilHour(fim) : null;
+        LocalDate primeiroDia = de == null ? null
+                : de.toLocalTime().equals(LocalTime.MIDNIGHT) ? de.toLocalDate() : de.toLocalDate().plusDays(1);
+        LocalDate fimDias = ate != null ? ate.toLocalDate() : null;
+
+        if (primeiroDia != null && fimDias != null && !primeiroDia.isBefore(fimDias)) {
+            // Nenhum dia inteiro no período
+            fonte.horas(de, ate);
+            return fonte;
+        }
+        fonte.dias(primeiroDia, fimDias);
+        if (de != null && de.isBefore(primeiroDia.atStartOfDay())) {
+            fonte.horas(de, primeiroDia.atStartOfDay());
+        }
+        if (ate != null && ate.isAfter(fimDias.atStartOfDay())) {
+            fonte.horas(fimDias.atStartOfDay(), ate);
+        }
+        return fonte;
+    }
+
+    private static LocalDateTime ceilHour(LocalDateTime dataHora) {
+        LocalDateTime hora = dataHora.truncatedTo(ChronoUnit.HOURS);
+        return hora.equals(dataHora) ? hora : hora.plusHours(1);
+    }
+
+    /**
+     * Subconsulta "r" com a união dos baldes diários e por hora selecionados.
+     */
+    static final class Fonte {
+        private final String tabela;
+        private final String colunas;
+        private final List<String> partes = new ArrayList<>();
+        private final Map<String, Object> parametros = new LinkedHashMap<>();
+
+        Fonte(String tabela, String colunas) {
+            this.tabela = tabela;
+            this.colunas = colunas;
+        }
+
+        void dias(LocalDate de, LocalDate ate) {
+            partes.add(select(tabela + "_dia", "dia", de, ate));
+        }
+
+        void horas(LocalDateTime de, LocalDateTime ate) {
+            partes.add(select(tabela + "_hora", "hora", de, ate));
+        }
+
+        private String select(String origem, String coluna, Object de, Object ate) {
+            StringBuilder sql = new StringBuilder("SELECT ").append(colunas).append(" FROM ").append(origem);
+            String conector = " WHERE ";
+            if (de != null) {
+                sql.append(conector).append(coluna).append(" >= :").append(parametro(de));
+                conector = " AND ";
+            }
+            if (ate != null) {
+                sql.append(conector).append(coluna).append(" < :").append(parametro(ate));
+            }
+            return sql.toString();
+        }
+
+        private String parametro(Object valor) {
+            String nome = "p" + parametros.size();
+            parametros.put(nome, valor);
+            return nome;
+        }
+
+        String sql() {
+            return "(" + String.join(" UNION ALL ", partes) + ") r";
+        }
+
+        Map<String, Object> parametros() {
+            return parametros;
+        }
+
+        Query query(EntityManager entityManager, String sql) {
+            Query query = entityManager.createNativeQuery(sql);
+            for (Map.Entry<String, Object> parametro : parametros.entrySet()) {
+                query.setParameter(parametro.getKey(), parametro.getValue());
+            }
+            return query;
+        }
     }
 }
@@ -0,0 +1,292 @@
+package sosrota.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sosrota.backend.entity.Turno;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Escalas por turno (MATUTINO, VESPERTINO, NOTURNO): para cada turno, quais ambulâncias estão
+ * guarnecidas e por quais equipes. Uma ambulância com várias equipes no turno está guarnecida se
+ * qualquer uma delas estiver completa para o seu tipo.
+ * A escala do turno atual e a do próximo ficam pré-calculadas a partir da projeção de prontidão
+ * (sem consultas ao banco). Na virada do turno, o agendador troca a escala vigente pela próxima
+ * com uma única troca de referência atômica; consultas em andamento continuam usando a instância
+ * que leram.
+ * Alterações de equipes ou profissionais recalculam as duas escalas na próxima leitura.
+ * Equipes sem turno definido (cadastros anteriores ao turno) atuam em todos os turnos.
+ * [Regra de Domínio - RD02] Critério de Disponibilidade por turno.
+ * [Estrutura de Dados II] Estrutura imutável publicada por referência atômica.
+ */
+@Service
+public class ShiftRosterEngine {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ShiftRosterEngine.class);
+
+    // [Regra de Negócio] Início de cada turno (hora do dia)
+    private static final int DEFAULT_MATUTINO_START = 6;
+    private static final int DEFAULT_VESPERTINO_START = 14;
+    private static final int DEFAULT_NOTURNO_START = 22;
+
+    // Preferência entre equipes da mesma ambulância: do turno antes das sem turno, mais funções, menor ID
+    private static final Comparator<FleetReadinessProjection.TeamView> PREFERENCE =
+            Comparator.<FleetReadinessProjection.TeamView>comparingInt(team -> team.turno != null ? 0 : 1)
+                    .thenComparingInt(team -> -Integer.bitCount(team.roles))
+                    .thenComparingInt(team -> team.equipeId);
+
+    @Value("${dispatch.roster.matutino-start-hour:6}")
+    private int matutinoStart = DEFAULT_MATUTINO_START;
+
+    @Value("${dispatch.roster.vespertino-start-hour:14}")
+    private int vespertinoStart = DEFAULT_VESPERTINO_START;
+
+    @Value("${dispatch.roster.noturno-start-hour:22}")
+    private int noturnoStart = DEFAULT_NOTURNO_START;
+
+    private final FleetReadinessProjection readinessProjection;
+
+    private final AtomicReference<Roster> current = new AtomicReference<>();
+    private volatile Roster next;
+
+    public ShiftRosterEngine(FleetReadinessProjection readinessProjection) {
+        this.readinessProjection = readinessProjection;
+    }
+
+    @PostConstruct
+    public void init() {
+        reset(LocalDateTime.now());
+        logger.info("Escala do turno {} ativa até {}: {} ambulâncias guarnecidas.",
+                current.get().turno, current.get().end, current.get().staffedCount());
+    }
+
+    /**
+     * Verifica a virada de turno e ativa a escala pré-calculada.
+     */
+    @Scheduled(fixedDelayString = "${dispatch.roster.check-interval-ms:30000}")
+    public void rotateIfDue() {
+        rotate(LocalDateTime.now());
+    }
+
+    /**
+     * Ativa a próxima escala se o turno vigente terminou e pré-calcula a seguinte.
+     *
+     * @param now Instante atual
+     * @return true se houve troca de turno
+     */
+    public synchronized boolean rotate(LocalDateTime now) {
+        Roster vigente = current.get();
+        if (vigente != null && now.isBefore(vigente.end)) {
+            return false;
+        }
+        Roster proxima = next;
+        if (proxima == null || proxima.sourceVersion != readinessProjection.version()
+                || now.isBefore(proxima.start) || !now.isBefore(proxima.end)) {
+            proxima = build(now);
+        }
+        current.set(proxima);
+        next = build(proxima.end);
+        logger.info("Turno {} iniciado: {} ambulâncias guarnecidas até {}.", proxima.turno, proxima.staffedCount(), proxima.end);
+        return true;
+    }
+
+    /**
+     * Recalcula as escalas do turno que contém o instante informado e do seguinte.
+     *
+     * @param now Instante de referência
+     */
+    synchronized void reset(LocalDateTime now) {
+        Roster roster = build(now);
+        current.set(roster);
+        next = build(roster.end);
+    }
+
+    /**
+     * Escala vigente. Recalculada se as equipes mudaram desde a sua construção.
+     *
+     * @return Escala do turno atual
+     */
+    public Roster current() {
+        Roster roster = current.get();
+        if (roster == null || roster.sourceVersion != readinessProjection.version()) {
+            synchronized (this) {
+                roster = current.get();
+                if (roster == null || roster.sourceVersion != readinessProjection.version()) {
+                    reset(roster != null ? roster.start : LocalDateTime.now());
+                    roster = current.get();
+                }
+            }
+        }
+        return roster;
+    }
+
+    /**
+     * Verifica se a ambulância tem equipe completa no turno atual.
+     *
+     * @param ambulanciaId ID da ambulância
+     * @param tipo Tipo da ambulância
+     * @return true se guarnecida
+     * [Regra de Domínio - RD02] Critério de Disponibilidade.
+     */
+    public boolean isStaffed(int ambulanciaId, String tipo) {
+        return current().isStaffed(ambulanciaId, tipo);
+    }
+
+    /**
+     * Equipe escalada na ambulância em um instante (ex.: horário do despacho).
+     *
+     * @param ambulanciaId ID da ambulância
+     * @param instante Instante
+     * @return ID da equipe ou null se não houver equipe escalada
+     */
+    public Integer teamOnDuty(int ambulanciaId, LocalDateTime instante) {
+        return teamOnDuty(ambulanciaId, null, instante);
+    }
+
+    /**
+     * Equipe escalada na ambulância em um instante, dando preferência a uma equipe completa para o tipo.
+     *
+     * @param ambulanciaId ID da ambulância
+     * @param tipo Tipo da ambulância (null = apenas a ordem de preferência)
+     * @param instante Instante
+     * @return ID da equipe ou null se não houver equipe escalada
+     */
+    public Integer teamOnDuty(int ambulanciaId, String tipo, LocalDateTime instante) {
+        Roster roster = current();
+        if (!roster.covers(instante)) {
+            Roster proxima = next;
+            roster = proxima != null && proxima.sourceVersion == roster.sourceVersion && proxima.covers(instante)
+                    ? proxima : build(instante);
+        }
+        return roster.teamOf(ambulanciaId, tipo);
+    }
+
+    /**
+     * Turno que contém o instante informado.
+     */
+    public Turno turnoAt(LocalDateTime instante) {
+        Turno turno = null;
+        LocalDateTime inicio = null;
+        for (Turno t : Turno.values()) {
+            LocalDateTime s = lastStart(t, instante);
+            if (inicio == null || s.isAfter(inicio)) {
+                inicio = s;
+                turno = t;
+            }
+        }
+        return turno;
+    }
+
+    private Roster build(LocalDateTime instante) {
+        long version = readinessProjection.version();
+        Turno turno = turnoAt(instante);
+        LocalDateTime inicio = lastStart(turno, instante);
+        // Fim do turno: próximo início de qualquer turno após o instante
+        LocalDateTime fim = inicio.plusDays(1);
+        for (Turno t : Turno.values()) {
+            LocalDateTime s = lastStart(t, instante).plusDays(1);
+            if (s.isBefore(fim)) {
+                fim = s;
+            }
+        }
+
+        // Por ambulância: todas as equipes do turno e as sem turno definido, em ordem de preferência
+        Map<Integer, List<FleetReadinessProjection.TeamView>> byAmbulancia = new HashMap<>();
+        for (FleetReadinessProjection.TeamView team : readinessProjection.teamsOnDuty(turno)) {
+            byAmbulancia.computeIfAbsent(team.ambulanciaId, id -> new ArrayList<>()).add(team);
+        }
+        for (List<FleetReadinessProjection.TeamView> teams : byAmbulancia.values()) {
+            teams.sort(PREFERENCE);
+        }
+        return new Roster(turno, inicio, fim, version, byAmbulancia);
+    }
+
+    private LocalDateTime lastStart(Turno turno, LocalDateTime instante) {
+        LocalDateTime s = instante.toLocalDate().atTime(startHour(turno), 0);
+        return s.isAfter(instante) ? s.minusDays(1) : s;
+    }
+
+    private int startHour(Turno turno) {
+        int hour;
+        switch (turno) {
+            case MATUTINO: hour = matutinoStart; break;
+            case VESPERTINO: hour = vespertinoStart; break;
+            default: hour = noturnoStart; break;
+        }
+        return hour >= 0 && hour < 24 ? hour : defaultStartHour(turno);
+    }
+
+    private static int defaultStartHour(Turno turno) {
+        switch (turno) {
+            case MATUTINO: return DEFAULT_MATUTINO_START;
+            case VESPERTINO: return DEFAULT_VESPERTINO_START;
+            default: return DEFAULT_NOTURNO_START;
+        }
+    }
+
+    /**
+     * Escala imutável de um turno: equipes de cada ambulância escalada.
+     */
+    public static final class Roster {
+        public final Turno turno;
+        public final LocalDateTime start;
+        public final LocalDateTime end;
+        final long sourceVersion;
+        private final Map<Integer, List<FleetReadinessProjection.TeamView>> byAmbulancia;
+
+        Roster(Turno turno, LocalDateTime start, LocalDateTime end, long sourceVersion,
+                Map<Integer, List<FleetReadinessProjection.TeamView>> byAmbulancia) {
+            this.turno = turno;
+            this.start = start;
+            this.end = end;
+            this.sourceVersion = sourceVersion;
+            this.byAmbulancia = Collections.unmodifiableMap(byAmbulancia);
+        }
+
+        public boolean isStaffed(int ambulanciaId, String tipo) {
+            return tipo != null && completeTeam(ambulanciaId, tipo) != null;
+        }
+
+        public Integer teamOf(int ambulanciaId) {
+            return teamOf(ambulanciaId, null);
+        }
+
+        /**
+         * Equipe completa para o tipo mais preferida; sem nenhuma completa, a mais preferida.
+         */
+        public Integer teamOf(int ambulanciaId, String tipo) {
+            FleetReadinessProjection.TeamView team = tipo != null ? completeTeam(ambulanciaId, tipo) : null;
+            if (team == null) {
+                List<FleetReadinessProjection.TeamView> teams = byAmbulancia.get(ambulanciaId);
+                team = teams != null ? teams.get(0) : null;
+            }
+            return team != null ? team.equipeId : null;
+        }
+
+        private FleetReadinessProjection.TeamView completeTeam(int ambulanciaId, String tipo) {
+            for (FleetReadinessProjection.TeamView team : byAmbulancia.getOrDefault(ambulanciaId, Collections.emptyList())) {
+                if (FleetReadinessProjection.isComplete(team.roles, tipo)) {
+                    return team;
+                }
+            }
+            return null;
+        }
+
+        public int staffedCount() {
+            return byAmbulancia.size();
+        }
+
+        boolean covers(LocalDateTime instante) {
+            return !instante.isBefore(start) && instante.isBefore(end);
+        }
+    }
+}
@@ -1,106 +1,94 @@
 package sosrota.backend.service;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import sosrota.backend.entity.Atendimento;
 import sosrota.backend.entity.Ocorrencia;
-import sosrota.backend.repository.AtendimentoRepository;
-import sosrota.backend.repository.OcorrenciaRepository;
-
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Serviço de simulação de deslocamento e atendimento.
  * Responsável por atualizar o status das ocorrências.
+ * Orientado a eventos: uma thread aguarda a próxima chegada agendada no {@link ArrivalScheduler}
+ * e só acessa o banco quando ela vence. A conclusão do atendimento continua manual.
+ * Se a confirmação falhar (ex.: banco indisponível) e a ocorrência continuar DESPACHADA, a chegada
+ * volta para a agenda com espera crescente, em vez de ficar despachada para sempre.
  */
 @Service
 public class SimulationService {
 
     private static final Logger logger = LoggerFactory.getLogger(SimulationService.class);
 
-    private final OcorrenciaRepository ocorrenciaRepository;
-    private final AtendimentoRepository atendimentoRepository;
+    private final ArrivalScheduler arrivalScheduler;
     private final OcorrenciaService ocorrenciaService;
 
-    // Configuration: 1 km (1 min didactic) = 1 second real
-    private static final long SECONDS_PER_KM = 1;
-    private static final long SERVICE_DURATION_SECONDS = 10;
+    private volatile Thread worker;
 
-    public SimulationService(OcorrenciaRepository ocorrenciaRepository,
-                             AtendimentoRepository atendimentoRepository,
-                             OcorrenciaService ocorrenciaService) {
-        this.ocorrenciaRepository = ocorrenciaRepository;
-        this.atendimentoRepository = atendimentoRepository;
+    public SimulationService(ArrivalScheduler arrivalScheduler, OcorrenciaService ocorrenciaService) {
+        this.arrivalScheduler = arrivalScheduler;
         this.ocorrenciaService = ocorrenciaService;
     }
 
-
-    // Executa o ciclo de simulação periodicamente.
-    @Scheduled(fixedRate = 2000) // Executa a cada 2 segundos
-    public void runSimulation() {
-        simulateTravel();
-        // simulateService(); // Desabilitado para permitir conclusão manual
+    // Inicia a simulação com a aplicação pronta (agenda já reconstruída do banco).
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::run, "simulacao-chegadas");
+        worker.setDaemon(true);
+        worker.start();
     }
 
-    /**
-     * Simula o deslocamento da ambulância até o local.
-     * Atualiza o status para EM_ATENDIMENTO ao "chegar".
-     */
-    private void simulateTravel() {
-        List<Ocorrencia> despachadas = ocorrenciaRepository.findByStatus("DESPACHADA");
-        for (Ocorrencia ocorrencia : despachadas) {
-            Atendimento atendimento = atendimentoRepository.findFirstByOcorrenciaOrderByIdDesc(ocorrencia);
-            if (atendimento != null && atendimento.getDataHoraDespacho() != null) {
-                double distance = atendimento.getDistanciaKm();
-                long simulatedTravelTimeSeconds = (long) (distance * SECONDS_PER_KM);
-                
-                // Espera no mínimo 2 segundos para simular a chegada
-                if (simulatedTravelTimeSeconds < 2) simulatedTravelTimeSeconds = 2;
-
-                LocalDateTime arrivalTime = atendimento.getDataHoraDespacho().plusSeconds(simulatedTravelTimeSeconds);
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
 
-                if (LocalDateTime.now().isAfter(arrivalTime)) {
-                    try {
-                        logger.info("Simulação: Ambulância chegou ao local da Ocorrencia {} após {} segundos (Distância: {} km).", 
-                                ocorrencia.getId(), simulatedTravelTimeSeconds, distance);
-                        ocorrenciaService.confirmDeparture(ocorrencia.getId());
-                    } catch (Exception e) {
-                        logger.error("Erro na simulação de viagem para Ocorrencia {}: {}", ocorrencia.getId(), e.getMessage());
-                    }
-                }
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                simulateArrival(arrivalScheduler.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
     }
 
     /**
-     * Simula o atendimento da ocorrência.
-     * Atualiza o status para CONCLUIDA ao "concluir".
-     * Comentado para permitir conclusão manual.
+     * Simula a chegada da ambulância ao local.
+     * Atualiza o status para EM_ATENDIMENTO.
+     *
+     * @param arrival Chegada vencida
      */
+    void simulateArrival(ArrivalScheduler.Arrival arrival) {
+        try {
+            logger.info("Simulação: Ambulância chegou ao local da Ocorrencia {} após {} segundos (Distância: {} km).",
+                    arrival.ocorrenciaId, arrival.travelSeconds, arrival.distanciaKm);
+            ocorrenciaService.confirmDeparture(arrival.ocorrenciaId);
+        } catch (Exception e) {
+            ArrivalScheduler.Arrival retry = stillInTransit(arrival.ocorrenciaId) ? arrivalScheduler.retry(arrival) : null;
+            if (retry != null) {
+                logger.warn("Erro na simulação de viagem para Ocorrencia {}: {}. Nova tentativa em {}.",
+                        arrival.ocorrenciaId, e.getMessage(), retry.arrivalTime);
+            } else {
+                logger.error("Erro na simulação de viagem para Ocorrencia {}: {}", arrival.ocorrenciaId, e.getMessage());
+            }
+        }
+    }
 
-    // private void simulateService() {
-    //     List<Ocorrencia> emAtendimento = ocorrenciaRepository.findByStatus("EM_ATENDIMENTO");
-    //     for (Ocorrencia ocorrencia : emAtendimento) {
-    //         Atendimento atendimento = atendimentoRepository.findFirstByOcorrenciaOrderByIdDesc(ocorrencia);
-    //         if (atendimento != null) {
-    //              
-    //              if (atendimento.getDataHoraChegada() != null) {
-    //                  LocalDateTime finishTime = atendimento.getDataHoraChegada().plusSeconds(SERVICE_DURATION_SECONDS);
-    //                  if (LocalDateTime.now().isAfter(finishTime)) {
-    //                      try {
-    //                          logger.info("Simulação: Atendimento da Ocorrencia {} concluído após {} segundos.", 
-    //                                  ocorrencia.getId(), SERVICE_DURATION_SECONDS);
-    //                          ocorrenciaService.finishOccurrence(ocorrencia.getId());
-    //                      } catch (Exception e) {
-    //                          logger.error("Erro na simulação de atendimento para Ocorrencia {}: {}", ocorrencia.getId(), e.getMessage());
-    //                      }
-    //                  }
-    //              }
-    //         }
-    //     }
-    // }
+    // DESPACHADA (ou estado desconhecido, com o banco indisponível): a chegada ainda precisa ser confirmada
+    private boolean stillInTransit(Integer ocorrenciaId) {
+        try {
+            Ocorrencia ocorrencia = ocorrenciaService.findById(ocorrenciaId);
+            return ocorrencia != null && "DESPACHADA".equals(ocorrencia.getStatus());
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,419 @@
+package sosrota.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sosrota.backend.dto.EventoEstadoDTO;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Ocorrencia;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Fluxo em memória das alterações de estado de ocorrências e ambulâncias, entregue aos consoles
+ * por Server-Sent Events em substituição às consultas periódicas às listas completas.
+ * Os eventos são publicados após o commit da transação que fez a alteração e numerados em
+ * sequência; os últimos ficam em um histórico circular para retomada a partir do Last-Event-ID.
+ * Cada cliente tem um buffer limitado, indexado pela entidade: um cliente lento recebe só o estado
+ * mais recente de cada ocorrência/ambulância (coalescência) e, se o buffer estourar ou a retomada
+ * não for possível, um evento "reset" pedindo a recarga das listas.
+ * [RF07] Acompanhamento em tempo real.
+ * [Estrutura de Dados II] Buffer circular (histórico) e tabela hash ordenada por cliente.
+ */
+@Service
+public class StateEventStream {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StateEventStream.class);
+
+    public static final String OCORRENCIA = "ocorrencia";
+    public static final String AMBULANCIA = "ambulancia";
+    public static final String RESET = "reset";
+
+    // Eventos guardados para retomada (Last-Event-ID)
+    private static final int DEFAULT_HISTORY = 1024;
+
+    @Value("${events.stream.history:1024}")
+    private int history;
+
+    // Entidades pendentes por cliente antes do reset
+    private static final int DEFAULT_CLIENT_BUFFER = 256;
+
+    @Value("${events.stream.client-buffer:256}")
+    private int clientBuffer;
+
+    // Prefixo dos IDs: IDs de uma execução anterior da aplicação forçam reset
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private long sequence;
+    private final ArrayDeque<Event> recent = new ArrayDeque<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Consumidores internos (projeções em memória), chamados na publicação: devem ser rápidos
+    private final List<Consumer<Event>> listeners = new CopyOnWriteArrayList<>();
+    // Uma thread virtual por envio em andamento: um cliente lento não bloqueia os demais
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    /**
+     * Publica a mudança de status de uma ocorrência (histórico registrado).
+     */
+    public void ocorrencia(Ocorrencia ocorrencia, String statusAnterior, String statusNovo, String observacao) {
+        if (ocorrencia == null || ocorrencia.getId() == null) {
+            return;
+        }
+        EventoEstadoDTO data = new EventoEstadoDTO();
+        data.setId(ocorrencia.getId());
+        data.setStatus(statusNovo);
+        data.setStatusAnterior(statusAnterior);
+        data.setTipo(ocorrencia.getTipo());
+        data.setGravidade(ocorrencia.getGravidade());
+        data.setBairroId(ocorrencia.getBairro() != null ? ocorrencia.getBairro().getId() : null);
+        data.setObservacao(observacao);
+        data.setDataHoraAbertura(ocorrencia.getDataHoraAbertura());
+        data.setDataHora(LocalDateTime.now());
+        publishAfterCommit(OCORRENCIA, data);
+    }
+
+    public void ocorrenciaRemovida(Integer id) {
+        publishAfterCommit(OCORRENCIA, removed(id));
+    }
+
+    /**
+     * Publica o estado atual de uma ambulância (status ou base alterados).
+     */
+    public void ambulancia(Ambulancia ambulancia) {
+        if (ambulancia == null || ambulancia.getId() == null) {
+            return;
+        }
+        EventoEstadoDTO data = new EventoEstadoDTO();
+        data.setId(ambulancia.getId());
+        data.setStatus(ambulancia.getStatus());
+        data.setTipo(ambulancia.getTipo());
+        data.setPlaca(ambulancia.getPlaca());
+        data.setBairroId(ambulancia.getBairro() != null ? ambulancia.getBairro().getId() : null);
+        data.setDataHora(LocalDateTime.now());
+        publishAfterCommit(AMBULANCIA, data);
+    }
+
+    public void ambulanciaRemovida(Integer id) {
+        publishAfterCommit(AMBULANCIA, removed(id));
+    }
+
+    private static EventoEstadoDTO removed(Integer id) {
+        EventoEstadoDTO data = new EventoEstadoDTO();
+        data.setId(id);
+        data.setRemovido(true);
+        data.setDataHora(LocalDateTime.now());
+        return data;
+    }
+
+    /**
+     * Publica após o commit (alterações desfeitas não chegam aos clientes); fora de transação, na hora.
+     */
+    private void publishAfterCommit(String type, EventoEstadoDTO data) {
+        if (data.getId() == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(type, data);
+                }
+            });
+        } else {
+            publish(type, data);
+        }
+    }
+
+    synchronized Event publish(String type, EventoEstadoDTO data) {
+        long seq = ++sequence;
+        Event event = new Event(epoch + "-" + seq, seq, type, type + ":" + data.getId(), data);
+        recent.addLast(event);
+        while (recent.size() > historyLimit()) {
+            recent.removeFirst();
+        }
+        published.increment();
+        for (Consumer<Event> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao aplicar o evento {} em um consumidor interno: {}", event.id, e.getMessage());
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+        return event;
+    }
+
+    /**
+     * Registra um cliente. Com Last-Event-ID, reenvia os eventos posteriores ainda no histórico
+     * (já coalescidos); se não estiverem mais disponíveis, envia reset.
+     *
+     * @param sink Destino dos eventos (conexão SSE)
+     * @param lastEventId Último evento recebido pelo cliente (null em uma nova conexão)
+     * @return Inscrição, para cancelamento
+     */
+    public synchronized Subscriber subscribe(Sink sink, String lastEventId) {
+        Subscriber subscriber = new Subscriber(sink);
+        subscribers.add(subscriber);
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            long after = parseSequence(lastEventId);
+            long oldest = recent.isEmpty() ? sequence + 1 : recent.peekFirst().sequence;
+            if (after < 0 || after > sequence || after < oldest - 1) {
+                subscriber.reset(currentId());
+            } else {
+                for (Event event : recent) {
+                    if (event.sequence > after) {
+                        subscriber.offer(event);
+                    }
+                }
+            }
+        }
+        logger.debug("Cliente do fluxo de eventos conectado ({} ativos).", subscribers.size());
+        return subscriber;
+    }
+
+    /**
+     * Registra um consumidor interno, chamado para cada evento publicado (após o commit).
+     */
+    public void addListener(Consumer<Event> listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        if (subscriber != null && subscribers.remove(subscriber)) {
+            subscriber.close();
+            logger.debug("Cliente do fluxo de eventos desconectado ({} ativos).", subscribers.size());
+        }
+    }
+
+    /**
+     * Comentário periódico: mantém a conexão aberta em proxies e detecta clientes desconectados.
+     */
+    @Scheduled(fixedDelayString = "${events.stream.heartbeat-ms:15000}",
+            initialDelayString = "${events.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            unsubscribe(subscriber);
+        }
+        senders.shutdownNow();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getResetCount() {
+        return resets.sum();
+    }
+
+    private String currentId() {
+        return epoch + "-" + sequence;
+    }
+
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int historyLimit() {
+        return history > 0 ? history : DEFAULT_HISTORY;
+    }
+
+    private int clientBufferLimit() {
+        return clientBuffer > 0 ? clientBuffer : DEFAULT_CLIENT_BUFFER;
+    }
+
+    /**
+     * Destino dos eventos de um cliente. Os envios de um mesmo cliente nunca são concorrentes.
+     */
+    public interface Sink {
+        void send(Event event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    /**
+     * Evento numerado. {@code key} identifica a entidade (coalescência por cliente).
+     */
+    public static final class Event {
+        public final String id;
+        public final long sequence;
+        public final String type;
+        public final String key;
+        public final EventoEstadoDTO data;
+
+        Event(String id, long sequence, String type, String key, EventoEstadoDTO data) {
+            this.id = id;
+            this.sequence = sequence;
+            this.type = type;
+            this.key = key;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Cliente conectado: entidades pendentes na ordem da última alteração e um envio por vez.
+     */
+    public final class Subscriber {
+        private final Sink sink;
+        private final LinkedHashMap<String, Event> pending = new LinkedHashMap<>();
+        private String resetId;
+        private boolean heartbeatPending;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(Sink sink) {
+            this.sink = sink;
+        }
+
+        void offer(Event event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.remove(event.key) != null) {
+                    coalesced.increment();
+                }
+                pending.put(event.key, event);
+                if (pending.size() > clientBufferLimit()) {
+                    // Cliente lento demais: descarta o atraso e pede a recarga das listas
+                    pending.clear();
+                    resetId = event.id;
+                    resets.increment();
+                }
+            }
+            schedule();
+        }
+
+        void reset(String id) {
+            synchronized (this) {
+                pending.clear();
+                resetId = id;
+                resets.increment();
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                heartbeatPending = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (draining || closed) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Aplicação encerrando
+                synchronized (this) {
+                    draining = false;
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<Event> batch;
+                String reset;
+                boolean ping;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && resetId == null && !heartbeatPending)) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    reset = resetId;
+                    resetId = null;
+                    ping = heartbeatPending;
+                    heartbeatPending = false;
+                }
+                try {
+                    if (reset != null) {
+                        sink.send(new Event(reset, -1, RESET, RESET, null));
+                    }
+                    for (Event event : batch) {
+                        sink.send(event);
+                    }
+                    if (ping && batch.isEmpty() && reset == null) {
+                        sink.heartbeat();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Falha ao enviar eventos ao cliente: {}", e.getMessage());
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    unsubscribe(this);
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            try {
+                sink.close();
+            } catch (RuntimeException e) {
+                logger.debug("Falha ao encerrar cliente do fluxo de eventos: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+-- [Banco de Dados II - Gatilhos] Contador de alterações do grafo de rotas
+-- [RF04] Qualquer alteração em bairro ou aresta incrementa a versão; o backend
+-- consulta periodicamente este contador e recarrega o grafo em memória.
+CREATE TABLE IF NOT EXISTS grafo_versao (
+  id INTEGER PRIMARY KEY,
+  versao BIGINT NOT NULL DEFAULT 0,
+  atualizado_em TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+INSERT INTO grafo_versao (id, versao) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION fn_incrementa_grafo_versao() RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE grafo_versao SET versao = versao + 1, atualizado_em = NOW() WHERE id = 1;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Gatilhos por comando (não por linha): uma carga em massa incrementa a versão uma vez por comando
+CREATE TRIGGER trg_bairro_grafo_versao
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON bairro
+  FOR EACH STATEMENT EXECUTE FUNCTION fn_incrementa_grafo_versao();
+
+CREATE TRIGGER trg_aresta_grafo_versao
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON aresta
+  FOR EACH STATEMENT EXECUTE FUNCTION fn_incrementa_grafo_versao();
@@ -0,0 +1,15 @@
+-- [RF04] Perfis de velocidade por aresta e faixa horária (horário de pico)
+-- Cada linha define a velocidade média da rua em uma hora do dia (0 a 23).
+-- Faixas sem registro usam a velocidade padrão configurada no backend.
+CREATE TABLE IF NOT EXISTS velocidade_aresta (
+  id SERIAL PRIMARY KEY,
+  aresta_id INTEGER NOT NULL REFERENCES aresta(id) ON DELETE CASCADE,
+  faixa_horaria INTEGER NOT NULL CHECK (faixa_horaria BETWEEN 0 AND 23),
+  velocidade_kmh NUMERIC NOT NULL CHECK (velocidade_kmh > 0),
+  CONSTRAINT uk_velocidade_aresta_faixa UNIQUE (aresta_id, faixa_horaria)
+);
+
+-- Alterações nos perfis também geram nova versão do grafo de rotas
+CREATE TRIGGER trg_velocidade_aresta_grafo_versao
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON velocidade_aresta
+  FOR EACH STATEMENT EXECUTE FUNCTION fn_incrementa_grafo_versao();
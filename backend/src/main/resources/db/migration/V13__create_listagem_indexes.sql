@@ -0,0 +1,23 @@
+-- [Banco de Dados II] Índices compostos das listagens paginadas por chave (keyset)
+-- Cada índice termina na chave de ordenação da listagem, para que filtro + ORDER BY + cursor
+-- sejam resolvidos por uma única varredura de índice, sem ordenação e sem OFFSET.
+
+-- Ocorrências: ordenadas por (data_hora_abertura, id), da mais recente para a mais antiga.
+-- A chave do cursor não pode ser nula: registros antigos sem abertura usam o fechamento.
+UPDATE ocorrencia
+   SET data_hora_abertura = COALESCE(data_hora_fechamento, CURRENT_TIMESTAMP)
+ WHERE data_hora_abertura IS NULL;
+ALTER TABLE ocorrencia ALTER COLUMN data_hora_abertura SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_ocorrencia_abertura_id ON ocorrencia (data_hora_abertura DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_ocorrencia_status_abertura_id ON ocorrencia (status, data_hora_abertura DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_ocorrencia_gravidade_abertura_id ON ocorrencia (gravidade, data_hora_abertura DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_ocorrencia_bairro_abertura_id ON ocorrencia (bairro_id, data_hora_abertura DESC, id DESC);
+
+-- Cadastros: ordenados pelo ID (chave primária), com o filtro mais seletivo à frente
+CREATE INDEX IF NOT EXISTS idx_ambulancia_status_id ON ambulancia (status, id);
+CREATE INDEX IF NOT EXISTS idx_ambulancia_base_id ON ambulancia (base_id, id);
+CREATE INDEX IF NOT EXISTS idx_profissional_funcao_id ON profissional (funcao, id);
+CREATE INDEX IF NOT EXISTS idx_profissional_turno_id ON profissional (turno, id);
+CREATE INDEX IF NOT EXISTS idx_equipe_turno_id ON equipe (turno, id);
+CREATE INDEX IF NOT EXISTS idx_equipe_ambulancia ON equipe (ambulancia_id);
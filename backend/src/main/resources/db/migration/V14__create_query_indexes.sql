@@ -0,0 +1,28 @@
+-- [Banco de Dados II] Índices das consultas mais frequentes dos repositórios
+-- Até aqui só ocorrencia_historico(ocorrencia_id) tinha índice explícito: as demais buscas
+-- por status, ocorrência, ambulância e profissional percorriam as tabelas inteiras.
+
+-- Parcial: apenas as ocorrências ativas, fração pequena e estável da tabela.
+-- Atende findByStatus (fila de espera, simulação) e o resumo dos contadores do Dashboard
+-- (id, status e abertura na chave: varredura só do índice).
+CREATE INDEX IF NOT EXISTS idx_ocorrencia_ativas ON ocorrencia (status, data_hora_abertura, id)
+  WHERE status IN ('ABERTA', 'DESPACHADA', 'EM_ATENDIMENTO');
+
+-- Cobertura: findByStatus e a listagem de ambulâncias leem as colunas do próprio índice.
+-- Substitui o índice (status, id) da V13, que é prefixo deste.
+DROP INDEX IF EXISTS idx_ambulancia_status_id;
+CREATE INDEX IF NOT EXISTS idx_ambulancia_status_id_cobertura ON ambulancia (status, id)
+  INCLUDE (placa, tipo, base_id);
+
+-- Último atendimento da ocorrência: findFirstByOcorrenciaOrderByIdDesc e MAX(id) por ocorrência
+CREATE INDEX IF NOT EXISTS idx_atendimento_ocorrencia_id ON atendimento (ocorrencia_id, id DESC);
+-- existsByAmbulancia (bloqueio de exclusão de ambulância)
+CREATE INDEX IF NOT EXISTS idx_atendimento_ambulancia ON atendimento (ambulancia_id);
+
+-- findByAmbulancia e findByAmbulanciaAndTurno; substitui o índice (ambulancia_id) da V13
+DROP INDEX IF EXISTS idx_equipe_ambulancia;
+CREATE INDEX IF NOT EXISTS idx_equipe_ambulancia_turno ON equipe (ambulancia_id, turno);
+
+-- existsByProfissionaisContaining e findByProfissionalAndTurno: a chave primária
+-- (equipe_id, profissional_id) não serve para buscar pelo profissional
+CREATE INDEX IF NOT EXISTS idx_equipe_profissional_profissional ON equipe_profissional (profissional_id, equipe_id);
@@ -0,0 +1,65 @@
+-- [Banco de Dados II] Particionamento por faixa de tempo (mensal) do histórico de ocorrências
+-- O histórico só recebe inserções e cresce sem limite: cada mês fica em uma partição, de modo
+-- que consultas por período leem só os meses envolvidos e meses antigos podem ser arquivados
+-- com DETACH/DROP PARTITION em vez de DELETE.
+-- A tabela ocorrencia não é particionada: a chave primária de uma tabela particionada precisa
+-- conter a coluna de partição, o que mudaria as chaves estrangeiras de atendimento e do histórico.
+
+-- Cria as partições mensais de [de, ate] que ainda não existem; devolve quantas criou.
+-- Chamada pela aplicação periodicamente para manter os próximos meses prontos.
+CREATE OR REPLACE FUNCTION fn_cria_particoes_historico(de DATE, ate DATE) RETURNS INTEGER AS $$
+DECLARE
+  mes DATE := date_trunc('month', de)::date;
+  nome TEXT;
+  criadas INTEGER := 0;
+BEGIN
+  WHILE mes <= ate LOOP
+    nome := 'ocorrencia_historico_' || to_char(mes, 'YYYY_MM');
+    IF to_regclass(nome) IS NULL THEN
+      BEGIN
+        EXECUTE format('CREATE TABLE %I PARTITION OF ocorrencia_historico FOR VALUES FROM (%L) TO (%L)',
+                       nome, mes, (mes + INTERVAL '1 month')::date);
+        criadas := criadas + 1;
+      EXCEPTION WHEN check_violation THEN
+        -- O mês já tem linhas na partição padrão (manutenção atrasada): permanecem nela
+        RAISE WARNING 'Partição % não criada: há linhas do mês na partição padrão', nome;
+      END;
+    END IF;
+    mes := (mes + INTERVAL '1 month')::date;
+  END LOOP;
+  RETURN criadas;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE ocorrencia_historico RENAME TO ocorrencia_historico_antigo;
+-- A sequência dos IDs continua a mesma (não é removida junto com a tabela antiga)
+ALTER SEQUENCE ocorrencia_historico_id_seq OWNED BY NONE;
+
+-- A chave primária inclui a coluna de partição; o ID continua único pela sequência
+CREATE TABLE ocorrencia_historico (
+    id INTEGER NOT NULL DEFAULT nextval('ocorrencia_historico_id_seq'),
+    ocorrencia_id INTEGER NOT NULL,
+    data_hora TIMESTAMP NOT NULL,
+    status_anterior VARCHAR(50),
+    status_novo VARCHAR(50) NOT NULL,
+    observacao TEXT,
+    CONSTRAINT pk_ocorrencia_historico PRIMARY KEY (id, data_hora),
+    CONSTRAINT fk_ocorrencia_historico_ocorrencia FOREIGN KEY (ocorrencia_id) REFERENCES ocorrencia(id)
+) PARTITION BY RANGE (data_hora);
+
+ALTER SEQUENCE ocorrencia_historico_id_seq OWNED BY ocorrencia_historico.id;
+
+-- Meses já registrados até três meses à frente; fora disso, a partição padrão
+SELECT fn_cria_particoes_historico(
+    LEAST(COALESCE((SELECT MIN(data_hora) FROM ocorrencia_historico_antigo)::date, CURRENT_DATE), CURRENT_DATE),
+    (CURRENT_DATE + INTERVAL '3 months')::date);
+CREATE TABLE ocorrencia_historico_padrao PARTITION OF ocorrencia_historico DEFAULT;
+
+INSERT INTO ocorrencia_historico (id, ocorrencia_id, data_hora, status_anterior, status_novo, observacao)
+SELECT id, ocorrencia_id, data_hora, status_anterior, status_novo, observacao FROM ocorrencia_historico_antigo;
+
+DROP TABLE ocorrencia_historico_antigo;
+
+-- Criado na tabela particionada, replicado em cada partição (atuais e futuras).
+-- findByOcorrenciaOrderByDataHoraDesc: busca pela ocorrência já na ordem da consulta
+CREATE INDEX idx_ocorrencia_historico_ocorrencia ON ocorrencia_historico (ocorrencia_id, data_hora DESC);
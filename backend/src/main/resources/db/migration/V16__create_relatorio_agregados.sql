@@ -0,0 +1,144 @@
+-- [Banco de Dados II] Tabelas de relatório pré-agregadas, atualizadas de forma incremental
+-- Os relatórios deixam de agrupar ocorrencia/atendimento/bairro a cada requisição: as linhas novas
+-- são somadas em baldes por hora e por dia × bairro × tipo de ambulância × gravidade, e as
+-- consultas leem só os baldes do período (custo independente do tamanho do histórico).
+
+-- Ocorrências abertas
+CREATE TABLE IF NOT EXISTS relatorio_ocorrencia_hora (
+  hora TIMESTAMP NOT NULL,
+  bairro_id INTEGER NOT NULL,          -- 0 = sem bairro
+  gravidade VARCHAR(20) NOT NULL,      -- '' = sem gravidade
+  total BIGINT NOT NULL,
+  CONSTRAINT pk_relatorio_ocorrencia_hora PRIMARY KEY (hora, bairro_id, gravidade)
+);
+
+CREATE TABLE IF NOT EXISTS relatorio_ocorrencia_dia (
+  dia DATE NOT NULL,
+  bairro_id INTEGER NOT NULL,
+  gravidade VARCHAR(20) NOT NULL,
+  total BIGINT NOT NULL,
+  CONSTRAINT pk_relatorio_ocorrencia_dia PRIMARY KEY (dia, bairro_id, gravidade)
+);
+
+-- Atendimentos (despachos). faixa_minutos é o histograma do tempo de resposta (sla_real):
+-- minutos inteiros de 0 a 120, com 120 acumulando os maiores; os percentis vêm das faixas.
+CREATE TABLE IF NOT EXISTS relatorio_atendimento_hora (
+  hora TIMESTAMP NOT NULL,
+  bairro_id INTEGER NOT NULL,
+  tipo_ambulancia VARCHAR(50) NOT NULL,
+  gravidade VARCHAR(20) NOT NULL,
+  faixa_minutos INTEGER NOT NULL,
+  total BIGINT NOT NULL,
+  fora_do_sla BIGINT NOT NULL,
+  soma_tempo_min DOUBLE PRECISION NOT NULL,
+  soma_distancia_km DOUBLE PRECISION NOT NULL,
+  CONSTRAINT pk_relatorio_atendimento_hora PRIMARY KEY (hora, bairro_id, tipo_ambulancia, gravidade, faixa_minutos)
+);
+
+CREATE TABLE IF NOT EXISTS relatorio_atendimento_dia (
+  dia DATE NOT NULL,
+  bairro_id INTEGER NOT NULL,
+  tipo_ambulancia VARCHAR(50) NOT NULL,
+  gravidade VARCHAR(20) NOT NULL,
+  faixa_minutos INTEGER NOT NULL,
+  total BIGINT NOT NULL,
+  fora_do_sla BIGINT NOT NULL,
+  soma_tempo_min DOUBLE PRECISION NOT NULL,
+  soma_distancia_km DOUBLE PRECISION NOT NULL,
+  CONSTRAINT pk_relatorio_atendimento_dia PRIMARY KEY (dia, bairro_id, tipo_ambulancia, gravidade, faixa_minutos)
+);
+
+-- Marca d'água: último ID já somado de cada tabela de origem
+CREATE TABLE IF NOT EXISTS relatorio_marca (
+  fonte VARCHAR(50) PRIMARY KEY,
+  ultimo_id INTEGER NOT NULL DEFAULT 0,
+  atualizado_em TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+INSERT INTO relatorio_marca (fonte) VALUES ('ocorrencia'), ('atendimento') ON CONFLICT (fonte) DO NOTHING;
+
+-- Soma às tabelas de relatório as linhas gravadas desde a última execução; devolve quantas somou.
+-- Vai até o maior ID entre as linhas gravadas há mais de "atraso": uma transação ainda aberta com
+-- ID menor não é pulada. Os campos agregados são definidos na criação da linha (abertura e despacho).
+-- "agora" vem do mesmo relógio que carimba as linhas (a aplicação), não do relógio do banco: com os
+-- dois relógios defasados, o corte pularia ou anteciparia linhas.
+-- O bloqueio das marcas serializa execuções concorrentes (várias instâncias da aplicação).
+CREATE OR REPLACE FUNCTION fn_atualiza_relatorios(agora TIMESTAMP, atraso INTERVAL) RETURNS INTEGER AS $$
+DECLARE
+  de_ocorrencia INTEGER;
+  ate_ocorrencia INTEGER;
+  de_atendimento INTEGER;
+  ate_atendimento INTEGER;
+  somadas INTEGER := 0;
+BEGIN
+  SELECT ultimo_id INTO de_ocorrencia FROM relatorio_marca WHERE fonte = 'ocorrencia' FOR UPDATE;
+  SELECT ultimo_id INTO de_atendimento FROM relatorio_marca WHERE fonte = 'atendimento' FOR UPDATE;
+
+  SELECT COALESCE(MAX(id), de_ocorrencia) INTO ate_ocorrencia FROM ocorrencia
+   WHERE id > de_ocorrencia AND data_hora_abertura < agora - atraso;
+
+  IF ate_ocorrencia > de_ocorrencia THEN
+    CREATE TEMP TABLE novas_ocorrencias ON COMMIT DROP AS
+    SELECT date_trunc('hour', o.data_hora_abertura) AS hora, COALESCE(o.bairro_id, 0) AS bairro_id,
+           COALESCE(o.gravidade, '') AS gravidade, COUNT(*) AS total
+      FROM ocorrencia o
+     WHERE o.id > de_ocorrencia AND o.id <= ate_ocorrencia
+     GROUP BY 1, 2, 3;
+
+    INSERT INTO relatorio_ocorrencia_hora AS r (hora, bairro_id, gravidade, total)
+    SELECT hora, bairro_id, gravidade, total FROM novas_ocorrencias
+    ON CONFLICT (hora, bairro_id, gravidade) DO UPDATE SET total = r.total + EXCLUDED.total;
+
+    INSERT INTO relatorio_ocorrencia_dia AS r (dia, bairro_id, gravidade, total)
+    SELECT hora::date, bairro_id, gravidade, SUM(total) FROM novas_ocorrencias GROUP BY 1, 2, 3
+    ON CONFLICT (dia, bairro_id, gravidade) DO UPDATE SET total = r.total + EXCLUDED.total;
+
+    SELECT somadas + COALESCE(SUM(total), 0) INTO somadas FROM novas_ocorrencias;
+    UPDATE relatorio_marca SET ultimo_id = ate_ocorrencia, atualizado_em = LOCALTIMESTAMP WHERE fonte = 'ocorrencia';
+  END IF;
+
+  SELECT COALESCE(MAX(id), de_atendimento) INTO ate_atendimento FROM atendimento
+   WHERE id > de_atendimento AND data_hora_despacho < agora - atraso;
+
+  IF ate_atendimento > de_atendimento THEN
+    CREATE TEMP TABLE novos_atendimentos ON COMMIT DROP AS
+    SELECT date_trunc('hour', a.data_hora_despacho) AS hora, COALESCE(o.bairro_id, 0) AS bairro_id,
+           COALESCE(am.tipo, '') AS tipo_ambulancia, COALESCE(o.gravidade, '') AS gravidade,
+           LEAST(GREATEST(FLOOR(COALESCE(a.sla_real, 0)), 0), 120)::INTEGER AS faixa_minutos,
+           COUNT(*) AS total, COUNT(*) FILTER (WHERE a.fora_do_sla) AS fora_do_sla,
+           SUM(COALESCE(a.sla_real, 0)) AS soma_tempo_min, SUM(COALESCE(a.distancia_km, 0)) AS soma_distancia_km
+      FROM atendimento a
+      JOIN ocorrencia o ON o.id = a.ocorrencia_id
+      LEFT JOIN ambulancia am ON am.id = a.ambulancia_id
+     WHERE a.id > de_atendimento AND a.id <= ate_atendimento AND a.data_hora_despacho IS NOT NULL
+     GROUP BY 1, 2, 3, 4, 5;
+
+    INSERT INTO relatorio_atendimento_hora AS r
+           (hora, bairro_id, tipo_ambulancia, gravidade, faixa_minutos, total, fora_do_sla, soma_tempo_min, soma_distancia_km)
+    SELECT hora, bairro_id, tipo_ambulancia, gravidade, faixa_minutos, total, fora_do_sla, soma_tempo_min, soma_distancia_km
+      FROM novos_atendimentos
+    ON CONFLICT (hora, bairro_id, tipo_ambulancia, gravidade, faixa_minutos) DO UPDATE
+       SET total = r.total + EXCLUDED.total, fora_do_sla = r.fora_do_sla + EXCLUDED.fora_do_sla,
+           soma_tempo_min = r.soma_tempo_min + EXCLUDED.soma_tempo_min,
+           soma_distancia_km = r.soma_distancia_km + EXCLUDED.soma_distancia_km;
+
+    INSERT INTO relatorio_atendimento_dia AS r
+           (dia, bairro_id, tipo_ambulancia, gravidade, faixa_minutos, total, fora_do_sla, soma_tempo_min, soma_distancia_km)
+    SELECT hora::date, bairro_id, tipo_ambulancia, gravidade, faixa_minutos,
+           SUM(total), SUM(fora_do_sla), SUM(soma_tempo_min), SUM(soma_distancia_km)
+      FROM novos_atendimentos GROUP BY 1, 2, 3, 4, 5
+    ON CONFLICT (dia, bairro_id, tipo_ambulancia, gravidade, faixa_minutos) DO UPDATE
+       SET total = r.total + EXCLUDED.total, fora_do_sla = r.fora_do_sla + EXCLUDED.fora_do_sla,
+           soma_tempo_min = r.soma_tempo_min + EXCLUDED.soma_tempo_min,
+           soma_distancia_km = r.soma_distancia_km + EXCLUDED.soma_distancia_km;
+
+    SELECT somadas + COALESCE(SUM(total), 0) INTO somadas FROM novos_atendimentos;
+    UPDATE relatorio_marca SET ultimo_id = ate_atendimento, atualizado_em = LOCALTIMESTAMP WHERE fonte = 'atendimento';
+  END IF;
+
+  RETURN somadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Carga inicial com todo o histórico existente (sem corte: a aplicação ainda não está gravando)
+SELECT fn_atualiza_relatorios(TIMESTAMP 'infinity', INTERVAL '0');
@@ -0,0 +1,194 @@
+package sosrota.backend.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Planos de execução (EXPLAIN) das consultas dos repositórios em um PostgreSQL embutido, com o
+ * esquema das migrações (V1..V15) e um volume sintético em que as consultas são seletivas.
+ * Cada consulta é o SQL equivalente ao gerado pelo Hibernate para o método do repositório;
+ * o teste falha se a tabela for lida por varredura sequencial ou o índice esperado não for usado.
+ * ./mvnw -Pquery-plans test -Dtest=QueryPlanTest
+ * [Banco de Dados II] Índices parciais, de cobertura e particionamento.
+ */
+class QueryPlanTest {
+
+    private static final int OCORRENCIAS = 200_000;
+    private static final int AMBULANCIAS = 5_000;
+
+    private static EmbeddedPostgres postgres;
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void setUp() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        dataSource = postgres.getPostgresDatabase();
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+
+        try (Connection connection = dataSource.getConnection(); Statement st = connection.createStatement()) {
+            // Partições do último ano antes da carga (senão o histórico antigo cairia na partição padrão)
+            st.execute("SELECT fn_cria_particoes_historico((CURRENT_DATE - INTERVAL '1 year')::date, CURRENT_DATE)");
+
+            // Frota e equipes: 2% das ambulâncias disponíveis; três profissionais por equipe
+            st.execute("INSERT INTO ambulancia (placa, tipo, status, base_id) "
+                    + "SELECT 'AMB' || g, CASE WHEN g % 3 = 0 THEN 'USA' ELSE 'USB' END, "
+                    + "CASE WHEN g % 50 = 0 THEN 'DISPONIVEL' WHEN g % 50 = 1 THEN 'MANUTENCAO' ELSE 'EM_ATENDIMENTO' END, "
+                    + "1 + g % 20 FROM generate_series(1, " + AMBULANCIAS + ") g");
+            st.execute("INSERT INTO profissional (nome, funcao, contato, ativo, turno) "
+                    + "SELECT 'Profissional ' || g, (ARRAY['MOTORISTA','ENFERMEIRO','MEDICO'])[1 + g % 3], NULL, TRUE, "
+                    + "(ARRAY['MATUTINO','VESPERTINO','NOTURNO'])[1 + g % 3] FROM generate_series(1, " + 3 * AMBULANCIAS + ") g");
+            st.execute("INSERT INTO equipe (descricao, ambulancia_id, turno) "
+                    + "SELECT 'Equipe ' || a.id, a.id, (ARRAY['MATUTINO','VESPERTINO','NOTURNO'])[1 + a.id % 3] FROM ambulancia a");
+            st.execute("INSERT INTO equipe_profissional (equipe_id, profissional_id) "
+                    + "SELECT e.id, p.id FROM equipe e JOIN profissional p ON p.id BETWEEN 3 * e.id - 2 AND 3 * e.id");
+
+            // Ocorrências dos últimos ~9 meses: 3% ativas, as demais encerradas
+            st.execute("INSERT INTO ocorrencia (tipo, gravidade, bairro_id, data_hora_abertura, status, data_hora_fechamento) "
+                    + "SELECT 'Ocorrência ' || g, (ARRAY['ALTA','MEDIA','BAIXA'])[1 + g % 3], 1 + g % 20, "
+                    + "LOCALTIMESTAMP - g * INTERVAL '2 minutes', "
+                    + "CASE g % 100 WHEN 0 THEN 'ABERTA' WHEN 1 THEN 'DESPACHADA' WHEN 2 THEN 'EM_ATENDIMENTO' "
+                    + "WHEN 3 THEN 'CANCELADA' ELSE 'CONCLUIDA' END, "
+                    + "CASE WHEN g % 100 > 2 THEN LOCALTIMESTAMP - g * INTERVAL '2 minutes' + INTERVAL '40 minutes' END "
+                    + "FROM generate_series(1, " + OCORRENCIAS + ") g");
+            st.execute("INSERT INTO atendimento (ocorrencia_id, ambulancia_id, data_hora_despacho, distancia_km) "
+                    + "SELECT o.id, 1 + o.id % " + AMBULANCIAS + ", o.data_hora_abertura, 5.0 "
+                    + "FROM ocorrencia o WHERE o.status NOT IN ('ABERTA', 'CANCELADA')");
+            st.execute("INSERT INTO ocorrencia_historico (ocorrencia_id, data_hora, status_anterior, status_novo, observacao) "
+                    + "SELECT o.id, o.data_hora_abertura, NULL, 'ABERTA', 'Ocorrência criada.' FROM ocorrencia o "
+                    + "UNION ALL SELECT o.id, o.data_hora_abertura + INTERVAL '1 minute', 'ABERTA', 'DESPACHADA', NULL "
+                    + "FROM ocorrencia o WHERE o.status <> 'ABERTA'");
+
+            // Estatísticas e mapa de visibilidade (varreduras só de índice)
+            st.execute("VACUUM ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void testOcorrenciaQueriesUseIndexes() throws SQLException {
+        // findByStatus: fila de espera e simulação
+        assertUsesIndex("SELECT * FROM ocorrencia o WHERE o.status = 'ABERTA'",
+                "ocorrencia", "idx_ocorrencia_ativas", "idx_ocorrencia_status_abertura_id");
+        // findResumoByStatusIn: contadores do Dashboard, só do índice parcial
+        String resumo = assertUsesIndex("SELECT o.id, o.status, o.data_hora_abertura FROM ocorrencia o "
+                + "WHERE o.status IN ('ABERTA', 'DESPACHADA', 'EM_ATENDIMENTO')", "ocorrencia", "idx_ocorrencia_ativas");
+        assertTrue(resumo.contains("Index Only Scan"), resumo);
+        // countByDataHoraAberturaGreaterThanEqual: abertas hoje
+        assertUsesIndex("SELECT COUNT(o.id) FROM ocorrencia o WHERE o.data_hora_abertura >= CURRENT_DATE",
+                "ocorrencia", "idx_ocorrencia_abertura_id");
+        // ListagemRepository.findOcorrencias: página seguinte de um status, pelo cursor
+        assertUsesIndex("SELECT o.id, o.tipo, o.gravidade, o.status, o.data_hora_abertura, o.data_hora_fechamento, b.id, b.nome "
+                + "FROM ocorrencia o LEFT JOIN bairro b ON b.id = o.bairro_id WHERE o.status = 'CONCLUIDA' "
+                + "AND (o.data_hora_abertura, o.id) < (LOCALTIMESTAMP - INTERVAL '30 days', 2147483647) "
+                + "ORDER BY o.data_hora_abertura DESC, o.id DESC LIMIT 51",
+                "ocorrencia", "idx_ocorrencia_status_abertura_id");
+    }
+
+    @Test
+    void testFleetAndTeamQueriesUseIndexes() throws SQLException {
+        // AmbulanciaRepository.findByStatus: índice de cobertura
+        assertUsesIndex("SELECT a.id, a.placa, a.tipo, a.status, a.base_id FROM ambulancia a WHERE a.status = 'DISPONIVEL'",
+                "ambulancia", "idx_ambulancia_status_id_cobertura");
+        // EquipeRepository.findByAmbulancia / findByAmbulanciaAndTurno
+        assertUsesIndex("SELECT * FROM equipe e WHERE e.ambulancia_id = 42", "equipe", "idx_equipe_ambulancia_turno");
+        assertUsesIndex("SELECT * FROM equipe e WHERE e.ambulancia_id = 42 AND e.turno = 'MATUTINO'",
+                "equipe", "idx_equipe_ambulancia_turno");
+        // existsByProfissionaisContaining / findByProfissionalAndTurno: pela tabela de junção
+        assertUsesIndex("SELECT e.id FROM equipe e JOIN equipe_profissional ep ON ep.equipe_id = e.id "
+                + "WHERE ep.profissional_id = 1234 FETCH FIRST 1 ROWS ONLY",
+                "equipe_profissional", "idx_equipe_profissional_profissional");
+        assertUsesIndex("SELECT e.* FROM equipe e JOIN equipe_profissional ep ON ep.equipe_id = e.id "
+                + "WHERE ep.profissional_id = 1234 AND e.turno = 'NOTURNO'",
+                "equipe_profissional", "idx_equipe_profissional_profissional");
+    }
+
+    @Test
+    void testAtendimentoQueriesUseIndexes() throws SQLException {
+        // findFirstByOcorrenciaOrderByIdDesc
+        assertUsesIndex("SELECT * FROM atendimento a WHERE a.ocorrencia_id = 1234 ORDER BY a.id DESC FETCH FIRST 1 ROWS ONLY",
+                "atendimento", "idx_atendimento_ocorrencia_id");
+        // existsByAmbulancia
+        assertUsesIndex("SELECT a.id FROM atendimento a WHERE a.ambulancia_id = 42 FETCH FIRST 1 ROWS ONLY",
+                "atendimento", "idx_atendimento_ambulancia");
+        // findUltimosByOcorrenciaStatus: ocorrências pelo índice parcial, último atendimento de cada uma
+        String plan = assertUsesIndex("SELECT a.*, o.*, am.* FROM atendimento a JOIN ocorrencia o ON o.id = a.ocorrencia_id "
+                + "LEFT JOIN ambulancia am ON am.id = a.ambulancia_id WHERE o.status = 'DESPACHADA' "
+                + "AND a.id = (SELECT MAX(a2.id) FROM atendimento a2 WHERE a2.ocorrencia_id = o.id)",
+                "ocorrencia", "idx_ocorrencia_ativas", "idx_ocorrencia_status_abertura_id");
+        assertTrue(plan.contains("idx_atendimento_ocorrencia_id"), plan);
+    }
+
+    @Test
+    void testHistoricoIsPartitionedByMonthAndIndexed() throws SQLException {
+        // findByOcorrenciaOrderByDataHoraDesc: índice em cada partição
+        String plan = explain("SELECT * FROM ocorrencia_historico h WHERE h.ocorrencia_id = 1234 ORDER BY h.data_hora DESC");
+        assertFalse(Pattern.compile("Seq Scan on ocorrencia_historico").matcher(plan).find(), plan);
+        assertTrue(plan.contains("ocorrencia_id_data_hora_idx"), plan);
+
+        // Consulta por período lê só a partição do mês
+        LocalDate mes = LocalDate.now().withDayOfMonth(1).minusMonths(2);
+        String periodo = explain("SELECT COUNT(*) FROM ocorrencia_historico h WHERE h.data_hora >= DATE '" + mes
+                + "' AND h.data_hora < DATE '" + mes.plusMonths(1) + "'");
+        assertEquals(Set.of("ocorrencia_historico_" + String.format("%d_%02d", mes.getYear(), mes.getMonthValue())),
+                partitions(periodo), periodo);
+    }
+
+    /**
+     * Verifica que a tabela não é lida por varredura sequencial e que um dos índices aceitos aparece no plano.
+     *
+     * @return Plano, para verificações adicionais
+     */
+    private static String assertUsesIndex(String sql, String table, String... indexes) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(Pattern.compile("Seq Scan on " + table + "\\b(?!_)").matcher(plan).find(),
+                "Varredura sequencial em " + table + ":\n" + plan);
+        assertTrue(Arrays.stream(indexes).anyMatch(plan::contains),
+                "Nenhum dos índices " + Arrays.toString(indexes) + " usado:\n" + plan);
+        return plan;
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    private static Set<String> partitions(String plan) {
+        Set<String> partitions = new TreeSet<>();
+        Matcher m = Pattern.compile("on (ocorrencia_historico_\\w+?)\\b").matcher(plan);
+        while (m.find()) {
+            partitions.add(m.group(1));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,186 @@
+package sosrota.backend.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.entity.Profissional;
+import sosrota.backend.entity.Turno;
+import sosrota.backend.repository.AmbulanciaRepository;
+import sosrota.backend.repository.BairroRepository;
+import sosrota.backend.repository.EquipeRepository;
+import sosrota.backend.repository.OcorrenciaRepository;
+import sosrota.backend.repository.ProfissionalRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark do número de comandos SQL por despacho (estatísticas do Hibernate).
+ * Antes: cada ambulância candidata exigia a busca das equipes e a carga da coleção de
+ * profissionais (N+1). Depois: a prontidão vem da projeção em memória.
+ * Roda a aplicação inteira sobre um PostgreSQL embutido com o esquema e a carga das migrações
+ * (as migrações usam recursos do PostgreSQL e não rodam no H2 dos testes unitários).
+ * ./mvnw -Pquery-plans test -Dtest=DispatchSqlCountBenchmarkTest
+ * [Banco de Dados II] Eliminação de consultas N+1.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+class DispatchSqlCountBenchmarkTest {
+
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DispatchSqlCountBenchmarkTest.class);
+
+    private static final int FLEET = 20;
+
+    /**
+     * PostgreSQL embutido, encerrado junto com o contexto da aplicação.
+     */
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+            return embeddedPostgres.getPostgresDatabase();
+        }
+    }
+
+    @Autowired
+    private BairroRepository bairroRepository;
+    @Autowired
+    private AmbulanciaRepository ambulanciaRepository;
+    @Autowired
+    private ProfissionalRepository profissionalRepository;
+    @Autowired
+    private EquipeRepository equipeRepository;
+    @Autowired
+    private OcorrenciaRepository ocorrenciaRepository;
+    @Autowired
+    private OcorrenciaService ocorrenciaService;
+    @Autowired
+    private DijsktraService dijsktraService;
+    @Autowired
+    private AmbulanceAvailabilityIndex availabilityIndex;
+    @Autowired
+    private FleetReadinessProjection readinessProjection;
+    @Autowired
+    private ShiftRosterEngine rosterEngine;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testTeamValidationStatementsPerDispatch() {
+        Bairro base = bairroRepository.findAll().stream().findFirst()
+                .orElseGet(() -> bairroRepository.save(new Bairro(1, "Centro")));
+        dijsktraService.reload();
+        // Equipes escaladas no turno atual (o despacho consulta a escala vigente)
+        Turno turno = rosterEngine.turnoAt(LocalDateTime.now());
+
+        List<Ambulancia> frota = new ArrayList<>();
+        for (int i = 0; i < FLEET; i++) {
+            Ambulancia ambulancia = new Ambulancia();
+            ambulancia.setPlaca("BMK" + (1000 + i));
+            ambulancia.setTipo("USA");
+            ambulancia.setStatus("DISPONIVEL");
+            ambulancia.setBairro(base);
+            ambulancia = ambulanciaRepository.save(ambulancia);
+            frota.add(ambulancia);
+
+            Equipe equipe = new Equipe();
+            equipe.setDescricao("Equipe " + i);
+            equipe.setAmbulancia(ambulancia);
+            equipe.setTurno(turno);
+            equipe.setProfissionais(List.of(
+                    profissional("Motorista " + i, "MOTORISTA"),
+                    profissional("Médico " + i, "MEDICO"),
+                    profissional("Enfermeiro " + i, "ENFERMEIRO")));
+            equipeRepository.save(equipe);
+        }
+        availabilityIndex.rebuild();
+        readinessProjection.rebuild();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertTrue(statistics.isStatisticsEnabled());
+
+        // Antes: equipes da candidata + coleção lazy de profissionais, por ambulância
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        statistics.clear();
+        transaction.executeWithoutResult(status -> {
+            for (Ambulancia ambulancia : frota) {
+                assertTrue(hasCompleteTeam(ambulancia));
+            }
+        });
+        long antes = statistics.getPrepareStatementCount();
+
+        // Depois: projeção em memória
+        statistics.clear();
+        for (Ambulancia ambulancia : frota) {
+            assertTrue(readinessProjection.isReady(ambulancia.getId(), ambulancia.getTipo()));
+        }
+        long depois = statistics.getPrepareStatementCount();
+
+        // Despacho completo (seleção, atendimento, status e histórico)
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setTipo("Benchmark");
+        ocorrencia.setGravidade("ALTA");
+        ocorrencia.setBairro(base);
+        Ocorrencia registrada = ocorrenciaService.registerOcorrencia(ocorrencia);
+        statistics.clear();
+        ocorrenciaService.dispatchPending(registrada.getId());
+        long despacho = statistics.getPrepareStatementCount();
+
+        logger.info("Validação de equipes para {} candidatas: {} comandos SQL antes, {} depois. Despacho completo: {} comandos SQL.",
+                FLEET, antes, depois, despacho);
+        assertTrue(antes >= 2L * FLEET);
+        assertEquals(0, depois);
+        assertEquals("DESPACHADA", ocorrenciaRepository.findById(registrada.getId()).orElseThrow().getStatus());
+        // O despacho não cresce com a frota: no máximo uma leitura por candidata considerada
+        assertTrue(despacho < antes);
+    }
+
+    private Profissional profissional(String nome, String funcao) {
+        Profissional profissional = new Profissional();
+        profissional.setNome(nome);
+        profissional.setFuncao(funcao);
+        profissional.setAtivo(true);
+        profissional.setTurno(Turno.MATUTINO);
+        return profissionalRepository.save(profissional);
+    }
+
+    // Validação anterior à projeção (uma consulta de equipes e uma de profissionais por ambulância)
+    private boolean hasCompleteTeam(Ambulancia ambulancia) {
+        return equipeRepository.findByAmbulancia(ambulancia).stream().anyMatch(equipe -> {
+            List<Profissional> profissionais = equipe.getProfissionais();
+            return profissionais.stream().anyMatch(p -> "MOTORISTA".equals(p.getFuncao()))
+                    && profissionais.stream().anyMatch(p -> "MEDICO".equals(p.getFuncao()))
+                    && profissionais.stream().anyMatch(p -> "ENFERMEIRO".equals(p.getFuncao()));
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package sosrota.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class GraphBulkImporterTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement insert;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    private GraphBulkImporter importer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(insert);
+        importer = new GraphBulkImporter(dataSource, null);
+        ReflectionTestUtils.setField(importer, "mode", "AUTO");
+        ReflectionTestUtils.setField(importer, "batchSize", 2);
+    }
+
+    @Test
+    void testParseLineHandlesQuotesAndShortRows() {
+        List<String> campos = new ArrayList<>();
+
+        assertTrue(GraphBulkImporter.parseLine(" 7 , Jardim América ", campos, 2));
+        assertEquals(List.of("7", "Jardim América"), campos);
+
+        assertTrue(GraphBulkImporter.parseLine("8,\"Vila \"\"Nova\"\", Sul\"", campos, 2));
+        assertEquals(List.of("8", "Vila \"Nova\", Sul"), campos);
+
+        assertTrue(GraphBulkImporter.parseLine("9,,", campos, 3));
+        assertEquals(List.of("9", "", ""), campos);
+
+        assertFalse(GraphBulkImporter.parseLine("10", campos, 2));
+        assertFalse(GraphBulkImporter.parseLine("", campos, 2));
+    }
+
+    @Test
+    void testBatchImportOfGzipFile() throws Exception {
+        String csv = "id,bairro_origem_id,bairro_destino_id,distancia_km\n1,9,16,6.4\n2,15,19,8.3\n\n3,1,2,1.5\n";
+
+        GraphBulkImporter.ImportResult result = importer.importCsv(GraphBulkImporter.Table.ARESTA, gzip(csv), "teste.csv.gz");
+
+        assertEquals(GraphBulkImporter.Mode.BATCH, result.mode);
+        assertEquals(3, result.rows);
+        assertEquals(1, result.skipped);
+        verify(connection).prepareStatement("INSERT INTO aresta (id, origem_id, destino_id, distancia_km) VALUES (?, ?, ?, ?)");
+        verify(insert, times(3)).addBatch();
+        verify(insert, times(2)).executeBatch(); // lote de 2 + restante
+        verify(insert).setDouble(4, 8.3);
+        verify(connection).commit();
+        verify(connection, never()).rollback();
+        verify(connection).setAutoCommit(true);
+    }
+
+    @Test
+    void testInvalidValueRollsBack() throws Exception {
+        String csv = "id,nome_bairro\n1,Centro\nx,Sem número\n";
+
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class, () -> importer.importCsv(
+                GraphBulkImporter.Table.BAIRRO, new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "teste.csv"));
+
+        assertTrue(erro.getMessage().contains("Linha 3"));
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    void testCopyRequiresPostgres() throws Exception {
+        ReflectionTestUtils.setField(importer, "mode", "COPY");
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        assertThrows(IllegalStateException.class, () -> importer.importCsv(
+                GraphBulkImporter.Table.BAIRRO, new ByteArrayInputStream("id,nome\n".getBytes(StandardCharsets.UTF_8)), "teste.csv"));
+        verify(connection, never()).commit();
+    }
+
+    private static InputStream gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+}
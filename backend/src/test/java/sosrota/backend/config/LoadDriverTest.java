@@ -0,0 +1,37 @@
+package sosrota.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadDriverTest {
+
+    @Test
+    void testPercentileNearestRank() {
+        long[] valores = {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+        assertEquals(50, LoadDriver.percentile(valores, 50));
+        assertEquals(90, LoadDriver.percentile(valores, 90));
+        assertEquals(100, LoadDriver.percentile(valores, 99));
+        assertEquals(100, LoadDriver.percentile(valores, 100));
+        assertEquals(10, LoadDriver.percentile(valores, 0));
+        assertEquals(0, LoadDriver.percentile(new long[0], 50));
+    }
+
+    @Test
+    void testArrivalGapsMatchPoissonRate() {
+        Random random = new Random(1);
+        double taxa = 8.0;
+        int amostras = 200_000;
+        double soma = 0;
+        for (int i = 0; i < amostras; i++) {
+            double intervalo = LoadDriver.nextArrivalGap(random, taxa);
+            assertTrue(intervalo >= 0);
+            soma += intervalo;
+        }
+        // Intervalos exponenciais: média 1/taxa
+        assertEquals(1.0 / taxa, soma / amostras, 0.002);
+    }
+}
@@ -0,0 +1,127 @@
+package sosrota.backend.config;
+
+import org.junit.jupiter.api.Test;
+import sosrota.backend.entity.Aresta;
+import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Profissional;
+import sosrota.backend.entity.Turno;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticCityGeneratorTest {
+
+    private final SyntheticCityGenerator generator = new SyntheticCityGenerator(null, null, null, null, null);
+
+    private SyntheticCityGenerator.Spec spec(SyntheticCityGenerator.Topology topology, int bairros) {
+        SyntheticCityGenerator.Spec spec = new SyntheticCityGenerator.Spec();
+        spec.setTopology(topology);
+        spec.setBairros(bairros);
+        spec.setAmbulancias(20);
+        spec.setSeed(42);
+        return spec;
+    }
+
+    @Test
+    void testEveryTopologyIsConnected() {
+        for (SyntheticCityGenerator.Topology topology : SyntheticCityGenerator.Topology.values()) {
+            SyntheticCityGenerator.City city = generator.generate(spec(topology, 2000));
+
+            assertEquals(2000, city.bairros.size(), topology.name());
+            assertEquals(2000, reachableFrom(1, city.arestas, city.bairros.size()), topology + " deveria ser conexo");
+
+            Set<Long> pares = new HashSet<>();
+            for (Aresta aresta : city.arestas) {
+                int a = aresta.getOrigem().getId();
+                int b = aresta.getDestino().getId();
+                assertNotEquals(a, b, "Rua ligando o bairro a ele mesmo");
+                assertTrue(aresta.getDistanciaKm() > 0);
+                assertTrue(pares.add(((long) Math.min(a, b) << 32) | Math.max(a, b)), "Rua duplicada " + a + "-" + b);
+            }
+        }
+    }
+
+    @Test
+    void testSameSeedGeneratesSameCity() {
+        SyntheticCityGenerator.City primeira = generator.generate(spec(SyntheticCityGenerator.Topology.HUB, 1000));
+        SyntheticCityGenerator.City segunda = generator.generate(spec(SyntheticCityGenerator.Topology.HUB, 1000));
+
+        assertEquals(describe(primeira.arestas), describe(segunda.arestas));
+        assertEquals(primeira.ambulancias.stream().map(a -> a.getTipo() + a.getBairro().getId()).toList(),
+                segunda.ambulancias.stream().map(a -> a.getTipo() + a.getBairro().getId()).toList());
+    }
+
+    @Test
+    void testRoadDegreesFollowStreetNetworks() {
+        SyntheticCityGenerator.City city = generator.generate(spec(SyntheticCityGenerator.Topology.ROAD, 5000));
+
+        int[] grau = new int[city.bairros.size() + 1];
+        for (Aresta aresta : city.arestas) {
+            grau[aresta.getOrigem().getId()]++;
+            grau[aresta.getDestino().getId()]++;
+        }
+        double media = 2.0 * city.arestas.size() / city.bairros.size();
+        long cruzamentos = java.util.Arrays.stream(grau).skip(1).filter(g -> g >= 3).count();
+        // Malhas viárias: grau médio entre 2,5 e 3,5, com maioria de cruzamentos de 3 ou mais ruas
+        assertTrue(media > 2.5 && media < 3.5, "Grau médio " + media);
+        assertTrue(cruzamentos > city.bairros.size() / 2, "Cruzamentos " + cruzamentos);
+    }
+
+    @Test
+    void testEveryAmbulanceHasCompleteTeamPerTurno() {
+        SyntheticCityGenerator.City city = generator.generate(spec(SyntheticCityGenerator.Topology.GRID, 500));
+
+        assertEquals(20, city.ambulancias.size());
+        assertEquals(20 * Turno.values().length, city.equipes.size());
+        for (Equipe equipe : city.equipes) {
+            Set<String> funcoes = equipe.getProfissionais().stream().map(Profissional::getFuncao).collect(Collectors.toSet());
+            assertTrue(funcoes.containsAll(List.of("MOTORISTA", "ENFERMEIRO")));
+            assertEquals("USA".equals(equipe.getAmbulancia().getTipo()), funcoes.contains("MEDICO"));
+            assertTrue(equipe.getProfissionais().stream().allMatch(p -> p.getTurno() == equipe.getTurno()));
+        }
+    }
+
+    @Test
+    void testRejectsTooSmallCity() {
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(spec(SyntheticCityGenerator.Topology.GRID, 1)));
+    }
+
+    private static int reachableFrom(int origem, List<Aresta> arestas, int n) {
+        List<List<Integer>> vizinhos = new ArrayList<>();
+        for (int i = 0; i <= n; i++) {
+            vizinhos.add(new ArrayList<>());
+        }
+        for (Aresta aresta : arestas) {
+            vizinhos.get(aresta.getOrigem().getId()).add(aresta.getDestino().getId());
+            vizinhos.get(aresta.getDestino().getId()).add(aresta.getOrigem().getId());
+        }
+        boolean[] visitado = new boolean[n + 1];
+        ArrayDeque<Integer> fila = new ArrayDeque<>();
+        fila.add(origem);
+        visitado[origem] = true;
+        int alcancados = 0;
+        while (!fila.isEmpty()) {
+            int atual = fila.poll();
+            alcancados++;
+            for (int vizinho : vizinhos.get(atual)) {
+                if (!visitado[vizinho]) {
+                    visitado[vizinho] = true;
+                    fila.add(vizinho);
+                }
+            }
+        }
+        return alcancados;
+    }
+
+    private static List<String> describe(List<Aresta> arestas) {
+        return arestas.stream()
+                .map(a -> a.getOrigem().getId() + "-" + a.getDestino().getId() + ":" + a.getDistanciaKm())
+                .toList();
+    }
+}
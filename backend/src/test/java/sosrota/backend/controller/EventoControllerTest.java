@@ -0,0 +1,133 @@
+package sosrota.backend.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import sosrota.backend.config.JwtAuthenticationFilter;
+import sosrota.backend.service.JwtService;
+import sosrota.backend.service.StateEventStream;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class EventoControllerTest {
+
+    private static final String SECRET = "c29zcm90YS1qd3Qtc2VjcmV0LWtleS1kZXZlbG9wbWVudC1tb2RlLTIwMjU=";
+
+    private final UserDetails operador = User.withUsername("operador").password("senha").roles("USER").build();
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private StateEventStream stateEventStream;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "streamTicketExpiration", 60_000L);
+
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("operador")).thenReturn(operador);
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService);
+
+        stateEventStream = mock(StateEventStream.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new EventoController(stateEventStream, jwtService))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .addFilters(filter)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testEventSourceOpensStreamWithTicketInsteadOfAuthorizationHeader() throws Exception {
+        String token = jwtService.generateToken(operador);
+        String resposta = mockMvc.perform(post("/api/eventos/ticket").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiraEmMs").value(60_000))
+                .andReturn().getResponse().getContentAsString();
+        String ticket = JsonPath.read(resposta, "$.ticket");
+        SecurityContextHolder.clearContext();
+
+        // Sem cabeçalho Authorization, como o EventSource do navegador
+        AtomicReference<Authentication> autenticado = new AtomicReference<>();
+        when(stateEventStream.subscribe(any(), any())).thenAnswer(i -> {
+            autenticado.set(SecurityContextHolder.getContext().getAuthentication());
+            return null;
+        });
+        mockMvc.perform(get("/api/eventos").param("ticket", ticket).param("lastEventId", "abc-5"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Accel-Buffering", "no"));
+
+        assertNotNull(autenticado.get());
+        assertEquals("operador", autenticado.get().getName());
+        verify(stateEventStream).subscribe(any(), eq("abc-5"));
+    }
+
+    @Test
+    void testLastEventIdHeaderTakesPrecedenceOnBrowserReconnect() throws Exception {
+        String ticket = jwtService.generateStreamTicket(operador);
+
+        mockMvc.perform(get("/api/eventos").param("ticket", ticket).param("lastEventId", "abc-5")
+                        .header("Last-Event-ID", "abc-9"))
+                .andExpect(request().asyncStarted());
+
+        verify(stateEventStream).subscribe(any(), eq("abc-9"));
+    }
+
+    @Test
+    void testTicketIsOnlyAcceptedOnEventStream() throws Exception {
+        String ticket = jwtService.generateStreamTicket(operador);
+        String token = jwtService.generateToken(operador);
+
+        // O ticket não serve como token de acesso, nem o token como ticket
+        assertTrue(jwtService.isStreamTicketValid(ticket, operador));
+        assertFalse(jwtService.isTokenValid(ticket, operador));
+        assertFalse(jwtService.isStreamTicketValid(token, operador));
+
+        // Em outras rotas o parâmetro é ignorado
+        MockHttpServletRequest outraRota = new MockHttpServletRequest("GET", "/api/ocorrencias");
+        outraRota.addParameter("ticket", ticket);
+        filter.doFilter(outraRota, new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        // Como Bearer, o ticket é recusado
+        MockHttpServletRequest bearer = new MockHttpServletRequest("GET", "/api/eventos");
+        bearer.addHeader("Authorization", "Bearer " + ticket);
+        filter.doFilter(bearer, new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        MockHttpServletRequest fluxo = new MockHttpServletRequest("GET", "/api/eventos");
+        fluxo.addParameter("ticket", ticket);
+        filter.doFilter(fluxo, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals("operador", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+}
@@ -0,0 +1,132 @@
+package sosrota.backend.dispatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import sosrota.backend.service.OcorrenciaService;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DispatchPipelineTest {
+
+    @Mock
+    private OcorrenciaService ocorrenciaService;
+
+    @InjectMocks
+    private DispatchPipeline pipeline;
+
+    private final Map<Integer, Thread> threads = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void testSubmitDispatchesOutsideCallerThread() throws InterruptedException {
+        pipeline.init();
+        CountDownLatch done = new CountDownLatch(1);
+        doAnswer(i -> {
+            threads.put(i.getArgument(0), Thread.currentThread());
+            done.countDown();
+            return null;
+        }).when(ocorrenciaService).dispatchPending(1);
+
+        pipeline.submit(1);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), threads.get(1));
+        awaitFinished(1);
+        assertEquals(1, pipeline.getCompletedCount());
+        assertNull(pipeline.stageOf(1));
+    }
+
+    @Test
+    void testFailureIsRecordedInHistory() {
+        pipeline.init();
+        doThrow(new IllegalStateException("grafo indisponível")).when(ocorrenciaService).dispatchPending(2);
+
+        pipeline.submit(2);
+
+        awaitFinished(1);
+        assertEquals(1, pipeline.getFailedCount());
+        verify(ocorrenciaService, timeout(5000)).registrarFalhaDespacho(2, "grafo indisponível");
+    }
+
+    @Test
+    void testFreedAmbulanceBatchRunsOnDispatchExecutor() throws InterruptedException {
+        pipeline.init();
+        verify(ocorrenciaService).setFreedAmbulanceHandler(any());
+        CountDownLatch done = new CountDownLatch(1);
+        doAnswer(i -> {
+            threads.put(i.getArgument(0), Thread.currentThread());
+            done.countDown();
+            return null;
+        }).when(ocorrenciaService).processFreedAmbulance(7);
+
+        pipeline.submitFreedAmbulance(7);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(threads.get(7).getName().startsWith("dispatch-"));
+    }
+
+    @Test
+    void testFullQueueRunsDispatchInCallerThread() throws InterruptedException {
+        ReflectionTestUtils.setField(pipeline, "threads", 1);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 1);
+        pipeline.init();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(i -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(ocorrenciaService).dispatchPending(1);
+        doAnswer(i -> {
+            threads.put(i.getArgument(0), Thread.currentThread());
+            return null;
+        }).when(ocorrenciaService).dispatchPending(3);
+
+        pipeline.submit(1);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(DispatchPipeline.Stage.PROCESSANDO, pipeline.stageOf(1));
+        pipeline.submit(2);
+        assertEquals(DispatchPipeline.Stage.NA_FILA, pipeline.stageOf(2));
+        assertEquals(0, pipeline.getQueueRemainingCapacity());
+
+        // Fila cheia: a terceira é despachada pela própria thread chamadora
+        pipeline.submit(3);
+        assertSame(Thread.currentThread(), threads.get(3));
+        assertEquals(1, pipeline.getCallerRunsCount());
+
+        release.countDown();
+        awaitFinished(3);
+        assertEquals(3, pipeline.getSubmittedCount());
+        verify(ocorrenciaService).dispatchPending(2);
+    }
+
+    private void awaitFinished(long expected) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.getFinishedCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, pipeline.getFinishedCount());
+    }
+}
@@ -0,0 +1,90 @@
+package sosrota.backend.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HungarianAlgorithmTest {
+
+    @Test
+    void testMatchesBruteForceOnSmallMatrices() {
+        Random random = new Random(5);
+        for (int q = 0; q < 300; q++) {
+            int n = 1 + random.nextInt(6);
+            int m = n + random.nextInt(3);
+            double[][] cost = new double[n][m];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < m; j++) {
+                    cost[i][j] = random.nextInt(4) == 0 ? 1e12 : random.nextDouble() * 100;
+                }
+            }
+            int[] assignment = HungarianAlgorithm.solve(cost);
+            assertDistinctColumns(assignment, m);
+            assertEquals(bruteForce(cost, 0, new boolean[m]), total(cost, assignment), 1e-6);
+        }
+    }
+
+    @Test
+    void testLargeBatchIsValid() {
+        Random random = new Random(9);
+        int n = 300;
+        int m = 600;
+        double[][] cost = new double[n][m];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                cost[i][j] = random.nextDouble() * 60;
+            }
+        }
+        int[] assignment = HungarianAlgorithm.solve(cost);
+        assertDistinctColumns(assignment, m);
+        // Nenhuma troca entre pares de linhas reduz o custo (condição necessária de otimalidade)
+        for (int a = 0; a < n; a += 7) {
+            for (int b = a + 1; b < n; b += 11) {
+                double current = cost[a][assignment[a]] + cost[b][assignment[b]];
+                double swapped = cost[a][assignment[b]] + cost[b][assignment[a]];
+                assertTrue(current <= swapped + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testRejectsMoreRowsThanColumns() {
+        assertEquals(0, HungarianAlgorithm.solve(new double[0][0]).length);
+        assertThrows(IllegalArgumentException.class, () -> HungarianAlgorithm.solve(new double[2][1]));
+    }
+
+    private void assertDistinctColumns(int[] assignment, int m) {
+        Set<Integer> columns = new HashSet<>();
+        for (int j : assignment) {
+            assertTrue(j >= 0 && j < m);
+            assertTrue(columns.add(j));
+        }
+    }
+
+    private double total(double[][] cost, int[] assignment) {
+        double sum = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            sum += cost[i][assignment[i]];
+        }
+        return sum;
+    }
+
+    private double bruteForce(double[][] cost, int row, boolean[] used) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,99 @@
+package sosrota.backend.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AltEngineTest {
+
+    @Test
+    void testStreetGridMatchesDijkstraWithSmallerSearchSpace() {
+        Random random = new Random(42);
+        int side = 60;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < side * side; i++) {
+            builder.addNode(i * 2 + 1, "Bairro " + i);
+        }
+        int edgeId = 1;
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                int u = i * side + j;
+                if (j + 1 < side) {
+                    builder.addUndirected(edgeId++, u * 2 + 1, (u + 1) * 2 + 1, 0.1 + random.nextDouble() * 2);
+                }
+                if (i + 1 < side) {
+                    builder.addUndirected(edgeId++, u * 2 + 1, (u + side) * 2 + 1, 0.1 + random.nextDouble() * 2);
+                }
+            }
+        }
+        CsrGraph graph = builder.build();
+        AltEngine alt = AltEngine.build(graph, 8);
+        assertEquals(8, alt.landmarks().length);
+
+        long[] settled = assertSameRoutes(graph, alt, new Random(7), 500);
+        // A heurística deve podar a maior parte do espaço de busca do Dijkstra
+        assertTrue(settled[0] * 2 < settled[1], "ALT " + settled[0] + " vs Dijkstra " + settled[1]);
+    }
+
+    @Test
+    void testDirectedGraphWithUnreachableNodesMatchesDijkstra() {
+        Random random = new Random(13);
+        int n = 400;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < n; i++) {
+            builder.addNode(i + 1, "Bairro " + i);
+        }
+        for (int i = 0; i < n * 2; i++) {
+            builder.addArc(i + 1, random.nextInt(n - 20) + 1, random.nextInt(n - 20) + 1, 0.1 + random.nextDouble() * 10);
+        }
+        CsrGraph graph = builder.build();
+        assertSameRoutes(graph, AltEngine.build(graph, 6), new Random(17), 2000);
+    }
+
+    @Test
+    void testHeuristicIsAdmissible() {
+        CsrGraph graph = new CsrGraph.Builder()
+                .addNode(1, "A")
+                .addNode(2, "B")
+                .addNode(3, "C")
+                .addNode(4, "D")
+                .addUndirected(1, 1, 2, 1.0)
+                .addUndirected(2, 2, 3, 2.0)
+                .addUndirected(3, 3, 4, 4.0)
+                .build();
+        AltEngine alt = AltEngine.build(graph, 2);
+        DijkstraEngine dijkstra = new DijkstraEngine(graph);
+        for (int s = 0; s < 4; s++) {
+            for (int t = 0; t < 4; t++) {
+                assertTrue(alt.heuristic(s, t) <= dijkstra.route(s, t).distance() + 1e-12);
+            }
+        }
+        // Extremos da linha são escolhidos como landmarks: heurística exata
+        assertEquals(7.0, alt.heuristic(0, 3), 1e-12);
+    }
+
+    private long[] assertSameRoutes(CsrGraph graph, AltEngine alt, Random random, int queries) {
+        DijkstraEngine dijkstra = new DijkstraEngine(graph);
+        long[] settled = new long[2];
+        int n = graph.nodeCount();
+        for (int q = 0; q < queries; q++) {
+            int source = random.nextInt(n);
+            int target = random.nextInt(n);
+            Route expected = dijkstra.route(source, target);
+            Route actual = alt.route(source, target);
+            if (expected == null) {
+                assertNull(actual);
+                continue;
+            }
+            assertNotNull(actual);
+            assertEquals(expected.distance(), actual.distance(), 1e-9);
+            assertArrayEquals(expected.arcs(), actual.arcs());
+            assertTrue(actual.settledNodes() <= expected.settledNodes());
+            settled[0] += actual.settledNodes();
+            settled[1] += expected.settledNodes();
+        }
+        return settled;
+    }
+}
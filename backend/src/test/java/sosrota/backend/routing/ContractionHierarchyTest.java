@@ -0,0 +1,91 @@
+package sosrota.backend.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    @Test
+    void testStreetGridMatchesDijkstra() {
+        // Malha viária (grade com pesos reais aleatórios), mão dupla
+        Random random = new Random(42);
+        int side = 60;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < side * side; i++) {
+            builder.addNode(i * 2 + 1, "Bairro " + i);
+        }
+        int edgeId = 1;
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                int u = i * side + j;
+                if (j + 1 < side) {
+                    builder.addUndirected(edgeId++, u * 2 + 1, (u + 1) * 2 + 1, 0.1 + random.nextDouble() * 2);
+                }
+                if (i + 1 < side) {
+                    builder.addUndirected(edgeId++, u * 2 + 1, (u + side) * 2 + 1, 0.1 + random.nextDouble() * 2);
+                }
+            }
+        }
+        assertSameRoutes(builder.build(), new Random(7), 1000);
+    }
+
+    @Test
+    void testDirectedSparseGraphWithUnreachableNodesMatchesDijkstra() {
+        // Arcos de mão única, arestas paralelas, laços e vértices isolados
+        Random random = new Random(13);
+        int n = 400;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < n; i++) {
+            builder.addNode(i + 1, "Bairro " + i);
+        }
+        for (int i = 0; i < n * 2; i++) {
+            int u = random.nextInt(n - 20) + 1;
+            int v = random.nextInt(n - 20) + 1;
+            builder.addArc(i + 1, u, v, 0.1 + random.nextDouble() * 10);
+        }
+        builder.addArc(n * 2 + 1, 5, 5, 1.0);
+        builder.addArc(n * 2 + 2, 1, 2, 50.0);
+        builder.addArc(n * 2 + 3, 1, 2, 0.05);
+        assertSameRoutes(builder.build(), new Random(17), 2000);
+    }
+
+    @Test
+    void testSameSourceAndTargetReturnsEmptyRoute() {
+        CsrGraph graph = new CsrGraph.Builder()
+                .addNode(1, "A")
+                .addNode(2, "B")
+                .addUndirected(1, 1, 2, 3.0)
+                .build();
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+
+        Route route = ch.route(0, 0);
+        assertEquals(0.0, route.distance());
+        assertEquals(0, route.arcs().length);
+        assertEquals(3.0, ch.route(0, 1).distance(), 1e-12);
+    }
+
+    private void assertSameRoutes(CsrGraph graph, Random random, int queries) {
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+        DijkstraEngine dijkstra = new DijkstraEngine(graph);
+        assertTrue(ch.shortcutCount() > 0);
+
+        int n = graph.nodeCount();
+        for (int q = 0; q < queries; q++) {
+            int source = random.nextInt(n);
+            int target = random.nextInt(n);
+            Route expected = dijkstra.route(source, target);
+            Route actual = ch.route(source, target);
+            if (expected == null) {
+                assertNull(actual);
+                continue;
+            }
+            assertNotNull(actual);
+            assertEquals(expected.distance(), actual.distance(), 1e-9);
+            // Atalhos expandidos: mesma sequência de arcos originais
+            assertArrayEquals(expected.arcs(), actual.arcs());
+        }
+    }
+}
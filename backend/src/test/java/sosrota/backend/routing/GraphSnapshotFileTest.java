@@ -0,0 +1,193 @@
+package sosrota.backend.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotFileTest {
+
+    private Path dir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("grafo-snapshot");
+        file = dir.resolve("grafo.snapshot");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static CsrGraph randomGraph(int n, int edges, long seed) {
+        return randomGraph(n, edges, seed, -1, 0.0);
+    }
+
+    // Mesmo grafo, com outra distância para a aresta indicada (como numa recarga após editar a rua)
+    private static CsrGraph randomGraph(int n, int edges, long seed, int changedEdge, double changedWeight) {
+        Random random = new Random(seed);
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < n; i++) {
+            // IDs esparsos e nomes com acentos para exercitar o remapeamento e o UTF-8
+            builder.addNode(10 + 3 * i, "Bairro São João " + i);
+        }
+        for (int e = 1; e <= edges; e++) {
+            int u = 10 + 3 * random.nextInt(n);
+            int v = 10 + 3 * random.nextInt(n);
+            double weight = 0.1 + random.nextDouble() * 5;
+            builder.addUndirected(e, u, v, e == changedEdge ? changedWeight : weight);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testRoundTripPreservesGraph() throws IOException {
+        CsrGraph original = randomGraph(500, 1500, 1);
+
+        long bytes = GraphSnapshotFile.write(file, original, 42);
+        CsrGraph lido = GraphSnapshotFile.read(file, 42);
+
+        assertEquals(Files.size(file), bytes);
+        assertFalse(Files.exists(dir.resolve("grafo.snapshot.tmp")));
+        assertNotNull(lido);
+        assertEquals(original.nodeCount(), lido.nodeCount());
+        assertEquals(original.arcCount(), lido.arcCount());
+        for (int u = 0; u < original.nodeCount(); u++) {
+            assertEquals(original.nodeId(u), lido.nodeId(u));
+            assertEquals(original.name(u), lido.name(u));
+            assertEquals(original.firstArc(u), lido.firstArc(u));
+            assertEquals(original.endArc(u), lido.endArc(u));
+        }
+        for (int a = 0; a < original.arcCount(); a++) {
+            assertEquals(original.target(a), lido.target(a));
+            assertEquals(original.edgeId(a), lido.edgeId(a));
+            assertEquals(original.weight(a), lido.weight(a), 0.0);
+        }
+
+        // Mesmas rotas com o grafo lido do arquivo
+        DijkstraEngine a = new DijkstraEngine(original);
+        DijkstraEngine b = new DijkstraEngine(lido);
+        Random random = new Random(2);
+        for (int i = 0; i < 50; i++) {
+            int s = random.nextInt(original.nodeCount());
+            int t = random.nextInt(original.nodeCount());
+            assertEquals(a.route(s, t).distance(), b.route(s, t).distance(), 1e-9);
+        }
+    }
+
+    @Test
+    void testMappedGraphMatchesHeapGraph() throws IOException {
+        CsrGraph original = randomGraph(400, 1200, 5);
+        GraphSnapshotFile.write(file, original, 3);
+
+        CsrGraph mapeado = GraphSnapshotFile.map(file, 3);
+
+        assertNotNull(mapeado);
+        assertTrue(mapeado.isMapped());
+        assertEquals(0, mapeado.estimatedBytes());
+        assertTrue(mapeado.mappedBytes() > original.estimatedBytes());
+        for (int u = 0; u < original.nodeCount(); u++) {
+            assertEquals(original.nodeId(u), mapeado.nodeId(u));
+            assertEquals(original.name(u), mapeado.name(u));
+            assertEquals(original.endArc(u), mapeado.endArc(u));
+        }
+
+        // O transposto vem do arquivo, sem ser recalculado no heap
+        CsrGraph reverso = original.transpose();
+        CsrGraph reversoMapeado = mapeado.transpose();
+        assertTrue(reversoMapeado.isMapped());
+        assertSame(reversoMapeado, mapeado.transpose());
+        for (int u = 0; u < reverso.nodeCount(); u++) {
+            assertEquals(reverso.firstArc(u), reversoMapeado.firstArc(u));
+        }
+        for (int a = 0; a < reverso.arcCount(); a++) {
+            assertEquals(reverso.target(a), reversoMapeado.target(a));
+            assertEquals(reverso.edgeId(a), reversoMapeado.edgeId(a));
+            assertEquals(reverso.weight(a), reversoMapeado.weight(a), 0.0);
+        }
+
+        DijkstraEngine a = new DijkstraEngine(original);
+        DijkstraEngine b = new DijkstraEngine(mapeado);
+        Random random = new Random(6);
+        for (int i = 0; i < 50; i++) {
+            int s = random.nextInt(original.nodeCount());
+            int t = random.nextInt(original.nodeCount());
+            assertEquals(a.route(s, t).distance(), b.route(s, t).distance(), 1e-9);
+        }
+    }
+
+    @Test
+    void testMappedGraphDetectsReloadedEdgeWeightChange() throws IOException {
+        CsrGraph original = randomGraph(100, 300, 7);
+        GraphSnapshotFile.write(file, original, 1);
+        CsrGraph mapeado = GraphSnapshotFile.map(file, 1);
+
+        // Recarga com a distância de uma rua alterada: mesma estrutura de arcos
+        CsrGraph recarregado = randomGraph(100, 300, 7, 1, 999.0);
+
+        assertArrayEquals(new int[] {1}, mapeado.changedEdges(recarregado));
+        assertArrayEquals(new int[0], mapeado.changedEdges(randomGraph(100, 300, 7)));
+        assertNull(mapeado.changedEdges(randomGraph(100, 301, 7)));
+
+        // A matriz do grafo mapeado, atualizada só nas linhas afetadas, coincide com uma matriz nova
+        DistanceMatrix atualizada = DistanceMatrix.build(mapeado, 1).withEdgeChanges(recarregado, new int[] {1});
+        DistanceMatrix completa = DistanceMatrix.build(recarregado, 1);
+        for (int u = 0; u < recarregado.nodeCount(); u++) {
+            for (int v = 0; v < recarregado.nodeCount(); v++) {
+                assertEquals(completa.distance(u, v), atualizada.distance(u, v), 1e-9);
+            }
+        }
+        assertTrue(mapeado.isMapped());
+        assertEquals(original.weight(0), mapeado.weight(0), 0.0);
+        assertNull(GraphSnapshotFile.map(file, 2));
+    }
+
+    @Test
+    void testRejectsOtherDatabaseVersion() throws IOException {
+        GraphSnapshotFile.write(file, randomGraph(50, 100, 3), 7);
+
+        assertNull(GraphSnapshotFile.read(file, 8));
+        assertNotNull(GraphSnapshotFile.read(file, 7));
+    }
+
+    @Test
+    void testRejectsCorruptedOrTruncatedFile() throws IOException {
+        GraphSnapshotFile.write(file, randomGraph(50, 100, 4), 1);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(GraphSnapshotFile.HEADER_BYTES + 17);
+            int b = raf.read();
+            raf.seek(GraphSnapshotFile.HEADER_BYTES + 17);
+            raf.write(b ^ 0xFF);
+        }
+        assertNull(GraphSnapshotFile.read(file, 1));
+
+        GraphSnapshotFile.write(file, randomGraph(50, 100, 4), 1);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        assertNull(GraphSnapshotFile.read(file, 1));
+    }
+
+    @Test
+    void testMissingFileAndEmptyGraph() throws IOException {
+        assertNull(GraphSnapshotFile.read(file, 1));
+
+        GraphSnapshotFile.write(file, new CsrGraph.Builder().build(), 1);
+        CsrGraph vazio = GraphSnapshotFile.read(file, 1);
+        assertNotNull(vazio);
+        assertEquals(0, vazio.nodeCount());
+    }
+}
@@ -0,0 +1,64 @@
+package sosrota.backend.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsedEntry() {
+        RouteCache<Integer, String> cache = new RouteCache<>(2, Long.MAX_VALUE, v -> v.length());
+        cache.put(1, "a");
+        cache.put(2, "b");
+        assertEquals("a", cache.get(1)); // 2 passa a ser o menos usado
+        cache.put(3, "c");
+
+        assertNull(cache.get(2));
+        assertEquals("a", cache.get(1));
+        assertEquals("c", cache.get(3));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(3, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testRespectsMemoryLimit() {
+        long entry = RouteCache.ENTRY_OVERHEAD_BYTES + 100;
+        RouteCache<Integer, String> cache = new RouteCache<>(1000, 3 * entry, v -> 100);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "rota " + i);
+        }
+        assertEquals(3, cache.size());
+        assertEquals(3 * entry, cache.estimatedBytes());
+        assertEquals(7, cache.evictionCount());
+        assertNotNull(cache.get(9));
+        assertNull(cache.get(0));
+
+        // Valor maior que o limite inteiro não é armazenado
+        RouteCache<Integer, String> small = new RouteCache<>(1000, entry - 1, v -> 100);
+        small.put(1, "rota");
+        assertEquals(0, small.size());
+    }
+
+    @Test
+    void testResizeAndClear() {
+        RouteCache<Integer, String> cache = new RouteCache<>(0, 0, v -> 0);
+        cache.put(1, "a");
+        assertNull(cache.get(1)); // desativado
+
+        cache.resize(10, 1 << 20);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "v" + i);
+        }
+        cache.resize(2, 1 << 20);
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.evictionCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.estimatedBytes());
+        assertEquals(3, cache.evictionCount());
+    }
+}
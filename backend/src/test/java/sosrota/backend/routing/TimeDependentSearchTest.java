@@ -0,0 +1,101 @@
+package sosrota.backend.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeDependentSearchTest {
+
+    @Test
+    void testTravelTimeIntegratesAcrossHourBoundary() {
+        CsrGraph graph = new CsrGraph.Builder()
+                .addNode(1, "A")
+                .addNode(2, "B")
+                .addUndirected(1, 1, 2, 30.0)
+                .build();
+        // 8h: 20 km/h; 9h: 60 km/h
+        SpeedProfiles profiles = new SpeedProfiles.Builder(60.0)
+                .set(1, 8, 20.0)
+                .set(1, 9, 60.0)
+                .build(graph);
+        int arc = graph.firstArc(0);
+
+        // Saindo às 8h30: 10 km em 30 min a 20 km/h, restantes 20 km em 20 min a 60 km/h
+        assertEquals(50.0, profiles.travelMinutes(arc, 30.0, 8 * 60 + 30), 1e-9);
+        // Fora das faixas cadastradas vale a velocidade padrão
+        assertEquals(30.0, profiles.travelMinutes(arc, 30.0, 3 * 60), 1e-9);
+        // Virada do dia: 23h30 equivale a 23h30 do dia seguinte
+        assertEquals(profiles.travelMinutes(arc, 30.0, 23 * 60 + 30),
+                profiles.travelMinutes(arc, 30.0, 24 * 60 + 23 * 60 + 30), 1e-9);
+    }
+
+    @Test
+    void testLaterDepartureNeverArrivesEarlier() {
+        CsrGraph graph = new CsrGraph.Builder()
+                .addNode(1, "A")
+                .addNode(2, "B")
+                .addUndirected(1, 1, 2, 12.0)
+                .build();
+        Random random = new Random(3);
+        SpeedProfiles.Builder builder = new SpeedProfiles.Builder(60.0);
+        for (int hora = 0; hora < SpeedProfiles.BUCKETS; hora++) {
+            builder.set(1, hora, 5 + random.nextDouble() * 80);
+        }
+        SpeedProfiles profiles = builder.build(graph);
+        int arc = graph.firstArc(0);
+
+        double previousArrival = Double.NEGATIVE_INFINITY;
+        for (double t = 0; t < 2 * SpeedProfiles.DAY_MINUTES; t += 0.5) {
+            double arrival = t + profiles.travelMinutes(arc, 12.0, t);
+            assertTrue(arrival >= previousArrival - 1e-9);
+            previousArrival = arrival;
+        }
+    }
+
+    @Test
+    void testUniformProfilesMatchDijkstraFromNearestSource() {
+        Random random = new Random(11);
+        int n = 500;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < n; i++) {
+            builder.addNode(i + 1, "Bairro " + i);
+        }
+        for (int i = 0; i < n * 3; i++) {
+            builder.addUndirected(i + 1, random.nextInt(n) + 1, random.nextInt(n) + 1, 0.1 + random.nextDouble() * 5);
+        }
+        CsrGraph graph = builder.build();
+        TimeDependentSearch search = new TimeDependentSearch(graph, SpeedProfiles.uniform(30.0));
+        DijkstraEngine dijkstra = new DijkstraEngine(graph);
+
+        for (int q = 0; q < 300; q++) {
+            int[] sources = {random.nextInt(n), random.nextInt(n), random.nextInt(n)};
+            int target = random.nextInt(n);
+            double best = Double.POSITIVE_INFINITY;
+            for (int s : sources) {
+                Route route = dijkstra.route(s, target);
+                if (route != null) {
+                    best = Math.min(best, route.distance());
+                }
+            }
+            double departure = random.nextDouble() * SpeedProfiles.DAY_MINUTES;
+            int origin = search.run(sources, departure, target);
+            if (Double.isInfinite(best)) {
+                assertEquals(-1, origin);
+                continue;
+            }
+            // 30 km/h: 2 minutos por km
+            assertEquals(2 * best, search.arrival(target) - departure, 1e-6);
+            double km = 0;
+            int u = origin;
+            for (int a : search.pathArcs(target)) {
+                assertEquals(u, graph.source(a));
+                km += graph.weight(a);
+                u = graph.target(a);
+            }
+            assertEquals(target, u);
+            assertEquals(best, km, 1e-9);
+        }
+    }
+}
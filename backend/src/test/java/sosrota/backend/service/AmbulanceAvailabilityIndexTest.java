@@ -0,0 +1,89 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.repository.AmbulanciaRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class AmbulanceAvailabilityIndexTest {
+
+    @Mock
+    private AmbulanciaRepository ambulanciaRepository;
+
+    @InjectMocks
+    private AmbulanceAvailabilityIndex index;
+
+    private final Bairro centro = new Bairro(1, "Centro");
+    private final Bairro norte = new Bairro(2, "Norte");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testRebuildGroupsAvailableAmbulancesByBase() {
+        when(ambulanciaRepository.findByStatus("DISPONIVEL")).thenReturn(List.of(
+                ambulancia(1, "USA", "DISPONIVEL", centro),
+                ambulancia(2, "USB", "DISPONIVEL", centro),
+                ambulancia(3, "USB", "DISPONIVEL", norte),
+                ambulancia(4, "USB", "DISPONIVEL", null)));
+
+        index.rebuild();
+
+        assertEquals(3, index.size());
+        assertEquals(2, index.baseCount());
+        assertEquals(List.of(1, 2), ids(1));
+        assertEquals(List.of(3), ids(2));
+        assertTrue(index.availableAt(99).isEmpty());
+    }
+
+    @Test
+    void testStatusTransitionsKeepIndexCurrent() {
+        Ambulancia ambulancia = ambulancia(1, "USA", "DISPONIVEL", centro);
+        index.update(ambulancia);
+        assertEquals(List.of(1), ids(1));
+
+        // Despachada: sai do índice
+        ambulancia.setStatus("EM_ATENDIMENTO");
+        index.update(ambulancia);
+        assertEquals(0, index.size());
+        assertEquals(0, index.baseCount());
+
+        // Liberada em outra base
+        ambulancia.setStatus("DISPONIVEL");
+        ambulancia.setBairro(norte);
+        index.update(ambulancia);
+        assertTrue(ids(1).isEmpty());
+        assertEquals(List.of(1), ids(2));
+        assertEquals("USA", index.availableAt(2).iterator().next().tipo);
+
+        index.remove(1);
+        assertEquals(0, index.size());
+        index.remove(1);
+        index.update(null);
+    }
+
+    private List<Integer> ids(int bairroId) {
+        return index.availableAt(bairroId).stream().map(e -> e.id).sorted().collect(Collectors.toList());
+    }
+
+    private Ambulancia ambulancia(int id, String tipo, String status, Bairro base) {
+        Ambulancia a = new Ambulancia();
+        a.setId(id);
+        a.setTipo(tipo);
+        a.setStatus(status);
+        a.setBairro(base);
+        return a;
+    }
+}
@@ -0,0 +1,121 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import sosrota.backend.entity.Atendimento;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.repository.AtendimentoRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ArrivalSchedulerTest {
+
+    @Mock
+    private AtendimentoRepository atendimentoRepository;
+
+    @InjectMocks
+    private ArrivalScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testRebuildFiresOverdueArrivalsInArrivalOrderWithoutQueryingAgain() throws InterruptedException {
+        LocalDateTime agora = LocalDateTime.now();
+        when(atendimentoRepository.findUltimosByOcorrenciaStatus("DESPACHADA")).thenReturn(List.of(
+                atendimento(1, agora.minusMinutes(5), 3.0),
+                atendimento(2, agora.minusMinutes(10), 3.0),
+                // Ainda a caminho: chega daqui a ~1 hora
+                atendimento(3, agora, 3600.0)));
+
+        scheduler.rebuild();
+
+        assertEquals(3, scheduler.size());
+        assertEquals(2, scheduler.poll(1, TimeUnit.SECONDS).ocorrenciaId);
+        assertEquals(1, scheduler.poll(1, TimeUnit.SECONDS).ocorrenciaId);
+        assertNull(scheduler.poll(50, TimeUnit.MILLISECONDS));
+        assertEquals(1, scheduler.size());
+        // Somente a consulta da reconstrução: aguardar chegadas não acessa o banco
+        verify(atendimentoRepository, times(1)).findUltimosByOcorrenciaStatus("DESPACHADA");
+    }
+
+    @Test
+    void testArrivalTimeFollowsDistanceWithMinimumTravel() throws InterruptedException {
+        LocalDateTime despacho = LocalDateTime.now().minusSeconds(1);
+        scheduler.schedule(7, despacho, 0.4);
+
+        // Viagem mínima de 2 s: ainda não chegou 1 s após o despacho
+        assertNull(scheduler.poll(100, TimeUnit.MILLISECONDS));
+        ArrivalScheduler.Arrival chegada = scheduler.poll(3, TimeUnit.SECONDS);
+
+        assertNotNull(chegada);
+        assertEquals(ArrivalScheduler.MIN_TRAVEL_SECONDS, chegada.travelSeconds);
+        assertEquals(despacho.plusSeconds(2), chegada.arrivalTime);
+        assertFalse(LocalDateTime.now().isBefore(chegada.arrivalTime));
+        assertEquals(12, ArrivalScheduler.travelSeconds(12.7));
+    }
+
+    @Test
+    void testRescheduleReplacesAndCancelRemoves() throws InterruptedException {
+        LocalDateTime passado = LocalDateTime.now().minusMinutes(1);
+        scheduler.schedule(1, passado, 1.0);
+        scheduler.schedule(2, passado, 1.0);
+        // Novo despacho da ocorrência 1: a chegada anterior deixa de valer
+        scheduler.schedule(1, LocalDateTime.now(), 3600.0);
+        scheduler.cancel(2);
+        scheduler.cancel(99);
+
+        assertEquals(1, scheduler.size());
+        assertNull(scheduler.poll(50, TimeUnit.MILLISECONDS));
+
+        scheduler.cancel(1);
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void testRetryBacksOffAndKeepsNewerDispatch() throws InterruptedException {
+        scheduler.schedule(1, LocalDateTime.now().minusMinutes(1), 1.0);
+        ArrivalScheduler.Arrival vencida = scheduler.poll(1, TimeUnit.SECONDS);
+        assertEquals(0, scheduler.size());
+
+        // Confirmação falhou: volta para a agenda após a espera da primeira tentativa
+        ArrivalScheduler.Arrival retry = scheduler.retry(vencida);
+        assertNotNull(retry);
+        assertEquals(1, retry.attempt);
+        assertEquals(1, scheduler.size());
+        assertFalse(retry.arrivalTime.isBefore(LocalDateTime.now().plusSeconds(ArrivalScheduler.RETRY_BASE_SECONDS - 1)));
+        assertNull(scheduler.poll(50, TimeUnit.MILLISECONDS));
+
+        assertEquals(4, ArrivalScheduler.retryDelaySeconds(1));
+        assertEquals(ArrivalScheduler.RETRY_MAX_SECONDS, ArrivalScheduler.retryDelaySeconds(10));
+        assertEquals(ArrivalScheduler.RETRY_MAX_SECONDS, ArrivalScheduler.retryDelaySeconds(100));
+
+        // Novo despacho da mesma ocorrência enquanto a confirmação falhava: o evento novo prevalece
+        scheduler.schedule(1, LocalDateTime.now(), 3600.0);
+        assertNull(scheduler.retry(retry));
+        assertEquals(1, scheduler.size());
+    }
+
+    private static Atendimento atendimento(int ocorrenciaId, LocalDateTime despacho, double distanciaKm) {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(ocorrenciaId);
+        ocorrencia.setStatus("DESPACHADA");
+        Atendimento atendimento = new Atendimento();
+        atendimento.setOcorrencia(ocorrencia);
+        atendimento.setDataHoraDespacho(despacho);
+        atendimento.setDistanciaKm(distanciaKm);
+        return atendimento;
+    }
+}
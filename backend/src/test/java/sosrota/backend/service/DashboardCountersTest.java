@@ -0,0 +1,207 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.repository.AmbulanciaRepository;
+import sosrota.backend.repository.EquipeRepository;
+import sosrota.backend.repository.OcorrenciaRepository;
+import sosrota.backend.repository.ProfissionalRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardCountersTest {
+
+    @Mock
+    private OcorrenciaRepository ocorrenciaRepository;
+    @Mock
+    private AmbulanciaRepository ambulanciaRepository;
+    @Mock
+    private EquipeRepository equipeRepository;
+    @Mock
+    private ProfissionalRepository profissionalRepository;
+
+    private StateEventStream stream;
+    private DashboardCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        stream = new StateEventStream();
+        counters = new DashboardCounters(ocorrenciaRepository, ambulanciaRepository, equipeRepository,
+                profissionalRepository, stream);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void testTransitionsUpdateCountersWithoutQueryingDatabase() {
+        counters.init();
+        LocalDateTime ontem = LocalDateTime.now().minusDays(1);
+
+        stream.ocorrencia(ocorrencia(1, LocalDateTime.now()), null, "ABERTA", "Ocorrência criada.");
+        stream.ocorrencia(ocorrencia(2, LocalDateTime.now()), null, "ABERTA", "Ocorrência criada.");
+        stream.ocorrencia(ocorrencia(3, ontem), null, "ABERTA", "Ocorrência criada.");
+        stream.ocorrencia(ocorrencia(1, null), "ABERTA", "DESPACHADA", "Despachada.");
+        // Falha de despacho: apenas observação, sem mudança de status
+        stream.ocorrencia(ocorrencia(2, null), "ABERTA", "ABERTA", "Nenhuma ambulância disponível.");
+        stream.ocorrencia(ocorrencia(1, null), "DESPACHADA", "EM_ATENDIMENTO", null);
+        stream.ocorrencia(ocorrencia(1, null), "EM_ATENDIMENTO", "CONCLUIDA", null);
+        stream.ocorrenciaRemovida(3);
+
+        assertEquals(1, counters.ocorrencias("ABERTA"));
+        assertEquals(0, counters.ocorrencias("DESPACHADA"));
+        assertEquals(0, counters.ocorrencias("EM_ATENDIMENTO"));
+        assertEquals(1, counters.ocorrencias("CONCLUIDA"));
+        assertEquals(2, counters.abertasNoDia(LocalDate.now()));
+        assertEquals(0, counters.abertasNoDia(ontem.toLocalDate()));
+
+        stream.ambulancia(ambulancia(10, "DISPONIVEL"));
+        stream.ambulancia(ambulancia(11, "DISPONIVEL"));
+        stream.ambulancia(ambulancia(10, "EM_ATENDIMENTO"));
+        stream.ambulanciaRemovida(11);
+        // Exclusão de ambulância desconhecida não altera os contadores
+        stream.ambulanciaRemovida(99);
+
+        assertEquals(1, counters.getAmbulanciasTotal());
+        assertEquals(0, counters.ambulancias("DISPONIVEL"));
+        assertEquals(1, counters.ambulancias("EM_ATENDIMENTO"));
+
+        // Somente as consultas da inicialização
+        verify(ocorrenciaRepository, times(1)).countGroupByStatus();
+        verify(ambulanciaRepository, times(1)).findIdAndStatus();
+    }
+
+    @Test
+    void testReconcileLoadsCountsAndCorrectsDrift() {
+        LocalDateTime hoje = LocalDateTime.now();
+        when(ocorrenciaRepository.countGroupByStatus()).thenReturn(List.of(
+                new Object[]{"ABERTA", 2L}, new Object[]{"DESPACHADA", 1L}, new Object[]{"CONCLUIDA", 40L}));
+        when(ocorrenciaRepository.findResumoByStatusIn(any())).thenReturn(List.of(
+                new Object[]{1, "ABERTA", hoje}, new Object[]{2, "ABERTA", hoje}, new Object[]{3, "DESPACHADA", hoje}));
+        when(ocorrenciaRepository.countByDataHoraAberturaGreaterThanEqual(any())).thenReturn(3L);
+        when(ambulanciaRepository.findIdAndStatus()).thenReturn(List.of(
+                new Object[]{10, "DISPONIVEL"}, new Object[]{11, "DISPONIVEL"}, new Object[]{12, "SEM_EQUIPE"}));
+        when(equipeRepository.count()).thenReturn(4L);
+        when(profissionalRepository.count()).thenReturn(9L);
+
+        counters.init();
+
+        assertEquals(2, counters.ocorrencias("ABERTA"));
+        assertEquals(40, counters.ocorrencias("CONCLUIDA"));
+        assertEquals(3, counters.abertasNoDia(LocalDate.now()));
+        assertEquals(3, counters.getAmbulanciasTotal());
+        assertEquals(2, counters.ambulancias("DISPONIVEL"));
+        assertEquals(4, counters.getEquipes());
+        assertEquals(9, counters.getProfissionais());
+        assertEquals(1, counters.getDivergencias());
+
+        // Transições de ocorrências carregadas na reconciliação
+        stream.ocorrencia(ocorrencia(3, null), "DESPACHADA", "EM_ATENDIMENTO", null);
+        stream.ocorrenciaRemovida(2);
+        stream.ambulancia(ambulancia(12, "DISPONIVEL"));
+        counters.equipeCriada();
+        counters.profissionalRemovido();
+
+        assertEquals(1, counters.ocorrencias("ABERTA"));
+        assertEquals(0, counters.ocorrencias("DESPACHADA"));
+        assertEquals(1, counters.ocorrencias("EM_ATENDIMENTO"));
+        assertEquals(2, counters.abertasNoDia(LocalDate.now()));
+        assertEquals(3, counters.ambulancias("DISPONIVEL"));
+        assertEquals(3, counters.getAmbulanciasTotal());
+        assertEquals(5, counters.getEquipes());
+        assertEquals(8, counters.getProfissionais());
+
+        // Alteração feita fora da aplicação: corrigida na próxima reconciliação
+        when(equipeRepository.count()).thenReturn(6L);
+        counters.reconcile();
+
+        assertEquals(2, counters.ocorrencias("ABERTA"));
+        assertEquals(6, counters.getEquipes());
+        assertEquals(2, counters.ambulancias("DISPONIVEL"));
+        assertEquals(2, counters.getDivergencias());
+
+        // Sem divergência: nada a corrigir
+        counters.reconcile();
+        assertEquals(2, counters.getDivergencias());
+    }
+
+    @Test
+    void testTransitionsDuringReconcileAreReplayedWithoutDivergence() {
+        LocalDateTime hoje = LocalDateTime.now();
+        when(ocorrenciaRepository.countGroupByStatus()).thenReturn(List.of(
+                new Object[]{"ABERTA", 1L}, new Object[]{"DESPACHADA", 1L}));
+        when(ocorrenciaRepository.findResumoByStatusIn(any())).thenReturn(List.of(
+                new Object[]{1, "ABERTA", hoje}, new Object[]{3, "DESPACHADA", hoje}));
+        when(ocorrenciaRepository.countByDataHoraAberturaGreaterThanEqual(any())).thenReturn(2L);
+        when(ambulanciaRepository.findIdAndStatus()).thenReturn(List.<Object[]>of(new Object[]{10, "EM_ATENDIMENTO"}));
+        counters.init();
+        long divergencias = counters.getDivergencias();
+
+        // Enquanto o banco responde: uma transição que as consultas de ocorrências não viram e outra
+        // (a da ambulância) que o banco já reflete
+        when(ambulanciaRepository.findIdAndStatus()).thenAnswer(i -> {
+            stream.ocorrencia(ocorrencia(3, null), "DESPACHADA", "EM_ATENDIMENTO", null);
+            stream.ocorrencia(ocorrencia(4, hoje), null, "ABERTA", "Ocorrência criada.");
+            stream.ambulancia(ambulancia(10, "DISPONIVEL"));
+            return List.<Object[]>of(new Object[]{10, "DISPONIVEL"});
+        });
+        counters.reconcile();
+
+        assertEquals(2, counters.ocorrencias("ABERTA"));
+        assertEquals(0, counters.ocorrencias("DESPACHADA"));
+        assertEquals(1, counters.ocorrencias("EM_ATENDIMENTO"));
+        assertEquals(3, counters.abertasNoDia(LocalDate.now()));
+        assertEquals(1, counters.ambulancias("DISPONIVEL"));
+        assertEquals(0, counters.ambulancias("EM_ATENDIMENTO"));
+        assertEquals(1, counters.getAmbulanciasTotal());
+        assertEquals(divergencias, counters.getDivergencias());
+
+        // Conclusão que o banco já reflete (a ocorrência não está mais ativa): não é contada de novo
+        when(ocorrenciaRepository.countGroupByStatus()).thenAnswer(i -> {
+            stream.ocorrencia(ocorrencia(3, null), "EM_ATENDIMENTO", "CONCLUIDA", null);
+            return List.<Object[]>of(new Object[]{"ABERTA", 2L}, new Object[]{"CONCLUIDA", 1L});
+        });
+        when(ocorrenciaRepository.findResumoByStatusIn(any())).thenReturn(List.of(
+                new Object[]{1, "ABERTA", hoje}, new Object[]{4, "ABERTA", hoje}));
+        when(ocorrenciaRepository.countByDataHoraAberturaGreaterThanEqual(any())).thenReturn(3L);
+        when(ambulanciaRepository.findIdAndStatus()).thenReturn(List.<Object[]>of(new Object[]{10, "DISPONIVEL"}));
+        counters.reconcile();
+
+        assertEquals(0, counters.ocorrencias("EM_ATENDIMENTO"));
+        assertEquals(1, counters.ocorrencias("CONCLUIDA"));
+        assertEquals(2, counters.ocorrencias("ABERTA"));
+        assertEquals(divergencias, counters.getDivergencias());
+    }
+
+    private static Ocorrencia ocorrencia(int id, LocalDateTime abertura) {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(id);
+        ocorrencia.setGravidade("ALTA");
+        ocorrencia.setDataHoraAbertura(abertura);
+        return ocorrencia;
+    }
+
+    private static Ambulancia ambulancia(int id, String status) {
+        Ambulancia ambulancia = new Ambulancia();
+        ambulancia.setId(id);
+        ambulancia.setPlaca("ABC" + id);
+        ambulancia.setStatus(status);
+        return ambulancia;
+    }
+}
@@ -29,6 +29,18 @@ class DeleteRestrictionsTest {
     private EquipeRepository equipeRepository;
     @Mock
     private ProfissionalRepository profissionalRepository;
+    @Mock
+    private AmbulanceAvailabilityIndex availabilityIndex;
+    @Mock
+    private PendingOccurrenceQueue pendingQueue;
+    @Mock
+    private FleetReadinessProjection readinessProjection;
+    @Mock
+    private ShiftRosterEngine rosterEngine;
+    @Mock
+    private StateEventStream stateEventStream;
+    @Mock
+    private DashboardCounters dashboardCounters;
 
     @InjectMocks
     private AmbulanciaService ambulanciaService;
@@ -0,0 +1,452 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import sosrota.backend.entity.Aresta;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.GrafoVersao;
+import sosrota.backend.entity.VelocidadeAresta;
+import sosrota.backend.repository.ArestaRepository;
+import sosrota.backend.repository.BairroRepository;
+import sosrota.backend.repository.GrafoVersaoRepository;
+import sosrota.backend.repository.VelocidadeArestaRepository;
+import sosrota.backend.routing.GraphSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DijsktraServiceTest {
+
+    @Mock
+    private BairroRepository bairroRepository;
+    @Mock
+    private ArestaRepository arestaRepository;
+    @Mock
+    private GrafoVersaoRepository grafoVersaoRepository;
+    @Mock
+    private VelocidadeArestaRepository velocidadeArestaRepository;
+
+    @InjectMocks
+    private DijsktraService dijsktraService;
+
+    private final List<Bairro> bairros = new ArrayList<>();
+    private final List<Aresta> arestas = new ArrayList<>();
+    private final List<VelocidadeAresta> velocidades = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        // Grafo aleatório com IDs esparsos e pesos reais (caminhos mínimos únicos)
+        Random random = new Random(42);
+        int n = 2000;
+        for (int i = 0; i < n; i++) {
+            bairros.add(new Bairro(i * 3 + 1, "Bairro " + i));
+        }
+        for (int i = 0; i < n * 3; i++) {
+            Bairro origem = bairros.get(random.nextInt(n));
+            Bairro destino = bairros.get(random.nextInt(n));
+            arestas.add(new Aresta(i + 1, origem, destino, 0.1 + random.nextDouble() * 10));
+        }
+
+        when(bairroRepository.findAll()).thenReturn(bairros);
+        when(arestaRepository.findAll()).thenReturn(arestas);
+        when(velocidadeArestaRepository.findPerfisVelocidade()).thenAnswer(i -> velocidades.stream()
+                .map(v -> new Object[] {v.getAresta().getId(), v.getFaixaHoraria(), v.getVelocidadeKmh()})
+                .toList());
+        dijsktraService.init();
+    }
+
+    @Test
+    void testCsrDijkstraMatchesReferenceImplementation() {
+        Map<Integer, List<DijsktraService.Edge>> adj = referenceAdjacency();
+        Random random = new Random(7);
+
+        for (int q = 0; q < 200; q++) {
+            int source = bairros.get(random.nextInt(bairros.size())).getId();
+            int target = bairros.get(random.nextInt(bairros.size())).getId();
+
+            DijsktraService.PathResult expected = referenceShortestPath(adj, source, target);
+            DijsktraService.PathResult actual = dijsktraService.findShortestPath(source, target);
+
+            if (Double.isNaN(expected.totalDistance)) {
+                assertTrue(Double.isNaN(actual.totalDistance));
+                continue;
+            }
+            assertEquals(expected.totalDistance, actual.totalDistance, 1e-9);
+            assertEquals(expected.nodes, actual.nodes);
+            assertEquals(expected.edges.size(), actual.edges.size());
+            for (int i = 0; i < expected.edges.size(); i++) {
+                assertEquals(expected.edges.get(i).id, actual.edges.get(i).id);
+                assertEquals(expected.edges.get(i).from, actual.edges.get(i).from);
+                assertEquals(expected.edges.get(i).to, actual.edges.get(i).to);
+            }
+        }
+    }
+
+    @Test
+    void testDistanceMatrixMatchesDijkstraAndRefreshesIncrementally() {
+        DijsktraService matrixService = new DijsktraService(bairroRepository, arestaRepository, grafoVersaoRepository, velocidadeArestaRepository);
+        ReflectionTestUtils.setField(matrixService, "matrixEnabled", true);
+        ReflectionTestUtils.setField(matrixService, "matrixMaxNodes", 5000);
+        ReflectionTestUtils.setField(matrixService, "matrixParallelism", 2);
+        matrixService.init();
+        assertTrue(matrixService.isMatrixActive());
+        assertEquals(bairros.size(), matrixService.getMatrixRefreshedRows());
+
+        assertSameRoutes(matrixService, new Random(3));
+
+        // Alonga a aresta mais longa no banco: a recarga recalcula só as linhas que a usam
+        Aresta alterada = arestas.stream().max(Comparator.comparingDouble(Aresta::getDistanciaKm)).orElseThrow();
+        double original = alterada.getDistanciaKm();
+        alterada.setDistanciaKm(original + 5.0);
+        matrixService.reload();
+        dijsktraService.reload();
+        assertTrue(matrixService.getMatrixRefreshedRows() < bairros.size());
+        assertSameRoutes(matrixService, new Random(4));
+
+        // Encurta a mesma aresta (linhas em que ela passa a encurtar caminhos são recalculadas)
+        alterada.setDistanciaKm(0.01);
+        matrixService.reload();
+        dijsktraService.reload();
+        assertTrue(matrixService.getMatrixRefreshedRows() < bairros.size());
+        assertSameRoutes(matrixService, new Random(5));
+
+        // Nova rua (estrutura diferente): a matriz é reconstruída inteira
+        arestas.add(new Aresta(arestas.size() + 1, bairros.get(0), bairros.get(1), 1.0));
+        matrixService.reload();
+        dijsktraService.reload();
+        assertEquals(bairros.size(), matrixService.getMatrixRefreshedRows());
+        assertSameRoutes(matrixService, new Random(9));
+    }
+
+    @Test
+    void testDistanceMatrixFallsBackAboveNodeThreshold() {
+        DijsktraService limited = new DijsktraService(bairroRepository, arestaRepository, grafoVersaoRepository, velocidadeArestaRepository);
+        ReflectionTestUtils.setField(limited, "matrixEnabled", true);
+        ReflectionTestUtils.setField(limited, "matrixMaxNodes", bairros.size() - 1);
+        limited.init();
+        assertFalse(limited.isMatrixActive());
+        assertEquals(0, limited.getMatrixBytes());
+    }
+
+    @Test
+    void testAltEngineMatchesDijkstraAndReportsSettledNodes() {
+        DijsktraService altService = new DijsktraService(bairroRepository, arestaRepository, grafoVersaoRepository, velocidadeArestaRepository);
+        ReflectionTestUtils.setField(altService, "engineName", "alt");
+        ReflectionTestUtils.setField(altService, "altLandmarks", 8);
+        altService.init();
+        assertEquals("alt", altService.getEngineName());
+
+        assertSameRoutes(altService, new Random(6));
+
+        // Espaço de busca do A* comparado ao Dijkstra simples nas mesmas consultas
+        Random random = new Random(8);
+        long altSettled = 0;
+        long dijkstraSettled = 0;
+        for (int q = 0; q < 100; q++) {
+            int source = bairros.get(random.nextInt(bairros.size())).getId();
+            int target = bairros.get(random.nextInt(bairros.size())).getId();
+            altSettled += altService.findShortestPath(source, target).settledNodes;
+            dijkstraSettled += altService.findShortestPathBaseline(source, target).settledNodes;
+        }
+        assertTrue(dijkstraSettled > 0);
+        assertTrue(altSettled < dijkstraSettled);
+        assertTrue(altService.getSettledNodes() >= altSettled + dijkstraSettled);
+    }
+
+    private void assertSameRoutes(DijsktraService candidate, Random random) {
+        for (int q = 0; q < 200; q++) {
+            int source = bairros.get(random.nextInt(bairros.size())).getId();
+            int target = bairros.get(random.nextInt(bairros.size())).getId();
+            DijsktraService.PathResult expected = dijsktraService.findShortestPath(source, target);
+            DijsktraService.PathResult actual = candidate.findShortestPath(source, target);
+            if (Double.isNaN(expected.totalDistance)) {
+                assertTrue(Double.isNaN(actual.totalDistance));
+                continue;
+            }
+            assertEquals(expected.totalDistance, actual.totalDistance, 1e-9);
+            assertEquals(expected.nodes, actual.nodes);
+        }
+    }
+
+    @Test
+    void testReloadPublishesNewSnapshotAndKeepsOldOneIntact() {
+        GraphSnapshot before = dijsktraService.getSnapshot();
+        assertFalse(dijsktraService.reloadIfChanged());
+        assertSame(before, dijsktraService.getSnapshot());
+
+        // Novo bairro ligado ao grafo; gatilho incrementa o contador de alterações
+        Bairro novo = new Bairro(100_000, "Bairro Novo");
+        bairros.add(novo);
+        arestas.add(new Aresta(100_000, bairros.get(0), novo, 1.5));
+        when(grafoVersaoRepository.findById(GrafoVersao.ID_GRAFO)).thenReturn(Optional.of(new GrafoVersao(GrafoVersao.ID_GRAFO, 7L, null)));
+
+        assertTrue(dijsktraService.reloadIfChanged());
+        GraphSnapshot after = dijsktraService.getSnapshot();
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(7L, after.sourceVersion());
+        assertEquals(1.5, dijsktraService.findShortestPath(bairros.get(0).getId(), novo.getId()).totalDistance, 1e-9);
+        assertEquals("Bairro Novo", dijsktraService.getNodeName(novo.getId()));
+
+        // Consultas que ainda seguram a versão anterior não enxergam a alteração
+        assertEquals(-1, before.graph().indexOf(novo.getId()));
+        assertEquals(bairros.size() - 1, before.graph().nodeCount());
+        assertFalse(dijsktraService.reloadIfChanged());
+    }
+
+    @Test
+    void testPollingReloadsInBackground() throws InterruptedException {
+        long version = dijsktraService.getGraphVersion();
+        dijsktraService.pollGraphChanges();
+        assertEquals(version, dijsktraService.getGraphVersion());
+
+        when(grafoVersaoRepository.findById(GrafoVersao.ID_GRAFO)).thenReturn(Optional.of(new GrafoVersao(GrafoVersao.ID_GRAFO, 1L, null)));
+        dijsktraService.pollGraphChanges();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (dijsktraService.getGraphVersion() == version && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(version + 1, dijsktraService.getGraphVersion());
+        assertEquals(1L, dijsktraService.getSnapshot().sourceVersion());
+        dijsktraService.shutdown();
+    }
+
+    @Test
+    void testFastestRouteUsesSpeedOfDepartureHour() {
+        Random random = new Random(21);
+        for (int q = 0; q < 50; q++) {
+            int a = bairros.get(random.nextInt(bairros.size())).getId();
+            int b = bairros.get(random.nextInt(bairros.size())).getId();
+            int target = bairros.get(random.nextInt(bairros.size())).getId();
+            double da = dijsktraService.findShortestPath(a, target).totalDistance;
+            double db = dijsktraService.findShortestPath(b, target).totalDistance;
+            DijsktraService.FastestRoute rota = dijsktraService.findFastestRoute(List.of(a, b), target, LocalDateTime.of(2025, 3, 10, 3, 0));
+            if (Double.isNaN(da) && Double.isNaN(db)) {
+                assertNull(rota);
+                continue;
+            }
+            // Velocidade padrão de 60 km/h: minutos = km
+            double best = Double.isNaN(da) ? db : Double.isNaN(db) ? da : Math.min(da, db);
+            assertEquals(best, rota.travelMinutes, 1e-9);
+            assertEquals(best, rota.path.totalDistance, 1e-9);
+            assertEquals(rota.sourceId, (int) rota.path.nodes.get(0));
+            assertEquals(target, (int) rota.path.nodes.get(rota.path.nodes.size() - 1));
+        }
+
+        // Horário de pico (7h às 10h): todas as ruas a 30 km/h
+        for (Aresta a : arestas) {
+            for (int hora = 7; hora < 10; hora++) {
+                velocidades.add(new VelocidadeAresta(null, a, hora, 30.0));
+            }
+        }
+        dijsktraService.reload();
+
+        int source = bairros.get(0).getId();
+        int target = bairros.get(1).getId();
+        double km = dijsktraService.findShortestPath(source, target).totalDistance;
+        assertTrue(km < 90);
+        DijsktraService.FastestRoute pico = dijsktraService.findFastestRoute(List.of(source), target, LocalDateTime.of(2025, 3, 10, 7, 0));
+        DijsktraService.FastestRoute madrugada = dijsktraService.findFastestRoute(List.of(source), target, LocalDateTime.of(2025, 3, 10, 3, 0));
+        assertEquals(2 * km, pico.travelMinutes, 1e-9);
+        assertEquals(km, madrugada.travelMinutes, 1e-9);
+        // Perfis lidos por projeção escalar, sem carregar as entidades
+        verify(velocidadeArestaRepository, never()).findAll();
+    }
+
+    @Test
+    void testRouteCacheServesRepeatedQueriesUntilReload() {
+        DijsktraService cached = new DijsktraService(bairroRepository, arestaRepository, grafoVersaoRepository, velocidadeArestaRepository);
+        ReflectionTestUtils.setField(cached, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(cached, "cacheMaxBytes", 1L << 20);
+        cached.init();
+
+        int source = bairros.get(0).getId();
+        int target = bairros.get(1).getId();
+        DijsktraService.PathResult first = cached.findShortestPath(source, target);
+        long queries = cached.getQueryCount();
+        assertSame(first, cached.findShortestPath(source, target));
+        assertEquals(queries, cached.getQueryCount());
+        assertEquals(1, cached.getPathCache().hitCount());
+        assertEquals(1, cached.getPathCache().missCount());
+        assertThrows(UnsupportedOperationException.class, () -> first.nodes.add(0));
+
+        List<Integer> bases = List.of(source, bairros.get(2).getId());
+        LocalDateTime despacho = LocalDateTime.of(2025, 3, 10, 8, 15, 10);
+        DijsktraService.FastestRoute rota = cached.findFastestRoute(bases, target, despacho);
+        assertSame(rota, cached.findFastestRoute(List.of(bairros.get(2).getId(), source), target, despacho.plusSeconds(30)));
+        assertNotSame(rota, cached.findFastestRoute(bases, target, despacho.plusMinutes(1)));
+
+        // Nova versão do grafo: resultados anteriores descartados
+        cached.reload();
+        assertEquals(0, cached.getPathCache().size());
+        assertEquals(0, cached.getDispatchCache().size());
+        DijsktraService.PathResult afterReload = cached.findShortestPath(source, target);
+        assertNotSame(first, afterReload);
+        assertEquals(first.totalDistance, afterReload.totalDistance, 1e-12);
+        assertEquals(0, cached.getPathCache().evictionCount());
+    }
+
+    @Test
+    void testExpandFrontierVisitsNodesByDistanceToTarget() {
+        int target = bairros.get(5).getId();
+        List<Integer> visited = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        int settled = dijsktraService.expandFrontier(target, (nodeId, distance) -> {
+            visited.add(nodeId);
+            distances.add(distance);
+            return visited.size() < 50;
+        });
+
+        assertEquals(50, settled);
+        assertEquals(target, (int) visited.get(0));
+        assertEquals(0.0, (double) distances.get(0));
+        for (int i = 0; i < visited.size(); i++) {
+            if (i > 0) {
+                assertTrue(distances.get(i) >= distances.get(i - 1));
+            }
+            assertEquals(dijsktraService.findShortestPath(visited.get(i), target).totalDistance, distances.get(i), 1e-9);
+        }
+        assertEquals(0, dijsktraService.expandFrontier(-5, (nodeId, distance) -> true));
+    }
+
+    @Test
+    void testTravelTimesMatchSingleSourceFastestRoutes() {
+        List<Integer> sources = List.of(bairros.get(0).getId(), bairros.get(1).getId(), -5);
+        List<Integer> targets = List.of(bairros.get(2).getId(), bairros.get(3).getId(), bairros.get(0).getId(), -7);
+        LocalDateTime departure = LocalDateTime.of(2025, 3, 10, 17, 45);
+
+        DijsktraService.TravelTimeTable tempos = dijsktraService.travelTimes(sources, targets, departure, Double.POSITIVE_INFINITY);
+
+        for (int i = 0; i < sources.size(); i++) {
+            for (int j = 0; j < targets.size(); j++) {
+                DijsktraService.FastestRoute rota = sources.get(i) < 0 || targets.get(j) < 0 ? null
+                        : dijsktraService.findFastestRoute(List.of(sources.get(i)), targets.get(j), departure);
+                if (rota == null) {
+                    assertTrue(Double.isNaN(tempos.minutes(i, j)));
+                    assertNull(tempos.route(i, j));
+                } else {
+                    assertEquals(rota.travelMinutes, tempos.minutes(i, j), 1e-9);
+                    // Caminho reconstruído da árvore da busca, sem nova consulta
+                    DijsktraService.FastestRoute reconstruida = tempos.route(i, j);
+                    assertEquals(sources.get(i), reconstruida.path.nodes.get(0));
+                    assertEquals(targets.get(j), reconstruida.path.nodes.get(reconstruida.path.nodes.size() - 1));
+                    assertEquals(rota.path.totalDistance, reconstruida.path.totalDistance, 1e-9);
+                }
+            }
+        }
+        assertEquals(0.0, tempos.minutes(0, 2));
+    }
+
+    @Test
+    void testTravelTimesStopAtRadiusKeepingFastestSource() {
+        int target = bairros.get(0).getId();
+        List<Integer> sources = new ArrayList<>();
+        for (int i = 1; i < 40; i++) {
+            sources.add(bairros.get(i).getId());
+        }
+        LocalDateTime departure = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+        // Raio zero: nenhuma base alcança a ocorrência dentro dele; só a mais rápida é mantida
+        DijsktraService.TravelTimeTable tempos = dijsktraService.travelTimes(sources, List.of(target), departure, 0.0);
+        DijsktraService.FastestRoute maisRapida = dijsktraService.findFastestRoute(sources, target, departure);
+        assertNotNull(maisRapida);
+        int found = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            if (!Double.isNaN(tempos.minutes(i, 0))) {
+                found++;
+                assertEquals(maisRapida.sourceId, (int) sources.get(i));
+                assertEquals(maisRapida.travelMinutes, tempos.minutes(i, 0), 1e-9);
+                assertEquals(maisRapida.path.nodes, tempos.route(i, 0).path.nodes);
+            }
+        }
+        assertEquals(1, found);
+
+        // Raio acima do tempo da mais rápida: ela e as que chegam dentro do raio são fixadas
+        double raio = maisRapida.travelMinutes + 2.0;
+        DijsktraService.TravelTimeTable dentro = dijsktraService.travelTimes(sources, List.of(target), departure, raio);
+        for (int i = 0; i < sources.size(); i++) {
+            DijsktraService.FastestRoute rota = dijsktraService.findFastestRoute(List.of(sources.get(i)), target, departure);
+            if (rota != null && rota.travelMinutes <= raio) {
+                assertEquals(rota.travelMinutes, dentro.minutes(i, 0), 1e-9);
+            } else {
+                assertTrue(Double.isNaN(dentro.minutes(i, 0)));
+            }
+        }
+    }
+
+    @Test
+    void testUnknownNodeReturnsNaN() {
+        DijsktraService.PathResult result = dijsktraService.findShortestPath(-5, 1);
+        assertTrue(Double.isNaN(result.totalDistance));
+        assertTrue(result.nodes.isEmpty());
+        assertEquals("Unknown (-5)", dijsktraService.getNodeName(-5));
+    }
+
+    private Map<Integer, List<DijsktraService.Edge>> referenceAdjacency() {
+        Map<Integer, List<DijsktraService.Edge>> adj = new HashMap<>();
+        for (Aresta a : arestas) {
+            int u = a.getOrigem().getId();
+            int v = a.getDestino().getId();
+            adj.computeIfAbsent(u, k -> new ArrayList<>()).add(new DijsktraService.Edge(a.getId(), u, v, a.getDistanciaKm()));
+            adj.computeIfAbsent(v, k -> new ArrayList<>()).add(new DijsktraService.Edge(a.getId(), v, u, a.getDistanciaKm()));
+        }
+        return adj;
+    }
+
+    // Implementação original (HashMap + PriorityQueue) usada como referência
+    private DijsktraService.PathResult referenceShortestPath(Map<Integer, List<DijsktraService.Edge>> adj, int sourceId, int targetId) {
+        Map<Integer, Double> dist = new HashMap<>();
+        Map<Integer, Integer> prev = new HashMap<>();
+        Map<Integer, DijsktraService.Edge> prevEdge = new HashMap<>();
+        for (Bairro b : bairros) {
+            dist.put(b.getId(), Double.POSITIVE_INFINITY);
+        }
+        dist.put(sourceId, 0.0);
+
+        PriorityQueue<double[]> pq = new PriorityQueue<>(Comparator.comparingDouble(nd -> nd[1]));
+        pq.add(new double[] { sourceId, 0.0 });
+        Set<Integer> visited = new HashSet<>();
+
+        while (!pq.isEmpty()) {
+            int u = (int) pq.poll()[0];
+            if (!visited.add(u))
+                continue;
+            if (u == targetId)
+                break;
+            for (DijsktraService.Edge e : adj.getOrDefault(u, Collections.emptyList())) {
+                double alt = dist.get(u) + e.distance;
+                if (alt < dist.get(e.to)) {
+                    dist.put(e.to, alt);
+                    prev.put(e.to, u);
+                    prevEdge.put(e.to, e);
+                    pq.add(new double[] { e.to, alt });
+                }
+            }
+        }
+
+        if (dist.get(targetId).isInfinite()) {
+            return new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), Double.NaN);
+        }
+
+        LinkedList<Integer> nodePath = new LinkedList<>();
+        LinkedList<DijsktraService.Edge> edgePath = new LinkedList<>();
+        int cur = targetId;
+        while (cur != sourceId) {
+            nodePath.addFirst(cur);
+            edgePath.addFirst(prevEdge.get(cur));
+            cur = prev.get(cur);
+        }
+        nodePath.addFirst(sourceId);
+        return new DijsktraService.PathResult(nodePath, edgePath, dist.get(targetId));
+    }
+}
@@ -2,10 +2,13 @@ package sosrota.backend.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Atendimento;
 import sosrota.backend.entity.Bairro;
 import sosrota.backend.entity.Ocorrencia;
 import sosrota.backend.repository.AmbulanciaRepository;
@@ -15,10 +18,19 @@ import sosrota.backend.repository.EquipeRepository;
 import sosrota.backend.entity.Equipe;
 import sosrota.backend.entity.Profissional;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 class DispatchTest {
@@ -41,12 +53,32 @@ class DispatchTest {
     @Mock
     private sosrota.backend.repository.OcorrenciaHistoricoRepository ocorrenciaHistoricoRepository;
 
+    @Mock
+    private AmbulanceAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private PendingOccurrenceQueue pendingQueue;
+
+    @Mock
+    private ArrivalScheduler arrivalScheduler;
+
+    @Mock
+    private StateEventStream stateEventStream;
+
+    private final FleetReadinessProjection readinessProjection = new FleetReadinessProjection(null);
+
+    @Spy
+    private ShiftRosterEngine rosterEngine = new ShiftRosterEngine(readinessProjection);
+
     @InjectMocks
     private OcorrenciaService ocorrenciaService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Reservas condicionais aplicadas (nenhum despacho concorrente)
+        when(ocorrenciaRepository.updateStatusIfCurrent(any(), any(), any())).thenReturn(1);
+        when(ambulanciaRepository.updateStatusIfCurrent(any(), any(), any())).thenReturn(1);
     }
 
     @Test
@@ -77,7 +109,11 @@ class DispatchTest {
         amb2.setStatus("DISPONIVEL");
         amb2.setTipo("USB");
 
-        when(ambulanciaRepository.findByStatus("DISPONIVEL")).thenReturn(Arrays.asList(amb1, amb2));
+        // Índice de disponíveis: Amb1 na base 2, Amb2 na base 3
+        when(availabilityIndex.availableAt(2)).thenReturn(List.of(new AmbulanceAvailabilityIndex.Entry(1, "USB", 2)));
+        when(availabilityIndex.availableAt(3)).thenReturn(List.of(new AmbulanceAvailabilityIndex.Entry(2, "USB", 3)));
+        when(ambulanciaRepository.findById(1)).thenReturn(Optional.of(amb1));
+        when(ambulanciaRepository.findById(2)).thenReturn(Optional.of(amb2));
         when(ocorrenciaRepository.save(any(Ocorrencia.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // Mock Equipe
@@ -92,15 +128,23 @@ class DispatchTest {
         Equipe equipe = new Equipe();
         equipe.setProfissionais(Arrays.asList(motorista, enfermeiro));
 
-        when(equipeRepository.findByAmbulancia(any(Ambulancia.class))).thenReturn(java.util.Collections.singletonList(equipe));
+        registerTeam(amb1, equipe);
+        registerTeam(amb2, equipe);
+
+        // Mock fronteira do Dijkstra a partir da ocorrência (bairros em ordem de distância)
+        when(dijsktraService.expandFrontier(eq(1), any())).thenAnswer(i -> {
+            DijsktraService.FrontierVisitor visitor = i.getArgument(1);
+            if (visitor.visit(1, 0.0) && visitor.visit(3, 5.0)) {
+                visitor.visit(2, 10.0);
+            }
+            return 3;
+        });
 
-        // Mock Dijkstra
-        // Amb1 is 10km away
-        when(dijsktraService.findShortestPath(2, 1)).thenReturn(
-                new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 10.0));
-        // Amb2 is 5km away (Should be chosen)
-        when(dijsktraService.findShortestPath(3, 1)).thenReturn(
-                new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 5.0));
+        // Mock Dijkstra dependente do tempo (busca a partir de todas as bases)
+        // Amb2 arrives in 5 minutes, before Amb1 (Should be chosen)
+        when(dijsktraService.findFastestRoute(anyCollection(), eq(1), any())).thenReturn(
+                new DijsktraService.FastestRoute(3, 5.0,
+                        new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 5.0)));
 
         // Execute
         ocorrenciaService.createOcorrencia(ocorrencia);
@@ -108,6 +152,9 @@ class DispatchTest {
         // Verify
         verify(atendimentoRepository, times(1)).save(any());
         verify(ambulanciaRepository, times(1)).save(amb2); // Amb2 should be saved (status update)
+        verify(availabilityIndex).update(amb2); // and leaves the index of available units
+        verify(arrivalScheduler).schedule(eq(1), any(), eq(5.0)); // arrival simulated from the route distance
+        verify(equipeRepository, never()).findByAmbulancia(any()); // team readiness comes from the projection
         verify(ocorrenciaRepository, atLeastOnce()).save(ocorrencia);
 
         // Check if status updated
@@ -115,6 +162,70 @@ class DispatchTest {
         assert ocorrencia.getStatus().equals("DESPACHADA");
     }
 
+    @Test
+    void testDispatchAmbulanceAlreadyClaimedFallsBackToNextFastest() {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(1);
+        ocorrencia.setBairro(new Bairro(1, "Bairro 1"));
+        ocorrencia.setStatus("ABERTA");
+        ocorrencia.setGravidade("BAIXA");
+
+        Ambulancia amb1 = new Ambulancia();
+        amb1.setId(1);
+        amb1.setBairro(new Bairro(2, "Bairro 2"));
+        amb1.setStatus("DISPONIVEL");
+        amb1.setTipo("USB");
+
+        Ambulancia amb2 = new Ambulancia();
+        amb2.setId(2);
+        amb2.setBairro(new Bairro(3, "Bairro 3"));
+        amb2.setStatus("DISPONIVEL");
+        amb2.setTipo("USB");
+
+        when(availabilityIndex.availableAt(2)).thenReturn(List.of(new AmbulanceAvailabilityIndex.Entry(1, "USB", 2)));
+        when(availabilityIndex.availableAt(3)).thenReturn(List.of(new AmbulanceAvailabilityIndex.Entry(2, "USB", 3)));
+        when(ambulanciaRepository.findById(1)).thenReturn(Optional.of(amb1));
+        when(ambulanciaRepository.findById(2)).thenReturn(Optional.of(amb2));
+        when(ocorrenciaRepository.save(any(Ocorrencia.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        Profissional motorista = new Profissional();
+        motorista.setFuncao("MOTORISTA");
+        motorista.setAtivo(true);
+        Profissional enfermeiro = new Profissional();
+        enfermeiro.setFuncao("ENFERMEIRO");
+        enfermeiro.setAtivo(true);
+        Equipe equipe = new Equipe();
+        equipe.setProfissionais(Arrays.asList(motorista, enfermeiro));
+        registerTeam(amb1, equipe);
+        registerTeam(amb2, equipe);
+
+        when(dijsktraService.expandFrontier(eq(1), any())).thenAnswer(i -> {
+            DijsktraService.FrontierVisitor visitor = i.getArgument(1);
+            if (visitor.visit(1, 0.0) && visitor.visit(3, 5.0)) {
+                visitor.visit(2, 10.0);
+            }
+            return 3;
+        });
+        // Amb2 (base 3) é a mais rápida, mas outro despacho a reservou depois da leitura
+        when(ambulanciaRepository.updateStatusIfCurrent(2, "DISPONIVEL", "EM_ATENDIMENTO")).thenReturn(0);
+        when(dijsktraService.findFastestRoute(anyCollection(), eq(1), any())).thenAnswer(i ->
+                i.<java.util.Collection<Integer>>getArgument(0).contains(3)
+                        ? new DijsktraService.FastestRoute(3, 5.0,
+                                new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 5.0))
+                        : new DijsktraService.FastestRoute(2, 10.0,
+                                new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 10.0)));
+
+        ocorrenciaService.createOcorrencia(ocorrencia);
+
+        // A reserva da ocorrência é desfeita e refeita com a Amb1; só um atendimento é gravado
+        verify(ocorrenciaRepository).updateStatusIfCurrent(1, "DESPACHADA", "ABERTA");
+        verify(atendimentoRepository, times(1)).save(argThat(atendimento -> atendimento.getAmbulancia() == amb1));
+        verify(ambulanciaRepository, never()).save(amb2);
+        assertEquals("DISPONIVEL", amb2.getStatus());
+        assertEquals("EM_ATENDIMENTO", amb1.getStatus());
+        assertEquals("DESPACHADA", ocorrencia.getStatus());
+    }
+
     @Test
     void testDispatchAmbulanceOutOfSla() {
         // Setup Bairros
@@ -135,7 +246,8 @@ class DispatchTest {
         amb1.setStatus("DISPONIVEL");
         amb1.setTipo("USA"); // Compatible with ALTA
 
-        when(ambulanciaRepository.findByStatus("DISPONIVEL")).thenReturn(Collections.singletonList(amb1));
+        when(availabilityIndex.availableAt(2)).thenReturn(List.of(new AmbulanceAvailabilityIndex.Entry(1, "USA", 2)));
+        when(ambulanciaRepository.findById(1)).thenReturn(Optional.of(amb1));
         when(ocorrenciaRepository.save(any(Ocorrencia.class))).thenAnswer(i -> i.getArguments()[0]);
 
         // Mock Equipe
@@ -154,12 +266,22 @@ class DispatchTest {
         Equipe equipe = new Equipe();
         equipe.setProfissionais(Arrays.asList(motorista, enfermeiro, medico));
 
-        when(equipeRepository.findByAmbulancia(any(Ambulancia.class))).thenReturn(Collections.singletonList(equipe));
+        registerTeam(amb1, equipe);
+
+        // Mock fronteira do Dijkstra a partir da ocorrência
+        when(dijsktraService.expandFrontier(eq(1), any())).thenAnswer(i -> {
+            DijsktraService.FrontierVisitor visitor = i.getArgument(1);
+            if (visitor.visit(1, 0.0)) {
+                visitor.visit(2, 20.0);
+            }
+            return 2;
+        });
 
-        // Mock Dijkstra
-        // Amb1 is 20km away (Above SLA of 8.0)
-        when(dijsktraService.findShortestPath(2, 1)).thenReturn(
-                new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 20.0));
+        // Mock Dijkstra dependente do tempo (busca a partir de todas as bases)
+        // Amb1 arrives in 20 minutes (Above SLA of 8.0)
+        when(dijsktraService.findFastestRoute(anyCollection(), eq(1), any())).thenReturn(
+                new DijsktraService.FastestRoute(2, 20.0,
+                        new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 20.0)));
 
         // Execute
         ocorrenciaService.createOcorrencia(ocorrencia);
@@ -177,4 +299,199 @@ class DispatchTest {
         assert amb1.getStatus().equals("EM_ATENDIMENTO");
         assert ocorrencia.getStatus().equals("DESPACHADA");
     }
+
+    @Test
+    void testFreedAmbulanceGoesToMostSevereQueuedOccurrence() {
+        // Ocorrência em atendimento que será concluída, liberando a ambulância
+        Ocorrencia concluida = new Ocorrencia();
+        concluida.setId(1);
+        concluida.setBairro(new Bairro(1, "Bairro 1"));
+        concluida.setStatus("EM_ATENDIMENTO");
+
+        Ambulancia ambulancia = new Ambulancia();
+        ambulancia.setId(7);
+        ambulancia.setBairro(new Bairro(2, "Bairro 2"));
+        ambulancia.setStatus("EM_ATENDIMENTO");
+        ambulancia.setTipo("USA");
+
+        Atendimento anterior = new Atendimento();
+        anterior.setOcorrencia(concluida);
+        anterior.setAmbulancia(ambulancia);
+
+        // Fila: BAIXA (mais próxima, aberta antes) e ALTA (vantagem de gravidade maior que a diferença de espera)
+        Ocorrencia baixa = new Ocorrencia();
+        baixa.setId(2);
+        baixa.setBairro(new Bairro(4, "Bairro 4"));
+        baixa.setStatus("ABERTA");
+        baixa.setGravidade("BAIXA");
+
+        Ocorrencia alta = new Ocorrencia();
+        alta.setId(3);
+        alta.setBairro(new Bairro(5, "Bairro 5"));
+        alta.setStatus("ABERTA");
+        alta.setGravidade("ALTA");
+
+        when(ocorrenciaRepository.findById(1)).thenReturn(Optional.of(concluida));
+        when(atendimentoRepository.findFirstByOcorrenciaOrderByIdDesc(concluida)).thenReturn(anterior);
+        when(ocorrenciaRepository.findAllById(any())).thenReturn(List.of(baixa, alta));
+        double agora = PendingOccurrenceQueue.epochMinutes(LocalDateTime.now());
+        when(pendingQueue.peek(any(), anyInt())).thenReturn(List.of(
+                new PendingOccurrenceQueue.Entry(3, "ALTA", 5, agora - 45),
+                new PendingOccurrenceQueue.Entry(2, "BAIXA", 4, agora - 30)));
+
+        Profissional motorista = new Profissional();
+        motorista.setFuncao("MOTORISTA");
+        motorista.setAtivo(true);
+        Profissional enfermeiro = new Profissional();
+        enfermeiro.setFuncao("ENFERMEIRO");
+        enfermeiro.setAtivo(true);
+        Profissional medico = new Profissional();
+        medico.setFuncao("MEDICO");
+        medico.setAtivo(true);
+        Equipe equipe = new Equipe();
+        equipe.setProfissionais(Arrays.asList(motorista, enfermeiro, medico));
+        registerTeam(ambulancia, equipe);
+
+        when(availabilityIndex.availableAt(2)).thenReturn(List.of(new AmbulanceAvailabilityIndex.Entry(7, "USA", 2)));
+        when(ambulanciaRepository.findById(7)).thenReturn(Optional.of(ambulancia));
+        when(dijsktraService.expandFrontier(anyInt(), any())).thenAnswer(i -> {
+            DijsktraService.FrontierVisitor visitor = i.getArgument(1);
+            visitor.visit(2, 3.0);
+            return 1;
+        });
+        // Base 2 -> Bairro 5: 9 min; Base 2 -> Bairro 4: 3 min
+        DijsktraService.TravelTimeTable tempos = mock(DijsktraService.TravelTimeTable.class);
+        when(tempos.minutes(0, 0)).thenReturn(9.0);
+        when(tempos.minutes(0, 1)).thenReturn(3.0);
+        when(tempos.route(0, 0)).thenReturn(new DijsktraService.FastestRoute(2, 9.0,
+                new DijsktraService.PathResult(Collections.emptyList(), Collections.emptyList(), 9.0)));
+        // Lote com ALTA (8 min) e BAIXA (30 min): buscas limitadas ao maior SLA
+        when(dijsktraService.travelTimes(anyList(), anyList(), any(), eq(30.0))).thenReturn(tempos);
+
+        ocorrenciaService.finishOccurrence(1);
+
+        // A única ambulância vai para a ALTA, mesmo sendo a BAIXA mais próxima
+        verify(atendimentoRepository, times(1)).save(argThat(atendimento ->
+            atendimento.getOcorrencia() == alta &&
+            atendimento.getAmbulancia() == ambulancia &&
+            atendimento.getForaDoSla() == true
+        ));
+        assertEquals("DESPACHADA", alta.getStatus());
+        assertEquals("ABERTA", baixa.getStatus());
+        assertEquals("EM_ATENDIMENTO", ambulancia.getStatus());
+
+        // Fila em memória: nenhuma consulta por status e uma só carga do lote; só a despachada sai da fila
+        verify(ocorrenciaRepository, never()).findByStatus("ABERTA");
+        verify(ocorrenciaRepository, times(1)).findAllById(any());
+        verify(ocorrenciaRepository, never()).findById(2);
+        verify(ocorrenciaRepository, never()).findById(3);
+        verify(pendingQueue).remove(3);
+        verify(pendingQueue, never()).remove(2);
+
+        // A rota do par escolhido vem da mesma busca do lote, sem nova consulta
+        verify(dijsktraService, never()).findFastestRoute(anyCollection(), anyInt(), any());
+        verify(tempos, never()).route(0, 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFreedBasicAmbulanceOnlyPeeksServableOccurrences() {
+        Ocorrencia concluida = new Ocorrencia();
+        concluida.setId(1);
+        concluida.setBairro(new Bairro(1, "Bairro 1"));
+        concluida.setStatus("EM_ATENDIMENTO");
+
+        Ambulancia ambulancia = new Ambulancia();
+        ambulancia.setId(8);
+        ambulancia.setBairro(new Bairro(2, "Bairro 2"));
+        ambulancia.setStatus("EM_ATENDIMENTO");
+        ambulancia.setTipo("USB");
+
+        Atendimento anterior = new Atendimento();
+        anterior.setOcorrencia(concluida);
+        anterior.setAmbulancia(ambulancia);
+
+        when(ocorrenciaRepository.findById(1)).thenReturn(Optional.of(concluida));
+        when(atendimentoRepository.findFirstByOcorrenciaOrderByIdDesc(concluida)).thenReturn(anterior);
+        when(ambulanciaRepository.findById(8)).thenReturn(Optional.of(ambulancia));
+
+        ocorrenciaService.finishOccurrence(1);
+
+        ArgumentCaptor<Predicate<String>> gravidades = ArgumentCaptor.forClass(Predicate.class);
+        verify(pendingQueue).peek(gravidades.capture(), anyInt());
+        assert !gravidades.getValue().test("ALTA");
+        assert gravidades.getValue().test("MEDIA");
+        assert gravidades.getValue().test("BAIXA");
+        verify(ocorrenciaRepository, never()).findByStatus(any());
+        verify(dijsktraService, never()).expandFrontier(anyInt(), any());
+    }
+
+    @Test
+    void testDispatchPendingSkipsOccurrenceNoLongerOpen() {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(4);
+        ocorrencia.setBairro(new Bairro(1, "Bairro 1"));
+        ocorrencia.setStatus("DESPACHADA");
+        when(ocorrenciaRepository.findById(4)).thenReturn(Optional.of(ocorrencia));
+
+        // Recebeu uma ambulância liberada antes do executor de despacho
+        ocorrenciaService.dispatchPending(4);
+        ocorrenciaService.dispatchPending(99);
+
+        verify(dijsktraService, never()).expandFrontier(anyInt(), any());
+        verify(atendimentoRepository, never()).save(any());
+    }
+
+    @Test
+    void testAmbulanceWithoutCompleteTeamIsSkippedWithoutLoading() {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(1);
+        ocorrencia.setBairro(new Bairro(1, "Bairro 1"));
+        ocorrencia.setStatus("ABERTA");
+        ocorrencia.setGravidade("ALTA");
+
+        Ambulancia ambulancia = new Ambulancia();
+        ambulancia.setId(1);
+        ambulancia.setBairro(new Bairro(2, "Bairro 2"));
+        ambulancia.setStatus("DISPONIVEL");
+        ambulancia.setTipo("USA");
+
+        // USA sem médico: equipe incompleta
+        Profissional motorista = new Profissional();
+        motorista.setFuncao("MOTORISTA");
+        motorista.setAtivo(true);
+        Profissional enfermeiro = new Profissional();
+        enfermeiro.setFuncao("ENFERMEIRO");
+        enfermeiro.setAtivo(true);
+        Equipe equipe = new Equipe();
+        equipe.setProfissionais(Arrays.asList(motorista, enfermeiro));
+        registerTeam(ambulancia, equipe);
+
+        when(ocorrenciaRepository.save(any(Ocorrencia.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(availabilityIndex.availableAt(2)).thenReturn(List.of(new AmbulanceAvailabilityIndex.Entry(1, "USA", 2)));
+        when(dijsktraService.expandFrontier(eq(1), any())).thenAnswer(i -> {
+            DijsktraService.FrontierVisitor visitor = i.getArgument(1);
+            visitor.visit(2, 4.0);
+            return 1;
+        });
+
+        ocorrenciaService.createOcorrencia(ocorrencia);
+
+        verify(ambulanciaRepository, never()).findById(1);
+        verify(atendimentoRepository, never()).save(any());
+        assertEquals("ABERTA", ocorrencia.getStatus());
+    }
+
+    private int nextProfissionalId = 1;
+
+    private void registerTeam(Ambulancia ambulancia, Equipe equipe) {
+        equipe.setId(ambulancia.getId());
+        equipe.setAmbulancia(ambulancia);
+        for (Profissional profissional : equipe.getProfissionais()) {
+            if (profissional.getId() == null) {
+                profissional.setId(nextProfissionalId++);
+            }
+        }
+        readinessProjection.update(equipe);
+    }
 }
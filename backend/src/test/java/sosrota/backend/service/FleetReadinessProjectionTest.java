@@ -0,0 +1,115 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Profissional;
+import sosrota.backend.entity.Turno;
+import sosrota.backend.repository.EquipeRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class FleetReadinessProjectionTest {
+
+    @Mock
+    private EquipeRepository equipeRepository;
+
+    @InjectMocks
+    private FleetReadinessProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testRebuildAppliesTeamCompositionRules() {
+        Profissional motorista = profissional(1, "MOTORISTA", true);
+        Profissional enfermeiro = profissional(2, "ENFERMEIRO", true);
+        Profissional medico = profissional(3, "MEDICO", true);
+        Profissional motorista2 = profissional(4, "MOTORISTA", true);
+        Profissional medicoInativo = profissional(5, "MEDICO", false);
+
+        when(equipeRepository.findAllWithProfissionais()).thenReturn(List.of(
+                equipe(10, 1, Turno.MATUTINO, motorista, enfermeiro, medico),
+                equipe(11, 2, Turno.MATUTINO, motorista2, enfermeiro),
+                equipe(12, 3, Turno.NOTURNO, motorista2, medicoInativo)));
+
+        projection.rebuild();
+
+        assertEquals(3, projection.size());
+        assertTrue(projection.isReady(1, "USA"));
+        assertTrue(projection.isReady(1, "usb"));
+        // USB: motorista e enfermeiro bastam; USA exige médico
+        assertTrue(projection.isReady(2, "USB"));
+        assertFalse(projection.isReady(2, "USA"));
+        // Médico inativo não conta
+        assertFalse(projection.isReady(3, "USB"));
+        assertFalse(projection.isReady(99, "USB"));
+        assertFalse(projection.isReady(1, null));
+
+        FleetReadinessProjection.Readiness manha = projection.readiness(2, Turno.MATUTINO);
+        assertTrue(manha.hasMotorista);
+        assertTrue(manha.hasEnfermeiro);
+        assertFalse(manha.hasMedico);
+        assertFalse(projection.readiness(2, Turno.NOTURNO).hasMotorista);
+    }
+
+    @Test
+    void testTeamAndProfessionalChangesKeepProjectionCurrent() {
+        Profissional motorista = profissional(1, "MOTORISTA", true);
+        Profissional enfermeiro = profissional(2, "ENFERMEIRO", true);
+        Equipe equipe = equipe(10, 1, Turno.VESPERTINO, motorista, enfermeiro);
+        projection.update(equipe);
+        assertTrue(projection.isReady(1, "USB"));
+
+        // Profissional inativado ou com função alterada
+        projection.updateProfissional(profissional(2, "ENFERMEIRO", false));
+        assertFalse(projection.isReady(1, "USB"));
+        projection.updateProfissional(profissional(2, "MEDICO", true));
+        assertTrue(projection.isReady(1, "USB"));
+        // Profissional fora de equipes não afeta a projeção
+        projection.updateProfissional(profissional(7, "MEDICO", true));
+        assertFalse(projection.isReady(1, "USA"));
+
+        // Equipe movida para outra ambulância e com membro removido
+        Equipe movida = equipe(10, 2, Turno.VESPERTINO, motorista);
+        projection.update(movida);
+        assertFalse(projection.isReady(1, "USB"));
+        assertFalse(projection.isReady(2, "USB"));
+        projection.updateProfissional(profissional(2, "ENFERMEIRO", true));
+        assertFalse(projection.isReady(2, "USB"));
+
+        projection.removeEquipe(10);
+        assertEquals(0, projection.size());
+        projection.removeEquipe(10);
+        projection.update(null);
+    }
+
+    private Profissional profissional(int id, String funcao, boolean ativo) {
+        Profissional profissional = new Profissional();
+        profissional.setId(id);
+        profissional.setFuncao(funcao);
+        profissional.setAtivo(ativo);
+        return profissional;
+    }
+
+    private Equipe equipe(int id, int ambulanciaId, Turno turno, Profissional... profissionais) {
+        Ambulancia ambulancia = new Ambulancia();
+        ambulancia.setId(ambulanciaId);
+        Equipe equipe = new Equipe();
+        equipe.setId(id);
+        equipe.setAmbulancia(ambulancia);
+        equipe.setTurno(turno);
+        equipe.setProfissionais(new ArrayList<>(List.of(profissionais)));
+        return equipe;
+    }
+}
@@ -0,0 +1,120 @@
+package sosrota.backend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import sosrota.backend.dto.AmbulanciaResumoDTO;
+import sosrota.backend.dto.OcorrenciaResumoDTO;
+import sosrota.backend.dto.PaginaDTO;
+import sosrota.backend.repository.ListagemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ListagemServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TypedQuery<Object> query;
+
+    private final List<String> jpql = new ArrayList<>();
+    private ListagemService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManager.createQuery(anyString(), any())).thenAnswer(inv -> {
+            jpql.add(inv.getArgument(0));
+            return query;
+        });
+        ListagemRepository repository = new ListagemRepository();
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        service = new ListagemService(repository);
+    }
+
+    @Test
+    void testOcorrenciasPageThroughKeysetCursorWithOnlyGivenFilters() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 10, 8, 30);
+        when(query.getResultList()).thenReturn(List.of(
+                ocorrencia(9, t.plusMinutes(2)), ocorrencia(8, t), ocorrencia(5, t)));
+
+        PaginaDTO<OcorrenciaResumoDTO> primeira = service.listOcorrencias("ABERTA", null, null, null, null, null, 2);
+
+        assertEquals(2, primeira.itens().size());
+        assertNotNull(primeira.proximo());
+        // Uma linha a mais que o limite para saber se há próxima página
+        verify(query, times(1)).setMaxResults(3);
+        verify(query, times(1)).setParameter("status", "ABERTA");
+        assertTrue(jpql.get(0).contains("WHERE o.status = :status ORDER BY o.dataHoraAbertura DESC, o.id DESC"));
+        assertFalse(jpql.get(0).contains("gravidade ="));
+
+        // Segunda página: continua após (t, 8), última linha da primeira
+        when(query.getResultList()).thenReturn(List.of(ocorrencia(5, t)));
+        PaginaDTO<OcorrenciaResumoDTO> segunda = service.listOcorrencias("ABERTA", null, null, null, null,
+                primeira.proximo(), 2);
+
+        assertEquals(1, segunda.itens().size());
+        assertNull(segunda.proximo());
+        assertTrue(jpql.get(1).contains("o.status = :status AND (o.dataHoraAbertura, o.id) < (:aposData, :aposId)"));
+        verify(query, times(1)).setParameter("aposData", t);
+        verify(query, times(1)).setParameter("aposId", 8);
+    }
+
+    @Test
+    void testPeriodAndLimitAreValidatedAndClamped() {
+        LocalDateTime inicio = LocalDateTime.of(2025, 3, 1, 0, 0);
+        service.listOcorrencias(null, "ALTA", 3, inicio, inicio.plusDays(1), null, 5000);
+
+        verify(query, times(1)).setMaxResults(201);
+        assertTrue(jpql.get(0).contains("o.gravidade = :gravidade AND o.bairro.id = :bairroId "
+                + "AND o.dataHoraAbertura >= :inicio AND o.dataHoraAbertura < :fim"));
+
+        service.listOcorrencias(null, null, null, null, null, null, null);
+        verify(query, times(1)).setMaxResults(51);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listOcorrencias(null, null, null, inicio, inicio, null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listOcorrencias(null, null, null, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listOcorrencias(null, null, null, null, null, "nao-e-um-cursor", 10));
+        assertEquals(2, jpql.size());
+    }
+
+    @Test
+    void testCadastrosPageByIdCursor() {
+        when(query.getResultList()).thenReturn(List.of(ambulancia(4), ambulancia(7)));
+
+        PaginaDTO<AmbulanciaResumoDTO> pagina = service.listAmbulancias("DISPONIVEL", null, null, "3", 1);
+
+        assertEquals(1, pagina.itens().size());
+        assertEquals("4", pagina.proximo());
+        assertTrue(jpql.get(0).endsWith("WHERE a.status = :status AND a.id > :aposId ORDER BY a.id"));
+        verify(query, times(1)).setParameter("aposId", 3);
+        verify(query, never()).setParameter(eq("tipo"), any());
+        assertThrows(IllegalArgumentException.class, () -> service.listEquipes(null, null, "abc", 10));
+    }
+
+    private static OcorrenciaResumoDTO ocorrencia(int id, LocalDateTime abertura) {
+        return new OcorrenciaResumoDTO(id, "Queda", "ALTA", "ABERTA", abertura, null, 1, "Centro");
+    }
+
+    private static AmbulanciaResumoDTO ambulancia(int id) {
+        return new AmbulanciaResumoDTO(id, "ABC" + id, "USA", "DISPONIVEL", 1, "Centro");
+    }
+}
@@ -0,0 +1,157 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import sosrota.backend.entity.Bairro;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.repository.OcorrenciaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class PendingOccurrenceQueueTest {
+
+    @Mock
+    private OcorrenciaRepository ocorrenciaRepository;
+
+    @InjectMocks
+    private PendingOccurrenceQueue queue;
+
+    private final LocalDateTime inicio = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testSeverityOrdersQueueAndAgingPreventsStarvation() {
+        when(ocorrenciaRepository.findByStatus("ABERTA")).thenReturn(List.of(
+                ocorrencia(1, "BAIXA", inicio),
+                ocorrencia(2, "MEDIA", inicio.plusMinutes(5)),
+                ocorrencia(3, "ALTA", inicio.plusMinutes(10)),
+                // BAIXA aberta mais de 2 níveis de aging (40 min) antes da ALTA 5
+                ocorrencia(4, "BAIXA", inicio.minusMinutes(39)),
+                ocorrencia(5, "ALTA", inicio.plusMinutes(2))));
+
+        queue.rebuild();
+
+        assertEquals(5, queue.size());
+        assertEquals(List.of(4, 5, 3, 2, 1), ids(queue.peek(g -> true, 10)));
+        assertEquals(List.of(4, 5), ids(queue.peek(g -> true, 2)));
+        assertTrue(queue.peek(g -> true, 0).isEmpty());
+    }
+
+    @Test
+    void testPeekOnlyVisitsServableSeverities() {
+        queue.add(ocorrencia(1, "ALTA", inicio));
+        queue.add(ocorrencia(2, "baixa", inicio.plusMinutes(1)));
+        queue.add(ocorrencia(3, "MEDIA", inicio.plusMinutes(2)));
+        queue.add(ocorrencia(4, null, inicio.plusMinutes(3)));
+
+        // Ambulância básica: não atende ALTA
+        assertEquals(List.of(3, 2, 4), ids(queue.peek(g -> !"ALTA".equals(g), 10)));
+        assertTrue(queue.peek(g -> false, 10).isEmpty());
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    void testLifecycleKeepsQueueCurrent() {
+        Ocorrencia ocorrencia = ocorrencia(1, "BAIXA", inicio);
+        queue.add(ocorrencia);
+        queue.add(ocorrencia(2, "MEDIA", inicio));
+        assertEquals(List.of(2, 1), ids(queue.peek(g -> true, 10)));
+
+        // Reclassificada: reposicionada sem duplicar
+        ocorrencia.setGravidade("ALTA");
+        queue.add(ocorrencia);
+        assertEquals(List.of(1, 2), ids(queue.peek(g -> true, 10)));
+        assertEquals(2, queue.size());
+
+        // Despachada: sai da fila
+        ocorrencia.setStatus("DESPACHADA");
+        queue.add(ocorrencia);
+        assertEquals(List.of(2), ids(queue.peek(g -> true, 10)));
+
+        queue.remove(2);
+        queue.remove(2);
+        queue.add(null);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testRebuildMergesChangesMadeDuringTheQuery() throws Exception {
+        queue.add(ocorrencia(1, "BAIXA", inicio));
+        queue.add(ocorrencia(2, "MEDIA", inicio));
+        queue.add(ocorrencia(3, "ALTA", inicio));
+
+        // A consulta lê 1 e 3 abertas (2 foi despachada fora da aplicação) e fica bloqueada até a liberação
+        CountDownLatch consultando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(ocorrenciaRepository.findByStatus("ABERTA")).thenAnswer(i -> {
+            consultando.countDown();
+            assertTrue(liberar.await(5, TimeUnit.SECONDS));
+            return List.of(ocorrencia(1, "BAIXA", inicio), ocorrencia(3, "ALTA", inicio));
+        });
+        Thread reconciliacao = new Thread(queue::rebuild);
+        reconciliacao.start();
+        assertTrue(consultando.await(5, TimeUnit.SECONDS));
+
+        // Durante a consulta: nova ocorrência (gravada depois dela) e 3 despachada; nenhuma espera o lock
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                queue.add(ocorrencia(4, "ALTA", inicio.plusMinutes(1)));
+                queue.remove(3);
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        liberar.countDown();
+        reconciliacao.join(5000);
+
+        // 4 não é descartada, 3 não volta e 2 (já na fila antes da consulta) sai
+        assertEquals(List.of(4, 1), ids(queue.peek(g -> true, 10)));
+        assertEquals(2, queue.size());
+
+        // Reconciliação seguinte, sem concorrência: o banco prevalece
+        when(ocorrenciaRepository.findByStatus("ABERTA")).thenReturn(List.of(ocorrencia(1, "BAIXA", inicio), ocorrencia(5, "MEDIA", inicio)));
+        queue.rebuild();
+        assertEquals(List.of(5, 1), ids(queue.peek(g -> true, 10)));
+    }
+
+    @Test
+    void testAgedWaitAddsSeverityHeadStart() {
+        queue.add(ocorrencia(1, "ALTA", inicio));
+        queue.add(ocorrencia(2, "BAIXA", inicio));
+
+        List<PendingOccurrenceQueue.Entry> fila = queue.peek(g -> true, 10);
+        assertEquals(50.0, fila.get(0).agedWaitMinutes(inicio.plusMinutes(10)), 1e-9);
+        assertEquals(10.0, fila.get(1).agedWaitMinutes(inicio.plusMinutes(10)), 1e-9);
+    }
+
+    private Ocorrencia ocorrencia(int id, String gravidade, LocalDateTime abertura) {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(id);
+        ocorrencia.setGravidade(gravidade);
+        ocorrencia.setStatus("ABERTA");
+        ocorrencia.setDataHoraAbertura(abertura);
+        ocorrencia.setBairro(new Bairro(id, "Bairro " + id));
+        return ocorrencia;
+    }
+
+    private List<Integer> ids(List<PendingOccurrenceQueue.Entry> entries) {
+        return entries.stream().map(e -> e.id).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,95 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.Test;
+import sosrota.backend.dto.RelatorioSlaDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelatorioServiceTest {
+
+    private static final String COLUNAS = "bairro_id, total";
+
+    @Test
+    void testWholeHistoryReadsOnlyDailyBuckets() {
+        RelatorioService.Fonte fonte = RelatorioService.fonte("relatorio_ocorrencia", COLUNAS, null, null);
+
+        assertEquals("(SELECT bairro_id, total FROM relatorio_ocorrencia_dia) r", fonte.sql());
+        assertTrue(fonte.parametros().isEmpty());
+    }
+
+    @Test
+    void testRangeSplitsIntoDaysAndHourlyEdges() {
+        // 10/03 14:20 até 13/03 09:10: horas 14h-24h do dia 10, dias 11 e 12, horas 0h-10h do dia 13
+        RelatorioService.Fonte fonte = RelatorioService.fonte("relatorio_ocorrencia", COLUNAS,
+                LocalDateTime.of(2025, 3, 10, 14, 20), LocalDateTime.of(2025, 3, 13, 9, 10));
+
+        assertEquals("(SELECT bairro_id, total FROM relatorio_ocorrencia_dia WHERE dia >= :p0 AND dia < :p1"
+                + " UNION ALL SELECT bairro_id, total FROM relatorio_ocorrencia_hora WHERE hora >= :p2 AND hora < :p3"
+                + " UNION ALL SELECT bairro_id, total FROM relatorio_ocorrencia_hora WHERE hora >= :p4 AND hora < :p5) r",
+                fonte.sql());
+        Map<String, Object> p = fonte.parametros();
+        assertEquals(LocalDate.of(2025, 3, 11), p.get("p0"));
+        assertEquals(LocalDate.of(2025, 3, 13), p.get("p1"));
+        assertEquals(LocalDateTime.of(2025, 3, 10, 14, 0), p.get("p2"));
+        assertEquals(LocalDateTime.of(2025, 3, 11, 0, 0), p.get("p3"));
+        assertEquals(LocalDateTime.of(2025, 3, 13, 0, 0), p.get("p4"));
+        assertEquals(LocalDateTime.of(2025, 3, 13, 10, 0), p.get("p5"));
+    }
+
+    @Test
+    void testRangeWithinOneDayReadsOnlyHourlyBuckets() {
+        RelatorioService.Fonte fonte = RelatorioService.fonte("relatorio_ocorrencia", COLUNAS,
+                LocalDateTime.of(2025, 3, 10, 8, 0), LocalDateTime.of(2025, 3, 10, 12, 0));
+
+        assertEquals("(SELECT bairro_id, total FROM relatorio_ocorrencia_hora WHERE hora >= :p0 AND hora < :p1) r",
+                fonte.sql());
+    }
+
+    @Test
+    void testMidnightAlignedRangeReadsOnlyDailyBuckets() {
+        RelatorioService.Fonte fonte = RelatorioService.fonte("relatorio_ocorrencia", COLUNAS,
+                LocalDateTime.of(2025, 3, 1, 0, 0), null);
+
+        assertEquals("(SELECT bairro_id, total FROM relatorio_ocorrencia_dia WHERE dia >= :p0) r", fonte.sql());
+    }
+
+    @Test
+    void testInvertedRangeIsRejected() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 10, 8, 0);
+        assertThrows(IllegalArgumentException.class,
+                () -> RelatorioService.fonte("relatorio_ocorrencia", COLUNAS, t, t));
+    }
+
+    @Test
+    void testSlaFoldsHistogramIntoRatesAndPercentiles() {
+        // grupo, faixa_minutos, total, fora_do_sla, soma_tempo_min, soma_distancia_km
+        List<RelatorioSlaDTO> relatorio = RelatorioService.sla(List.of(
+                new Object[]{"UTI", 5, 10L, 0L, 55.0, 50.0},
+                new Object[]{"UTI", 8, 8L, 2L, 68.0, 60.0},
+                new Object[]{"UTI", 15, 2L, 2L, 31.0, 30.0},
+                new Object[]{"USB", 3, 4L, 0L, 14.0, 12.0}));
+
+        assertEquals(2, relatorio.size());
+        RelatorioSlaDTO uti = relatorio.get(0);
+        assertEquals("UTI", uti.grupo());
+        assertEquals(20, uti.total());
+        assertEquals(4, uti.foraDoSla());
+        assertEquals(0.2, uti.taxaForaDoSla(), 1e-9);
+        assertEquals(7.7, uti.tempoMedioMin(), 1e-9);
+        assertEquals(7.0, uti.distanciaMediaKm(), 1e-9);
+        // Acumulado: 10 (faixa 5), 18 (faixa 8), 20 (faixa 15)
+        assertEquals(5, uti.p50Min());
+        assertEquals(8, uti.p90Min());
+        assertEquals(15, uti.p95Min());
+
+        RelatorioSlaDTO usb = relatorio.get(1);
+        assertEquals(4, usb.total());
+        assertEquals(3, usb.p50Min());
+        assertEquals(3, usb.p95Min());
+    }
+}
@@ -0,0 +1,161 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Equipe;
+import sosrota.backend.entity.Profissional;
+import sosrota.backend.entity.Turno;
+import sosrota.backend.repository.EquipeRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class ShiftRosterEngineTest {
+
+    @Mock
+    private EquipeRepository equipeRepository;
+
+    private FleetReadinessProjection projection;
+    private ShiftRosterEngine engine;
+
+    private final LocalDateTime dia = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        projection = new FleetReadinessProjection(equipeRepository);
+        engine = new ShiftRosterEngine(projection);
+    }
+
+    @Test
+    void testShiftBoundaries() {
+        assertEquals(Turno.NOTURNO, engine.turnoAt(dia.withHour(5).withMinute(59)));
+        assertEquals(Turno.MATUTINO, engine.turnoAt(dia.withHour(6)));
+        assertEquals(Turno.MATUTINO, engine.turnoAt(dia.withHour(13).withMinute(59)));
+        assertEquals(Turno.VESPERTINO, engine.turnoAt(dia.withHour(14)));
+        assertEquals(Turno.NOTURNO, engine.turnoAt(dia.withHour(22)));
+        assertEquals(Turno.NOTURNO, engine.turnoAt(dia.withHour(23).withMinute(59)));
+
+        engine.reset(dia.withHour(23));
+        ShiftRosterEngine.Roster noite = engine.current();
+        assertEquals(dia.withHour(22), noite.start);
+        assertEquals(dia.plusDays(1).withHour(6), noite.end);
+    }
+
+    @Test
+    void testRotationSwitchesToPrecomputedRosterAtBoundary() {
+        when(equipeRepository.findAllWithProfissionais()).thenReturn(List.of(
+                equipe(10, 1, Turno.MATUTINO, 1),
+                equipe(11, 1, Turno.VESPERTINO, 4),
+                equipe(12, 2, Turno.VESPERTINO, 7)));
+        projection.rebuild();
+
+        engine.reset(dia.withHour(13));
+        ShiftRosterEngine.Roster manha = engine.current();
+        assertEquals(Turno.MATUTINO, manha.turno);
+        assertTrue(engine.isStaffed(1, "USA"));
+        assertFalse(engine.isStaffed(2, "USA"));
+        assertEquals(Integer.valueOf(10), engine.teamOnDuty(1, dia.withHour(9)));
+        // Próximo turno já calculado
+        assertEquals(Integer.valueOf(11), engine.teamOnDuty(1, dia.withHour(15)));
+
+        assertFalse(engine.rotate(dia.withHour(13).withMinute(59)));
+        assertSame(manha, engine.current());
+
+        assertTrue(engine.rotate(dia.withHour(14)));
+        ShiftRosterEngine.Roster tarde = engine.current();
+        assertEquals(Turno.VESPERTINO, tarde.turno);
+        assertEquals(dia.withHour(22), tarde.end);
+        assertTrue(engine.isStaffed(2, "USA"));
+        assertEquals(Integer.valueOf(11), engine.teamOnDuty(1, dia.withHour(15)));
+        // Escala anterior permanece íntegra para quem já a leu
+        assertEquals(Integer.valueOf(10), manha.teamOf(1));
+        // Turno sem equipe escalada
+        assertNull(engine.teamOnDuty(1, dia.withHour(23)));
+    }
+
+    @Test
+    void testTeamChangesRefreshRosterAndUnassignedShiftCoversAllShifts() {
+        engine.reset(dia.withHour(8));
+        assertFalse(engine.isStaffed(1, "USB"));
+
+        // Equipe sem turno definido atende em todos os turnos
+        projection.update(equipe(20, 1, null, 1));
+        assertTrue(engine.isStaffed(1, "USB"));
+        assertEquals(Integer.valueOf(20), engine.teamOnDuty(1, dia.withHour(3)));
+        assertEquals(Integer.valueOf(20), engine.teamOnDuty(1, dia.withHour(16)));
+
+        // Equipe do turno tem precedência
+        projection.update(equipe(21, 1, Turno.MATUTINO, 4));
+        assertEquals(Integer.valueOf(21), engine.teamOnDuty(1, dia.withHour(8)));
+        assertEquals(Integer.valueOf(20), engine.teamOnDuty(1, dia.withHour(16)));
+
+        // Profissional inativado: a equipe do turno fica incompleta, a sem turno continua guarnecendo
+        Profissional inativo = profissional(4, "MOTORISTA", false);
+        projection.updateProfissional(inativo);
+        assertTrue(engine.isStaffed(1, "USB"));
+        assertEquals(Integer.valueOf(20), engine.teamOnDuty(1, "USB", dia.withHour(8)));
+
+        projection.removeEquipe(21);
+        assertTrue(engine.isStaffed(1, "USB"));
+        assertEquals(1, engine.current().staffedCount());
+
+        projection.removeEquipe(20);
+        assertFalse(engine.isStaffed(1, "USB"));
+    }
+
+    @Test
+    void testAmbulanceWithTwoTeamsIsStaffedByTheCompleteOne() {
+        // Equipe do turno sem médico (incompleta para USA) e equipe sem turno completa
+        Equipe incompleta = equipe(30, 3, Turno.MATUTINO, 10);
+        incompleta.getProfissionais().remove(1);
+        when(equipeRepository.findAllWithProfissionais()).thenReturn(List.of(incompleta, equipe(31, 3, null, 20)));
+        projection.rebuild();
+
+        engine.reset(dia.withHour(9));
+        assertTrue(engine.isStaffed(3, "USA"));
+        assertTrue(engine.isStaffed(3, "USB"));
+        assertEquals(1, engine.current().staffedCount());
+        // Equipe registrada no despacho: a completa para o tipo; sem tipo, a preferida (do turno)
+        assertEquals(Integer.valueOf(31), engine.teamOnDuty(3, "USA", dia.withHour(9)));
+        assertEquals(Integer.valueOf(30), engine.teamOnDuty(3, "USB", dia.withHour(9)));
+        assertEquals(Integer.valueOf(30), engine.teamOnDuty(3, dia.withHour(9)));
+
+        // Sem a equipe completa, a USA deixa de estar guarnecida
+        projection.removeEquipe(31);
+        assertFalse(engine.isStaffed(3, "USA"));
+        assertTrue(engine.isStaffed(3, "USB"));
+    }
+
+    /**
+     * Equipe completa (motorista, médico e enfermeiro) com IDs de profissionais a partir de firstId.
+     */
+    private Equipe equipe(int id, int ambulanciaId, Turno turno, int firstId) {
+        Ambulancia ambulancia = new Ambulancia();
+        ambulancia.setId(ambulanciaId);
+        Equipe equipe = new Equipe();
+        equipe.setId(id);
+        equipe.setAmbulancia(ambulancia);
+        equipe.setTurno(turno);
+        equipe.setProfissionais(new ArrayList<>(List.of(
+                profissional(firstId, "MOTORISTA", true),
+                profissional(firstId + 1, "MEDICO", true),
+                profissional(firstId + 2, "ENFERMEIRO", true))));
+        return equipe;
+    }
+
+    private Profissional profissional(int id, String funcao, boolean ativo) {
+        Profissional profissional = new Profissional();
+        profissional.setId(id);
+        profissional.setFuncao(funcao);
+        profissional.setAtivo(ativo);
+        return profissional;
+    }
+}
@@ -0,0 +1,80 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import sosrota.backend.entity.Ocorrencia;
+import sosrota.backend.repository.AtendimentoRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SimulationServiceTest {
+
+    @Mock
+    private AtendimentoRepository atendimentoRepository;
+
+    @Mock
+    private OcorrenciaService ocorrenciaService;
+
+    private ArrivalScheduler arrivalScheduler;
+
+    private SimulationService simulationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        arrivalScheduler = new ArrivalScheduler(atendimentoRepository);
+        simulationService = new SimulationService(arrivalScheduler, ocorrenciaService);
+    }
+
+    @Test
+    void testFailedConfirmationIsRetriedWhileStillDispatched() throws InterruptedException {
+        doThrow(new IllegalStateException("conexão recusada")).when(ocorrenciaService).confirmDeparture(1);
+        when(ocorrenciaService.findById(1)).thenReturn(ocorrencia(1, "DESPACHADA"));
+
+        simulationService.simulateArrival(vencida(1));
+
+        // Volta para a agenda com espera (não vence de imediato)
+        assertEquals(1, arrivalScheduler.size());
+        assertNull(arrivalScheduler.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testFailedConfirmationIsDroppedWhenNoLongerDispatched() throws InterruptedException {
+        doThrow(new IllegalStateException("Ocorrência não encontrada ou não está no status DESPACHADA."))
+                .when(ocorrenciaService).confirmDeparture(2);
+        // Saída confirmada manualmente (ou cancelada) antes da chegada simulada
+        when(ocorrenciaService.findById(2)).thenReturn(ocorrencia(2, "EM_ATENDIMENTO"));
+
+        simulationService.simulateArrival(vencida(2));
+
+        assertEquals(0, arrivalScheduler.size());
+    }
+
+    @Test
+    void testSuccessfulConfirmationIsNotRetried() throws InterruptedException {
+        simulationService.simulateArrival(vencida(3));
+
+        verify(ocorrenciaService).confirmDeparture(3);
+        verify(ocorrenciaService, never()).findById(3);
+        assertEquals(0, arrivalScheduler.size());
+    }
+
+    private ArrivalScheduler.Arrival vencida(int ocorrenciaId) throws InterruptedException {
+        arrivalScheduler.schedule(ocorrenciaId, LocalDateTime.now().minusMinutes(1), 1.0);
+        return arrivalScheduler.poll(1, TimeUnit.SECONDS);
+    }
+
+    private static Ocorrencia ocorrencia(int id, String status) {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(id);
+        ocorrencia.setStatus(status);
+        return ocorrencia;
+    }
+}
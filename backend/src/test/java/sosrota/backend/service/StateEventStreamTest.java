@@ -0,0 +1,199 @@
+package sosrota.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import sosrota.backend.entity.Ambulancia;
+import sosrota.backend.entity.Ocorrencia;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateEventStreamTest {
+
+    private StateEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new StateEventStream();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void testDeliversEventsAndResumesFromLastEventId() throws InterruptedException {
+        RecordingSink primeiro = new RecordingSink();
+        stream.subscribe(primeiro, null);
+
+        stream.ocorrencia(ocorrencia(1), null, "ABERTA", "Ocorrência criada.");
+        stream.ambulancia(ambulancia(5, "EM_ATENDIMENTO"));
+        stream.ocorrencia(ocorrencia(2), "ABERTA", "DESPACHADA", "Despachada.");
+
+        // Entidades distintas: nada é coalescido
+        List<StateEventStream.Event> recebidos = primeiro.take(3);
+        assertEquals(List.of("ocorrencia:1", "ambulancia:5", "ocorrencia:2"), keys(recebidos));
+        assertEquals("DESPACHADA", recebidos.get(2).data.getStatus());
+        assertEquals("ABERTA", recebidos.get(2).data.getStatusAnterior());
+
+        // Reconexão após o primeiro evento: recebe apenas o que perdeu
+        RecordingSink reconectado = new RecordingSink();
+        stream.subscribe(reconectado, recebidos.get(0).id);
+        assertEquals(List.of("ambulancia:5", "ocorrencia:2"), keys(reconectado.take(2)));
+        assertNull(reconectado.events.poll(100, TimeUnit.MILLISECONDS));
+
+        // Já atualizado: nada a reenviar
+        RecordingSink atualizado = new RecordingSink();
+        stream.subscribe(atualizado, recebidos.get(2).id);
+        assertNull(atualizado.events.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(3, stream.getSubscriberCount());
+    }
+
+    @Test
+    void testSlowConsumerReceivesOnlyLatestStatePerEntity() throws InterruptedException {
+        RecordingSink lento = new RecordingSink();
+        lento.blockFirstSend();
+        stream.subscribe(lento, null);
+
+        stream.ocorrencia(ocorrencia(1), null, "ABERTA", null);
+        assertTrue(lento.sending.await(2, TimeUnit.SECONDS));
+        // Enquanto o primeiro envio está bloqueado, a ocorrência 2 muda três vezes
+        stream.ocorrencia(ocorrencia(2), null, "ABERTA", null);
+        stream.ambulancia(ambulancia(7, "EM_ATENDIMENTO"));
+        stream.ocorrencia(ocorrencia(2), "ABERTA", "DESPACHADA", null);
+        stream.ocorrencia(ocorrencia(2), "DESPACHADA", "EM_ATENDIMENTO", null);
+        lento.release.countDown();
+
+        List<StateEventStream.Event> recebidos = lento.take(3);
+        assertEquals(List.of("ocorrencia:1", "ambulancia:7", "ocorrencia:2"), keys(recebidos));
+        assertEquals("EM_ATENDIMENTO", recebidos.get(2).data.getStatus());
+        assertNull(lento.events.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, stream.getCoalescedCount());
+        assertEquals(5, stream.getPublishedCount());
+    }
+
+    @Test
+    void testBufferOverflowAndUnknownResumePointSendReset() throws InterruptedException {
+        ReflectionTestUtils.setField(stream, "clientBuffer", 2);
+        RecordingSink lento = new RecordingSink();
+        lento.blockFirstSend();
+        stream.subscribe(lento, null);
+
+        stream.ocorrencia(ocorrencia(1), null, "ABERTA", null);
+        assertTrue(lento.sending.await(2, TimeUnit.SECONDS));
+        for (int id = 2; id <= 4; id++) {
+            stream.ocorrencia(ocorrencia(id), null, "ABERTA", null);
+        }
+        lento.release.countDown();
+
+        List<StateEventStream.Event> recebidos = lento.take(2);
+        assertEquals(StateEventStream.RESET, recebidos.get(1).type);
+        assertNull(lento.events.poll(100, TimeUnit.MILLISECONDS));
+
+        // O reset leva o ID do último evento descartado: a retomada a partir dele não reenvia nada
+        RecordingSink retomado = new RecordingSink();
+        stream.subscribe(retomado, recebidos.get(1).id);
+        assertNull(retomado.events.poll(100, TimeUnit.MILLISECONDS));
+
+        // ID de outra execução da aplicação
+        RecordingSink antigo = new RecordingSink();
+        stream.subscribe(antigo, "execucao-anterior-3");
+        assertEquals(StateEventStream.RESET, antigo.take(1).get(0).type);
+        assertEquals(2, stream.getResetCount());
+    }
+
+    @Test
+    void testFailedSendUnsubscribesClient() throws InterruptedException {
+        RecordingSink desconectado = new RecordingSink();
+        desconectado.fail = true;
+        stream.subscribe(desconectado, null);
+
+        stream.ambulancia(ambulancia(1, "DISPONIVEL"));
+
+        assertTrue(desconectado.closed.await(2, TimeUnit.SECONDS));
+        assertEquals(0, stream.getSubscriberCount());
+        stream.ambulanciaRemovida(1);
+        assertEquals(2, stream.getPublishedCount());
+    }
+
+    private static List<String> keys(List<StateEventStream.Event> events) {
+        List<String> keys = new ArrayList<>();
+        for (StateEventStream.Event event : events) {
+            keys.add(event.key);
+        }
+        return keys;
+    }
+
+    private static Ocorrencia ocorrencia(int id) {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(id);
+        ocorrencia.setGravidade("ALTA");
+        return ocorrencia;
+    }
+
+    private static Ambulancia ambulancia(int id, String status) {
+        Ambulancia ambulancia = new Ambulancia();
+        ambulancia.setId(id);
+        ambulancia.setPlaca("ABC" + id);
+        ambulancia.setStatus(status);
+        return ambulancia;
+    }
+
+    /**
+     * Cliente de teste: registra os eventos e pode bloquear o primeiro envio (cliente lento).
+     */
+    private static class RecordingSink implements StateEventStream.Sink {
+        final BlockingQueue<StateEventStream.Event> events = new LinkedBlockingQueue<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(0);
+        volatile boolean fail;
+
+        void blockFirstSend() {
+            release = new CountDownLatch(1);
+        }
+
+        @Override
+        public void send(StateEventStream.Event event) throws IOException {
+            if (fail) {
+                throw new IOException("Conexão encerrada pelo cliente");
+            }
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        List<StateEventStream.Event> take(int count) throws InterruptedException {
+            List<StateEventStream.Event> taken = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                StateEventStream.Event event = events.poll(2, TimeUnit.SECONDS);
+                assertNotNull(event, "evento " + (i + 1) + " de " + count + " não recebido");
+                taken.add(event);
+            }
+            return taken;
+        }
+    }
+}
@@ -7,10 +7,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import sosrota.backend.entity.Ambulancia;
 import sosrota.backend.entity.Atendimento;
+import sosrota.backend.entity.Bairro;
 import sosrota.backend.entity.Ocorrencia;
 import sosrota.backend.repository.AmbulanciaRepository;
 import sosrota.backend.repository.AtendimentoRepository;
 import sosrota.backend.repository.EquipeRepository;
+import sosrota.backend.repository.OcorrenciaHistoricoRepository;
 import sosrota.backend.repository.OcorrenciaRepository;
 
 import java.util.Optional;
@@ -29,6 +31,20 @@ class WorkflowTest {
     private AtendimentoRepository atendimentoRepository;
     @Mock
     private EquipeRepository equipeRepository;
+    @Mock
+    private OcorrenciaHistoricoRepository ocorrenciaHistoricoRepository;
+    @Mock
+    private AmbulanceAvailabilityIndex availabilityIndex;
+    @Mock
+    private PendingOccurrenceQueue pendingQueue;
+    @Mock
+    private FleetReadinessProjection readinessProjection;
+    @Mock
+    private ShiftRosterEngine rosterEngine;
+    @Mock
+    private ArrivalScheduler arrivalScheduler;
+    @Mock
+    private StateEventStream stateEventStream;
 
     @InjectMocks
     private OcorrenciaService ocorrenciaService;
@@ -39,6 +55,9 @@ class WorkflowTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Transições condicionais aplicadas (nenhuma transação concorrente)
+        when(ocorrenciaRepository.updateStatusIfCurrent(any(), any(), any())).thenReturn(1);
+        when(ambulanciaRepository.updateStatusIfCurrent(any(), any(), any())).thenReturn(1);
     }
 
     @Test
@@ -53,6 +72,23 @@ class WorkflowTest {
 
         assertEquals("EM_ATENDIMENTO", ocorrencia.getStatus());
         verify(ocorrenciaRepository).save(ocorrencia);
+        verify(arrivalScheduler).cancel(1);
+        verify(stateEventStream).ocorrencia(ocorrencia, "DESPACHADA", "EM_ATENDIMENTO", "Saída da ambulância confirmada.");
+    }
+
+    @Test
+    void testConfirmDepartureLosesToConcurrentChange() {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(1);
+        ocorrencia.setStatus("DESPACHADA");
+
+        when(ocorrenciaRepository.findById(1)).thenReturn(Optional.of(ocorrencia));
+        // Cancelada por outra transação depois da leitura
+        when(ocorrenciaRepository.updateStatusIfCurrent(1, "DESPACHADA", "EM_ATENDIMENTO")).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> ocorrenciaService.confirmDeparture(1));
+        verify(ocorrenciaRepository, never()).save(any());
+        verify(arrivalScheduler, never()).cancel(1);
     }
 
     @Test
@@ -77,6 +113,8 @@ class WorkflowTest {
         assertEquals("CONCLUIDA", ocorrencia.getStatus());
         assertEquals("DISPONIVEL", ambulancia.getStatus());
         verify(ambulanciaRepository).save(ambulancia);
+        verify(availabilityIndex).update(ambulancia);
+        verify(stateEventStream).ambulancia(ambulancia);
     }
 
     @Test
@@ -93,4 +131,88 @@ class WorkflowTest {
 
         assertThrows(IllegalStateException.class, () -> ambulanciaService.save(updateRequest));
     }
+
+    @Test
+    void testUpdateOcorrenciaKeepsDispatchedStatus() {
+        Bairro bairro = new Bairro();
+        bairro.setId(3);
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(1);
+        ocorrencia.setStatus("DESPACHADA");
+        ocorrencia.setGravidade("ALTA");
+        ocorrencia.setBairro(bairro);
+
+        when(ocorrenciaRepository.findById(1)).thenReturn(Optional.of(ocorrencia));
+        when(ocorrenciaRepository.save(ocorrencia)).thenReturn(ocorrencia);
+
+        Ocorrencia dados = new Ocorrencia();
+        dados.setStatus("ABERTA"); // Ignorado: a edição não reabre a ocorrência
+        dados.setGravidade("ALTA");
+        dados.setBairro(bairro);
+        dados.setObservacao("Vítima consciente");
+
+        ocorrenciaService.updateOcorrencia(1, dados);
+
+        assertEquals("DESPACHADA", ocorrencia.getStatus());
+        assertEquals("Vítima consciente", ocorrencia.getObservacao());
+        verify(ocorrenciaRepository).updateStatusIfCurrent(1, "DESPACHADA", "DESPACHADA");
+        verify(stateEventStream).ocorrencia(ocorrencia, "DESPACHADA", "DESPACHADA", "Dados da ocorrência atualizados.");
+        verify(pendingQueue, never()).add(any());
+    }
+
+    @Test
+    void testUpdateOcorrenciaRepositionsOpenOccurrence() {
+        Bairro bairro = new Bairro();
+        bairro.setId(3);
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(1);
+        ocorrencia.setStatus("ABERTA");
+        ocorrencia.setGravidade("BAIXA");
+        ocorrencia.setBairro(bairro);
+
+        when(ocorrenciaRepository.findById(1)).thenReturn(Optional.of(ocorrencia));
+        when(ocorrenciaRepository.save(ocorrencia)).thenReturn(ocorrencia);
+
+        Ocorrencia dados = new Ocorrencia();
+        dados.setGravidade("ALTA");
+        dados.setBairro(bairro);
+
+        ocorrenciaService.updateOcorrencia(1, dados);
+
+        assertEquals("ABERTA", ocorrencia.getStatus());
+        assertEquals("ALTA", ocorrencia.getGravidade());
+        verify(pendingQueue).add(ocorrencia);
+    }
+
+    @Test
+    void testUpdateOcorrenciaRejectsSeverityChangeAfterDispatch() {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(1);
+        ocorrencia.setStatus("EM_ATENDIMENTO");
+        ocorrencia.setGravidade("BAIXA");
+
+        when(ocorrenciaRepository.findById(1)).thenReturn(Optional.of(ocorrencia));
+
+        Ocorrencia dados = new Ocorrencia();
+        dados.setGravidade("ALTA");
+
+        assertThrows(IllegalStateException.class, () -> ocorrenciaService.updateOcorrencia(1, dados));
+        assertEquals("BAIXA", ocorrencia.getGravidade());
+        verify(ocorrenciaRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateOcorrenciaLosesToConcurrentDispatch() {
+        Ocorrencia ocorrencia = new Ocorrencia();
+        ocorrencia.setId(1);
+        ocorrencia.setStatus("ABERTA");
+
+        when(ocorrenciaRepository.findById(1)).thenReturn(Optional.of(ocorrencia));
+        // Despachada por outra transação depois da leitura
+        when(ocorrenciaRepository.updateStatusIfCurrent(1, "ABERTA", "ABERTA")).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> ocorrenciaService.updateOcorrencia(1, new Ocorrencia()));
+        verify(ocorrenciaRepository, never()).save(any());
+        verify(pendingQueue, never()).add(any());
+    }
 }